@@ -0,0 +1,103 @@
+package com.task.benchmark;
+
+import com.task.TaskManagementApplication;
+import com.task.constants.StatusConstants;
+import com.task.dto.TaskDTO;
+import com.task.service.TaskService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application without the web layer against an in-memory H2 database in MySQL mode
+ * and seeds it with generated tasks. Absolute numbers are not comparable with MySQL, the relative
+ * ones (keyset vs offset, batch vs loop, growth with the row count) are what the benchmarks are for.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private static final String[] STATUSES = {StatusConstants.PENDING, StatusConstants.IN_PROGRESS, StatusConstants.COMPLETED};
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    static BenchmarkContext start(String databaseName, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.sql.init.mode=never",
+                "--task.search.index-dir=",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        args.addAll(List.of(extraArgs));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TaskManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        return new BenchmarkContext(context);
+    }
+
+    TaskService taskService() {
+        return context.getBean(TaskService.class);
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return context.getBean(JdbcTemplate.class);
+    }
+
+    Long createProject(String name) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate().update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("INSERT INTO project (name) VALUES (?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, name);
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    /**
+     * Seeds the project with {@code count} tasks through the bulk insert path and returns their ids.
+     * Due dates are spread over two years around today so a share of the tasks is overdue.
+     */
+    List<Long> seedTasks(Long projectId, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int from = 0; from < count; from += 10_000) {
+            ids.addAll(taskService().createTasks(projectId, tasks(from, Math.min(from + 10_000, count))));
+        }
+        return ids;
+    }
+
+    static List<TaskDTO> tasks(int from, int to) {
+        LocalDate today = LocalDate.now();
+        List<TaskDTO> tasks = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            TaskDTO task = new TaskDTO();
+            task.setTitle("Task " + i);
+            task.setDescription("Generated benchmark task number " + i);
+            task.setStatus(STATUSES[i % STATUSES.length]);
+            task.setPriority(i % 5 + 1);
+            task.setDueDate(today.plusDays(i % 730 - 365));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,72 @@
+package com.task.benchmark;
+
+import com.task.dto.TaskDTO;
+import com.task.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk creation through the JDBC batch insert vs the same tasks created one createTask call at a time.
+ * The project is emptied after every iteration so the table size stays the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskBulkInsertBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private BenchmarkContext context;
+    private TaskService taskService;
+    private Long projectId;
+    private List<TaskDTO> tasks;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("bulk" + size);
+        taskService = context.taskService();
+        projectId = context.createProject("Bulk");
+        tasks = BenchmarkContext.tasks(0, size);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteTasks() {
+        context.jdbcTemplate().update("DELETE FROM task WHERE project_id = ?", projectId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> createTasks() {
+        return taskService.createTasks(projectId, tasks);
+    }
+
+    @Benchmark
+    public int createTaskLoop() {
+        for (TaskDTO task : tasks) {
+            taskService.createTask(projectId, task);
+        }
+        return tasks.size();
+    }
+}
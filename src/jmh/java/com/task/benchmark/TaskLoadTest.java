@@ -0,0 +1,114 @@
+package com.task.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load test against a running instance: every client sends the next request as soon as the previous
+ * one returns, and throughput plus latency percentiles are reported for the measurement window.
+ * Used to compare the default platform thread pool with the virtual thread mode, start the application once
+ * without and once with --spring.profiles.active=virtual and run the same load against both:
+ * <pre>
+ * mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.task.benchmark.TaskLoadTest \
+ *     -Dexec.args="http://localhost:9092/api/v1/projects/1 1000 60"
+ * </pre>
+ * Arguments: url, concurrent clients (default 1000), measured seconds (default 60). A warm-up of a tenth of the
+ * measured time runs first and is not counted.
+ */
+public class TaskLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args[0]);
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 60);
+        Duration warmup = duration.dividedBy(10);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<ClientResult>> futures = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            futures.add(executor.submit(() -> runClient(httpClient, request, measureFrom, measureUntil)));
+        }
+
+        long[] latencies = new long[0];
+        long errors = 0;
+        for (Future<ClientResult> future : futures) {
+            ClientResult result = future.get();
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + result.count);
+            System.arraycopy(result.latencies, 0, latencies, offset, result.count);
+            errors += result.errors;
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        Arrays.sort(latencies);
+        System.out.printf("url=%s clients=%d seconds=%d%n", uri, clients, duration.toSeconds());
+        System.out.printf("requests=%d errors=%d throughput=%.1f req/s%n",
+                latencies.length, errors, latencies.length / (double) duration.toSeconds());
+        System.out.printf("p50=%.1f ms p90=%.1f ms p99=%.1f ms max=%.1f ms%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99), percentile(latencies, 100));
+    }
+
+    private static ClientResult runClient(HttpClient httpClient, HttpRequest request, long measureFrom, long measureUntil) {
+        ClientResult result = new ClientResult();
+        long now = System.nanoTime();
+        while (now < measureUntil) {
+            boolean success;
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                success = response.statusCode() < 400;
+            } catch (Exception ex) {
+                success = false;
+            }
+            long end = System.nanoTime();
+            if (now >= measureFrom) {
+                if (success) {
+                    result.add(end - now);
+                } else {
+                    result.errors++;
+                }
+            }
+            now = end;
+        }
+        return result;
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static class ClientResult {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        private void add(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.task.benchmark;
+
+import com.task.constants.TaskStatus;
+import com.task.dto.TaskDTO;
+import com.task.entity.Project;
+import com.task.entity.Task;
+import com.task.util.ConversionUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the MapStruct conversions every service method runs per task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskMappingBenchmark {
+
+    private Task task;
+    private TaskDTO taskDTO;
+
+    @Setup
+    public void setUp() {
+        Project project = new Project();
+        project.setId(1L);
+        project.setName("Benchmark project");
+
+        task = new Task();
+        task.setId(42L);
+        task.setTitle("Write the quarterly report");
+        task.setDescription("Collect the numbers from every team and write the summary");
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        task.setPriority(2);
+        task.setDueDate(LocalDate.now().plusDays(7));
+        task.setProject(project);
+
+        taskDTO = ConversionUtils.convertToTaskDTO(task);
+    }
+
+    @Benchmark
+    public TaskDTO taskToTaskDTO() {
+        return ConversionUtils.convertToTaskDTO(task);
+    }
+
+    @Benchmark
+    public Task taskDTOToTask() {
+        return ConversionUtils.convertToTask(taskDTO);
+    }
+}
@@ -0,0 +1,78 @@
+package com.task.benchmark;
+
+import com.task.constants.StatusConstants;
+import com.task.dto.TaskBatchUpdateResultDTO;
+import com.task.dto.TaskDTO;
+import com.task.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the task.* instrumentation: the same TaskService calls with the metrics on and off.
+ * getTaskById is a cache hit, the cheapest call and so the worst case in relative terms, getTasksByProjectId
+ * maps 1000 tasks and runs one query. Run with {@code -t <cores>} to include contention on the meters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskMetricsBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"true", "false"})
+    private boolean metrics;
+
+    private BenchmarkContext context;
+    private TaskService taskService;
+    private Long projectId;
+    private Long taskId;
+    private List<Long> batchIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("metrics" + metrics,
+                "--task.metrics.enabled=" + metrics,
+                "--management.metrics.enable.task=" + metrics);
+        taskService = context.taskService();
+        projectId = context.createProject("Metrics");
+        List<Long> ids = context.seedTasks(projectId, ROWS);
+        taskId = ids.get(ids.size() / 2);
+        batchIds = ids.subList(0, 100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TaskDTO getTaskById() {
+        return taskService.getTaskById(taskId);
+    }
+
+    @Benchmark
+    public List<TaskDTO> getTasksByProjectId() {
+        return taskService.getTasksByProjectId(projectId);
+    }
+
+    @Benchmark
+    public TaskBatchUpdateResultDTO updateBatchTaskStatus() {
+        return taskService.updateBatchTaskStatus(batchIds, StatusConstants.PENDING);
+    }
+}
@@ -0,0 +1,83 @@
+package com.task.benchmark;
+
+import com.task.dto.TaskDTO;
+import com.task.dto.TaskSliceDTO;
+import com.task.service.TaskService;
+import com.task.util.CursorUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offset vs keyset pagination over 100k tasks sorted by due date, for the first page and a deep page.
+ * Offset paging gets slower with the page number, keyset paging should stay flat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskPaginationBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int PAGE_SIZE = 10;
+    private static final String SORT_BY = "dueDate";
+
+    @Param({"1", "10000"})
+    private int page;
+
+    private BenchmarkContext context;
+    private TaskService taskService;
+    private String cursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("pagination");
+        taskService = context.taskService();
+        context.seedTasks(context.createProject("Pagination"), ROWS);
+        cursor = cursorBefore(page);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TaskDTO> offset() {
+        return taskService.getAllTasks(page - 1, PAGE_SIZE, SORT_BY);
+    }
+
+    @Benchmark
+    public TaskSliceDTO keyset() {
+        return taskService.getTasksAfter(cursor, PAGE_SIZE, SORT_BY);
+    }
+
+    /**
+     * Cursor of the last task of the previous page, as the client would have received it, or null for the first page.
+     */
+    private String cursorBefore(int page) {
+        if (page == 1) {
+            return null;
+        }
+        Map<String, Object> last = context.jdbcTemplate().queryForMap(
+                "SELECT id, due_date FROM task ORDER BY due_date, id LIMIT 1 OFFSET ?", (page - 1) * PAGE_SIZE - 1);
+        Date dueDate = (Date) last.get("due_date");
+        return CursorUtils.encode(SORT_BY, ((Number) last.get("id")).longValue(), dueDate.toLocalDate());
+    }
+}
@@ -0,0 +1,85 @@
+package com.task.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.task.dto.TaskDTO;
+import com.task.util.ConversionUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization of task lists the size of a small page, a large page and a full project listing,
+ * with the ObjectMapper configured the way Spring Boot configures the ones used by the controllers.
+ * Covers every response format (JSON, CBOR, Smile), shape (rows, columnar) and compression (none, gzip),
+ * the response size of every combination is printed before it is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"rows", "columnar"})
+    private String shape;
+
+    @Param({"none", "gzip"})
+    private String compression;
+
+    private ObjectMapper objectMapper;
+    private List<TaskDTO> tasks;
+
+    @Setup
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        objectMapper = switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> builder.build();
+        };
+        tasks = BenchmarkContext.tasks(0, size);
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskDTO task = tasks.get(i);
+            task.setTaskId((long) i);
+            task.setProjectId(1L);
+            task.setProjectName("Benchmark project");
+        }
+        System.out.printf("%n%s %s %s, %d tasks: %d bytes%n", format, shape, compression, size, serializeTasks().length);
+    }
+
+    @Benchmark
+    public byte[] serializeTasks() throws Exception {
+        Object body = shape.equals("columnar") ? ConversionUtils.convertToTaskColumns(tasks) : tasks;
+        if (compression.equals("none")) {
+            return objectMapper.writeValueAsBytes(body);
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            objectMapper.writeValue(gzip, body);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,93 @@
+package com.task.benchmark;
+
+import com.task.constants.StatusConstants;
+import com.task.dto.TaskBatchUpdateResultDTO;
+import com.task.dto.TaskDTO;
+import com.task.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskService read and batch methods against projects seeded with 1k and 100k tasks.
+ * The batch status update toggles the same 1000 tasks, so every invocation updates real rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private BenchmarkContext context;
+    private TaskService taskService;
+    private Long projectId;
+    private Long taskId;
+    private List<Long> batchIds;
+    private boolean completed;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("service" + rows);
+        taskService = context.taskService();
+        projectId = context.createProject("Service");
+        List<Long> ids = context.seedTasks(projectId, rows);
+        taskId = ids.get(ids.size() / 2);
+        batchIds = ids.subList(0, Math.min(BATCH_SIZE, ids.size()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TaskDTO getTaskById() {
+        return taskService.getTaskById(taskId);
+    }
+
+    @Benchmark
+    public List<TaskDTO> getTasksByProjectId() {
+        return taskService.getTasksByProjectId(projectId);
+    }
+
+    @Benchmark
+    public List<TaskDTO> getTasksByProjectIdAndStatus() {
+        return taskService.getTasksByProjectIdAndStatus(projectId, StatusConstants.PENDING);
+    }
+
+    @Benchmark
+    public List<TaskDTO> getCompletedTasksAfterEstimatedTime() {
+        return taskService.getCompletedTasksAfterEstimatedTime(projectId, LocalDate.now());
+    }
+
+    @Benchmark
+    public List<TaskDTO> getOverdueTasks() {
+        return taskService.getOverdueTasks();
+    }
+
+    @Benchmark
+    public TaskBatchUpdateResultDTO updateBatchTaskStatus() {
+        completed = !completed;
+        return taskService.updateBatchTaskStatus(batchIds, completed ? StatusConstants.COMPLETED : StatusConstants.PENDING);
+    }
+}
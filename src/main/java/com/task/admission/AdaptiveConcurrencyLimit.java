@@ -0,0 +1,62 @@
+package com.task.admission;
+
+/**
+ * Bound on the requests in flight that adapts to their latency (AIMD): every request slower than the target
+ * shrinks the limit by {@value #BACKOFF_RATIO}, every faster one grows it by {@code 1/limit}, i.e. by about one
+ * per round of requests at the limit. Without a target the limit stays at its maximum.
+ */
+class AdaptiveConcurrencyLimit {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+
+    private double limit;
+    private int inFlight;
+
+    /**
+     * @param targetLatencyNanos latency above which the limit shrinks, 0 to keep it at {@code maxLimit}.
+     */
+    AdaptiveConcurrencyLimit(int minLimit, int maxLimit, long targetLatencyNanos) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Take a slot if fewer requests than the limit are in flight, to be returned with {@link #release(long)}.
+     */
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    synchronized void release(long latencyNanos) {
+        inFlight--;
+        if (targetLatencyNanos == 0) {
+            return;
+        }
+        if (latencyNanos > targetLatencyNanos) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        } else {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,153 @@
+package com.task.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.task.exception.RateLimitExceededException;
+import com.task.exception.RouteOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admission control of the routes configured in {@link AdmissionProperties}, so that expensive requests
+ * cannot take all request threads and connections from the cheap ones.
+ * A request is refused with {@link RateLimitExceededException} when its client is over the route's rate limit,
+ * then with {@link RouteOverloadedException} when the route is at its concurrency limit. Both happen before
+ * the controller runs and are counted as {@code task.admission.rejections} by route and reason.
+ * The concurrency slot of an asynchronous request, e.g. an export, is held until its async dispatch completes.
+ * Rate limits are per authenticated user, else per remote address. A client header is only used when configured,
+ * since a client choosing its own id would get a fresh bucket with every new id.
+ */
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED = AdmissionInterceptor.class.getName() + ".admitted";
+
+    private final String clientHeader;
+    private final Map<String, Route> routes = new HashMap<>();
+
+    public AdmissionInterceptor(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.clientHeader = properties.getClientHeader() == null || properties.getClientHeader().isBlank()
+                ? null : properties.getClientHeader();
+        properties.getRoutes().forEach((name, route) ->
+                routes.put(name, new Route(name, route, properties.getMaxClients(), meterRegistry)));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Route route = routes.get(handlerMethod.getMethod().getName());
+        if (route == null) {
+            return true;
+        }
+        route.checkRate(clientId(request));
+        if (route.acquire()) {
+            request.setAttribute(ADMITTED, new Admission(route, System.nanoTime()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED) instanceof Admission admission) {
+            request.removeAttribute(ADMITTED);
+            admission.route().limit.release(System.nanoTime() - admission.startNanos());
+        }
+    }
+
+    // Prefixed by its source, so that no client can pass for another one of a different source.
+    private String clientId(HttpServletRequest request) {
+        if (request.getUserPrincipal() != null) {
+            return "user:" + request.getUserPrincipal().getName();
+        }
+        String clientId = clientHeader == null ? null : request.getHeader(clientHeader);
+        return clientId == null || clientId.isBlank() ? "address:" + request.getRemoteAddr() : "header:" + clientId;
+    }
+
+    private record Admission(Route route, long startNanos) {
+    }
+
+    private static class Route {
+
+        private final String name;
+        private final AdaptiveConcurrencyLimit limit;
+        private final Duration retryAfter;
+        private final Cache<String, TokenBucket> buckets;
+        private final double rate;
+        private final int burst;
+        private final Counter concurrencyRejections;
+        private final Counter rateRejections;
+
+        Route(String name, AdmissionProperties.Route config, long maxClients, MeterRegistry meterRegistry) {
+            this.name = name;
+            Duration targetLatency = config.getTargetLatency();
+            this.limit = config.getMaxConcurrency() == null ? null
+                    : new AdaptiveConcurrencyLimit(Math.min(config.getMinConcurrency(), config.getMaxConcurrency()),
+                            config.getMaxConcurrency(), targetLatency == null ? 0 : targetLatency.toNanos());
+            this.retryAfter = config.getRetryAfter();
+            this.rate = config.getRate() == null ? 0 : config.getRate();
+            this.burst = config.getBurst() != null ? config.getBurst() : (int) Math.max(1, Math.ceil(rate));
+            // Idle clients are dropped once their bucket would be full again, they come back with a full bucket.
+            this.buckets = rate == 0 ? null : Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(Duration.ofNanos((long) Math.ceil(burst / rate * 1e9)))
+                    .build();
+            this.concurrencyRejections = rejections(meterRegistry, "concurrency");
+            this.rateRejections = rejections(meterRegistry, "rate");
+            if (limit != null) {
+                Gauge.builder("task.admission.limit", limit, AdaptiveConcurrencyLimit::limit)
+                        .description("Concurrency limit of the route")
+                        .tag("route", name)
+                        .register(meterRegistry);
+                Gauge.builder("task.admission.in.flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                        .description("Admitted requests of the route in flight")
+                        .tag("route", name)
+                        .register(meterRegistry);
+            }
+        }
+
+        void checkRate(String clientId) {
+            if (buckets == null) {
+                return;
+            }
+            long now = System.nanoTime();
+            long waitNanos = buckets.get(clientId, id -> new TokenBucket(rate, burst, now)).tryAcquire(now);
+            if (waitNanos > 0) {
+                rateRejections.increment();
+                throw new RateLimitExceededException("Too many " + name + " requests, rate limit is " + rate + "/s",
+                        Duration.ofNanos(waitNanos));
+            }
+        }
+
+        /**
+         * @return whether a concurrency slot was taken, false if the route has no concurrency limit.
+         */
+        boolean acquire() {
+            if (limit == null) {
+                return false;
+            }
+            if (!limit.tryAcquire()) {
+                concurrencyRejections.increment();
+                throw new RouteOverloadedException("Too many " + name + " requests in progress", retryAfter);
+            }
+            return true;
+        }
+
+        private Counter rejections(MeterRegistry meterRegistry, String reason) {
+            return Counter.builder("task.admission.rejections")
+                    .description("Requests refused by admission control")
+                    .tags("route", name, "reason", reason)
+                    .register(meterRegistry);
+        }
+    }
+}
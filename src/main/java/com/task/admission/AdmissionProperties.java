@@ -0,0 +1,50 @@
+package com.task.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admission limits per route, keyed by the name of the TaskController method, e.g. {@code updateBatchStatus}.
+ * Routes without an entry are not limited.
+ */
+@Data
+@ConfigurationProperties("task.admission")
+public class AdmissionProperties {
+
+    /**
+     * Request header identifying unauthenticated clients for the rate limits instead of their remote address,
+     * not set by default. Only for a header set by a trusted proxy that drops the one sent by the client.
+     */
+    private String clientHeader;
+
+    /** Number of clients whose rate limit state is kept per route, the least recently seen are dropped first. */
+    private long maxClients = 100_000;
+
+    private Map<String, Route> routes = new HashMap<>();
+
+    @Data
+    public static class Route {
+
+        /** Requests of the route in flight on this instance, unbounded when not set. */
+        private Integer maxConcurrency;
+
+        /** Lower bound of the adaptive concurrency limit. */
+        private int minConcurrency = 1;
+
+        /** Latency above which the concurrency limit shrinks, the limit is fixed at maxConcurrency when not set. */
+        private Duration targetLatency;
+
+        /** Requests per second per client, unlimited when not set. */
+        private Double rate;
+
+        /** Requests a client may send at once after being idle, defaults to one second's worth of rate. */
+        private Integer burst;
+
+        /** Retry-After of requests refused by the concurrency limit. */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,168 @@
+package com.task.cache;
+
+import com.task.constants.TaskStatus;
+import com.task.repository.TaskDueDate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.task.util.TransactionUtils.afterCommit;
+
+/**
+ * In-memory index of the ids of every task that has a due date and is not completed, ordered by (due date, id).
+ * The overdue tasks are the head of the index up to today, so tasks become overdue at midnight without any update.
+ * The index is filled by {@link #synchronize(Supplier)} and then kept current by the write paths through
+ * {@link #put(Long, LocalDate, TaskStatus)} and {@link #remove(Collection)}. Until the first synchronization
+ * completes {@link #isReady()} is false and readers must query the database instead.
+ */
+@Component
+public class OverdueTaskIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::dueDate).thenComparing(Entry::id);
+
+    private final NavigableSet<Entry> byDueDate = new ConcurrentSkipListSet<>(ORDER);
+
+    private final ConcurrentMap<Long, LocalDate> dueDates = new ConcurrentHashMap<>();
+
+    /*
+     * Ids written while a synchronization is running. Their database snapshot may predate the write,
+     * so the synchronization leaves them as the write path set them.
+     */
+    private final Set<Long> changedDuringSync = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private volatile boolean synchronizing;
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return dueDates.size();
+    }
+
+    /**
+     * Ids of the tasks due before {@code today}, oldest due date first.
+     */
+    public List<Long> overdueIds(LocalDate today, int offset, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 1000));
+        Iterator<Entry> overdue = byDueDate.headSet(new Entry(today, Long.MIN_VALUE)).iterator();
+        for (int skipped = 0; skipped < offset && overdue.hasNext(); skipped++) {
+            overdue.next();
+        }
+        while (ids.size() < limit && overdue.hasNext()) {
+            ids.add(overdue.next().id());
+        }
+        return ids;
+    }
+
+    /**
+     * Index the task, or drop it when it is completed or has no due date.
+     * Inside a transaction the change is applied after commit.
+     */
+    public void put(Long taskId, LocalDate dueDate, TaskStatus status) {
+        LocalDate indexed = status == TaskStatus.COMPLETED ? null : dueDate;
+        afterCommit(() -> apply(taskId, indexed));
+    }
+
+    /**
+     * Drop the tasks from the index. Inside a transaction the change is applied after commit.
+     */
+    public void remove(Collection<Long> taskIds) {
+        afterCommit(() -> taskIds.forEach(taskId -> apply(taskId, null)));
+    }
+
+    /**
+     * Bring the index in line with the database and mark it ready.
+     * Builds the index on the first call, later calls are a consistency check that repairs what drifted,
+     * e.g. rows changed without going through TaskService.
+     * @param openTasks Opens a stream of the id and due date of every task that has a due date and is not completed,
+     *                  called once the writes racing with the synchronization are tracked.
+     * @return number of index entries that had to be added, moved or removed.
+     */
+    public int synchronize(Supplier<Stream<TaskDueDate>> openTasks) {
+        syncLock.lock();
+        try {
+            changedDuringSync.clear();
+            synchronizing = true;
+            Map<Long, LocalDate> expected = new HashMap<>();
+            try (Stream<TaskDueDate> tasks = openTasks.get()) {
+                tasks.forEach(task -> expected.put(task.id(), task.dueDate()));
+            }
+
+            AtomicInteger repaired = new AtomicInteger();
+            expected.forEach((taskId, dueDate) -> {
+                if (!dueDate.equals(dueDates.get(taskId)) && repair(taskId, dueDate)) {
+                    repaired.incrementAndGet();
+                }
+            });
+            for (Long taskId : dueDates.keySet()) {
+                if (!expected.containsKey(taskId) && repair(taskId, null)) {
+                    repaired.incrementAndGet();
+                }
+            }
+            ready = true;
+            return repaired.get();
+        } finally {
+            synchronizing = false;
+            syncLock.unlock();
+        }
+    }
+
+    private void apply(Long taskId, LocalDate dueDate) {
+        // Recorded before the update, see repair.
+        if (synchronizing) {
+            changedDuringSync.add(taskId);
+        }
+        dueDates.compute(taskId, (id, previous) -> move(id, previous, dueDate));
+    }
+
+    /*
+     * Runs in the same compute as the write path, so a write either happened before and is seen in
+     * changedDuringSync, or happens after and overwrites the repair.
+     */
+    private boolean repair(Long taskId, LocalDate dueDate) {
+        boolean[] repaired = new boolean[1];
+        dueDates.compute(taskId, (id, previous) -> {
+            if (changedDuringSync.contains(id) || Objects.equals(previous, dueDate)) {
+                return previous;
+            }
+            repaired[0] = true;
+            return move(id, previous, dueDate);
+        });
+        return repaired[0];
+    }
+
+    private LocalDate move(Long taskId, LocalDate previous, LocalDate dueDate) {
+        if (previous != null) {
+            byDueDate.remove(new Entry(previous, taskId));
+        }
+        if (dueDate != null) {
+            byDueDate.add(new Entry(dueDate, taskId));
+        }
+        return dueDate;
+    }
+
+    private record Entry(LocalDate dueDate, Long id) {
+    }
+}
@@ -0,0 +1,199 @@
+package com.task.cache;
+
+import com.task.constants.TaskStatus;
+import com.task.dto.ProjectStatsDTO;
+import com.task.repository.TaskGroupCount;
+import com.task.repository.TaskSummary;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.task.util.TransactionUtils.afterCommit;
+
+/**
+ * In-memory task counters per project: tasks per status, sum and count of priorities and open tasks per due date.
+ * A project's counters are loaded from the database the first time its stats are read, after that they are
+ * maintained from the write paths through {@link #add(TaskSummary)}, {@link #remove(TaskSummary)} and
+ * {@link #change(TaskSummary, TaskSummary)}, so reading them does not touch the task table.
+ * {@link #reconcile(Function)} reloads every loaded project and repairs the ones that drifted.
+ */
+@Component
+public class ProjectTaskCounters {
+
+    private final ConcurrentMap<Long, Counters> projects = new ConcurrentHashMap<>();
+
+    /*
+     * Number of changes applied per project, loaded or not. A load or a reconcile only installs its result if no
+     * change was applied while it read the database, the next read or reconcile retries otherwise.
+     * Counters are only read and modified inside compute calls on their project, which serializes them.
+     */
+    private final ConcurrentMap<Long, Long> changeCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Stats of the project, loading its counters with {@code loader} on first use.
+     * @param loader Task counts of a project grouped by status and due date.
+     */
+    public ProjectStatsDTO stats(Long projectId, LocalDate today, Function<Long, List<TaskGroupCount>> loader) {
+        ProjectStatsDTO[] stats = new ProjectStatsDTO[1];
+        Counters loaded = projects.computeIfPresent(projectId, (id, counters) -> {
+            stats[0] = counters.toStats(id, today);
+            return counters;
+        });
+        if (loaded != null) {
+            return stats[0];
+        }
+        long changesBeforeLoad = changeCount(projectId);
+        Counters fresh = Counters.from(loader.apply(projectId));
+        projects.compute(projectId, (id, counters) -> {
+            if (counters == null && changeCount(id) == changesBeforeLoad) {
+                counters = fresh;
+            }
+            stats[0] = (counters == null ? fresh : counters).toStats(id, today);
+            return counters;
+        });
+        return stats[0];
+    }
+
+    /**
+     * Count a created task. Inside a transaction the change is applied after commit.
+     */
+    public void add(TaskSummary task) {
+        change(null, task);
+    }
+
+    /**
+     * Uncount a deleted task. Inside a transaction the change is applied after commit.
+     */
+    public void remove(TaskSummary task) {
+        change(task, null);
+    }
+
+    /**
+     * Move a task from its previous to its new state, either may be null.
+     * Inside a transaction the change is applied after commit.
+     */
+    public void change(TaskSummary before, TaskSummary after) {
+        afterCommit(() -> {
+            if (before != null) {
+                apply(before, -1);
+            }
+            if (after != null) {
+                apply(after, 1);
+            }
+        });
+    }
+
+    /**
+     * Reload the counters of every loaded project and replace the ones that drifted.
+     * @return number of projects whose counters were repaired.
+     */
+    public int reconcile(Function<Long, List<TaskGroupCount>> loader) {
+        AtomicInteger repaired = new AtomicInteger();
+        for (Long projectId : projects.keySet()) {
+            long changesBeforeLoad = changeCount(projectId);
+            Counters fresh = Counters.from(loader.apply(projectId));
+            projects.computeIfPresent(projectId, (id, counters) -> {
+                if (changeCount(id) != changesBeforeLoad || counters.sameCounts(fresh)) {
+                    return counters;
+                }
+                repaired.incrementAndGet();
+                return fresh;
+            });
+        }
+        return repaired.get();
+    }
+
+    private void apply(TaskSummary task, int sign) {
+        if (task.projectId() == null) {
+            return;
+        }
+        changeCounts.merge(task.projectId(), 1L, Long::sum);
+        projects.computeIfPresent(task.projectId(), (id, counters) -> {
+            counters.add(task.status(), task.priority(), task.dueDate(), sign);
+            return counters;
+        });
+    }
+
+    private long changeCount(Long projectId) {
+        return changeCounts.getOrDefault(projectId, 0L);
+    }
+
+    private static final class Counters {
+        private long total;
+        private final long[] byStatus = new long[TaskStatus.values().length];
+        private long prioritySum;
+        private long priorityCount;
+        // Tasks that are not completed, by due date.
+        private final NavigableMap<LocalDate, Long> openByDueDate = new TreeMap<>();
+        // Open tasks due before overdueAsOf, recomputed when the date changes.
+        private LocalDate overdueAsOf;
+        private long overdue;
+
+        static Counters from(List<TaskGroupCount> groups) {
+            Counters counters = new Counters();
+            for (TaskGroupCount group : groups) {
+                counters.total += group.count();
+                if (group.status() != null) {
+                    counters.byStatus[group.status().ordinal()] += group.count();
+                }
+                counters.prioritySum += group.prioritySum() == null ? 0 : group.prioritySum();
+                counters.priorityCount += group.priorityCount();
+                if (group.status() != TaskStatus.COMPLETED && group.dueDate() != null) {
+                    counters.openByDueDate.merge(group.dueDate(), group.count(), Long::sum);
+                }
+            }
+            return counters;
+        }
+
+        void add(TaskStatus status, Integer priority, LocalDate dueDate, int sign) {
+            total += sign;
+            if (status != null) {
+                byStatus[status.ordinal()] += sign;
+            }
+            if (priority != null) {
+                prioritySum += (long) sign * priority;
+                priorityCount += sign;
+            }
+            if (status != TaskStatus.COMPLETED && dueDate != null) {
+                long count = openByDueDate.merge(dueDate, (long) sign, Long::sum);
+                if (count == 0) {
+                    openByDueDate.remove(dueDate);
+                }
+                if (overdueAsOf != null && dueDate.isBefore(overdueAsOf)) {
+                    overdue += sign;
+                }
+            }
+        }
+
+        ProjectStatsDTO toStats(Long projectId, LocalDate today) {
+            if (!today.equals(overdueAsOf)) {
+                overdue = openByDueDate.headMap(today).values().stream().mapToLong(Long::longValue).sum();
+                overdueAsOf = today;
+            }
+            Map<String, Long> statusCounts = new LinkedHashMap<>();
+            for (TaskStatus status : TaskStatus.values()) {
+                statusCounts.put(status.getLabel(), byStatus[status.ordinal()]);
+            }
+            Double averagePriority = priorityCount == 0 ? null : (double) prioritySum / priorityCount;
+            return new ProjectStatsDTO(projectId, total, statusCounts, overdue, averagePriority);
+        }
+
+        boolean sameCounts(Counters other) {
+            return total == other.total
+                    && Arrays.equals(byStatus, other.byStatus)
+                    && prioritySum == other.prioritySum
+                    && priorityCount == other.priorityCount
+                    && openByDueDate.equals(other.openByDueDate);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.task.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.task.dto.TaskDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process cache of {@link TaskDTO}s keyed by task id, bounded by size and time to live.
+ * Cached DTOs are shared between callers and must not be modified.
+ * Hit, miss and eviction counts are published as the {@code cache.*} meters with {@code cache=tasks}.
+ */
+@Component
+public class TaskCache {
+
+    private final Cache<Long, TaskDTO> cache;
+
+    /*
+     * Bumped on every eviction. A load that started before an eviction of the same task may have read the old row,
+     * so its result is returned to the caller but not cached.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /*
+     * Number of the latest eviction of each recently evicted task, bounded like the cache. A dropped entry raises
+     * forgottenEvictions, and every load older than it is treated as racing with an eviction.
+     */
+    private final Cache<Long, Long> evictedAt;
+
+    private final AtomicLong forgottenEvictions = new AtomicLong();
+
+    public TaskCache(@Value("${task.cache.max-size:10000}") long maxSize,
+                     @Value("${task.cache.ttl:10m}") Duration ttl,
+                     ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.evictedAt = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .evictionListener((Long taskId, Long eviction, RemovalCause cause) ->
+                        forgottenEvictions.accumulateAndGet(eviction, Math::max))
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "tasks"));
+    }
+
+    /**
+     * Return the cached task, or load it and cache the result.
+     * The loader runs outside of any cache lock, concurrent misses on the same id may both load it.
+     */
+    public TaskDTO get(Long taskId, Function<Long, TaskDTO> loader) {
+        TaskDTO cached = cache.getIfPresent(taskId);
+        if (cached != null) {
+            return cached;
+        }
+        long evictionsBeforeLoad = evictions.get();
+        TaskDTO loaded = loader.apply(taskId);
+        if (loaded != null) {
+            put(taskId, loaded, evictionsBeforeLoad);
+        }
+        return loaded;
+    }
+
+    /**
+     * Return the cached tasks among {@code taskIds} and load all the others with a single call of the loader,
+     * caching its results like {@link #get(Long, Function)}. Ids the loader does not return are left out.
+     */
+    public Map<Long, TaskDTO> getAll(Collection<Long> taskIds, Function<List<Long>, Map<Long, TaskDTO>> loader) {
+        Map<Long, TaskDTO> tasks = new HashMap<>(cache.getAllPresent(taskIds));
+        List<Long> missing = taskIds.stream()
+                .filter(taskId -> !tasks.containsKey(taskId))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            long evictionsBeforeLoad = evictions.get();
+            loader.apply(missing).forEach((taskId, loaded) -> {
+                tasks.put(taskId, loaded);
+                put(taskId, loaded, evictionsBeforeLoad);
+            });
+        }
+        return tasks;
+    }
+
+    /**
+     * Number of evictions so far, see {@link #put(Long, TaskDTO, long)}.
+     */
+    public long evictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Cache a task the caller has just read or written, unless the task was evicted since {@code evictionsBefore}
+     * was taken, in which case a concurrent write may be newer than this task. Evictions of other tasks do not
+     * matter. The check runs in the same compute on the task's entry that an eviction invalidates after recording
+     * itself, so an eviction racing with the put cannot be missed.
+     * A cached task with a higher version is kept, concurrent writers may put their results out of order.
+     */
+    public void put(Long taskId, TaskDTO task, long evictionsBefore) {
+        cache.asMap().compute(taskId, (id, cached) -> {
+            if (isEvictedSince(id, evictionsBefore)) {
+                return cached;
+            }
+            return cached != null && isOlder(task, cached) ? cached : task;
+        });
+    }
+
+    public void evict(Long taskId) {
+        evict(List.of(taskId));
+    }
+
+    /**
+     * Evict the tasks now and, when called inside a transaction, once more after it commits,
+     * so a read that repopulated the cache before the commit does not keep the old state.
+     */
+    public void evict(Collection<Long> taskIds) {
+        invalidate(taskIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(taskIds);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static boolean isOlder(TaskDTO task, TaskDTO other) {
+        return task.getVersion() != null && other.getVersion() != null && task.getVersion() < other.getVersion();
+    }
+
+    private boolean isEvictedSince(Long taskId, long evictionsBefore) {
+        Long eviction = evictedAt.getIfPresent(taskId);
+        return (eviction != null && eviction > evictionsBefore) || forgottenEvictions.get() > evictionsBefore;
+    }
+
+    private void invalidate(Collection<Long> taskIds) {
+        for (Long taskId : taskIds) {
+            evictedAt.put(taskId, evictions.incrementAndGet());
+        }
+        cache.invalidateAll(taskIds);
+    }
+}
@@ -0,0 +1,12 @@
+package com.task.constants;
+
+/**
+ * Lifecycle of an asynchronous batch status update job.
+ * QUEUED and RUNNING jobs are pending, they are resumed when the application restarts.
+ */
+public enum JobState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
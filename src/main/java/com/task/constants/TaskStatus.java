@@ -0,0 +1,90 @@
+package com.task.constants;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lifecycle status of a task.
+ * Stored as its TINYINT {@link #getCode() code} and exposed in JSON as its {@link #getLabel() label}.
+ * Codes are persisted, existing ones must never be renumbered.
+ */
+public enum TaskStatus {
+    PENDING(0, StatusConstants.PENDING),
+    IN_PROGRESS(1, StatusConstants.IN_PROGRESS),
+    COMPLETED(2, StatusConstants.COMPLETED);
+
+    /*
+     * Allowed status changes of an update. A status without transitions is final,
+     * a task in a final status can no longer be updated or deleted.
+     */
+    private static final Map<TaskStatus, Set<TaskStatus>> TRANSITIONS = new EnumMap<>(TaskStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(PENDING, IN_PROGRESS, COMPLETED));
+        TRANSITIONS.put(IN_PROGRESS, EnumSet.of(PENDING, IN_PROGRESS, COMPLETED));
+        TRANSITIONS.put(COMPLETED, EnumSet.noneOf(TaskStatus.class));
+    }
+
+    private final int code;
+    private final String label;
+
+    TaskStatus(int code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isFinal() {
+        return TRANSITIONS.get(this).isEmpty();
+    }
+
+    public boolean canTransitionTo(TaskStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    /**
+     * Statuses a task may be in to be updated to {@code target}.
+     */
+    public static Set<TaskStatus> sourcesOf(TaskStatus target) {
+        Set<TaskStatus> sources = EnumSet.noneOf(TaskStatus.class);
+        TRANSITIONS.forEach((source, targets) -> {
+            if (targets.contains(target)) {
+                sources.add(source);
+            }
+        });
+        return sources;
+    }
+
+    /**
+     * @throws IllegalArgumentException if no status has this code.
+     */
+    public static TaskStatus fromCode(int code) {
+        for (TaskStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task status code: " + code);
+    }
+
+    /**
+     * @throws IllegalArgumentException if no status has this label.
+     */
+    public static TaskStatus fromLabel(String label) {
+        for (TaskStatus status : values()) {
+            if (status.label.equals(label)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task status: " + label);
+    }
+}
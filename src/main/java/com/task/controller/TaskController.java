@@ -1,49 +1,126 @@
 package com.task.controller;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.constants.ExportFormat;
+import com.task.dto.ProjectStatsDTO;
+import com.task.dto.TaskBatchGetDTO;
+import com.task.dto.TaskBatchGetResultDTO;
+import com.task.dto.StatusUpdateJobDTO;
 import com.task.dto.TaskBatchUpdateDTO;
+import com.task.dto.TaskBatchUpdateResultDTO;
 import com.task.dto.TaskDTO;
+import com.task.dto.TaskPatchDTO;
+import com.task.dto.TaskSliceDTO;
+import com.task.exception.InvalidRequestException;
+import com.task.service.StatusUpdateJobService;
 import com.task.service.TaskService;
+import com.task.util.ETagUtils;
+import com.task.util.TaskExportWriter;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/v1/projects")
 @Validated
 public class TaskController {
 
+    static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private StatusUpdateJobService statusUpdateJobService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Retrieve a task by its ID.
      *
      * @param taskId The ID of the task to retrieve.
-     * @return ResponseEntity containing the retrieved task.
+     * @return ResponseEntity containing the retrieved task, its version is returned as the ETag.
      */
     @GetMapping("/tasks/{id}")
     public ResponseEntity<TaskDTO> getTaskById(@PathVariable("id") Long taskId) {
         TaskDTO task = taskService.getTaskById(taskId);
-        return new ResponseEntity<>(task, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(ETagUtils.toETag(task.getVersion())).body(task);
+    }
+
+    /**
+     * Retrieve many tasks by their IDs in one request, e.g. {@code tasks:batchGet?ids=3,1,2}.
+     * Missing tasks are reported in {@code notFoundIds} instead of failing the request.
+     *
+     * @param taskIds IDs of the tasks, at most 5000 per request.
+     * @return ResponseEntity containing the tasks in the order of the IDs and the IDs that were not found.
+     */
+    @GetMapping("/tasks:batchGet")
+    public ResponseEntity<TaskBatchGetResultDTO> getTasksByIds(
+            @RequestParam("ids") @NotEmpty @Size(max = 5000) List<@NotNull Long> taskIds) {
+        return new ResponseEntity<>(taskService.getTasksByIds(taskIds), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieve many tasks by their IDs, for lists of IDs too long for a query string.
+     * For more information, see {@link #getTasksByIds(List)}.
+     *
+     * @param batchGetRequest IDs of the tasks, at most 5000 per request.
+     * @return ResponseEntity containing the tasks in the order of the IDs and the IDs that were not found.
+     */
+    @PostMapping("/tasks:batchGet")
+    public ResponseEntity<TaskBatchGetResultDTO> getTasksByIds(@Valid @RequestBody TaskBatchGetDTO batchGetRequest) {
+        return new ResponseEntity<>(taskService.getTasksByIds(batchGetRequest.getTaskIds()), HttpStatus.OK);
     }
 
     /**
      * Update a task by its ID.
      *
      * @param taskId The ID of the task to update.
+     * @param ifMatch ETag of the task the update is based on, the update fails with 412 if the task changed since.
+     *                Without it the update applies to the current task.
      * @param updatedTask The updated task data.
-     * @return ResponseEntity containing the updated task.
+     * @return ResponseEntity containing the updated task, its new version is returned as the ETag.
      */
     @PutMapping("/tasks/{id}")
-    public ResponseEntity<TaskDTO> updateTask(@PathVariable("id") Long taskId, @Valid @RequestBody TaskDTO updatedTask) {
-        TaskDTO updatedTaskResult = taskService.updateTask(taskId, updatedTask);
-        return new ResponseEntity<>(updatedTaskResult, HttpStatus.OK);
+    public ResponseEntity<TaskDTO> updateTask(@PathVariable("id") Long taskId,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @Valid @RequestBody TaskDTO updatedTask) {
+        TaskDTO updatedTaskResult = taskService.updateTask(taskId, updatedTask, ETagUtils.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETagUtils.toETag(updatedTaskResult.getVersion())).body(updatedTaskResult);
+    }
+
+    /**
+     * Partially update a task with a JSON Merge Patch (RFC 7396): only the fields in the body are changed
+     * and validated, a field set to null is cleared. Only description and dueDate can be cleared.
+     *
+     * @param taskId The ID of the task to update.
+     * @param ifMatch ETag of the task the patch is based on, the patch fails with 412 if the task changed since.
+     *                Without it the patch applies to the current task.
+     * @param patch The fields to change.
+     * @return ResponseEntity containing the updated task, its new version is returned as the ETag.
+     */
+    @PatchMapping(value = "/tasks/{id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<TaskDTO> patchTask(@PathVariable("id") Long taskId,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @Valid @RequestBody TaskPatchDTO patch) {
+        TaskDTO patchedTask = taskService.patchTask(taskId, patch, ETagUtils.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETagUtils.toETag(patchedTask.getVersion())).body(patchedTask);
     }
 
     /**
@@ -76,25 +153,108 @@ public class TaskController {
     }
 
     /**
-     * To get the tasks which are overdue
+     * Retrieve a page of tasks in keyset (cursor) mode, selected with {@code mode=keyset}.
+     * Unlike offset paging, deep pages cost the same as the first one and no total count is computed.
+     *
+     * @param after Cursor returned as {@code nextCursor} by the previous page, omitted for the first page.
+     * @param size Number of tasks per page.
+     * @param sortBy Sorting criteria, one of "dueDate", "priority" or "status" (By default "dueDate").
+     * @return ResponseEntity containing the tasks and the cursor of the next page.
+     */
+    @GetMapping(params = "mode=keyset")
+    public ResponseEntity<TaskSliceDTO> getTasksAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "dueDate") String sortBy) {
+        TaskSliceDTO slice = taskService.getTasksAfter(after, size, sortBy);
+        return new ResponseEntity<>(slice, HttpStatus.OK);
+    }
+
+    /**
+     * Full-text search over task titles and descriptions, best match first.
+     *
+     * @param q Search text, all words must match. Supports "quoted phrases", prefix* and -excluded words.
+     * @param projectId Only tasks of this project, optional.
+     * @param status Only tasks with this status, optional.
+     * @param dueFrom Only tasks due on or after this date (yyyy-MM-dd), optional.
+     * @param dueTo Only tasks due on or before this date (yyyy-MM-dd), optional.
+     * @param after Cursor returned as {@code nextCursor} by the previous page, omitted for the first page.
+     * @param size Number of tasks per page.
+     * @return ResponseEntity containing the matching tasks and the cursor of the next page.
+     */
+    @GetMapping("/tasks:search")
+    public ResponseEntity<TaskSliceDTO> searchTasks(
+            @RequestParam String q,
+            @RequestParam(required = false) Long projectId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate dueTo,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        TaskSliceDTO slice = taskService.searchTasks(q, projectId, status, dueFrom, dueTo, after, size);
+        return new ResponseEntity<>(slice, HttpStatus.OK);
+    }
+
+    /**
+     * To get the tasks which are overdue, oldest due date first
+     * @param page Page number (default is 0), only used together with size.
+     * @param size Number of tasks per page, all overdue tasks are returned when omitted.
      * @return ResponseEntity containing the list of tasks.
      */
     @GetMapping("/over-due")
-    public ResponseEntity<List<TaskDTO>> getOverDueTasks() {
-        List<TaskDTO> tasks = taskService.getOverdueTasks();
+    public ResponseEntity<List<TaskDTO>> getOverDueTasks(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        List<TaskDTO> tasks = size == null ? taskService.getOverdueTasks() : taskService.getOverdueTasks(page, size);
         return new ResponseEntity<>(tasks, HttpStatus.OK);
     }
 
     /**
      * Update the status of multiple tasks in a batch.
      * @param batchUpdateRequest DTO containing task IDs and the new status.
-     * @return ResponseEntity with a success message.
+     * @param atomic When true (default) the whole batch is committed in one transaction,
+     *               when false every chunk of ids is committed on its own.
+     *               Batches too large to wait for are submitted with async=true instead,
+     *               see {@link #submitBatchStatusUpdate(TaskBatchUpdateDTO)}.
+     * @return ResponseEntity containing the per-chunk update counts and the ids that were not found.
      */
     @PatchMapping("/batch-status-updates")
-    public ResponseEntity<String> updateBatchStatus(
-            @RequestBody TaskBatchUpdateDTO batchUpdateRequest) {
-        taskService.updateBatchTaskStatus(batchUpdateRequest.getTaskIds(), batchUpdateRequest.getNewStatus());
-        return new ResponseEntity<>("Batch update successful", HttpStatus.OK);
+    public ResponseEntity<TaskBatchUpdateResultDTO> updateBatchStatus(
+            @Valid @RequestBody TaskBatchUpdateDTO batchUpdateRequest,
+            @RequestParam(defaultValue = "true") boolean atomic) {
+        TaskBatchUpdateResultDTO result = atomic
+                ? taskService.updateBatchTaskStatus(batchUpdateRequest.getTaskIds(), batchUpdateRequest.getNewStatus())
+                : taskService.bulkUpdateTaskStatus(batchUpdateRequest.getTaskIds(), batchUpdateRequest.getNewStatus());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Accept a batch status update and apply it in the background.
+     * The batch is journaled before the response is sent and applied in chunks, it survives a restart.
+     * Ids that are still pending in an earlier batch only get the status requested last.
+     *
+     * @param batchUpdateRequest List of task IDs and the new status.
+     * @return ResponseEntity with status 202, the queued job and its location, see {@link #getJob(Long)}.
+     */
+    @PatchMapping(value = "/batch-status-updates", params = "async=true")
+    public ResponseEntity<StatusUpdateJobDTO> submitBatchStatusUpdate(@Valid @RequestBody TaskBatchUpdateDTO batchUpdateRequest) {
+        StatusUpdateJobDTO job = statusUpdateJobService.submit(batchUpdateRequest.getTaskIds(), batchUpdateRequest.getNewStatus());
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/v1/projects/jobs/{id}")
+                .buildAndExpand(job.getJobId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    /**
+     * Retrieve the progress of an asynchronous batch status update.
+     *
+     * @param jobId ID of the job.
+     * @return ResponseEntity containing the progress, failures and throughput of the job.
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<StatusUpdateJobDTO> getJob(@PathVariable("id") Long jobId) {
+        return new ResponseEntity<>(statusUpdateJobService.getJob(jobId), HttpStatus.OK);
     }
 
     /**
@@ -110,6 +270,21 @@ public class TaskController {
         return new ResponseEntity<>(createdTask, HttpStatus.CREATED);
     }
 
+    /**
+     * Create many tasks for a specific project in one call.
+     * Every task is validated like in {@link #createTask(Long, TaskDTO)}, one invalid task rejects the whole request.
+     *
+     * @param projectId ID of the project.
+     * @param tasks Task data, at most 50000 tasks per request.
+     * @return ResponseEntity containing the IDs of the created tasks, in request order.
+     */
+    @PostMapping("/{id}/tasks:bulk")
+    public ResponseEntity<List<Long>> createTasks(@PathVariable("id") Long projectId,
+                                                  @RequestBody @NotEmpty @Size(max = 50000) List<@Valid TaskDTO> tasks) {
+        List<Long> taskIds = taskService.createTasks(projectId, tasks);
+        return new ResponseEntity<>(taskIds, HttpStatus.CREATED);
+    }
+
     /**
      * Retrieve tasks for a specific project based on status.
      *
@@ -129,6 +304,46 @@ public class TaskController {
         return new ResponseEntity<>(tasks, HttpStatus.OK);
     }
 
+    /**
+     * Retrieve the aggregate task counts of a specific project: tasks per status, overdue tasks and average priority.
+     *
+     * @param projectId ID of the project.
+     * @return ResponseEntity containing the project stats.
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<ProjectStatsDTO> getProjectStats(@PathVariable("id") Long projectId) {
+        ProjectStatsDTO stats = taskService.getProjectStats(projectId);
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
+    /**
+     * Export all tasks of a specific project as a stream, one line per task.
+     * The response is written while the tasks are read, so it never holds the whole project in memory.
+     *
+     * @param projectId ID of the project.
+     * @param format Output format, "ndjson" (default) or "csv".
+     * @return ResponseEntity streaming the tasks.
+     */
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@PathVariable("id") Long projectId,
+                                                             @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = parseExportFormat(format);
+        StreamingResponseBody body = outputStream -> {
+            TaskExportWriter writer = new TaskExportWriter(objectMapper, exportFormat, outputStream);
+            taskService.exportTasksByProjectId(projectId, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
+    }
+
+    private static ExportFormat parseExportFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Unsupported export format: " + format);
+        }
+    }
+
     /**
      * Retrieve completed tasks for a specific project after a given due date.
      *
@@ -0,0 +1,57 @@
+package com.task.controller;
+
+import com.task.dto.TaskColumnsDTO;
+import com.task.dto.TaskDTO;
+import com.task.exception.InvalidRequestException;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.List;
+
+import static com.task.util.ConversionUtils.convertToTaskColumns;
+
+/**
+ * Lets every endpoint that returns a list of tasks send it in the columnar shape, requested with
+ * {@code shape=columnar} (see {@link TaskColumnsDTO}). The default {@code shape=rows} is the list of TaskDTOs.
+ * Applies to JSON, CBOR and Smile alike.
+ */
+@ControllerAdvice
+public class TaskListShapeAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String SHAPE_PARAM = "shape";
+
+    private static final ResolvableType TASK_LIST = ResolvableType.forClassWithGenerics(List.class, TaskDTO.class);
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        ResolvableType bodyType = ResolvableType.forMethodParameter(returnType);
+        if (HttpEntity.class.isAssignableFrom(bodyType.toClass())) {
+            bodyType = bodyType.as(HttpEntity.class).getGeneric(0);
+        }
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType) && TASK_LIST.isAssignableFrom(bodyType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        String shape = ((ServletServerHttpRequest) request).getServletRequest().getParameter(SHAPE_PARAM);
+        if (shape == null || shape.equals("rows")) {
+            return body;
+        }
+        if (!shape.equals("columnar")) {
+            throw new InvalidRequestException("Unsupported shape: " + shape);
+        }
+        return body == null ? null : convertToTaskColumns((List<TaskDTO>) body);
+    }
+}
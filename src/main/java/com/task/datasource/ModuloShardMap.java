@@ -0,0 +1,36 @@
+package com.task.datasource;
+
+/**
+ * Spreads projects evenly by id: project {@code p} is on shard {@code p % shardCount}.
+ * Projects below {@code firstShardedProjectId}, the ones that existed before sharding was enabled, stay on shard 0
+ * where their tasks already are.
+ * Adding a shard moves most projects, grow the cluster with a custom {@link ShardMap} instead.
+ */
+public class ModuloShardMap implements ShardMap {
+
+    private final int shardCount;
+
+    private final long firstShardedProjectId;
+
+    public ModuloShardMap(int shardCount) {
+        this(shardCount, 0);
+    }
+
+    public ModuloShardMap(int shardCount, long firstShardedProjectId) {
+        this.shardCount = shardCount;
+        this.firstShardedProjectId = firstShardedProjectId;
+    }
+
+    @Override
+    public int shardOf(long projectId) {
+        if (projectId < firstShardedProjectId) {
+            return 0;
+        }
+        return (int) Math.floorMod(projectId, (long) shardCount);
+    }
+
+    @Override
+    public int shardCount() {
+        return shardCount;
+    }
+}
@@ -0,0 +1,72 @@
+package com.task.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes for replica reads. A request that may write (POST, PUT, PATCH, DELETE) sets the
+ * {@value #COOKIE} cookie to the time until which the client's reads must see its writes, i.e. now plus
+ * {@code task.datasource.read-your-writes-window}, the replication lag the replicas are expected to stay under.
+ * Requests carrying a cookie that has not expired yet are served from the primary. The cookie holds the
+ * deadline itself, so this works across application instances without shared state.
+ */
+@Component
+@ConditionalOnProperty("task.datasource.replica-urls")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "primary-until";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    @Value("${task.datasource.read-your-writes-window:5s}")
+    private Duration window;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        long primaryUntil = primaryUntil(request);
+        if (!READ_METHODS.contains(request.getMethod())) {
+            // Set before the response is committed, a failed write only costs the client a few primary reads.
+            primaryUntil = now + window.toMillis();
+            Cookie cookie = new Cookie(COOKIE, Long.toString(primaryUntil));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            response.addCookie(cookie);
+        }
+        if (primaryUntil <= now) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (ReplicaRouting.Scope ignored = ReplicaRouting.pinToPrimary()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException ex) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.task.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, enabled by setting {@code task.datasource.replica-urls} to a comma-separated list of JDBC URLs.
+ * The primary keeps its {@code spring.datasource.*} settings, the replicas share its driver and pool settings and,
+ * unless {@code task.datasource.replica-username} and {@code task.datasource.replica-password} are set, its credentials.
+ * The application's {@code dataSource} is a {@link ReplicaRoutingDataSource} behind a LazyConnectionDataSourceProxy.
+ */
+@Configuration
+@ConditionalOnProperty("task.datasource.replica-urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Value("${task.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${task.datasource.replica-username:${spring.datasource.username:}}") String username,
+            @Value("${task.datasource.replica-password:${spring.datasource.password:}}") String password) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            // Same pool settings as the primary.
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setJdbcUrl(replicaUrls.get(i));
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setReadOnly(true);
+            // A replica that is down must not keep the application from starting.
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,58 @@
+package com.task.datasource;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Lets the {@code @Transactional(readOnly = true)} methods of the service layer read from a replica.
+ * Runs before the transaction begins. A transaction that reads from a replica may use the second-level cache
+ * but does not put into it: a replica can lag behind the primary, and a stale entry would outlive the writes
+ * that invalidated the region, including the ones a read-your-writes client is waiting to see.
+ */
+@Aspect
+@Component
+// Ahead of the transaction advisor, which has the lowest precedence.
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@ConditionalOnProperty("task.datasource.replica-urls")
+public class ReplicaReadAspect implements TransactionExecutionListener {
+
+    private static final String STORE_MODE = "jakarta.persistence.cache.storeMode";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Around("execution(public * com.task.service..*(..)) && @annotation(transactional)")
+    public Object route(ProceedingJoinPoint call, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly()) {
+            return call.proceed();
+        }
+        try (ReplicaRouting.Scope ignored = ReplicaRouting.replicaRead()) {
+            return call.proceed();
+        }
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null && ReplicaRouting.useReplica()) {
+            EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+            if (entityManager != null) {
+                // Query results too, see CacheModeAwareRegionFactory.
+                // The EntityManager is closed with the transaction, nothing to restore.
+                entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+            }
+        }
+    }
+}
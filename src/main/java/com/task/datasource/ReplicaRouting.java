@@ -0,0 +1,55 @@
+package com.task.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-thread routing decision of {@link ReplicaRoutingDataSource}.
+ * A connection goes to a replica only inside a read-only service transaction ({@link ReplicaReadAspect}),
+ * and never while the thread is pinned to the primary ({@link ReadYourWritesFilter}).
+ * Spring Data's own read-only transactions, e.g. around a findById called outside a service transaction,
+ * stay on the primary, so a replica never feeds the task cache or the in-memory indexes.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    static boolean useReplica() {
+        return REPLICA_READ.get() != null
+                && PRIMARY_PINNED.get() == null
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Allow read-only transactions to use a replica until the scope is closed.
+     */
+    static Scope replicaRead() {
+        return open(REPLICA_READ);
+    }
+
+    /**
+     * Send every connection to the primary until the scope is closed.
+     */
+    public static Scope pinToPrimary() {
+        return open(PRIMARY_PINNED);
+    }
+
+    private static Scope open(ThreadLocal<Boolean> flag) {
+        boolean nested = flag.get() != null;
+        flag.set(Boolean.TRUE);
+        return () -> {
+            if (!nested) {
+                flag.remove();
+            }
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
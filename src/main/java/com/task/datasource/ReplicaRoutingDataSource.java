@@ -0,0 +1,113 @@
+package com.task.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the connections of read-only service transactions to the healthy replicas in turn and everything else
+ * to the primary, see {@link ReplicaRouting}. The decision is made when the connection is requested, so this
+ * DataSource must sit behind a LazyConnectionDataSourceProxy: the transaction is marked read-only only after
+ * it asked for its connection.
+ * A replica that fails to hand out a connection is taken out of rotation right away and the read goes to the
+ * primary. {@link #checkReplicas()} puts replicas back once they answer again.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = ReplicaRouting.useReplica() ? nextHealthyReplica() : null;
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException ex) {
+                replica.healthy = false;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = ReplicaRouting.useReplica() ? nextHealthyReplica() : null;
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection(username, password);
+            } catch (SQLException ex) {
+                replica.healthy = false;
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Validate a connection of every replica and update which ones are in rotation.
+     * Runs every {@code task.datasource.replica-check-interval-ms} milliseconds.
+     * @return number of healthy replicas.
+     */
+    @Scheduled(fixedDelayString = "${task.datasource.replica-check-interval-ms:5000}")
+    public int checkReplicas() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException ex) {
+                replica.healthy = false;
+            }
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private Replica nextHealthyReplica() {
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
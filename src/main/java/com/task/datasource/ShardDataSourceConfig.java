@@ -0,0 +1,116 @@
+package com.task.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.relational.SchemaManager;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tasks sharded by project, enabled by setting {@code task.datasource.shard-urls} to a comma-separated list of the
+ * JDBC URLs of shards 1 to N. Shard 0 is the {@code spring.datasource.*} database, which also keeps the tables that
+ * are not sharded. The shards share its driver and pool settings and, unless {@code task.datasource.shard-username}
+ * and {@code task.datasource.shard-password} are set, its credentials.
+ * Every shard needs the schema, with {@code spring.jpa.hibernate.ddl-auto=create} or {@code create-drop} it is
+ * created on all of them. At startup the task id counter of every shard is moved into the shard's id range.
+ * Projects are kept in shard 0's project table, each shard gets a copy of the rows of its projects for the foreign
+ * key of its tasks: all of them at startup, and a project created since then on its first task, see
+ * {@link ShardRouter#placeProject(Long)}. When sharding is enabled on a database that has tasks, set
+ * {@code task.datasource.first-sharded-project-id} above its highest project id so that the existing projects
+ * stay on shard 0 with their tasks; startup fails if shard 0 holds tasks of a project placed elsewhere.
+ * The application's {@code dataSource} is a {@link ShardRoutingDataSource} behind a LazyConnectionDataSourceProxy,
+ * it cannot be combined with read replicas yet.
+ */
+@Configuration
+@ConditionalOnProperty("task.datasource.shard-urls")
+public class ShardDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Value("${task.datasource.shard-urls}") List<String> shardUrls,
+            @Value("${task.datasource.shard-username:${spring.datasource.username:}}") String username,
+            @Value("${task.datasource.shard-password:${spring.datasource.password:}}") String password) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(primaryDataSource);
+        for (int i = 0; i < shardUrls.size(); i++) {
+            // Same pool settings as shard 0.
+            HikariDataSource shard = new HikariDataSource();
+            primaryDataSource.copyStateTo(shard);
+            shard.setJdbcUrl(shardUrls.get(i));
+            shard.setUsername(username);
+            shard.setPassword(password);
+            shard.setPoolName("shard-" + (i + 1));
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ShardMap shardMap(ShardRoutingDataSource shardRoutingDataSource,
+                             @Value("${task.datasource.first-sharded-project-id:0}") long firstShardedProjectId) {
+        return new ModuloShardMap(shardRoutingDataSource.shardCount(), firstShardedProjectId);
+    }
+
+    @Bean
+    public SmartInitializingSingleton shardInitializer(ShardRoutingDataSource shardRoutingDataSource, ShardMap shardMap,
+                                                       EntityManagerFactory entityManagerFactory,
+                                                       @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return () -> {
+            if (shardMap.shardCount() != shardRoutingDataSource.shardCount()) {
+                throw new IllegalStateException("The shard map has " + shardMap.shardCount() + " shards, "
+                        + shardRoutingDataSource.shardCount() + " are configured");
+            }
+            if (ddlAuto.startsWith("create")) {
+                // Hibernate created the schema on shard 0 only.
+                SchemaManager schemaManager = entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+                for (int shard = 1; shard < shardRoutingDataSource.shardCount(); shard++) {
+                    try (ShardRouting.Scope ignored = ShardRouting.onShard(shard)) {
+                        schemaManager.dropMappedObjects(true);
+                        schemaManager.exportMappedObjects(true);
+                    }
+                }
+            }
+            try {
+                List<Long> misplaced = shardRoutingDataSource.misplacedProjects(shardMap, 10);
+                if (!misplaced.isEmpty()) {
+                    throw new IllegalStateException("Shard 0 holds tasks of projects " + misplaced + " that the shard map "
+                            + "places on other shards, set task.datasource.first-sharded-project-id above the highest "
+                            + "project id of the unsharded database or move their tasks first");
+                }
+                shardRoutingDataSource.alignIdRanges();
+                shardRoutingDataSource.copyProjects(shardMap);
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Could not prepare the shards", ex);
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.task.datasource;
+
+/**
+ * Task ids carry the shard that stores the task in their high bits, so a task is found without asking the
+ * {@link ShardMap}. Shard 0 starts at id 1, which keeps the ids of an unsharded database valid as shard 0 ids.
+ * Every shard has 2^{@value #SHARD_SHIFT} ids, its task table's AUTO_INCREMENT starts at {@link #firstId(int)}.
+ */
+public final class ShardIds {
+
+    public static final int SHARD_SHIFT = 48;
+
+    private ShardIds() {
+    }
+
+    public static int shardOf(long taskId) {
+        return (int) (taskId >>> SHARD_SHIFT);
+    }
+
+    public static long firstId(int shard) {
+        return Math.max(1, (long) shard << SHARD_SHIFT);
+    }
+}
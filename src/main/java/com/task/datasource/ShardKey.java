@@ -0,0 +1,23 @@
+package com.task.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the parameter of a service method that selects the shard the method runs on, see {@link ShardRoutingAspect}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+
+    Kind value();
+
+    enum Kind {
+        /** A project id, placed by the {@link ShardMap}. */
+        PROJECT_ID,
+        /** A task id, which carries its shard, see {@link ShardIds}. */
+        TASK_ID
+    }
+}
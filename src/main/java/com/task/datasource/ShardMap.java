@@ -0,0 +1,16 @@
+package com.task.datasource;
+
+/**
+ * Placement of projects on shards, a project's tasks live on the project's shard.
+ * The default is {@link ModuloShardMap}, declare a ShardMap bean to replace it, e.g. with a directory table.
+ * A project must not move while it has tasks: task ids encode the shard they were created on, see {@link ShardIds}.
+ */
+public interface ShardMap {
+
+    /**
+     * @return shard of the project, from 0 to {@code shardCount() - 1}.
+     */
+    int shardOf(long projectId);
+
+    int shardCount();
+}
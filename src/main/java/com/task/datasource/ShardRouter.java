@@ -0,0 +1,186 @@
+package com.task.datasource;
+
+import com.task.metrics.SqlStatementScope;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Runs work on the shards that hold the data, see {@link ShardDataSourceConfig}.
+ * Without shards there is a single one: work runs on the calling thread and joins its transaction, exactly as
+ * if it was called directly. With shards, work runs in a transaction of its own on the shard, work on several
+ * shards runs in parallel on a pool of {@code task.datasource.shard-query-threads} threads. A transaction never
+ * spans shards, writes to several shards commit one shard at a time.
+ */
+@Component
+public class ShardRouter {
+
+    @Autowired(required = false)
+    private ShardMap shardMap;
+
+    @Autowired(required = false)
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Projects known to have their row on their shard.
+    private final Set<Long> placedProjects = ConcurrentHashMap.newKeySet();
+
+    @Value("${task.datasource.shard-query-threads:16}")
+    private int queryThreads;
+
+    private TransactionTemplate readTransaction;
+
+    private TransactionTemplate writeTransaction;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        if (!isSharded()) {
+            return;
+        }
+        // On the shard's connection, never joined to the caller's transaction on another shard.
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(queryThreads,
+                runnable -> new Thread(runnable, "shard-query-" + threads.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    public boolean isSharded() {
+        return shardMap != null && shardMap.shardCount() > 1;
+    }
+
+    public int shardCount() {
+        return shardMap == null ? 1 : shardMap.shardCount();
+    }
+
+    public int shardOfProject(Long projectId) {
+        return shardMap == null ? 0 : shardMap.shardOf(projectId);
+    }
+
+    /**
+     * Make sure the project's row is on the project's shard before tasks are written there, copying it from
+     * shard 0 if it was created after startup. Does nothing for a project that does not exist.
+     */
+    public void placeProject(Long projectId) {
+        if (!isSharded() || projectId == null || placedProjects.contains(projectId)) {
+            return;
+        }
+        int shard = shardOfProject(projectId);
+        try {
+            if (shard == 0 || shardRoutingDataSource.copyProject(projectId, shard)) {
+                placedProjects.add(projectId);
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not copy project " + projectId + " to shard " + shard, ex);
+        }
+    }
+
+    /**
+     * Shard of a task. An id of a shard that does not exist goes to shard 0, whose ids are all lower, so it is
+     * simply not found.
+     */
+    public int shardOfTask(Long taskId) {
+        int shard = ShardIds.shardOf(taskId);
+        return shard < shardCount() ? shard : 0;
+    }
+
+    /**
+     * @return the task ids by shard, in shard order, each list in the order of {@code taskIds}.
+     */
+    public Map<Integer, List<Long>> groupByShard(Collection<Long> taskIds) {
+        if (!isSharded()) {
+            return Map.of(0, taskIds instanceof List<Long> list ? list : new ArrayList<>(taskIds));
+        }
+        Map<Integer, List<Long>> idsByShard = new TreeMap<>();
+        for (Long taskId : taskIds) {
+            idsByShard.computeIfAbsent(shardOfTask(taskId), shard -> new ArrayList<>()).add(taskId);
+        }
+        return idsByShard;
+    }
+
+    /**
+     * Run work on a shard, in a read-only transaction of its own if {@code readOnly}.
+     */
+    public <T> T onShard(int shard, boolean readOnly, Supplier<T> work) {
+        if (!isSharded()) {
+            return work.get();
+        }
+        try (ShardRouting.Scope ignored = ShardRouting.onShard(shard)) {
+            return (readOnly ? readTransaction : writeTransaction).execute(tx -> work.get());
+        }
+    }
+
+    /**
+     * Run work on several shards in parallel.
+     * @param work Receives the shard number.
+     * @return the results by shard, in the order of {@code shards}.
+     */
+    public <T> Map<Integer, T> onShards(Collection<Integer> shards, boolean readOnly, IntFunction<T> work) {
+        Map<Integer, T> results = new LinkedHashMap<>();
+        if (!isSharded() || shards.size() == 1) {
+            shards.forEach(shard -> results.put(shard, onShard(shard, readOnly, () -> work.apply(shard))));
+            return results;
+        }
+        Map<Integer, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        // The statements of the shard threads count in the caller's SQL metrics.
+        shards.forEach(shard -> futures.put(shard, CompletableFuture.supplyAsync(
+                SqlStatementScope.propagate(() -> onShard(shard, readOnly, () -> work.apply(shard))), executor)));
+        try {
+            futures.forEach((shard, future) -> results.put(shard, future.join()));
+        } catch (CompletionException ex) {
+            futures.values().forEach(future -> future.cancel(true));
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        return results;
+    }
+
+    /**
+     * Scatter work over every shard, see {@link #onShards(Collection, boolean, IntFunction)}.
+     * @return the results in shard order.
+     */
+    public <T> List<T> onEveryShard(boolean readOnly, IntFunction<T> work) {
+        return new ArrayList<>(onShards(IntStream.range(0, shardCount()).boxed().toList(), readOnly, work).values());
+    }
+}
@@ -0,0 +1,39 @@
+package com.task.datasource;
+
+/**
+ * Per-thread shard of {@link ShardRoutingDataSource}, shard 0 unless a scope is open.
+ * Shard 0 also holds the tables that are not sharded, e.g. the batch job journal.
+ * The shard is picked before a transaction begins, by {@link ShardRoutingAspect} or {@link ShardRouter}.
+ */
+public final class ShardRouting {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardRouting() {
+    }
+
+    static int currentShard() {
+        Integer shard = SHARD.get();
+        return shard == null ? 0 : shard;
+    }
+
+    /**
+     * Send every connection to {@code shard} until the scope is closed.
+     */
+    public static Scope onShard(int shard) {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        return () -> {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.task.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs the service methods with a {@link ShardKey} parameter on the shard of that project or task.
+ * Runs before the transaction begins, so the transaction's connection comes from that shard.
+ * Methods without a shard key run on shard 0 unless they route their own work, see {@link ShardRouter}.
+ */
+@Aspect
+@Component
+// Ahead of the transaction advisor, which has the lowest precedence.
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@ConditionalOnProperty("task.datasource.shard-urls")
+public class ShardRoutingAspect {
+
+    private static final Key NO_KEY = new Key(-1, null);
+
+    private final Map<Method, Key> keys = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Around("execution(public * com.task.service..*(..))")
+    public Object route(ProceedingJoinPoint call) throws Throwable {
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        Key key = keys.computeIfAbsent(AopUtils.getMostSpecificMethod(method, call.getTarget().getClass()),
+                ShardRoutingAspect::keyOf);
+        Object value = key == NO_KEY ? null : call.getArgs()[key.parameter()];
+        if (!(value instanceof Long id)) {
+            return call.proceed();
+        }
+        int shard = key.kind() == ShardKey.Kind.PROJECT_ID ? shardRouter.shardOfProject(id) : shardRouter.shardOfTask(id);
+        try (ShardRouting.Scope ignored = ShardRouting.onShard(shard)) {
+            return call.proceed();
+        }
+    }
+
+    private static Key keyOf(Method method) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof ShardKey shardKey) {
+                    return new Key(i, shardKey.value());
+                }
+            }
+        }
+        return NO_KEY;
+    }
+
+    private record Key(int parameter, ShardKey.Kind kind) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.task.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Sends every connection to the shard of the current thread, see {@link ShardRouting}.
+ */
+public class ShardRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = shards;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return shards.get(ShardRouting.currentShard()).getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return shards.get(ShardRouting.currentShard()).getConnection(username, password);
+    }
+
+    /**
+     * Move the task id counter of every shard into the shard's id range, see {@link ShardIds}.
+     * Shards that already generate ids in their range are left alone. The archived tasks count as well, a shard
+     * whose live table was emptied by the archiver must not hand out their ids again.
+     * @return number of shards whose counter was moved.
+     */
+    public int alignIdRanges() throws SQLException {
+        int aligned = 0;
+        for (int shard = 1; shard < shards.size(); shard++) {
+            long firstId = ShardIds.firstId(shard);
+            try (Connection connection = shards.get(shard).getConnection();
+                 Statement statement = connection.createStatement()) {
+                long maxId;
+                try (ResultSet max = statement.executeQuery("SELECT GREATEST(COALESCE((SELECT MAX(id) FROM task), 0), "
+                        + "COALESCE((SELECT MAX(id) FROM task_archive), 0))")) {
+                    max.next();
+                    maxId = max.getLong(1);
+                }
+                if (maxId >= firstId) {
+                    continue;
+                }
+                String product = connection.getMetaData().getDatabaseProductName();
+                if (product.startsWith("MySQL")) {
+                    statement.execute("ALTER TABLE task AUTO_INCREMENT = " + firstId);
+                } else if (product.startsWith("H2")) {
+                    statement.execute("ALTER TABLE task ALTER COLUMN id RESTART WITH " + firstId);
+                } else {
+                    throw new SQLException("Cannot set the task id range of shard " + shard + " on " + product);
+                }
+                aligned++;
+            }
+        }
+        return aligned;
+    }
+
+    /**
+     * Projects with tasks on shard 0, live or archived, that the shard map places on another shard, at most
+     * {@code limit} of them. Their tasks would no longer be found by project.
+     */
+    public List<Long> misplacedProjects(ShardMap shardMap, int limit) throws SQLException {
+        List<Long> misplaced = new ArrayList<>();
+        try (Connection connection = shards.get(0).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet projects = statement.executeQuery("SELECT DISTINCT project_id FROM task WHERE project_id IS NOT NULL "
+                     + "UNION SELECT DISTINCT project_id FROM task_archive WHERE project_id IS NOT NULL")) {
+            while (projects.next() && misplaced.size() < limit) {
+                long projectId = projects.getLong(1);
+                if (shardMap.shardOf(projectId) != 0) {
+                    misplaced.add(projectId);
+                }
+            }
+        }
+        return misplaced;
+    }
+
+    /**
+     * Copy every project row of shard 0 to the shard the map places the project on, which needs it for the
+     * foreign key of its tasks. Missing rows are added and names brought up to date, shard 0 is the source.
+     * @return number of project rows added or changed.
+     */
+    public int copyProjects(ShardMap shardMap) throws SQLException {
+        int copied = 0;
+        try (Connection source = shards.get(0).getConnection();
+             Statement statement = source.createStatement();
+             ResultSet projects = statement.executeQuery("SELECT id, name FROM project")) {
+            while (projects.next()) {
+                int shard = shardMap.shardOf(projects.getLong(1));
+                if (shard != 0 && upsertProject(shard, projects.getLong(1), projects.getString(2))) {
+                    copied++;
+                }
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Copy a project row of shard 0 to {@code shard} unless it is there already.
+     * @return whether the project is on the shard now, false if shard 0 does not have it either.
+     */
+    public boolean copyProject(long projectId, int shard) throws SQLException {
+        try (Connection target = shards.get(shard).getConnection();
+             PreparedStatement exists = target.prepareStatement("SELECT 1 FROM project WHERE id = ?")) {
+            exists.setLong(1, projectId);
+            try (ResultSet row = exists.executeQuery()) {
+                if (row.next()) {
+                    return true;
+                }
+            }
+        }
+        try (Connection source = shards.get(0).getConnection();
+             PreparedStatement select = source.prepareStatement("SELECT name FROM project WHERE id = ?")) {
+            select.setLong(1, projectId);
+            try (ResultSet row = select.executeQuery()) {
+                if (!row.next()) {
+                    return false;
+                }
+                upsertProject(shard, projectId, row.getString(1));
+                return true;
+            }
+        }
+    }
+
+    // Insert the project on the shard, or update its name. Returns whether the row changed.
+    private boolean upsertProject(int shard, long projectId, String name) throws SQLException {
+        try (Connection target = shards.get(shard).getConnection();
+             PreparedStatement select = target.prepareStatement("SELECT name FROM project WHERE id = ?")) {
+            select.setLong(1, projectId);
+            String current;
+            boolean exists;
+            try (ResultSet row = select.executeQuery()) {
+                exists = row.next();
+                current = exists ? row.getString(1) : null;
+            }
+            if (exists && Objects.equals(current, name)) {
+                return false;
+            }
+            try (PreparedStatement write = target.prepareStatement(exists
+                    ? "UPDATE project SET name = ? WHERE id = ?"
+                    : "INSERT INTO project (name, id) VALUES (?, ?)")) {
+                write.setString(1, name);
+                write.setLong(2, projectId);
+                write.executeUpdate();
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (DataSource shard : shards) {
+            if (shard instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
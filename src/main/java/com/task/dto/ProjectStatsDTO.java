@@ -0,0 +1,22 @@
+package com.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Aggregate task counts of a project.
+ * {@code statusCounts} is keyed by status label, {@code averagePriority} is null when no task has a priority.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectStatsDTO {
+    private Long projectId;
+    private long taskCount;
+    private Map<String, Long> statusCounts;
+    private long overdueCount;
+    private Double averagePriority;
+}
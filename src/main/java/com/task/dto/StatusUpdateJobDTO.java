@@ -0,0 +1,30 @@
+package com.task.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Progress of an asynchronous batch status update.
+ * {@code processed} task ids were applied, {@code updated} and {@code notFound} split them by outcome.
+ * {@code coalesced} task ids were dropped because a later job sets their status, {@code remaining} are still queued.
+ * {@code tasksPerSecond} is measured from the start of the job until it finished, or until now while it runs.
+ */
+@Data
+public class StatusUpdateJobDTO {
+    private Long jobId;
+    private String state;
+    private String newStatus;
+    private int requested;
+    private long processed;
+    private long updated;
+    private long notFound;
+    private long coalesced;
+    private long remaining;
+    private int failedAttempts;
+    private String lastError;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Double tasksPerSecond;
+}
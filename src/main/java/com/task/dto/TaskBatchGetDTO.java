@@ -0,0 +1,15 @@
+package com.task.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TaskBatchGetDTO {
+    @NotEmpty(message = "Task ids are required")
+    @Size(max = 5000, message = "At most 5000 task ids per request")
+    private List<@NotNull(message = "Task ids cannot be null") Long> taskIds;
+}
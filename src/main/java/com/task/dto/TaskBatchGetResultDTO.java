@@ -0,0 +1,17 @@
+package com.task.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a multi-get.
+ * {@code tasks} holds the tasks that were found in the order of the requested ids, each id once,
+ * {@code notFoundIds} the requested ids that did not match any task.
+ */
+@Data
+public class TaskBatchGetResultDTO {
+    private List<TaskDTO> tasks = new ArrayList<>();
+    private List<Long> notFoundIds = new ArrayList<>();
+}
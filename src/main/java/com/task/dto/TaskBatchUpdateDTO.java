@@ -1,10 +1,17 @@
 package com.task.dto;
 
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 import java.util.List;
 
 @Data
 public class TaskBatchUpdateDTO {
+    @NotEmpty(message = "Task ids are required")
     private List<Long> taskIds;
+
+    @NotNull(message = "Status is required")
+    @Pattern(regexp = "^(In Progress|Pending|Completed)$", message = "Status must be 'In Progress', 'Pending', or 'Completed'")
     private String newStatus;
 }
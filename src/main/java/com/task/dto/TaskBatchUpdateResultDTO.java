@@ -0,0 +1,21 @@
+package com.task.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batch status update.
+ * {@code chunkUpdateCounts} holds the affected-row count of every UPDATE statement in execution order,
+ * {@code notFoundIds} the requested ids that did not match any task, {@code finalIds} those of archived tasks,
+ * whose status is final and was left as it is.
+ */
+@Data
+public class TaskBatchUpdateResultDTO {
+    private int requested;
+    private long updated;
+    private List<Integer> chunkUpdateCounts = new ArrayList<>();
+    private List<Long> notFoundIds = new ArrayList<>();
+    private List<Long> finalIds = new ArrayList<>();
+}
@@ -0,0 +1,25 @@
+package com.task.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar shape of a task list: one array per field, the i-th task is made of the i-th element of every array.
+ * Project names are sent once in {@code projectNames}, keyed by the {@code projectId} of the tasks.
+ */
+@Data
+public class TaskColumnsDTO {
+    private Map<Long, String> projectNames = new LinkedHashMap<>();
+    private List<Long> taskId = new ArrayList<>();
+    private List<Long> projectId = new ArrayList<>();
+    private List<String> title = new ArrayList<>();
+    private List<String> description = new ArrayList<>();
+    private List<String> status = new ArrayList<>();
+    private List<Integer> priority = new ArrayList<>();
+    private List<LocalDate> dueDate = new ArrayList<>();
+}
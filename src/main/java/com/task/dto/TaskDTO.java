@@ -2,6 +2,7 @@ package com.task.dto;
 
 import java.time.LocalDate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 
@@ -27,4 +28,11 @@ public class TaskDTO {
 
     @FutureOrPresent(message = "Due date must be in the present or future")
     private LocalDate dueDate;
+
+    // Not part of the JSON body, the version travels in the ETag and If-Match headers.
+    @JsonIgnore
+    private Long projectId;
+
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,32 @@
+package com.task.dto;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * JSON Merge Patch (RFC 7396) of a task. A field missing from the document is null and left unchanged,
+ * a field set to null is an empty Optional and clears the value, which only description and dueDate allow.
+ * Only the supplied fields are validated.
+ */
+@Data
+public class TaskPatchDTO {
+    private Optional<@NotNull(message = "Title is required")
+            @Size(max = 100, message = "Title cannot exceed 100 characters") String> title;
+
+    private Optional<@Size(max = 255, message = "Description cannot exceed 255 characters") String> description;
+
+    private Optional<@NotNull(message = "Status is required")
+            @Pattern(regexp = "^(In Progress|Pending|Completed)$", message = "Status must be 'In Progress', 'Pending', or 'Completed'") String> status;
+
+    private Optional<@NotNull(message = "Priority is required")
+            @Min(value = 1, message = "Priority must be at least 1") Integer> priority;
+
+    private Optional<@FutureOrPresent(message = "Due date must be in the present or future") LocalDate> dueDate;
+}
@@ -0,0 +1,21 @@
+package com.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of tasks fetched in keyset (cursor) mode.
+ * {@code nextCursor} is the opaque token to pass as {@code after} for the next page,
+ * it is {@code null} once the last page has been reached.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSliceDTO {
+    private List<TaskDTO> tasks;
+    private String nextCursor;
+    private boolean hasNext;
+}
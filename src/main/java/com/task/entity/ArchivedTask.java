@@ -0,0 +1,52 @@
+package com.task.entity;
+
+import com.task.constants.TaskStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Completed task moved out of the task table by TaskArchiveService, with the id and columns it had there.
+ * Archived tasks are final and never written again.
+ * The indexes mirror the ArchivedTaskRepository queries, keep them in sync with schema.sql.
+ */
+@Entity
+@Table(name = "task_archive", indexes = {
+        // findByProjectIdAndDueDateAfter, countByProjectIdGroupByStatusAndDueDate
+        @Index(name = "idx_task_archive_project_due", columnList = "project_id, due_date"),
+        // streamByProjectId, in id order
+        @Index(name = "idx_task_archive_project_id", columnList = "project_id, id")
+})
+@Data
+public class ArchivedTask {
+    @Id
+    private Long id;
+
+    private String title;
+    private String description;
+    @Convert(converter = TaskStatusConverter.class)
+    private TaskStatus status;
+    private Integer priority;
+    @Column(name = "due_date")
+    private LocalDate dueDate;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "project_id")
+    private Project project;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+}
@@ -2,12 +2,23 @@ package com.task.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
+/**
+ * Entity class representing a Project.
+ * Projects almost never change, they are kept in the {@value #CACHE_REGION} second-level cache region,
+ * see caffeine-jcache.conf for its size and expiry.
+ */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Project.CACHE_REGION)
 @Data
 public class Project {
+    public static final String CACHE_REGION = "project";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -16,4 +27,3 @@ public class Project {
     private List<Task> tasks;
 
 }
-
@@ -0,0 +1,71 @@
+package com.task.entity;
+
+import com.task.constants.JobState;
+import com.task.constants.TaskStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Journal entry of an asynchronous batch status update, the task ids still to apply are its
+ * {@link StatusUpdateJobTask} rows. The counters are only changed with increments in
+ * StatusUpdateJobRepository, never by saving the entity, so concurrent writers do not overwrite each other.
+ */
+@Entity
+@Table(name = "status_update_job", indexes = {
+        // pending jobs, resumed at startup
+        @Index(name = "idx_status_update_job_state", columnList = "state")
+})
+@Data
+public class StatusUpdateJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Convert(converter = TaskStatusConverter.class)
+    @Column(name = "new_status", nullable = false)
+    private TaskStatus newStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JobState state;
+
+    // Distinct task ids of the request.
+    @Column(nullable = false)
+    private int requested;
+
+    // Task ids applied so far, and how many of them were updated or did not exist.
+    @Column(nullable = false)
+    private long processed;
+    @Column(nullable = false)
+    private long updated;
+    @Column(name = "not_found", nullable = false)
+    private long notFound;
+
+    // Task ids dropped because a later job sets the status of the same task.
+    @Column(nullable = false)
+    private long coalesced;
+
+    // Failed chunk attempts, and the error of the last one.
+    @Column(name = "failed_attempts", nullable = false)
+    private int failedAttempts;
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    @Column(name = "started_at")
+    private Instant startedAt;
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+}
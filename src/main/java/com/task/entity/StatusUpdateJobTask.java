@@ -0,0 +1,42 @@
+package com.task.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Task id of a {@link StatusUpdateJob} that is not applied yet. The row is deleted in the transaction
+ * that applies it, so after a restart the job continues with the rows that are left.
+ */
+@Entity
+@Table(name = "status_update_job_task", indexes = {
+        // coalescing, finds the pending jobs of a task
+        @Index(name = "idx_status_update_job_task_task", columnList = "task_id")
+})
+@IdClass(StatusUpdateJobTask.Key.class)
+@Data
+public class StatusUpdateJobTask {
+    @Id
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long jobId;
+        private Long taskId;
+    }
+}
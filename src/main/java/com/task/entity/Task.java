@@ -4,18 +4,34 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
+import com.task.constants.TaskStatus;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 import java.time.LocalDate;
 
 /**
  * Entity class representing a Task.
+ * The indexes mirror the TaskRepository queries, keep them in sync with schema.sql.
  */
 @Entity
+@Table(indexes = {
+        // findByProjectId, findByProjectIdAndStatus, findByProjectIdAndStatusAndDueDateAfter
+        @Index(name = "idx_task_project_status_due", columnList = "project_id, status_code, due_date"),
+        // overdue tasks, status is in the index so completed tasks are skipped without reading the row
+        @Index(name = "idx_task_due_status", columnList = "due_date, status_code"),
+        // sorting and keyset pagination, id is the tie-breaker
+        @Index(name = "idx_task_due_id", columnList = "due_date, id"),
+        @Index(name = "idx_task_priority_id", columnList = "priority, id"),
+        @Index(name = "idx_task_status_id", columnList = "status_code, id")
+})
 @Data
 public class Task {
     @Id
@@ -24,7 +40,10 @@ public class Task {
 
     private String title;
     private String description;
-    private String status;
+    // The status column held the label before db/task-status-tinyint-migration.sql.
+    @Convert(converter = TaskStatusConverter.class)
+    @Column(name = "status_code")
+    private TaskStatus status;
     private Integer priority;
     @Column(name = "due_date")
     private LocalDate dueDate;
@@ -32,4 +51,9 @@ public class Task {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id")
     private Project project;
+
+    // Incremented by every update, see TaskRepository#updateIfCurrent. Exposed to clients as the ETag.
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
\ No newline at end of file
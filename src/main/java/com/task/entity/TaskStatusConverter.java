@@ -0,0 +1,22 @@
+package com.task.entity;
+
+import com.task.constants.TaskStatus;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link TaskStatus} as its TINYINT code.
+ */
+@Converter
+public class TaskStatusConverter implements AttributeConverter<TaskStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(TaskStatus status) {
+        return status == null ? null : (byte) status.getCode();
+    }
+
+    @Override
+    public TaskStatus convertToEntityAttribute(Byte code) {
+        return code == null ? null : TaskStatus.fromCode(code);
+    }
+}
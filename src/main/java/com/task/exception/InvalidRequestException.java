@@ -0,0 +1,16 @@
+package com.task.exception;
+
+
+/**
+ * Custom exception to indicate that the request parameters were invalid.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidRequestException with the specified detail message.
+     * @param message the detail message.
+     */
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.task.exception;
+
+
+/**
+ * Custom exception to indicate that a batch status update job was not found.
+ */
+public class JobNotFoundException extends RuntimeException {
+
+    /**
+     * Constructs a new JobNotFoundException with the specified detail message.
+     * @param message the detail message.
+     */
+    public JobNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.task.exception;
+
+
+/**
+ * Custom exception to indicate that a batch status update job was rejected because too many jobs are pending.
+ */
+public class JobQueueFullException extends RuntimeException {
+
+    /**
+     * Constructs a new JobQueueFullException with the specified detail message.
+     * @param message the detail message.
+     */
+    public JobQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.task.exception;
+
+import java.time.Duration;
+
+/**
+ * Custom exception to indicate that a client sent more requests to a route than its rate limit allows.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a new RateLimitExceededException with the specified detail message.
+     * @param message the detail message.
+     * @param retryAfter time until the client may send the next request.
+     */
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,25 @@
+package com.task.exception;
+
+import java.time.Duration;
+
+/**
+ * Custom exception to indicate that a request was shed because its route has as many requests in flight as it may.
+ */
+public class RouteOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a new RouteOverloadedException with the specified detail message.
+     * @param message the detail message.
+     * @param retryAfter time after which the client should retry.
+     */
+    public RouteOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,33 @@
+package com.task.exception;
+
+
+/**
+ * Custom exception to indicate that a Task was changed by someone else, i.e. it is no longer
+ * at the version the update was based on.
+ */
+public class TaskConflictException extends RuntimeException {
+
+    private final boolean preconditionFailed;
+
+    /**
+     * Constructs a new TaskConflictException for an update based on a version the caller gave, e.g. in If-Match.
+     * @param message the detail message.
+     */
+    public TaskConflictException(String message) {
+        this(message, true);
+    }
+
+    /**
+     * Constructs a new TaskConflictException with the specified detail message.
+     * @param message the detail message.
+     * @param preconditionFailed whether the update was based on a version the caller gave, e.g. in If-Match.
+     */
+    public TaskConflictException(String message, boolean preconditionFailed) {
+        super(message);
+        this.preconditionFailed = preconditionFailed;
+    }
+
+    public boolean isPreconditionFailed() {
+        return preconditionFailed;
+    }
+}
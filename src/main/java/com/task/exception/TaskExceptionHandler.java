@@ -1,5 +1,9 @@
 package com.task.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -7,12 +11,19 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 @RestControllerAdvice
 public class TaskExceptionHandler {
 
+    // Validation errors carry the field name as their code, they are counted under this code instead.
+    private static final String VALIDATION_ERROR = "VALIDATION_ERROR";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * Handles {@link TaskNotFoundException}.
      * @param ex The exception instance.
@@ -21,6 +32,7 @@ public class TaskExceptionHandler {
     @ExceptionHandler(TaskNotFoundException.class)
     public ResponseEntity<TaskError> handleTaskNotFoundException(TaskNotFoundException ex) {
         TaskError error = new TaskError("TASK_ERROR", ex.getMessage());
+        count(error.getErrorCode());
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
@@ -32,9 +44,87 @@ public class TaskExceptionHandler {
     @ExceptionHandler(TaskValidationException.class)
     public ResponseEntity<TaskError> invalidTaskException(TaskValidationException ex) {
         TaskError error = new TaskError("MODIFICATION_ERROR", ex.getMessage());
+        count(error.getErrorCode());
         return new ResponseEntity<>(error, HttpStatus.NOT_MODIFIED);
     }
 
+    /**
+     * Handles {@link TaskConflictException}: 412 if the task is no longer at the version given in If-Match,
+     * 409 if an update without If-Match kept losing to concurrent updates.
+     * @param ex The exception instance.
+     * @return ResponseEntity containing the error details.
+     */
+    @ExceptionHandler(TaskConflictException.class)
+    public ResponseEntity<TaskError> taskConflictException(TaskConflictException ex) {
+        TaskError error = new TaskError("CONFLICT_ERROR", ex.getMessage());
+        count(error.getErrorCode());
+        return new ResponseEntity<>(error, ex.isPreconditionFailed() ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles {@link JobNotFoundException}.
+     * @param ex The exception instance.
+     * @return ResponseEntity containing the error details.
+     */
+    @ExceptionHandler(JobNotFoundException.class)
+    public ResponseEntity<TaskError> handleJobNotFoundException(JobNotFoundException ex) {
+        TaskError error = new TaskError("JOB_ERROR", ex.getMessage());
+        count(error.getErrorCode());
+        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles {@link JobQueueFullException}, the client should retry the batch later.
+     * @param ex The exception instance.
+     * @return ResponseEntity containing the error details.
+     */
+    @ExceptionHandler(JobQueueFullException.class)
+    public ResponseEntity<TaskError> jobQueueFullException(JobQueueFullException ex) {
+        TaskError error = new TaskError("QUEUE_FULL_ERROR", ex.getMessage());
+        count(error.getErrorCode());
+        return new ResponseEntity<>(error, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Handles {@link RateLimitExceededException}, the client should slow down.
+     * @param ex The exception instance.
+     * @return ResponseEntity containing the error details and when to retry.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<TaskError> rateLimitExceededException(RateLimitExceededException ex) {
+        TaskError error = new TaskError("RATE_LIMIT_ERROR", ex.getMessage());
+        count(error.getErrorCode());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(error);
+    }
+
+    /**
+     * Handles {@link RouteOverloadedException}, the request was shed before it was processed.
+     * @param ex The exception instance.
+     * @return ResponseEntity containing the error details and when to retry.
+     */
+    @ExceptionHandler(RouteOverloadedException.class)
+    public ResponseEntity<TaskError> routeOverloadedException(RouteOverloadedException ex) {
+        TaskError error = new TaskError("OVERLOAD_ERROR", ex.getMessage());
+        count(error.getErrorCode());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(error);
+    }
+
+    /**
+     * Handles {@link InvalidRequestException}.
+     * @param ex The exception instance.
+     * @return ResponseEntity containing the error details.
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<TaskError> invalidRequestException(InvalidRequestException ex) {
+        TaskError error = new TaskError("REQUEST_ERROR", ex.getMessage());
+        count(error.getErrorCode());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles {@link MethodArgumentNotValidException}.
      * @param ex The exception instance.
@@ -49,6 +139,32 @@ public class TaskExceptionHandler {
             TaskError error = new TaskError(fieldError.getField(), fieldError.getDefaultMessage());
             errorList.add(error);
         });
+        count(VALIDATION_ERROR);
         return new ResponseEntity<>(errorList, HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * Handles {@link ConstraintViolationException} raised by method validation, e.g. on list request bodies.
+     * @param ex The exception instance.
+     * @return ResponseEntity containing a list of validation errors.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<List<TaskError>> handleConstraintViolationException(ConstraintViolationException ex) {
+        List<TaskError> errorList = new ArrayList<>();
+        ex.getConstraintViolations().forEach(violation -> {
+            TaskError error = new TaskError(violation.getPropertyPath().toString(), violation.getMessage());
+            errorList.add(error);
+        });
+        count(VALIDATION_ERROR);
+        return new ResponseEntity<>(errorList, HttpStatus.BAD_REQUEST);
+    }
+
+    // Retry-After is in whole seconds, rounded up so the client does not come back too early.
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+
+    private void count(String errorCode) {
+        meterRegistry.counter("task.errors", "code", errorCode).increment();
+    }
 }
@@ -0,0 +1,29 @@
+package com.task.memory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Tasks held in memory, enabled by setting {@code task.storage.engine=memory}. The rows are persisted in
+ * {@code task.memory.data-dir}, as a log of changes and snapshots, and recovered at startup; with an empty
+ * directory they are lost on shutdown. {@code task.memory.log-sync=false} skips forcing every change to the disk,
+ * which is faster but may lose the last changes on a crash.
+ */
+@Configuration
+@ConditionalOnProperty(value = "task.storage.engine", havingValue = "memory")
+public class MemoryStoreConfig {
+
+    @Bean(destroyMethod = "close")
+    public MemoryTaskStore memoryTaskStore(@Value("${task.memory.data-dir:}") String dataDir,
+                                           @Value("${task.memory.log-sync:true}") boolean logSync) throws IOException {
+        if (dataDir.isBlank()) {
+            return new MemoryTaskStore();
+        }
+        return MemoryTaskStore.open(Path.of(dataDir), logSync);
+    }
+}
@@ -0,0 +1,491 @@
+package com.task.memory;
+
+import com.task.constants.TaskStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * In-memory task table, the storage of MemoryTaskServiceImpl.
+ * Rows are stored in segments of {@value #SEGMENT_SIZE} rows with one primitive array per column, a task id is
+ * its row number so no id map is needed, deleted rows leave an empty slot. Project, status, due date and priority
+ * have a secondary {@link OrderedIndex}, the due date of the open tasks has one more.
+ * Writers lock one of {@value #STRIPES} stripes of rows, readers read a row optimistically and only lock its stripe
+ * when a write raced with them, so reads never block each other.
+ * With a {@link TaskLog} every change is logged before it is applied, {@link #snapshot()} writes all rows and
+ * drops the log they replace, {@link #open(Path, boolean)} recovers the rows. The rows of {@link #insertAll(List)}
+ * and {@link #computeAll(List, UnaryOperator)} are logged as one record, so they take a single force to the disk
+ * and survive a crash together.
+ */
+public class MemoryTaskStore implements Closeable {
+
+    private static final int SEGMENT_BITS = 12;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int STRIPES = 64;
+
+    private static final long EMPTY = -1;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final byte NULL_STATUS = -1;
+
+    /**
+     * Columns the rows can be read in order of, by value with NULL first and then by id.
+     */
+    public enum Column {
+        DUE_DATE, PRIORITY, STATUS
+    }
+
+    private final TaskLog log;
+
+    private final StampedLock[] stripes = new StampedLock[STRIPES];
+
+    // Writers hold the read side while they log and apply a change, a snapshot takes the write side to switch logs.
+    private final ReentrantReadWriteLock logLock = new ReentrantReadWriteLock();
+
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    // Held while the segments grow and ids are allocated.
+    private final ReentrantLock growLock = new ReentrantLock();
+
+    // Replaced by a larger copy when rows are added, the segments themselves never move.
+    private volatile Segment[] segments = new Segment[0];
+
+    // Ids below are allocated, their segments exist. Only changed in allocate and restore.
+    private volatile long nextId = 1;
+
+    private final OrderedIndex<Long> projectIndex = new OrderedIndex<>();
+    private final OrderedIndex<Integer> statusIndex = new OrderedIndex<>();
+    private final OrderedIndex<LocalDate> dueDateIndex = new OrderedIndex<>();
+    private final OrderedIndex<Integer> priorityIndex = new OrderedIndex<>();
+
+    // Due dates of the open tasks only, so the overdue tasks are read without walking the completed ones.
+    private final OrderedIndex<LocalDate> openDueDateIndex = new OrderedIndex<>();
+
+    /**
+     * A store that is not persisted.
+     */
+    public MemoryTaskStore() {
+        this(null);
+    }
+
+    private MemoryTaskStore(TaskLog log) {
+        this.log = log;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new StampedLock();
+        }
+    }
+
+    /**
+     * A store persisted in {@code dir}, with the rows recovered from its snapshot and logs.
+     * @param sync force every change to the disk before it is applied.
+     */
+    public static MemoryTaskStore open(Path dir, boolean sync) throws IOException {
+        MemoryTaskStore store = new MemoryTaskStore(new TaskLog(dir, sync));
+        long snapshotNextId = store.log.recover(store::restore, store::restoreDeleted);
+        if (snapshotNextId > store.nextId) {
+            store.ensureCapacity(snapshotNextId - 1);
+            store.nextId = snapshotNextId;
+        }
+        return store;
+    }
+
+    /**
+     * The row of a task, or null if there is none.
+     */
+    public TaskRow get(long id) {
+        if (id < 1 || id >= nextId) {
+            return null;
+        }
+        Segment segment = segment(id);
+        int slot = slot(id);
+        StampedLock lock = stripe(id);
+        long stamp = lock.tryOptimisticRead();
+        TaskRow row = segment.read(id, slot);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                row = segment.read(id, slot);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Add rows with new ids, consecutive in the order of {@code rows}. The ids of the given rows are ignored.
+     * @return the stored rows.
+     */
+    public List<TaskRow> insertAll(List<TaskRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        long firstId = allocate(rows.size());
+        List<TaskRow> inserted = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            inserted.add(rows.get(i).withId(firstId + i));
+        }
+        long[] stamps = lockStripes(inserted.stream().mapToLong(TaskRow::id));
+        try {
+            write(inserted.stream().map(row -> new Change(null, row)).toList());
+        } finally {
+            unlockStripes(stamps);
+        }
+        return inserted;
+    }
+
+    /**
+     * Change the row of a task while its stripe is locked.
+     * @param change Receives the current row, or null if there is none, and returns the new row, null to delete
+     *               the row or the current row to leave it unchanged. An exception leaves the row unchanged.
+     * @return the row before the change.
+     */
+    public TaskRow compute(long id, UnaryOperator<TaskRow> change) {
+        return computeAll(List.of(id), change).get(0);
+    }
+
+    /**
+     * Change the rows of several tasks at once, see {@link #compute(long, UnaryOperator)}. The stripes of all the
+     * rows are locked while they change, the changes are logged as one record.
+     * @param ids Distinct task ids.
+     * @return the rows before the change, in the order of {@code ids}, null where there was none.
+     */
+    public List<TaskRow> computeAll(List<Long> ids, UnaryOperator<TaskRow> change) {
+        long[] stamps = lockStripes(ids.stream().mapToLong(Long::longValue));
+        try {
+            List<TaskRow> previous = new ArrayList<>(ids.size());
+            List<Change> changes = new ArrayList<>();
+            for (long id : ids) {
+                TaskRow current = id < 1 || id >= nextId ? null : segment(id).read(id, slot(id));
+                TaskRow changed = change.apply(current);
+                if (changed != current) {
+                    if (current == null) {
+                        throw new IllegalArgumentException("No task " + id + " to change, rows are added with insertAll");
+                    }
+                    if (changed != null && changed.id() != id) {
+                        throw new IllegalArgumentException("Task " + id + " cannot be changed into " + changed);
+                    }
+                    changes.add(new Change(current, changed));
+                }
+                previous.add(current);
+            }
+            write(changes);
+            return previous;
+        } finally {
+            unlockStripes(stamps);
+        }
+    }
+
+    /**
+     * Every row in id order.
+     */
+    public Stream<TaskRow> all() {
+        return LongStream.range(1, nextId).mapToObj(this::get).filter(Objects::nonNull);
+    }
+
+    /**
+     * The rows of a project in id order.
+     */
+    public Stream<TaskRow> ofProject(long projectId) {
+        return projectIndex.idsOf(projectId)
+                .map(this::get)
+                .filter(row -> row != null && Objects.equals(row.projectId(), projectId));
+    }
+
+    /**
+     * Every row in order of {@code column}, NULL first, then by id.
+     */
+    public Stream<TaskRow> inOrder(Column column) {
+        return switch (column) {
+            case DUE_DATE -> rows(dueDateIndex.entries(), TaskRow::dueDate);
+            case PRIORITY -> rows(priorityIndex.entries(), TaskRow::priority);
+            case STATUS -> rows(statusIndex.entries(), MemoryTaskStore::statusCode);
+        };
+    }
+
+    /**
+     * The rows after ({@code lastValue}, {@code lastId}) in order of {@code column}, see {@link #inOrder(Column)}.
+     * @param lastValue a LocalDate for DUE_DATE, the priority or the status code, or null.
+     */
+    public Stream<TaskRow> inOrderAfter(Column column, Object lastValue, long lastId) {
+        return switch (column) {
+            case DUE_DATE -> rows(dueDateIndex.entriesAfter((LocalDate) lastValue, lastId), TaskRow::dueDate);
+            case PRIORITY -> rows(priorityIndex.entriesAfter((Integer) lastValue, lastId), TaskRow::priority);
+            case STATUS -> rows(statusIndex.entriesAfter((Integer) lastValue, lastId), MemoryTaskStore::statusCode);
+        };
+    }
+
+    /**
+     * The rows of open tasks, with a status other than COMPLETED, due before {@code date}, by due date and then id.
+     */
+    public Stream<TaskRow> openDueBefore(LocalDate date) {
+        return rows(openDueDateIndex.entriesBefore(date), MemoryTaskStore::openDueDate);
+    }
+
+    /**
+     * Write every row to a new snapshot and drop the logs it replaces. Changes go on while the snapshot is written.
+     * Does nothing when the store is not persisted.
+     */
+    public void snapshot() throws IOException {
+        if (log == null) {
+            return;
+        }
+        snapshotLock.lock();
+        try {
+            long generation;
+            logLock.writeLock().lock();
+            try {
+                generation = log.rotate();
+            } finally {
+                logLock.writeLock().unlock();
+            }
+            log.writeSnapshot(generation, nextId, all());
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    // Log and apply changes of rows whose stripes are locked.
+    private void write(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        logLock.readLock().lock();
+        try {
+            if (log != null) {
+                List<ByteBuffer> records = changes.stream().map(Change::record).toList();
+                log.append(records.size() == 1 ? records.get(0) : TaskRecords.batch(records));
+            }
+            changes.forEach(change -> apply(change.id(), change.before(), change.after()));
+        } finally {
+            logLock.readLock().unlock();
+        }
+    }
+
+    // Write-lock the stripes of the ids, in stripe order so writers of overlapping rows cannot deadlock.
+    private long[] lockStripes(LongStream ids) {
+        long[] stamps = new long[STRIPES];
+        ids.mapToInt(id -> (int) Math.floorMod(id, (long) STRIPES)).distinct().sorted()
+                .forEach(stripe -> stamps[stripe] = stripes[stripe].writeLock());
+        return stamps;
+    }
+
+    private void unlockStripes(long[] stamps) {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            if (stamps[stripe] != 0) {
+                stripes[stripe].unlockWrite(stamps[stripe]);
+            }
+        }
+    }
+
+    /*
+     * The new index entries are added before the row changes and the old ones removed after,
+     * so a reader looking the row up from either entry finds it.
+     */
+    private void apply(long id, TaskRow before, TaskRow after) {
+        if (after != null) {
+            index(after, before, true);
+            segment(id).write(slot(id), after);
+        } else {
+            segment(id).clear(slot(id));
+        }
+        if (before != null) {
+            index(before, after, false);
+        }
+    }
+
+    // Add (or remove) the index entries of row that other does not share.
+    private void index(TaskRow row, TaskRow other, boolean add) {
+        long id = row.id();
+        if (other == null || !Objects.equals(row.projectId(), other.projectId())) {
+            change(projectIndex, row.projectId(), id, add);
+        }
+        if (other == null || row.status() != other.status()) {
+            change(statusIndex, statusCode(row), id, add);
+        }
+        if (other == null || !Objects.equals(row.dueDate(), other.dueDate())) {
+            change(dueDateIndex, row.dueDate(), id, add);
+        }
+        if (other == null || !Objects.equals(row.priority(), other.priority())) {
+            change(priorityIndex, row.priority(), id, add);
+        }
+        LocalDate openDueDate = openDueDate(row);
+        if (openDueDate != null && (other == null || !openDueDate.equals(openDueDate(other)))) {
+            change(openDueDateIndex, openDueDate, id, add);
+        }
+    }
+
+    private static <K extends Comparable<? super K>> void change(OrderedIndex<K> index, K key, long id, boolean add) {
+        if (add) {
+            index.add(key, id);
+        } else {
+            index.remove(key, id);
+        }
+    }
+
+    // The rows of index entries whose value is still the row's value, each row once.
+    private <K> Stream<TaskRow> rows(Stream<Map.Entry<K, Long>> entries, Function<TaskRow, K> value) {
+        Set<Long> seen = new HashSet<>();
+        return entries
+                .map(entry -> {
+                    TaskRow row = get(entry.getValue());
+                    return row != null && Objects.equals(value.apply(row), entry.getKey()) && seen.add(row.id()) ? row : null;
+                })
+                .filter(Objects::nonNull);
+    }
+
+    // Recovery runs before the store is shared, rows are applied without locking or logging.
+    private void restore(TaskRow row) {
+        reserve(row.id());
+        apply(row.id(), segment(row.id()).read(row.id(), slot(row.id())), row);
+    }
+
+    private void restoreDeleted(long id) {
+        reserve(id);
+        TaskRow current = segment(id).read(id, slot(id));
+        if (current != null) {
+            apply(id, current, null);
+        }
+    }
+
+    private void reserve(long id) {
+        if (id >= nextId) {
+            ensureCapacity(id);
+            nextId = id + 1;
+        }
+    }
+
+    private long allocate(int count) {
+        growLock.lock();
+        try {
+            long firstId = nextId;
+            ensureCapacity(firstId + count - 1);
+            nextId = firstId + count;
+            return firstId;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private void ensureCapacity(long maxId) {
+        growLock.lock();
+        try {
+            int needed = (int) ((maxId - 1) >>> SEGMENT_BITS) + 1;
+            Segment[] current = segments;
+            if (needed <= current.length) {
+                return;
+            }
+            Segment[] grown = Arrays.copyOf(current, Math.max(needed, current.length * 2));
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new Segment();
+            }
+            segments = grown;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private Segment segment(long id) {
+        return segments[(int) ((id - 1) >>> SEGMENT_BITS)];
+    }
+
+    private static int slot(long id) {
+        return (int) ((id - 1) & (SEGMENT_SIZE - 1));
+    }
+
+    private StampedLock stripe(long id) {
+        return stripes[(int) Math.floorMod(id, (long) STRIPES)];
+    }
+
+    private static Integer statusCode(TaskRow row) {
+        return row.status() == null ? null : row.status().getCode();
+    }
+
+    private static LocalDate openDueDate(TaskRow row) {
+        return row.status() == null || row.status() == TaskStatus.COMPLETED ? null : row.dueDate();
+    }
+
+    // A logged row change, after is null for a delete.
+    private record Change(TaskRow before, TaskRow after) {
+
+        long id() {
+            return before != null ? before.id() : after.id();
+        }
+
+        ByteBuffer record() {
+            return after == null ? TaskRecords.delete(id()) : TaskRecords.put(after);
+        }
+    }
+
+    /*
+     * SEGMENT_SIZE rows, one array per column. A version of EMPTY marks a slot without a row.
+     */
+    private static final class Segment {
+        final long[] version = new long[SEGMENT_SIZE];
+        final long[] projectId = new long[SEGMENT_SIZE];
+        final byte[] status = new byte[SEGMENT_SIZE];
+        final int[] priority = new int[SEGMENT_SIZE];
+        final long[] dueDate = new long[SEGMENT_SIZE];
+        final String[] title = new String[SEGMENT_SIZE];
+        final String[] description = new String[SEGMENT_SIZE];
+
+        Segment() {
+            Arrays.fill(version, EMPTY);
+        }
+
+        TaskRow read(long id, int slot) {
+            long rowVersion = version[slot];
+            if (rowVersion == EMPTY) {
+                return null;
+            }
+            long rowProjectId = projectId[slot];
+            byte rowStatus = status[slot];
+            int rowPriority = priority[slot];
+            long rowDueDate = dueDate[slot];
+            return new TaskRow(id, rowProjectId == NULL_LONG ? null : rowProjectId, title[slot], description[slot],
+                    rowStatus == NULL_STATUS ? null : TaskStatus.fromCode(rowStatus),
+                    rowPriority == NULL_INT ? null : rowPriority,
+                    rowDueDate == NULL_LONG ? null : LocalDate.ofEpochDay(rowDueDate), rowVersion);
+        }
+
+        void write(int slot, TaskRow row) {
+            projectId[slot] = row.projectId() == null ? NULL_LONG : row.projectId();
+            status[slot] = row.status() == null ? NULL_STATUS : (byte) row.status().getCode();
+            priority[slot] = row.priority() == null ? NULL_INT : row.priority();
+            dueDate[slot] = row.dueDate() == null ? NULL_LONG : row.dueDate().toEpochDay();
+            title[slot] = row.title();
+            description[slot] = row.description();
+            version[slot] = row.version();
+        }
+
+        void clear(int slot) {
+            version[slot] = EMPTY;
+            title[slot] = null;
+            description[slot] = null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.task.memory;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Secondary index of {@link MemoryTaskStore}: the task ids per column value, in (value, id) order with the NULL
+ * value first, as the database orders an ascending sort.
+ * Readers iterate without locking while writers change it, an entry can be read just before or after it moves,
+ * so readers re-check the value on the row they look up.
+ */
+class OrderedIndex<K extends Comparable<? super K>> {
+
+    private final ConcurrentSkipListMap<K, NavigableSet<Long>> ids = new ConcurrentSkipListMap<>();
+
+    private final NavigableSet<Long> nullIds = new ConcurrentSkipListSet<>();
+
+    void add(K key, long id) {
+        if (key == null) {
+            nullIds.add(id);
+        } else {
+            ids.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(id);
+        }
+    }
+
+    void remove(K key, long id) {
+        if (key == null) {
+            nullIds.remove(id);
+            return;
+        }
+        ids.computeIfPresent(key, (k, keyIds) -> {
+            keyIds.remove(id);
+            return keyIds.isEmpty() ? null : keyIds;
+        });
+    }
+
+    /**
+     * Every (value, id) entry in order.
+     */
+    Stream<Map.Entry<K, Long>> entries() {
+        return Stream.concat(entries(null, nullIds), entries(ids));
+    }
+
+    /**
+     * The entries after ({@code key}, {@code id}) in order.
+     */
+    Stream<Map.Entry<K, Long>> entriesAfter(K key, long id) {
+        if (key == null) {
+            return Stream.concat(entries(null, nullIds.tailSet(id, false)), entries(ids));
+        }
+        NavigableSet<Long> keyIds = ids.get(key);
+        Stream<Map.Entry<K, Long>> sameKey = keyIds == null ? Stream.empty() : entries(key, keyIds.tailSet(id, false));
+        return Stream.concat(sameKey, entries(ids.tailMap(key, false)));
+    }
+
+    /**
+     * The entries with a value below {@code key}, the NULL value excluded, in order.
+     */
+    Stream<Map.Entry<K, Long>> entriesBefore(K key) {
+        return entries(ids.headMap(key, false));
+    }
+
+    /**
+     * The ids with value {@code key}, in id order.
+     */
+    Stream<Long> idsOf(K key) {
+        NavigableSet<Long> keyIds = key == null ? nullIds : ids.get(key);
+        return keyIds == null ? Stream.empty() : keyIds.stream();
+    }
+
+    private static <K> Stream<Map.Entry<K, Long>> entries(Map<K, NavigableSet<Long>> keys) {
+        return keys.entrySet().stream().flatMap(entry -> entries(entry.getKey(), entry.getValue()));
+    }
+
+    private static <K> Stream<Map.Entry<K, Long>> entries(K key, NavigableSet<Long> keyIds) {
+        return keyIds.stream().map(id -> new AbstractMap.SimpleImmutableEntry<>(key, id));
+    }
+}
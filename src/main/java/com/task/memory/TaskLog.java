@@ -0,0 +1,393 @@
+package com.task.memory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Durable storage of {@link MemoryTaskStore}: an append-only log of the row changes, split in generations, and
+ * a snapshot of every row written through a memory-mapped file.
+ * A snapshot is taken after switching to a new log generation, so the rows changed while it is written are in
+ * the new log too. Recovery loads the snapshot and replays the logs of its generation and later, since a record
+ * holds the whole row replaying it over a newer snapshot row is harmless. A record torn by a crash at the end of
+ * the last log is cut off.
+ * Appends are serialized by a lock held only for the write, the force to the disk runs after it: writers that
+ * appended while a force was running share the next one (group commit). No monitor is held around file I/O, so
+ * virtual threads are not pinned.
+ * A failed append is cut off the log again, so no later record lands behind a torn one. If even that fails, appends
+ * are refused until {@link #rotate()} manages to cut it.
+ */
+final class TaskLog implements Closeable {
+
+    private static final String SNAPSHOT = "tasks.snapshot";
+    private static final String LOG_PREFIX = "tasks-";
+    private static final String LOG_SUFFIX = ".log";
+
+    // "TASKSNAP", then the format version, the first log generation not in the snapshot and the next task id.
+    private static final long SNAPSHOT_MAGIC = 0x5441534b534e4150L;
+    private static final int SNAPSHOT_FORMAT = 1;
+    private static final int SNAPSHOT_HEADER = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    // Size of the file regions mapped at a time.
+    private static final long MAP_REGION = 64L << 20;
+
+    private final Path dir;
+
+    private final boolean sync;
+
+    private final LogOpener opener;
+
+    // Held while writing to, rotating or closing the log.
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    // Held while forcing the log, taken before appendLock by rotate and close.
+    private final ReentrantLock forceLock = new ReentrantLock();
+
+    private FileChannel log;
+
+    private long generation;
+
+    // Size of the current log up to its last complete record.
+    private long logSize;
+
+    // A failed append is left in the current log.
+    private boolean torn;
+
+    // Bytes appended and bytes known to be on the disk, over all generations.
+    private volatile long appended;
+
+    private long forced;
+
+    /**
+     * @param sync force every appended record to the disk, otherwise they are left to the operating system
+     *             and only survive a crash of the process.
+     */
+    TaskLog(Path dir, boolean sync) {
+        this(dir, sync, file -> FileChannel.open(file, CREATE, WRITE, APPEND));
+    }
+
+    TaskLog(Path dir, boolean sync, LogOpener opener) {
+        this.dir = dir;
+        this.sync = sync;
+        this.opener = opener;
+    }
+
+    /**
+     * Load the snapshot and replay the logs, then start a new log generation.
+     * @return the next task id recorded by the snapshot, 0 without a snapshot.
+     */
+    long recover(Consumer<TaskRow> put, LongConsumer delete) throws IOException {
+        appendLock.lock();
+        try {
+            return replayAll(put, delete);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private long replayAll(Consumer<TaskRow> put, LongConsumer delete) throws IOException {
+        Files.createDirectories(dir);
+        long snapshotGeneration = 0;
+        long nextId = 0;
+        Path snapshot = dir.resolve(SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            try (FileChannel in = FileChannel.open(snapshot, READ)) {
+                MappedReader reader = new MappedReader(in);
+                ByteBuffer header = reader.at(0, SNAPSHOT_HEADER);
+                if (header == null || header.getLong() != SNAPSHOT_MAGIC || header.getInt() != SNAPSHOT_FORMAT) {
+                    throw new IllegalStateException("Not a task snapshot: " + snapshot);
+                }
+                snapshotGeneration = header.getLong();
+                nextId = header.getLong();
+                long end = replay(reader, SNAPSHOT_HEADER, put, delete);
+                if (end != in.size()) {
+                    throw new IllegalStateException("Corrupt task snapshot " + snapshot + " at " + end);
+                }
+            }
+        }
+        List<Path> logs = logs();
+        long lastGeneration = snapshotGeneration;
+        for (int i = 0; i < logs.size(); i++) {
+            Path file = logs.get(i);
+            long fileGeneration = generationOf(file);
+            lastGeneration = Math.max(lastGeneration, fileGeneration);
+            if (fileGeneration < snapshotGeneration) {
+                // Left behind by a snapshot interrupted before it deleted them.
+                Files.delete(file);
+                continue;
+            }
+            try (FileChannel in = FileChannel.open(file, READ, WRITE)) {
+                long end = replay(new MappedReader(in), 0, put, delete);
+                if (end != in.size()) {
+                    if (i != logs.size() - 1) {
+                        throw new IllegalStateException("Corrupt task log " + file + " at " + end);
+                    }
+                    in.truncate(end);
+                }
+            }
+        }
+        open(lastGeneration + 1);
+        return nextId;
+    }
+
+    /**
+     * Append a record, see {@link TaskRecords}, and with sync wait until it is on the disk.
+     */
+    void append(ByteBuffer record) {
+        long end;
+        appendLock.lock();
+        try {
+            if (torn) {
+                throw new IOException("Task log " + generation + " ends in a torn record, it must be rotated");
+            }
+            int length = record.remaining();
+            try {
+                while (record.hasRemaining()) {
+                    log.write(record);
+                }
+            } catch (IOException ex) {
+                cutTornRecord();
+                throw ex;
+            }
+            logSize += length;
+            appended += length;
+            end = appended;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            appendLock.unlock();
+        }
+        if (sync) {
+            force(end);
+        }
+    }
+
+    // Force the log up to end, unless a force that started after it was appended already did.
+    private void force(long end) {
+        forceLock.lock();
+        try {
+            if (forced >= end) {
+                return;
+            }
+            // Everything appended so far is covered, including the appends of writers waiting for this lock.
+            long upTo = appended;
+            log.force(false);
+            forced = upTo;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Close the current log and continue in a new generation.
+     * @return the new generation, the first one a snapshot taken from now on does not contain.
+     */
+    long rotate() throws IOException {
+        forceLock.lock();
+        appendLock.lock();
+        try {
+            closeLog();
+            open(generation + 1);
+            return generation;
+        } finally {
+            appendLock.unlock();
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Write a snapshot of {@code rows} and delete the logs it replaces.
+     * @param firstGeneration Generation returned by {@link #rotate()} before the rows were read.
+     */
+    void writeSnapshot(long firstGeneration, long nextId, Stream<TaskRow> rows) throws IOException {
+        Path tmp = dir.resolve(SNAPSHOT + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, CREATE, TRUNCATE_EXISTING, READ, WRITE)) {
+            MappedWriter writer = new MappedWriter(out);
+            writer.write(ByteBuffer.allocate(SNAPSHOT_HEADER)
+                    .putLong(SNAPSHOT_MAGIC)
+                    .putInt(SNAPSHOT_FORMAT)
+                    .putLong(firstGeneration)
+                    .putLong(nextId)
+                    .flip());
+            rows.forEach(row -> writer.write(TaskRecords.put(row)));
+            writer.finish();
+        }
+        Files.move(tmp, dir.resolve(SNAPSHOT), ATOMIC_MOVE, REPLACE_EXISTING);
+        for (Path file : logs()) {
+            if (generationOf(file) < firstGeneration) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        forceLock.lock();
+        appendLock.lock();
+        try {
+            if (log != null && log.isOpen()) {
+                closeLog();
+            }
+        } finally {
+            appendLock.unlock();
+            forceLock.unlock();
+        }
+    }
+
+    // With appendLock held. A log that cannot be cut stays torn and refuses appends.
+    private void cutTornRecord() {
+        try {
+            log.truncate(logSize);
+            torn = false;
+        } catch (IOException ex) {
+            torn = true;
+        }
+    }
+
+    // With both locks held. Only a log without a torn record is closed, recovery stops at a torn record.
+    private void closeLog() throws IOException {
+        if (torn) {
+            log.truncate(logSize);
+            torn = false;
+        }
+        log.force(false);
+        log.close();
+        forced = appended;
+    }
+
+    private void open(long newGeneration) throws IOException {
+        generation = newGeneration;
+        log = opener.open(dir.resolve(String.format("%s%016d%s", LOG_PREFIX, newGeneration, LOG_SUFFIX)));
+        logSize = log.size();
+    }
+
+    // Replay the records from position on, returns the position after the last valid record.
+    private static long replay(MappedReader reader, long position, Consumer<TaskRow> put, LongConsumer delete) {
+        while (true) {
+            ByteBuffer header = reader.at(position, TaskRecords.FRAME_HEADER);
+            if (header == null) {
+                return position;
+            }
+            int length = TaskRecords.payloadLength(header);
+            ByteBuffer frame = length <= 0 ? null : reader.at(position, TaskRecords.FRAME_HEADER + length);
+            if (frame == null || !TaskRecords.read(frame, put, delete)) {
+                return position;
+            }
+            position += TaskRecords.FRAME_HEADER + length;
+        }
+    }
+
+    /**
+     * Opens a log file for appending.
+     */
+    @FunctionalInterface
+    interface LogOpener {
+        FileChannel open(Path file) throws IOException;
+    }
+
+    private List<Path> logs() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> logs = new ArrayList<>(files
+                    .filter(file -> file.getFileName().toString().startsWith(LOG_PREFIX))
+                    .filter(file -> file.getFileName().toString().endsWith(LOG_SUFFIX))
+                    .toList());
+            logs.sort(Comparator.comparingLong(TaskLog::generationOf));
+            return logs;
+        }
+    }
+
+    private static long generationOf(Path log) {
+        String name = log.getFileName().toString();
+        return Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length()));
+    }
+
+    /*
+     * Reads a file through read-only mappings of up to MAP_REGION bytes, remapped when a record crosses the end.
+     */
+    private static final class MappedReader {
+        private final FileChannel channel;
+        private final long size;
+        private long regionStart;
+        private MappedByteBuffer region;
+
+        MappedReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        // The file from position on, with at least length bytes remaining, or null past the end of the file.
+        ByteBuffer at(long position, int length) {
+            if (position + length > size) {
+                return null;
+            }
+            try {
+                if (region == null || position < regionStart || position + length > regionStart + region.capacity()) {
+                    regionStart = position;
+                    region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(Math.max(MAP_REGION, length), size - position));
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return region.duplicate().position((int) (position - regionStart));
+        }
+    }
+
+    /*
+     * Writes a file through read-write mappings of MAP_REGION bytes, the file is cut to the written size at the end.
+     */
+    private static final class MappedWriter {
+        private final FileChannel channel;
+        private long position;
+        private MappedByteBuffer region;
+
+        MappedWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void write(ByteBuffer data) {
+            try {
+                if (region == null || region.remaining() < data.remaining()) {
+                    if (region != null) {
+                        region.force();
+                    }
+                    region = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(MAP_REGION, data.remaining()));
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            position += data.remaining();
+            region.put(data);
+        }
+
+        void finish() throws IOException {
+            if (region != null) {
+                region.force();
+            }
+            channel.truncate(position);
+            channel.force(true);
+        }
+    }
+}
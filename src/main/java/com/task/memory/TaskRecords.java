@@ -0,0 +1,162 @@
+package com.task.memory;
+
+import com.task.constants.TaskStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format of the records of the task log and snapshot. A record is framed as its payload length,
+ * the CRC32 of the payload and the payload, so a record torn by a crash is detected when it is read back.
+ * The payload is either a whole row (PUT), the id of a deleted row (DELETE) or a BATCH of such records, which is
+ * read back whole or not at all. Replaying a record is idempotent.
+ */
+final class TaskRecords {
+
+    static final int FRAME_HEADER = 2 * Integer.BYTES;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte BATCH = 3;
+
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final byte NULL_STATUS = -1;
+    private static final int NULL_STRING = -1;
+
+    private TaskRecords() {
+    }
+
+    static ByteBuffer put(TaskRow row) {
+        byte[] title = bytes(row.title());
+        byte[] description = bytes(row.description());
+        int length = 1 + 4 * Long.BYTES + 1 + Integer.BYTES + Long.BYTES
+                + 2 * Integer.BYTES + length(title) + length(description);
+        ByteBuffer payload = ByteBuffer.allocate(length)
+                .put(PUT)
+                .putLong(row.id())
+                .putLong(row.projectId() == null ? NULL_LONG : row.projectId())
+                .put(row.status() == null ? NULL_STATUS : (byte) row.status().getCode())
+                .putInt(row.priority() == null ? NULL_INT : row.priority())
+                .putLong(row.dueDate() == null ? NULL_LONG : row.dueDate().toEpochDay())
+                .putLong(row.version());
+        putString(payload, title);
+        putString(payload, description);
+        return frame(payload);
+    }
+
+    static ByteBuffer delete(long id) {
+        return frame(ByteBuffer.allocate(1 + Long.BYTES).put(DELETE).putLong(id));
+    }
+
+    /**
+     * One record of several PUT and DELETE records, so a crash keeps all of them or none.
+     */
+    static ByteBuffer batch(List<ByteBuffer> records) {
+        int length = 1 + records.stream().mapToInt(ByteBuffer::remaining).sum();
+        ByteBuffer payload = ByteBuffer.allocate(length).put(BATCH);
+        records.forEach(record -> payload.put(record.duplicate()));
+        return frame(payload);
+    }
+
+    /**
+     * Length of the payload of the frame starting at the position of {@code buffer}, or -1 if the frame header
+     * is incomplete. The position is left unchanged.
+     */
+    static int payloadLength(ByteBuffer buffer) {
+        return buffer.remaining() < FRAME_HEADER ? -1 : buffer.getInt(buffer.position());
+    }
+
+    /**
+     * Read the frame at the position of {@code buffer} and pass its row or deleted id on.
+     * @return false, with the position unchanged, if the frame is incomplete or fails its checksum.
+     */
+    static boolean read(ByteBuffer buffer, Consumer<TaskRow> put, LongConsumer delete) {
+        int start = buffer.position();
+        int length = payloadLength(buffer);
+        if (length <= 0 || buffer.remaining() < FRAME_HEADER + length) {
+            return false;
+        }
+        int checksum = buffer.getInt(start + Integer.BYTES);
+        ByteBuffer payload = buffer.slice(start + FRAME_HEADER, length);
+        if (checksum != checksum(payload.duplicate())) {
+            return false;
+        }
+        byte type = payload.get();
+        if (type == BATCH) {
+            // The checksum covers the whole batch, the nested records are complete.
+            while (payload.hasRemaining()) {
+                if (!read(payload, put, delete)) {
+                    return false;
+                }
+            }
+            buffer.position(start + FRAME_HEADER + length);
+            return true;
+        }
+        long id = payload.getLong();
+        if (type == PUT) {
+            long projectId = payload.getLong();
+            byte status = payload.get();
+            int priority = payload.getInt();
+            long dueDate = payload.getLong();
+            long version = payload.getLong();
+            String title = getString(payload);
+            String description = getString(payload);
+            put.accept(new TaskRow(id, projectId == NULL_LONG ? null : projectId, title, description,
+                    status == NULL_STATUS ? null : TaskStatus.fromCode(status), priority == NULL_INT ? null : priority,
+                    dueDate == NULL_LONG ? null : LocalDate.ofEpochDay(dueDate), version));
+        } else if (type == DELETE) {
+            delete.accept(id);
+        } else {
+            return false;
+        }
+        buffer.position(start + FRAME_HEADER + length);
+        return true;
+    }
+
+    private static ByteBuffer frame(ByteBuffer payload) {
+        payload.flip();
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + payload.remaining())
+                .putInt(payload.remaining())
+                .putInt(checksum(payload.duplicate()))
+                .put(payload);
+        return frame.flip();
+    }
+
+    private static int checksum(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_STRING);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,20 @@
+package com.task.memory;
+
+import com.task.constants.TaskStatus;
+
+import java.time.LocalDate;
+
+/**
+ * The columns of a task held by {@link MemoryTaskStore}, an immutable copy of one row.
+ */
+public record TaskRow(long id, Long projectId, String title, String description, TaskStatus status, Integer priority,
+                      LocalDate dueDate, long version) {
+
+    public TaskRow withId(long newId) {
+        return new TaskRow(newId, projectId, title, description, status, priority, dueDate, version);
+    }
+
+    public TaskRow withStatus(TaskStatus newStatus) {
+        return new TaskRow(id, projectId, title, description, newStatus, priority, dueDate, version + 1);
+    }
+}
@@ -0,0 +1,31 @@
+package com.task.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's {@code dataSource} in a {@link MeteredDataSource}. Only that bean is wrapped, the pools
+ * it may delegate to, e.g. with read replicas, are reached through it and would count statements twice.
+ * The timer is registered with the global registry, the DataSource is created before Spring's MeterRegistry
+ * and the global registry forwards to it once it exists.
+ */
+@Component
+@ConditionalOnProperty(value = "task.metrics.enabled", matchIfMissing = true)
+public class MeteredDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+            Timer timer = Timer.builder("task.sql")
+                    .description("Execution time of the SQL statements sent to the database")
+                    .register(Metrics.globalRegistry);
+            return MeteredDataSource.wrap(dataSource, timer);
+        }
+        return bean;
+    }
+}
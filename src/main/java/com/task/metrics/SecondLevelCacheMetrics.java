@@ -0,0 +1,104 @@
+package com.task.metrics;
+
+import com.task.entity.Project;
+import com.task.repository.TaskRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.BiFunction;
+
+/**
+ * Publishes the Hibernate second-level cache regions as the {@code cache.*} meters, tagged with the region name
+ * like the other caches ({@code cache=project}, {@code cache=task-by-project}), plus {@code cache.hit.ratio},
+ * the share of lookups since startup that were hits.
+ * Hibernate counts only while {@code hibernate.generate_statistics} is enabled.
+ */
+@Component
+@ConditionalOnProperty(value = "task.metrics.enabled", matchIfMissing = true)
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        // Query regions are created on their first use. Hibernate remembers a statistics lookup of a region that
+        // does not exist yet as missing and then fails every cached query of it, so create it before any scrape.
+        sessionFactory.getCache().getQueryResultsCache(TaskRepository.TASKS_BY_PROJECT);
+        Statistics statistics = sessionFactory.getStatistics();
+        new RegionMetrics(statistics, Project.CACHE_REGION, Statistics::getDomainDataRegionStatistics).bindTo(registry);
+        new RegionMetrics(statistics, TaskRepository.TASKS_BY_PROJECT, Statistics::getQueryRegionStatistics).bindTo(registry);
+    }
+
+    private static final class RegionMetrics extends CacheMeterBinder<Statistics> {
+
+        private final String region;
+
+        private final BiFunction<Statistics, String, CacheRegionStatistics> lookup;
+
+        RegionMetrics(Statistics statistics, String region, BiFunction<Statistics, String, CacheRegionStatistics> lookup) {
+            super(statistics, region, Tags.empty());
+            this.region = region;
+            this.lookup = lookup;
+        }
+
+        @Override
+        protected Long size() {
+            return null;
+        }
+
+        @Override
+        protected long hitCount() {
+            CacheRegionStatistics statistics = regionStatistics();
+            return statistics == null ? 0 : statistics.getHitCount();
+        }
+
+        @Override
+        protected Long missCount() {
+            CacheRegionStatistics statistics = regionStatistics();
+            return statistics == null ? 0 : statistics.getMissCount();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            return null;
+        }
+
+        @Override
+        protected long putCount() {
+            CacheRegionStatistics statistics = regionStatistics();
+            return statistics == null ? 0 : statistics.getPutCount();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+            Gauge.builder("cache.hit.ratio", this, RegionMetrics::hitRatio)
+                    .tags(getTagsWithCacheName())
+                    .description("Share of the cache lookups since startup that were hits")
+                    .register(registry);
+        }
+
+        private double hitRatio() {
+            long hits = hitCount();
+            long lookups = hits + missCount();
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        // Null if Hibernate has no region of that name.
+        private CacheRegionStatistics regionStatistics() {
+            Statistics statistics = getCache();
+            return statistics == null ? null : lookup.apply(statistics, region);
+        }
+    }
+}
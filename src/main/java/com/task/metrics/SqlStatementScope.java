@@ -0,0 +1,81 @@
+package com.task.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Number and execution time of the SQL statements run by the current thread while the scope is open,
+ * filled by {@link MeteredDataSource}. Scopes nest, closing one restores the enclosing scope.
+ * Work handed to another thread, e.g. the queries of a scatter-gather, counts in the scope of the thread that
+ * handed it over when wrapped with {@link #propagate(Supplier)}.
+ */
+public final class SqlStatementScope implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementScope> CURRENT = new ThreadLocal<>();
+
+    private final SqlStatementScope enclosing;
+
+    private final AtomicLong statements = new AtomicLong();
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private SqlStatementScope(SqlStatementScope enclosing) {
+        this.enclosing = enclosing;
+    }
+
+    public static SqlStatementScope open() {
+        SqlStatementScope scope = new SqlStatementScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Run work in the current scope of the calling thread, whichever thread it later runs on.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> work) {
+        SqlStatementScope scope = CURRENT.get();
+        if (scope == null) {
+            return work;
+        }
+        return () -> {
+            SqlStatementScope previous = CURRENT.get();
+            CURRENT.set(scope);
+            try {
+                return work.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    static void record(long nanos) {
+        SqlStatementScope scope = CURRENT.get();
+        if (scope != null) {
+            scope.statements.incrementAndGet();
+            scope.nanos.addAndGet(nanos);
+        }
+    }
+
+    public long statements() {
+        return statements.get();
+    }
+
+    public long nanos() {
+        return nanos.get();
+    }
+
+    @Override
+    public void close() {
+        if (enclosing == null) {
+            CURRENT.remove();
+        } else {
+            enclosing.statements.addAndGet(statements.get());
+            enclosing.nanos.addAndGet(nanos.get());
+            CURRENT.set(enclosing);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.task.metrics;
+
+import com.task.dto.TaskDTO;
+import com.task.dto.TaskSliceDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ResolvableType;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call through the TaskService interface ({@code task.service}, tagged with the method name and
+ * the exception class) and records the number of tasks returned by the methods that return a
+ * {@code List<TaskDTO>} or a {@link TaskSliceDTO} ({@code task.service.rows}).
+ * Calls a TaskServiceImpl method makes to itself are not intercepted.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(value = "task.metrics.enabled", matchIfMissing = true)
+public class TaskServiceMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Meters of the successful calls per method, looked up once instead of on every call.
+    private final ConcurrentMap<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    @Around("execution(* com.task.service.TaskService.*(..))")
+    public Object measure(ProceedingJoinPoint call) throws Throwable {
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = call.proceed();
+        } catch (Throwable ex) {
+            timer(method.getName(), ex.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        }
+        MethodMeters methodMeters = meters.computeIfAbsent(method, this::methodMeters);
+        methodMeters.timer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        methodMeters.rows().ifPresent(rows -> rows.record(rowCount(result)));
+        return result;
+    }
+
+    private MethodMeters methodMeters(Method method) {
+        ResolvableType returnType = ResolvableType.forMethodReturnType(method);
+        boolean returnsTasks = returnType.toClass() == TaskSliceDTO.class
+                || (returnType.toClass() == List.class && returnType.resolveGeneric(0) == TaskDTO.class);
+        Optional<DistributionSummary> rows = !returnsTasks ? Optional.empty() : Optional.of(
+                DistributionSummary.builder("task.service.rows")
+                        .description("Tasks returned per call of a TaskService list method")
+                        .tag("method", method.getName())
+                        .register(meterRegistry));
+        return new MethodMeters(timer(method.getName(), "none"), rows);
+    }
+
+    private Timer timer(String method, String exception) {
+        return Timer.builder("task.service")
+                .description("Latency of TaskService methods")
+                .tags("method", method, "exception", exception)
+                .register(meterRegistry);
+    }
+
+    private static int rowCount(Object result) {
+        if (result instanceof TaskSliceDTO slice) {
+            return slice.getTasks() == null ? 0 : slice.getTasks().size();
+        }
+        return result == null ? 0 : ((List<?>) result).size();
+    }
+
+    private record MethodMeters(Timer timer, Optional<DistributionSummary> rows) {
+    }
+}
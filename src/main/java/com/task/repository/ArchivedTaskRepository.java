@@ -0,0 +1,72 @@
+package com.task.repository;
+
+import com.task.entity.ArchivedTask;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repository interface for ArchivedTask entities, the cold tier of completed tasks.
+ * Like TaskRepository, every read that feeds a TaskDTO fetches {@code project} in the same query.
+ * The archived tasks of a project are cached with the task lists, the archive is only written through Hibernate.
+ */
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = TaskRepository.WITH_PROJECT)
+    Optional<ArchivedTask> findById(Long id);
+
+    @EntityGraph(attributePaths = TaskRepository.WITH_PROJECT)
+    List<ArchivedTask> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT t.id FROM ArchivedTask t WHERE t.id IN :ids")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = TaskRepository.WITH_PROJECT)
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = TaskRepository.TASKS_BY_PROJECT)})
+    List<ArchivedTask> findByProjectId(Long projectId);
+
+    @EntityGraph(attributePaths = TaskRepository.WITH_PROJECT)
+    List<ArchivedTask> findByProjectIdAndDueDateAfter(Long projectId, LocalDate dueDate);
+
+    /**
+     * Stream the archived tasks of a project through a database cursor, {@code 1000} rows per fetch.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @EntityGraph(attributePaths = TaskRepository.WITH_PROJECT)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t FROM ArchivedTask t WHERE t.project.id = :projectId ORDER BY t.id")
+    Stream<ArchivedTask> streamByProjectId(Long projectId);
+
+    /**
+     * Archived task counts of a project grouped by (status, due date), see
+     * {@link TaskRepository#countByProjectIdGroupByStatusAndDueDate(Long)}.
+     */
+    @Query("SELECT new com.task.repository.TaskGroupCount(t.status, t.dueDate, COUNT(t), SUM(t.priority), COUNT(t.priority)) "
+            + "FROM ArchivedTask t WHERE t.project.id = :projectId GROUP BY t.status, t.dueDate")
+    List<TaskGroupCount> countByProjectIdGroupByStatusAndDueDate(Long projectId);
+
+    /**
+     * Copy the completed tasks among {@code ids} from the task table, with their id and version, in one
+     * INSERT ... SELECT. Must run inside a transaction, followed by {@link TaskRepository#deleteCompletedByIdIn}.
+     * @return number of archived tasks.
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedTask (id, title, description, status, priority, dueDate, project, version, archivedAt) "
+            + "SELECT t.id, t.title, t.description, t.status, t.priority, t.dueDate, t.project, t.version, instant "
+            + "FROM Task t WHERE t.id IN :ids AND t.status = com.task.constants.TaskStatus.COMPLETED")
+    int copyCompletedTasks(Collection<Long> ids);
+}
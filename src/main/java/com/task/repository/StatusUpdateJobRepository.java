@@ -0,0 +1,49 @@
+package com.task.repository;
+
+import com.task.constants.JobState;
+import com.task.entity.StatusUpdateJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository of the asynchronous batch status update journal.
+ * Progress is recorded with increments, so the worker and the coalescing of newer jobs can update the same job.
+ */
+@Repository
+public interface StatusUpdateJobRepository extends JpaRepository<StatusUpdateJob, Long> {
+
+    List<StatusUpdateJob> findByStateInOrderById(Collection<JobState> states);
+
+    @Modifying
+    @Query("UPDATE StatusUpdateJob j SET j.state = com.task.constants.JobState.RUNNING, "
+            + "j.startedAt = COALESCE(j.startedAt, :now) WHERE j.id = :id")
+    int markRunning(Long id, Instant now);
+
+    @Modifying
+    @Query("UPDATE StatusUpdateJob j SET j.processed = j.processed + :processed, j.updated = j.updated + :updated, "
+            + "j.notFound = j.notFound + :notFound WHERE j.id = :id")
+    int recordChunk(Long id, long processed, long updated, long notFound);
+
+    @Modifying
+    @Query("UPDATE StatusUpdateJob j SET j.coalesced = j.coalesced + :coalesced WHERE j.id = :id")
+    int recordCoalesced(Long id, long coalesced);
+
+    @Modifying
+    @Query("UPDATE StatusUpdateJob j SET j.failedAttempts = j.failedAttempts + 1, j.lastError = :error WHERE j.id = :id")
+    int recordFailedAttempt(Long id, String error);
+
+    @Modifying
+    @Query("UPDATE StatusUpdateJob j SET j.state = com.task.constants.JobState.QUEUED, "
+            + "j.failedAttempts = j.failedAttempts + 1, j.lastError = :error WHERE j.id = :id")
+    int requeue(Long id, String error);
+
+    @Modifying
+    @Query("UPDATE StatusUpdateJob j SET j.state = :state, j.finishedAt = :now WHERE j.id = :id")
+    int finish(Long id, JobState state, Instant now);
+}
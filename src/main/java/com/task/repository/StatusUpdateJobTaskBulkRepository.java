@@ -0,0 +1,14 @@
+package com.task.repository;
+
+import java.util.List;
+
+/**
+ * Bulk write operations on StatusUpdateJobTask entities that bypass the persistence context.
+ */
+public interface StatusUpdateJobTaskBulkRepository {
+
+    /**
+     * Add the task ids to the job with JDBC batching, {@code batchSize} rows per batch.
+     */
+    void insertAll(Long jobId, List<Long> taskIds, int batchSize);
+}
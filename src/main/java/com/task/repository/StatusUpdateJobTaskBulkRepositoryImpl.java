@@ -0,0 +1,26 @@
+package com.task.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link StatusUpdateJobTaskBulkRepository}.
+ * The ids are assigned, so saving entities would select every row before inserting it.
+ */
+public class StatusUpdateJobTaskBulkRepositoryImpl implements StatusUpdateJobTaskBulkRepository {
+
+    private static final String INSERT_JOB_TASK = "INSERT INTO status_update_job_task (job_id, task_id) VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(Long jobId, List<Long> taskIds, int batchSize) {
+        jdbcTemplate.batchUpdate(INSERT_JOB_TASK, taskIds, batchSize, (statement, taskId) -> {
+            statement.setLong(1, jobId);
+            statement.setLong(2, taskId);
+        });
+    }
+}
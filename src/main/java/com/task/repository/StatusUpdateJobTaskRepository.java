@@ -0,0 +1,49 @@
+package com.task.repository;
+
+import com.task.entity.StatusUpdateJobTask;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository of the task ids that status update jobs still have to apply.
+ */
+@Repository
+public interface StatusUpdateJobTaskRepository
+        extends JpaRepository<StatusUpdateJobTask, StatusUpdateJobTask.Key>, StatusUpdateJobTaskBulkRepository {
+
+    /**
+     * Next task ids of the job in id order, locked until the transaction that applies them ends.
+     * Coalescing a newer job waits for the lock, so it never races with a chunk being applied.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM StatusUpdateJobTask t WHERE t.jobId = :jobId ORDER BY t.taskId")
+    List<StatusUpdateJobTask> lockNextChunk(Long jobId, Pageable pageable);
+
+    /**
+     * Pending rows of the task ids, locked until the transaction ends. Waits for a chunk that is being applied
+     * and returns only the rows it left.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM StatusUpdateJobTask t WHERE t.taskId IN :taskIds ORDER BY t.jobId, t.taskId")
+    List<StatusUpdateJobTask> lockByTaskIdIn(Collection<Long> taskIds);
+
+    @Modifying
+    @Query("DELETE FROM StatusUpdateJobTask t WHERE t.taskId IN :taskIds")
+    int deleteByTaskIdIn(Collection<Long> taskIds);
+
+    @Modifying
+    @Query("DELETE FROM StatusUpdateJobTask t WHERE t.jobId = :jobId AND t.taskId IN :taskIds")
+    int deleteByJobIdAndTaskIdIn(Long jobId, Collection<Long> taskIds);
+
+    @Modifying
+    @Query("DELETE FROM StatusUpdateJobTask t WHERE t.jobId = :jobId")
+    int deleteByJobId(Long jobId);
+}
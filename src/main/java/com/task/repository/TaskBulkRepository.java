@@ -0,0 +1,19 @@
+package com.task.repository;
+
+import com.task.entity.Task;
+
+import java.util.List;
+
+/**
+ * Bulk write operations on Task entities that bypass the persistence context.
+ */
+public interface TaskBulkRepository {
+
+    /**
+     * Insert the tasks with JDBC batching, {@code batchSize} rows per batch.
+     * The tasks are not attached to the persistence context.
+     * Must run inside a transaction, the cached task queries are invalidated when it completes.
+     * @return the generated ids, in the order of {@code tasks}.
+     */
+    List<Long> insertAll(List<Task> tasks, int batchSize);
+}
@@ -0,0 +1,71 @@
+package com.task.repository;
+
+import com.task.entity.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.task.util.TransactionUtils.afterCommit;
+
+/**
+ * JDBC implementation of {@link TaskBulkRepository}.
+ * {@code Task.id} is an IDENTITY column, which keeps Hibernate from batching inserts, so the rows are
+ * written with plain JDBC batches instead. With {@code rewriteBatchedStatements=true} the MySQL driver
+ * sends every batch as a single multi-row INSERT and still returns all generated keys.
+ * Hibernate does not see these writes, so the cached task lists of {@link TaskRepository#TASKS_BY_PROJECT} are
+ * evicted now, for the reads of the same transaction, and again after commit, for lists other transactions
+ * cached from the rows before it.
+ */
+public class TaskBulkRepositoryImpl implements TaskBulkRepository {
+
+    private static final String INSERT_TASK =
+            "INSERT INTO task (title, description, status_code, priority, due_date, project_id, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> insertAll(List<Task> tasks, int batchSize) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictQueryRegion(TaskRepository.TASKS_BY_PROJECT);
+        afterCommit(() -> cache.evictQueryRegion(TaskRepository.TASKS_BY_PROJECT));
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            List<Long> ids = new ArrayList<>(tasks.size());
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_TASK, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < tasks.size(); from += batchSize) {
+                    for (Task task : tasks.subList(from, Math.min(from + batchSize, tasks.size()))) {
+                        statement.setString(1, task.getTitle());
+                        statement.setString(2, task.getDescription());
+                        statement.setObject(3, task.getStatus() == null ? null : task.getStatus().getCode(), Types.TINYINT);
+                        statement.setObject(4, task.getPriority(), Types.INTEGER);
+                        statement.setDate(5, task.getDueDate() == null ? null : Date.valueOf(task.getDueDate()));
+                        statement.setObject(6, task.getProject() == null ? null : task.getProject().getId(), Types.BIGINT);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids.add(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package com.task.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Id and due date of a task, read without loading the entity.
+ */
+public record TaskDueDate(Long id, LocalDate dueDate) {
+}
@@ -0,0 +1,11 @@
+package com.task.repository;
+
+import com.task.constants.TaskStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Number of tasks of a project sharing a status and a due date, with the sum and count of their non-null priorities.
+ */
+public record TaskGroupCount(TaskStatus status, LocalDate dueDate, long count, Long prioritySum, long priorityCount) {
+}
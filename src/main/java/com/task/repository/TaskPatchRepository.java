@@ -0,0 +1,21 @@
+package com.task.repository;
+
+import com.task.constants.TaskStatus;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Partial updates of Task entities that write only the changed columns.
+ */
+public interface TaskPatchRepository {
+
+    /**
+     * Conditional update of some columns of a task, applied only while the task is still at {@code version}
+     * and in one of {@code fromStatuses}. Increments the version.
+     * Must run inside a transaction.
+     * @param changes new values by Task attribute name, e.g. {@code priority}, at least one.
+     * @return 1 if the task was updated, 0 if it is missing, at another version or in another status.
+     */
+    int patchIfCurrent(Long id, Long version, Collection<TaskStatus> fromStatuses, Map<String, Object> changes);
+}
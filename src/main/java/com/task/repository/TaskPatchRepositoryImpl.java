@@ -0,0 +1,40 @@
+package com.task.repository;
+
+import com.task.constants.TaskStatus;
+import com.task.entity.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Criteria implementation of {@link TaskPatchRepository}.
+ * The SET clause is built from the changes, so a single-field edit is a single-column UPDATE, like the
+ * entity flush of a {@code @DynamicUpdate} entity but without loading the task first.
+ * The UPDATE goes through Hibernate, which invalidates the cached task queries.
+ */
+public class TaskPatchRepositoryImpl implements TaskPatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patchIfCurrent(Long id, Long version, Collection<TaskStatus> fromStatuses, Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("No changes to apply to task " + id);
+        }
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Task> update = builder.createCriteriaUpdate(Task.class);
+        Root<Task> task = update.from(Task.class);
+        changes.forEach(update::set);
+        update.set(task.<Long>get("version"), builder.sum(task.<Long>get("version"), 1L));
+        update.where(builder.equal(task.get("id"), id),
+                builder.equal(task.get("version"), version),
+                task.get("status").in(fromStatuses));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
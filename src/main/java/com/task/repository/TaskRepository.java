@@ -1,25 +1,186 @@
 package com.task.repository;
 
+import com.task.constants.TaskStatus;
 import com.task.entity.Task;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Task entities.
+ * Every read that feeds a TaskDTO fetches {@code project} in the same query (see {@link #WITH_PROJECT}),
+ * otherwise mapping {@code projectName} would issue one extra SELECT per task.
+ * The task lists of a project are cached in the {@value #TASKS_BY_PROJECT} query cache region. Hibernate drops
+ * them whenever the task table is written through it, JDBC writes must do so explicitly, see TaskBulkRepositoryImpl.
  */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
-    @Query("SELECT t FROM Task t WHERE t.dueDate < :currentDate AND t.status <> 'Completed'")
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskBulkRepository, TaskPatchRepository {
+    String WITH_PROJECT = "project";
+
+    String TASKS_BY_PROJECT = "task-by-project";
+
+    @Override
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    Optional<Task> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    Page<Task> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    @Query("SELECT t FROM Task t WHERE t.dueDate < :currentDate AND t.status <> com.task.constants.TaskStatus.COMPLETED")
     List<Task> findByDueDateBeforeAndStatusNotEqualCompleted(LocalDate currentDate);
-    List<Task> findByProjectIdAndStatus(Long projectId, String status);
 
-    List<Task> findByProjectIdAndStatusAndDueDateAfter(Long projectId, String status, LocalDate dueDate);
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = TASKS_BY_PROJECT)})
+    List<Task> findByProjectIdAndStatus(Long projectId, TaskStatus status);
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    List<Task> findByProjectIdAndStatusAndDueDateAfter(Long projectId, TaskStatus status, LocalDate dueDate);
 
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = TASKS_BY_PROJECT)})
     List<Task> findByProjectId(Long projectId);
 
+    /**
+     * Stream the tasks of a project through a database cursor, {@code 1000} rows per fetch.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t FROM Task t WHERE t.project.id = :projectId ORDER BY t.id")
+    Stream<Task> streamByProjectId(Long projectId);
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    List<Task> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Summaries of the tasks, locked until the transaction ends so they are still current when it writes the tasks.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.task.repository.TaskSummary(t.id, t.project.id, t.status, t.priority, t.dueDate) "
+            + "FROM Task t WHERE t.id IN :ids ORDER BY t.id")
+    List<TaskSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    /**
+     * Task counts of a project grouped by (status, due date), read in order of the project/status/due date index.
+     */
+    @Query("SELECT new com.task.repository.TaskGroupCount(t.status, t.dueDate, COUNT(t), SUM(t.priority), COUNT(t.priority)) "
+            + "FROM Task t WHERE t.project.id = :projectId GROUP BY t.status, t.dueDate")
+    List<TaskGroupCount> countByProjectIdGroupByStatusAndDueDate(Long projectId);
+
+    /**
+     * Stream the id and due date of every task that has a due date and is not completed, {@code 1000} rows per fetch.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.task.repository.TaskDueDate(t.id, t.dueDate) FROM Task t "
+            + "WHERE t.dueDate IS NOT NULL AND t.status <> com.task.constants.TaskStatus.COMPLETED")
+    Stream<TaskDueDate> streamOpenTaskDueDates();
+
+    /**
+     * Stream the searchable columns of every task in id order, {@code 1000} rows per fetch.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.task.repository.TaskSearchRow(t.id, t.project.id, t.title, t.description, t.status, t.dueDate) "
+            + "FROM Task t ORDER BY t.id")
+    Stream<TaskSearchRow> streamSearchRows();
+
+    /**
+     * Set-based status update, the matched rows are never loaded into the persistence context.
+     * Must run inside a transaction.
+     * @return number of updated rows.
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.status = :status, t.version = t.version + 1 WHERE t.id IN :ids")
+    int updateStatusByIdIn(Collection<Long> ids, TaskStatus status);
+
+    /**
+     * Ids of the completed tasks due before {@code cutoff}, oldest due date first, read from the due date/status index.
+     * Completed tasks without a due date are never returned.
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.dueDate < :cutoff AND t.status = com.task.constants.TaskStatus.COMPLETED "
+            + "ORDER BY t.dueDate, t.id")
+    List<Long> findCompletedIdsDueBefore(LocalDate cutoff, Pageable pageable);
+
+    /**
+     * Delete the completed tasks among {@code ids}, the tasks in another status are kept.
+     * Must run inside a transaction.
+     * @return number of deleted tasks.
+     */
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id IN :ids AND t.status = com.task.constants.TaskStatus.COMPLETED")
+    int deleteCompletedByIdIn(Collection<Long> ids);
+
+    /**
+     * Conditional update of the editable columns of a task, applied only while the task is still at
+     * {@code version} and in one of {@code fromStatuses}. Increments the version.
+     * Must run inside a transaction.
+     * @return 1 if the task was updated, 0 if it is missing, at another version or in another status.
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.title = :title, t.description = :description, t.status = :status, "
+            + "t.priority = :priority, t.dueDate = :dueDate, t.version = t.version + 1 "
+            + "WHERE t.id = :id AND t.version = :version AND t.status IN :fromStatuses")
+    int updateIfCurrent(Long id, Long version, Collection<TaskStatus> fromStatuses, String title,
+                        String description, TaskStatus status, Integer priority, LocalDate dueDate);
+
+    /*
+     * Keyset pagination. Every query orders by (column, id) so the id breaks ties, and returns a Slice
+     * so no count query is issued. Rows with a NULL sort value come first (MySQL's ordering for ASC).
+     * The "after cursor" queries repeat the cursor value as a range on the leading index column
+     * so they seek instead of scanning, rows past a NULL cursor are read with the "is null"/"is not null" pairs.
+     */
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    Slice<Task> findAllBy(Pageable pageable);
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    @Query("SELECT t FROM Task t WHERE t.dueDate >= :dueDate AND (t.dueDate > :dueDate OR t.id > :id) ORDER BY t.dueDate, t.id")
+    Slice<Task> findByDueDateAfterCursor(LocalDate dueDate, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    Slice<Task> findByDueDateIsNullAndIdGreaterThan(Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    Slice<Task> findByDueDateIsNotNull(Pageable pageable);
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    @Query("SELECT t FROM Task t WHERE t.priority >= :priority AND (t.priority > :priority OR t.id > :id) ORDER BY t.priority, t.id")
+    Slice<Task> findByPriorityAfterCursor(Integer priority, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    Slice<Task> findByPriorityIsNullAndIdGreaterThan(Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    Slice<Task> findByPriorityIsNotNull(Pageable pageable);
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    @Query("SELECT t FROM Task t WHERE t.status >= :status AND (t.status > :status OR t.id > :id) ORDER BY t.status, t.id")
+    Slice<Task> findByStatusAfterCursor(TaskStatus status, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    Slice<Task> findByStatusIsNullAndIdGreaterThan(Long id, Pageable pageable);
 
+    @EntityGraph(attributePaths = WITH_PROJECT)
+    Slice<Task> findByStatusIsNotNull(Pageable pageable);
 }
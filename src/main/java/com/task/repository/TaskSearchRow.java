@@ -0,0 +1,19 @@
+package com.task.repository;
+
+import com.task.constants.TaskStatus;
+import com.task.entity.Task;
+
+import java.time.LocalDate;
+
+/**
+ * The columns of a task held by the full-text search index.
+ */
+public record TaskSearchRow(Long id, Long projectId, String title, String description, TaskStatus status,
+                            LocalDate dueDate) {
+
+    public static TaskSearchRow of(Task task) {
+        Long projectId = task.getProject() == null ? null : task.getProject().getId();
+        return new TaskSearchRow(task.getId(), projectId, task.getTitle(), task.getDescription(), task.getStatus(),
+                task.getDueDate());
+    }
+}
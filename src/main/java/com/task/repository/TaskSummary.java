@@ -0,0 +1,21 @@
+package com.task.repository;
+
+import com.task.constants.TaskStatus;
+import com.task.entity.Task;
+
+import java.time.LocalDate;
+
+/**
+ * The columns of a task that derived in-memory state (overdue index, project counters) depends on.
+ */
+public record TaskSummary(Long id, Long projectId, TaskStatus status, Integer priority, LocalDate dueDate) {
+
+    public static TaskSummary of(Task task) {
+        Long projectId = task.getProject() == null ? null : task.getProject().getId();
+        return new TaskSummary(task.getId(), projectId, task.getStatus(), task.getPriority(), task.getDueDate());
+    }
+
+    public TaskSummary withStatus(TaskStatus newStatus) {
+        return new TaskSummary(id, projectId, newStatus, priority, dueDate);
+    }
+}
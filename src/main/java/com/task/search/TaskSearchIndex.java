@@ -0,0 +1,357 @@
+package com.task.search;
+
+import com.task.constants.TaskStatus;
+import com.task.repository.TaskSearchRow;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.task.util.TransactionUtils.afterCommit;
+
+/**
+ * Full-text index of task titles and descriptions, kept in an embedded Lucene index
+ * in {@code task.search.index-dir}, or in memory when the property is empty.
+ * Every task is one document keyed by its id. Title and description are analyzed text, project, status and due date
+ * are doc values used as filters, so a status change is applied in place without analyzing the text again.
+ * The write paths keep the index current through {@link #put(TaskSearchRow)}, {@link #updateStatus(Collection, TaskStatus)}
+ * and {@link #remove(Collection)}, {@link #synchronize(Supplier)} rebuilds it from the database.
+ * The searcher is reopened in the background, a search sees the writes applied up to
+ * {@code task.search.refresh-interval-ms} before it, {@link #refresh()} waits for the writes applied so far.
+ * Writes are committed every {@code task.search.commit-interval-ms}, a crash loses at most that much of them
+ * until the next synchronization.
+ */
+@Component
+public class TaskSearchIndex {
+
+    private static final String ID = "id";
+    private static final String ID_ORDER = "id_order";
+    private static final String TITLE = "title";
+    private static final String DESCRIPTION = "description";
+    private static final String PROJECT_ID = "project_id";
+    private static final String STATUS = "status";
+    private static final String DUE_DATE = "due_date";
+    private static final String GENERATION = "generation";
+
+    // Best match first, the id breaks ties so cursors are stable.
+    private static final Sort RELEVANCE = new Sort(SortField.FIELD_SCORE, new SortField(ID_ORDER, SortField.Type.LONG));
+
+    private static final Map<String, Float> TEXT_FIELDS = Map.of(TITLE, 2f, DESCRIPTION, 1f);
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final Directory directory;
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    // Sequence number of the latest write, the searcher that reached it sees every write applied so far.
+    private final AtomicLong lastWrite = new AtomicLong();
+
+    /*
+     * Writes of the same id are serialized on its stripe, so a synchronization never overwrites
+     * a document the write path indexed after the synchronization's database snapshot.
+     */
+    private final ReentrantLock[] stripes = new ReentrantLock[64];
+
+    // Ids written while a synchronization is running, the synchronization leaves them as the write path set them.
+    private final Set<Long> changedDuringSync = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private volatile boolean synchronizing;
+
+    /*
+     * Every document is tagged with the generation of the last synchronization that started before it was written,
+     * documents of older generations were not seen by the current one and belong to deleted tasks.
+     */
+    private volatile long generation;
+
+    public TaskSearchIndex(@Value("${task.search.index-dir:}") String indexDir,
+                           @Value("${task.search.refresh-interval-ms:1000}") long refreshIntervalMs) throws IOException {
+        this.directory = indexDir.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexDir));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+        // A caller of refresh() gets a reopen within 10 ms instead of waiting for the next one.
+        this.reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager,
+                refreshIntervalMs / 1000.0, Math.min(refreshIntervalMs, 10) / 1000.0);
+        reopenThread.setName("task-search-refresh");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        if (writer.getLiveCommitData() != null) {
+            writer.getLiveCommitData().forEach(entry -> {
+                if (GENERATION.equals(entry.getKey())) {
+                    generation = Long.parseLong(entry.getValue());
+                }
+            });
+        }
+    }
+
+    /**
+     * Whether the index holds a committed synchronization, e.g. one made before a restart.
+     */
+    public boolean isSynchronized() {
+        return generation > 0;
+    }
+
+    /**
+     * Index the task, replacing its previous document. Inside a transaction the change is applied after commit.
+     */
+    public void put(TaskSearchRow task) {
+        afterCommit(() -> write(task.id(), () -> writer.updateDocument(idTerm(task.id()), document(task, generation))));
+    }
+
+    /**
+     * Change the status of the indexed tasks in place. Inside a transaction the change is applied after commit.
+     */
+    public void updateStatus(Collection<Long> taskIds, TaskStatus status) {
+        afterCommit(() -> taskIds.forEach(taskId -> write(taskId, () -> {
+            // Lucene only updates fields it has seen, before that no document can match anyway.
+            if (!writer.getFieldNames().contains(STATUS)) {
+                return 0;
+            }
+            return writer.updateDocValues(idTerm(taskId), new NumericDocValuesField(STATUS, status.getCode()),
+                    new NumericDocValuesField(GENERATION, generation));
+        })));
+    }
+
+    /**
+     * Drop the tasks from the index. Inside a transaction the change is applied after commit.
+     */
+    public void remove(Collection<Long> taskIds) {
+        afterCommit(() -> taskIds.forEach(taskId -> write(taskId, () -> writer.deleteDocuments(idTerm(taskId)))));
+    }
+
+    /**
+     * Tasks matching {@code text}, best match first.
+     * The text is parsed with Lucene's simple query syntax, all words must match by default, and matched against
+     * the title (weighted twice) and the description. The filters are optional.
+     * @param after Last hit of the previous page, or null for the first page.
+     */
+    public List<Hit> search(String text, Long projectId, TaskStatus status, LocalDate dueFrom, LocalDate dueTo,
+                            Hit after, int limit) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, TEXT_FIELDS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        BooleanQuery.Builder query = new BooleanQuery.Builder().add(parser.parse(text), BooleanClause.Occur.MUST);
+        if (projectId != null) {
+            query.add(NumericDocValuesField.newSlowExactQuery(PROJECT_ID, projectId), BooleanClause.Occur.FILTER);
+        }
+        if (status != null) {
+            query.add(NumericDocValuesField.newSlowExactQuery(STATUS, status.getCode()), BooleanClause.Occur.FILTER);
+        }
+        if (dueFrom != null || dueTo != null) {
+            long from = dueFrom == null ? Long.MIN_VALUE : dueFrom.toEpochDay();
+            long to = dueTo == null ? Long.MAX_VALUE : dueTo.toEpochDay();
+            query.add(NumericDocValuesField.newSlowRangeQuery(DUE_DATE, from, to), BooleanClause.Occur.FILTER);
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopFieldDocs docs = after == null
+                        ? searcher.search(query.build(), limit, RELEVANCE, true)
+                        : searcher.searchAfter(after.toFieldDoc(searcher.getIndexReader().maxDoc() - 1), query.build(),
+                                limit, RELEVANCE, true);
+                List<Hit> hits = new ArrayList<>(docs.scoreDocs.length);
+                for (ScoreDoc doc : docs.scoreDocs) {
+                    Object[] sortValues = ((FieldDoc) doc).fields;
+                    hits.add(new Hit((Long) sortValues[1], (Float) sortValues[0]));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Rebuild the index from the database and commit it.
+     * Every task is indexed again, documents of tasks that no longer exist are removed, searches keep working meanwhile.
+     * @param tasks Opens a stream of every task, called once the writes racing with the rebuild are tracked.
+     * @return number of indexed tasks.
+     */
+    public int synchronize(Supplier<Stream<TaskSearchRow>> tasks) {
+        syncLock.lock();
+        try {
+            changedDuringSync.clear();
+            long syncGeneration = generation + 1;
+            generation = syncGeneration;
+            synchronizing = true;
+            AtomicInteger indexed = new AtomicInteger();
+            try (Stream<TaskSearchRow> rows = tasks.get()) {
+                rows.forEach(task -> locked(task.id(), () -> {
+                    indexed.incrementAndGet();
+                    return changedDuringSync.contains(task.id())
+                            ? 0 : writer.updateDocument(idTerm(task.id()), document(task, syncGeneration));
+                }));
+            }
+            written(writer.deleteDocuments(
+                    NumericDocValuesField.newSlowRangeQuery(GENERATION, Long.MIN_VALUE, syncGeneration - 1)));
+            writer.setLiveCommitData(Map.of(GENERATION, Long.toString(syncGeneration)).entrySet());
+            writer.commit();
+            return indexed.get();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            synchronizing = false;
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Commit the writes applied since the last commit, so they survive a restart.
+     * Skipped while a synchronization is running, it commits when it is done.
+     */
+    @Scheduled(fixedDelayString = "${task.search.commit-interval-ms:60000}")
+    public void commit() {
+        if (!syncLock.tryLock()) {
+            return;
+        }
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Wait until the writes applied so far are searchable.
+     */
+    public void refresh() {
+        try {
+            reopenThread.waitForGeneration(lastWrite.get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        reopenThread.close();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+        analyzer.close();
+    }
+
+    // A write of the write paths, see changedDuringSync.
+    private void write(Long taskId, IndexWrite write) {
+        locked(taskId, () -> {
+            if (synchronizing) {
+                changedDuringSync.add(taskId);
+            }
+            return write.run();
+        });
+    }
+
+    private void locked(Long taskId, IndexWrite write) {
+        ReentrantLock stripe = stripes[Math.floorMod(taskId.hashCode(), stripes.length)];
+        stripe.lock();
+        try {
+            written(write.run());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private void written(long sequenceNumber) {
+        lastWrite.accumulateAndGet(sequenceNumber, Math::max);
+    }
+
+    private static Term idTerm(Long taskId) {
+        return new Term(ID, taskId.toString());
+    }
+
+    private static Document document(TaskSearchRow task, long generation) {
+        Document document = new Document();
+        document.add(new StringField(ID, task.id().toString(), Field.Store.NO));
+        document.add(new NumericDocValuesField(ID_ORDER, task.id()));
+        if (task.title() != null) {
+            document.add(new TextField(TITLE, task.title(), Field.Store.NO));
+        }
+        if (task.description() != null) {
+            document.add(new TextField(DESCRIPTION, task.description(), Field.Store.NO));
+        }
+        if (task.projectId() != null) {
+            document.add(new NumericDocValuesField(PROJECT_ID, task.projectId()));
+        }
+        if (task.status() != null) {
+            document.add(new NumericDocValuesField(STATUS, task.status().getCode()));
+        }
+        if (task.dueDate() != null) {
+            document.add(new NumericDocValuesField(DUE_DATE, task.dueDate().toEpochDay()));
+        }
+        document.add(new NumericDocValuesField(GENERATION, generation));
+        return document;
+    }
+
+    @FunctionalInterface
+    private interface IndexWrite {
+        // The sequence number of the write, 0 when nothing was written.
+        long run() throws IOException;
+    }
+
+    /**
+     * A matching task and its relevance score, also the position a following page starts after.
+     */
+    public record Hit(Long id, float score) {
+
+        // With the last document of the reader, every document that ties on (score, id), i.e. this task, is skipped.
+        private FieldDoc toFieldDoc(int lastDoc) {
+            return new FieldDoc(lastDoc, score, new Object[]{score, id});
+        }
+    }
+}
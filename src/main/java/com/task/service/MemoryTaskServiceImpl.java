@@ -0,0 +1,680 @@
+package com.task.service;
+
+import com.task.cache.ProjectTaskCounters;
+import com.task.constants.TaskStatus;
+import com.task.dto.ProjectStatsDTO;
+import com.task.dto.TaskBatchGetResultDTO;
+import com.task.dto.TaskBatchUpdateResultDTO;
+import com.task.dto.TaskDTO;
+import com.task.dto.TaskPatchDTO;
+import com.task.dto.TaskSliceDTO;
+import com.task.entity.Project;
+import com.task.exception.InvalidRequestException;
+import com.task.exception.TaskConflictException;
+import com.task.exception.TaskNotFoundException;
+import com.task.exception.TaskValidationException;
+import com.task.memory.MemoryTaskStore;
+import com.task.memory.TaskRow;
+import com.task.repository.TaskGroupCount;
+import com.task.repository.TaskSearchRow;
+import com.task.repository.TaskSummary;
+import com.task.search.TaskSearchIndex;
+import com.task.util.CursorUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.service.TaskServiceImpl.label;
+import static com.task.service.TaskServiceImpl.matches;
+import static com.task.service.TaskServiceImpl.parseStatus;
+
+/**
+ * Service class for managing tasks held in memory by {@link MemoryTaskStore}, used instead of the JPA
+ * TaskServiceImpl with {@code task.storage.engine=memory}. Projects and batch jobs stay in the database,
+ * project names are read through the second-level cache.
+ * Both implementations pass TaskServiceContractTest. Every read is served by the store and its indexes, so there
+ * is no task cache or overdue index, {@link TaskSearchIndex} and {@link ProjectTaskCounters} are shared.
+ * Without transactions a read running alongside a batch status update can see part of it, each chunk is applied
+ * and logged at once.
+ */
+@Service
+@ConditionalOnProperty(value = "task.storage.engine", havingValue = "memory")
+public class MemoryTaskServiceImpl implements TaskService {
+
+    private static final Set<String> KEYSET_SORT_COLUMNS = Set.of("dueDate", "priority", "status");
+
+    // Sort name of search cursors, the cursor value is the relevance score of the last hit.
+    private static final String SEARCH_CURSOR = "relevance";
+
+    // Columns getAllTasks sorts by without an index, NULL first as in the database, then by id.
+    private static final Map<String, Comparator<TaskRow>> SORTS = Map.of(
+            "id", Comparator.comparingLong(TaskRow::id),
+            "title", nullsFirst(TaskRow::title),
+            "description", nullsFirst(TaskRow::description),
+            "version", Comparator.comparingLong(TaskRow::version).thenComparingLong(TaskRow::id));
+
+    @Autowired
+    private MemoryTaskStore taskStore;
+
+    @Autowired
+    private ProjectTaskCounters projectTaskCounters;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${task.batch-update.chunk-size:1000}")
+    private int batchUpdateChunkSize;
+
+    /**
+     * Create a new task for a specific project.
+     * @param projectId ID of the project.
+     * @param taskDTO Task data.
+     * @return TaskDTO containing the created task.
+     * @throws DataIntegrityViolationException if the project does not exist.
+     */
+    @Override
+    public TaskDTO createTask(Long projectId, TaskDTO taskDTO) {
+        String projectName = requireProject(projectId);
+        TaskRow task = taskStore.insertAll(List.of(toRow(projectId, taskDTO))).get(0);
+        created(task);
+        return toDTO(task, projectName);
+    }
+
+    /**
+     * Create many tasks for a specific project at once.
+     * @param projectId ID of the project.
+     * @param taskDTOs Task data, already validated.
+     * @return List of the generated task IDs, in the order of {@code taskDTOs}.
+     * @throws DataIntegrityViolationException if the project does not exist.
+     */
+    @Override
+    public List<Long> createTasks(Long projectId, List<TaskDTO> taskDTOs) {
+        requireProject(projectId);
+        List<TaskRow> tasks = taskStore.insertAll(taskDTOs.stream().map(taskDTO -> toRow(projectId, taskDTO)).toList());
+        tasks.forEach(this::created);
+        return tasks.stream().map(TaskRow::id).collect(Collectors.toList());
+    }
+
+    /**
+     * Update a task by its ID, whatever its current version.
+     * For more information, see {@link #updateTask(Long, TaskDTO, Long)}.
+     */
+    @Override
+    public TaskDTO updateTask(Long taskId, TaskDTO updatedTask) {
+        return updateTask(taskId, updatedTask, null);
+    }
+
+    /**
+     * Update a task by its ID if it is still at the expected version. The version is checked and incremented
+     * while the task is locked, so a concurrent update is never overwritten.
+     * @param taskId The ID of the task to update.
+     * @param updatedTask The updated task data.
+     * @param expectedVersion Version the update is based on, e.g. from an If-Match header, or null for any version.
+     * @return TaskDTO containing the updated task and its new version.
+     * @throws TaskValidationException if the task status cannot change to the updated status, see {@link TaskStatus}.
+     * @throws TaskNotFoundException  if the task is not found.
+     * @throws TaskConflictException if the task is not at the expected version.
+     */
+    @Override
+    public TaskDTO updateTask(Long taskId, TaskDTO updatedTask, Long expectedVersion) {
+        TaskStatus status = parseStatus(updatedTask.getStatus());
+        TaskRow[] result = new TaskRow[1];
+        TaskRow current = taskStore.compute(taskId, task -> {
+            checkCurrent(taskId, task, expectedVersion, status);
+            result[0] = new TaskRow(taskId, task.projectId(), updatedTask.getTitle(), updatedTask.getDescription(),
+                    status, updatedTask.getPriority(), updatedTask.getDueDate(), task.version() + 1);
+            return result[0];
+        });
+        updated(current, result[0]);
+        return toDTO(result[0]);
+    }
+
+    /**
+     * Apply a JSON Merge Patch to a task if it is still at the expected version.
+     * Works like {@link #updateTask(Long, TaskDTO, Long)}, except that the fields missing from the patch keep
+     * their current value. A patch that changes nothing leaves the version as it is.
+     * @param taskId The ID of the task to update.
+     * @param patch The fields to change, see {@link TaskPatchDTO}.
+     * @param expectedVersion Version the patch is based on, e.g. from an If-Match header, or null for any version.
+     * @return TaskDTO containing the patched task and its version.
+     * @throws TaskValidationException if the task status cannot change to the patched status, see {@link TaskStatus}.
+     * @throws TaskNotFoundException  if the task is not found.
+     * @throws TaskConflictException if the task is not at the expected version.
+     */
+    @Override
+    public TaskDTO patchTask(Long taskId, TaskPatchDTO patch, Long expectedVersion) {
+        TaskStatus patchedStatus = patch.getStatus() == null ? null : parseStatus(patch.getStatus().orElse(null));
+        TaskRow[] result = new TaskRow[1];
+        TaskRow current = taskStore.compute(taskId, task -> {
+            TaskStatus status = patchedStatus == null && task != null ? task.status() : patchedStatus;
+            checkCurrent(taskId, task, expectedVersion, status);
+            TaskRow patched = new TaskRow(taskId, task.projectId(), merge(patch.getTitle(), task.title()),
+                    merge(patch.getDescription(), task.description()), status,
+                    merge(patch.getPriority(), task.priority()), merge(patch.getDueDate(), task.dueDate()),
+                    task.version());
+            if (patched.equals(task)) {
+                result[0] = task;
+                return task;
+            }
+            result[0] = new TaskRow(taskId, patched.projectId(), patched.title(), patched.description(),
+                    patched.status(), patched.priority(), patched.dueDate(), task.version() + 1);
+            return result[0];
+        });
+        if (result[0] != current) {
+            updated(current, result[0]);
+        }
+        return toDTO(result[0]);
+    }
+
+    /*
+     * Checks of an update, in the order of TaskServiceImpl: existence, version, then status transition.
+     */
+    private static void checkCurrent(Long taskId, TaskRow task, Long expectedVersion, TaskStatus status) {
+        if (task == null) {
+            throw new TaskNotFoundException("Task not found with id: " + taskId);
+        }
+        if (expectedVersion != null && expectedVersion != task.version()) {
+            throw new TaskConflictException("Task " + taskId + " is at version " + task.version()
+                    + ", not " + expectedVersion);
+        }
+        if (task.status() == null || !task.status().canTransitionTo(status)) {
+            throw new TaskValidationException("Cannot update task with status: " + label(task.status()));
+        }
+    }
+
+    private void updated(TaskRow before, TaskRow after) {
+        projectTaskCounters.change(summaryOf(before), summaryOf(after));
+        taskSearchIndex.put(searchRowOf(after));
+    }
+
+    /**
+     * Delete a task by its ID.
+     * @param taskId The ID of the task to delete.
+     * @throws TaskValidationException if the task status is final, see {@link TaskStatus}.
+     * @throws TaskNotFoundException  if the task is not found.
+     */
+    @Override
+    public void deleteTask(Long taskId) {
+        TaskRow deleted = taskStore.compute(taskId, task -> {
+            if (task == null) {
+                throw new TaskNotFoundException("Task not found with id: " + taskId);
+            }
+            // Check that the status is not final before deletion
+            if (task.status() == null || task.status().isFinal()) {
+                throw new TaskValidationException("Cannot delete task with status: " + label(task.status()));
+            }
+            return null;
+        });
+        projectTaskCounters.remove(summaryOf(deleted));
+        taskSearchIndex.remove(List.of(taskId));
+    }
+
+    /**
+     * Retrieve a task by its ID.
+     * @param taskId The ID of the task to retrieve.
+     * @return TaskDTO containing the retrieved task.
+     * @throws TaskNotFoundException if the task is not found.
+     */
+    @Override
+    public TaskDTO getTaskById(Long taskId) {
+        TaskRow task = taskStore.get(taskId);
+        if (task == null) {
+            throw new TaskNotFoundException("Task not found with id: " + taskId);
+        }
+        return toDTO(task);
+    }
+
+    /**
+     * Retrieve many tasks by their IDs in one call.
+     * @param taskIds IDs of the tasks to retrieve, repeated IDs are returned once.
+     * @return TaskBatchGetResultDTO containing the tasks in the order of the IDs and the IDs that were not found.
+     */
+    @Override
+    public TaskBatchGetResultDTO getTasksByIds(List<Long> taskIds) {
+        TaskBatchGetResultDTO result = new TaskBatchGetResultDTO();
+        Function<TaskRow, TaskDTO> toDTO = dtoMapper();
+        for (Long taskId : new LinkedHashSet<>(taskIds)) {
+            TaskRow task = taskStore.get(taskId);
+            if (task != null) {
+                result.getTasks().add(toDTO.apply(task));
+            } else {
+                result.getNotFoundIds().add(taskId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retrieve a paginated list of tasks, ordered by the sort column and then by id.
+     * Due date, priority and status are read in index order, the other columns are sorted.
+     * @param page Page number.
+     * @param size Number of tasks per page.
+     * @param sortBy Sorting criteria (e.g., "dueDate").
+     * @return List of TaskDTOs.
+     * @throws InvalidRequestException if the tasks cannot be sorted by {@code sortBy}.
+     */
+    @Override
+    public List<TaskDTO> getAllTasks(int page, int size, String sortBy) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        Stream<TaskRow> tasks;
+        if (KEYSET_SORT_COLUMNS.contains(sortBy)) {
+            tasks = taskStore.inOrder(column(sortBy));
+        } else if (SORTS.containsKey(sortBy)) {
+            tasks = taskStore.all().sorted(SORTS.get(sortBy));
+        } else {
+            throw new InvalidRequestException("Tasks cannot be sorted by " + sortBy);
+        }
+        return toDTOs(tasks.skip(pageRequest.getOffset()).limit(size));
+    }
+
+    /**
+     * Retrieve a page of tasks in keyset (cursor) mode, read from the index of the sort column
+     * right after the task identified by the cursor.
+     * @param after Cursor returned with the previous page, or null for the first page.
+     * @param size Number of tasks per page.
+     * @param sortBy Sorting criteria, one of "dueDate", "priority" or "status" (in lifecycle order, Pending first).
+     * @return TaskSliceDTO containing the tasks and the cursor of the next page.
+     * @throws InvalidRequestException if the sort column or the cursor is not valid.
+     */
+    @Override
+    public TaskSliceDTO getTasksAfter(String after, int size, String sortBy) {
+        if (!KEYSET_SORT_COLUMNS.contains(sortBy)) {
+            throw new InvalidRequestException("Keyset pagination supports sortBy " + KEYSET_SORT_COLUMNS + ", not " + sortBy);
+        }
+        if (size < 1) {
+            throw new InvalidRequestException("Page size must be at least 1");
+        }
+        MemoryTaskStore.Column column = column(sortBy);
+        Stream<TaskRow> tasks;
+        if (after == null) {
+            tasks = taskStore.inOrder(column);
+        } else {
+            CursorUtils.Cursor cursor = CursorUtils.decode(after, sortBy);
+            tasks = taskStore.inOrderAfter(column, cursorValue(column, cursor.lastValue()), cursor.lastId());
+        }
+        // One extra task tells whether there is a next page.
+        List<TaskRow> rows = tasks.limit(size + 1L).collect(Collectors.toList());
+        boolean hasNext = rows.size() > size;
+        List<TaskRow> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            TaskRow last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(sortBy, last.id(), sortValue(last, column));
+        }
+        return new TaskSliceDTO(toDTOs(page.stream()), nextCursor, hasNext);
+    }
+
+    /**
+     * Update the status of multiple tasks in a batch, whatever their current status.
+     * @param taskIds List of task IDs to update.
+     * @param status status for the tasks.
+     * @return TaskBatchUpdateResultDTO with the per-chunk update counts and the ids that were not found.
+     */
+    @Override
+    public TaskBatchUpdateResultDTO updateBatchTaskStatus(List<Long> taskIds, String status) {
+        TaskStatus newStatus = parseStatus(status);
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(taskIds));
+        TaskBatchUpdateResultDTO result = new TaskBatchUpdateResultDTO();
+        result.setRequested(distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += batchUpdateChunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + batchUpdateChunkSize, distinctIds.size()));
+            List<Long> updatedIds = new ArrayList<>();
+            // One log record and force per chunk.
+            List<TaskRow> previous = taskStore.computeAll(chunk, task -> task == null ? null : task.withStatus(newStatus));
+            for (int i = 0; i < chunk.size(); i++) {
+                TaskRow before = previous.get(i);
+                if (before == null) {
+                    result.getNotFoundIds().add(chunk.get(i));
+                } else {
+                    updatedIds.add(chunk.get(i));
+                    projectTaskCounters.change(summaryOf(before), summaryOf(before).withStatus(newStatus));
+                }
+            }
+            taskSearchIndex.updateStatus(updatedIds, newStatus);
+            result.getChunkUpdateCounts().add(updatedIds.size());
+            result.setUpdated(result.getUpdated() + updatedIds.size());
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #updateBatchTaskStatus(List, String)}, there are no transactions to split in chunks.
+     */
+    @Override
+    public TaskBatchUpdateResultDTO bulkUpdateTaskStatus(List<Long> taskIds, String status) {
+        return updateBatchTaskStatus(taskIds, status);
+    }
+
+    /**
+     * Retrieve every overdue task, oldest due date first.
+     * @return List of TaskDTOs due before today and not completed.
+     */
+    @Override
+    public List<TaskDTO> getOverdueTasks() {
+        return getOverdueTasks(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Retrieve a page of overdue tasks, oldest due date first, read from the due date index of the open tasks.
+     * @param page Page number.
+     * @param size Number of tasks per page.
+     * @return List of TaskDTOs due before today and not completed.
+     */
+    @Override
+    public List<TaskDTO> getOverdueTasks(int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new InvalidRequestException("Page must be at least 0 and size at least 1");
+        }
+        long offset = (long) page * size;
+        return toDTOs(taskStore.openDueBefore(LocalDate.now())
+                .skip(offset)
+                .limit(size));
+    }
+
+    /**
+     * Nothing to check, the overdue tasks are read from the due date index of the store.
+     * @return 0.
+     */
+    @Override
+    public int checkOverdueTaskIndex() {
+        return 0;
+    }
+
+    /**
+     * Retrieve the aggregate task counts of a project, served from {@link ProjectTaskCounters}.
+     * @param projectId ID of the project.
+     * @return ProjectStatsDTO with the task count per status, the overdue count and the average priority.
+     */
+    @Override
+    public ProjectStatsDTO getProjectStats(Long projectId) {
+        return projectTaskCounters.stats(projectId, LocalDate.now(), this::countTaskGroups);
+    }
+
+    /**
+     * Recount the projects held by {@link ProjectTaskCounters} and repair the ones that drifted.
+     * Runs every hour by default ({@code task.project-stats.reconcile-cron}).
+     * @return number of projects whose counters were repaired.
+     */
+    @Scheduled(cron = "${task.project-stats.reconcile-cron:0 15 * * * *}")
+    @Override
+    public int reconcileProjectStats() {
+        return projectTaskCounters.reconcile(this::countTaskGroups);
+    }
+
+    private List<TaskGroupCount> countTaskGroups(Long projectId) {
+        Map<List<Object>, List<TaskRow>> groups = taskStore.ofProject(projectId)
+                .collect(Collectors.groupingBy(task -> Arrays.asList(task.status(), task.dueDate()),
+                        LinkedHashMap::new, Collectors.toList()));
+        return groups.values().stream()
+                .map(tasks -> {
+                    TaskRow first = tasks.get(0);
+                    List<Integer> priorities = tasks.stream().map(TaskRow::priority).filter(Objects::nonNull).toList();
+                    Long prioritySum = priorities.isEmpty() ? null : priorities.stream().mapToLong(Integer::longValue).sum();
+                    return new TaskGroupCount(first.status(), first.dueDate(), tasks.size(), prioritySum, priorities.size());
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Full-text search over task titles and descriptions, best match first, see {@link TaskSearchIndex}.
+     * @param query Search text in Lucene's simple query syntax, e.g. {@code deploy "release notes" -draft}.
+     * @param projectId Only tasks of this project, optional.
+     * @param status Only tasks with this status, optional.
+     * @param dueFrom Only tasks due on or after this date, optional.
+     * @param dueTo Only tasks due on or before this date, optional.
+     * @param after Cursor returned with the previous page, or null for the first page.
+     * @param size Number of tasks per page.
+     * @return TaskSliceDTO containing the matching tasks and the cursor of the next page.
+     * @throws InvalidRequestException if the query is empty, or the status, the size or the cursor is not valid.
+     */
+    @Override
+    public TaskSliceDTO searchTasks(String query, Long projectId, String status, LocalDate dueFrom, LocalDate dueTo,
+                                    String after, int size) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestException("Search query is required");
+        }
+        if (size < 1) {
+            throw new InvalidRequestException("Page size must be at least 1");
+        }
+        TaskStatus statusFilter = status == null ? null : parseStatus(status);
+        TaskSearchIndex.Hit afterHit = null;
+        if (after != null) {
+            CursorUtils.Cursor cursor = CursorUtils.decode(after, SEARCH_CURSOR);
+            try {
+                afterHit = new TaskSearchIndex.Hit(cursor.lastId(), Float.parseFloat(String.valueOf(cursor.lastValue())));
+            } catch (NumberFormatException ex) {
+                throw new InvalidRequestException("Malformed cursor: " + after);
+            }
+        }
+
+        // One extra hit tells whether there is a next page.
+        List<TaskSearchIndex.Hit> hits = taskSearchIndex.search(query, projectId, statusFilter, dueFrom, dueTo, afterHit, size + 1);
+        boolean hasNext = hits.size() > size;
+        List<TaskSearchIndex.Hit> page = hasNext ? hits.subList(0, size) : hits;
+        Function<TaskRow, TaskDTO> toDTO = dtoMapper();
+        List<TaskDTO> taskDTOs = page.stream()
+                .map(hit -> taskStore.get(hit.id()))
+                .filter(Objects::nonNull)
+                .map(toDTO)
+                .filter(task -> matches(task, projectId, statusFilter, dueFrom, dueTo))
+                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasNext) {
+            TaskSearchIndex.Hit last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(SEARCH_CURSOR, last.id(), last.score());
+        }
+        return new TaskSliceDTO(taskDTOs, nextCursor, hasNext);
+    }
+
+    /**
+     * Build {@link TaskSearchIndex} from the store once the application is ready, unless it kept a committed
+     * synchronization across the restart. The writes it missed meanwhile are repaired by the nightly rebuild.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildTaskSearchIndex() {
+        if (!taskSearchIndex.isSynchronized()) {
+            rebuildTaskSearchIndex();
+        }
+    }
+
+    /**
+     * Re-index every task in {@link TaskSearchIndex} and drop the documents of deleted tasks.
+     * Runs every night at 00:30 by default ({@code task.search.rebuild-cron}).
+     * @return number of indexed tasks.
+     */
+    @Scheduled(cron = "${task.search.rebuild-cron:0 30 0 * * *}")
+    @Override
+    public int rebuildTaskSearchIndex() {
+        return taskSearchIndex.synchronize(() -> taskStore.all().map(MemoryTaskServiceImpl::searchRowOf));
+    }
+
+    /**
+     * Write a snapshot of the store, after which the log it replaces is deleted.
+     * Runs every ten minutes by default ({@code task.memory.snapshot-cron}).
+     */
+    @Scheduled(cron = "${task.memory.snapshot-cron:0 */10 * * * *}")
+    public void snapshotTasks() {
+        try {
+            taskStore.snapshot();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Retrieve all tasks associated with a specific project, in id order.
+     * @param projectId ID of the project.
+     * @return List of TaskDTOs representing tasks associated with the project.
+     */
+    @Override
+    public List<TaskDTO> getTasksByProjectId(Long projectId) {
+        return toDTOs(taskStore.ofProject(projectId));
+    }
+
+    /**
+     * Stream all tasks associated with a specific project, one at a time.
+     * @param projectId ID of the project.
+     * @param consumer Receives the TaskDTOs in id order.
+     */
+    @Override
+    public void exportTasksByProjectId(Long projectId, Consumer<TaskDTO> consumer) {
+        Function<TaskRow, TaskDTO> toDTO = dtoMapper();
+        taskStore.ofProject(projectId).forEach(task -> consumer.accept(toDTO.apply(task)));
+    }
+
+    /**
+     * Retrieve tasks associated with a specific project and matching a given status.
+     * @param projectId ID of the project.
+     * @param status Status to filter tasks.
+     * @return List of TaskDTOs representing tasks matching the project and status.
+     */
+    @Override
+    public List<TaskDTO> getTasksByProjectIdAndStatus(Long projectId, String status) {
+        TaskStatus taskStatus = parseStatus(status);
+        return toDTOs(taskStore.ofProject(projectId).filter(task -> task.status() == taskStatus));
+    }
+
+    /**
+     * Retrieve tasks associated with a specific project that are completed after a certain due date.
+     * @param projectId ID of the project.
+     * @param dueDate Due date to filter completed tasks.
+     * @return List of TaskDTOs representing completed tasks after the specified due date.
+     */
+    @Override
+    public List<TaskDTO> getCompletedTasksAfterEstimatedTime(Long projectId, LocalDate dueDate) {
+        return toDTOs(taskStore.ofProject(projectId)
+                .filter(task -> task.status() == COMPLETED && task.dueDate() != null && task.dueDate().isAfter(dueDate)));
+    }
+
+    private void created(TaskRow task) {
+        projectTaskCounters.add(summaryOf(task));
+        taskSearchIndex.put(searchRowOf(task));
+    }
+
+    // The project name, like the foreign key of the task table the project must exist.
+    private String requireProject(Long projectId) {
+        Project project = projectId == null ? null : entityManager.find(Project.class, projectId);
+        if (project == null) {
+            throw new DataIntegrityViolationException("Project not found with id: " + projectId);
+        }
+        return project.getName();
+    }
+
+    private List<TaskDTO> toDTOs(Stream<TaskRow> tasks) {
+        return tasks.map(dtoMapper()).collect(Collectors.toList());
+    }
+
+    private TaskDTO toDTO(TaskRow task) {
+        return dtoMapper().apply(task);
+    }
+
+    // Maps tasks to TaskDTOs, looking every project name up once.
+    private Function<TaskRow, TaskDTO> dtoMapper() {
+        Map<Long, Optional<String>> projectNames = new HashMap<>();
+        return task -> toDTO(task, task.projectId() == null ? null : projectNames.computeIfAbsent(task.projectId(),
+                id -> Optional.ofNullable(entityManager.find(Project.class, id)).map(Project::getName)).orElse(null));
+    }
+
+    private static TaskDTO toDTO(TaskRow task, String projectName) {
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setTaskId(task.id());
+        taskDTO.setProjectId(task.projectId());
+        taskDTO.setProjectName(projectName);
+        taskDTO.setTitle(task.title());
+        taskDTO.setDescription(task.description());
+        taskDTO.setStatus(label(task.status()));
+        taskDTO.setPriority(task.priority());
+        taskDTO.setDueDate(task.dueDate());
+        taskDTO.setVersion(task.version());
+        return taskDTO;
+    }
+
+    private static TaskRow toRow(Long projectId, TaskDTO taskDTO) {
+        TaskStatus status = taskDTO.getStatus() == null ? null : TaskStatus.fromLabel(taskDTO.getStatus());
+        return new TaskRow(0, projectId, taskDTO.getTitle(), taskDTO.getDescription(), status, taskDTO.getPriority(),
+                taskDTO.getDueDate(), 0);
+    }
+
+    private static TaskSummary summaryOf(TaskRow task) {
+        return new TaskSummary(task.id(), task.projectId(), task.status(), task.priority(), task.dueDate());
+    }
+
+    private static TaskSearchRow searchRowOf(TaskRow task) {
+        return new TaskSearchRow(task.id(), task.projectId(), task.title(), task.description(), task.status(),
+                task.dueDate());
+    }
+
+    // Merge patch of one field: null leaves the field alone, an empty Optional clears it.
+    private static <T> T merge(Optional<T> patched, T current) {
+        return patched == null ? current : patched.orElse(null);
+    }
+
+    private static MemoryTaskStore.Column column(String sortBy) {
+        return switch (sortBy) {
+            case "dueDate" -> MemoryTaskStore.Column.DUE_DATE;
+            case "priority" -> MemoryTaskStore.Column.PRIORITY;
+            default -> MemoryTaskStore.Column.STATUS;
+        };
+    }
+
+    // The value a cursor holds for the column, the status is held as its code.
+    private static Object sortValue(TaskRow task, MemoryTaskStore.Column column) {
+        return switch (column) {
+            case DUE_DATE -> task.dueDate();
+            case PRIORITY -> task.priority();
+            case STATUS -> task.status() == null ? null : task.status().getCode();
+        };
+    }
+
+    private static Object cursorValue(MemoryTaskStore.Column column, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return switch (column) {
+                case DUE_DATE -> LocalDate.parse(value);
+                case PRIORITY -> Integer.valueOf(value);
+                case STATUS -> TaskStatus.fromCode(Integer.parseInt(value)).getCode();
+            };
+        } catch (DateTimeParseException | IllegalArgumentException ex) {
+            throw new InvalidRequestException("Malformed cursor value: " + value);
+        }
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<TaskRow> nullsFirst(Function<TaskRow, T> column) {
+        return Comparator.comparing(column, Comparator.nullsFirst(Comparator.<T>naturalOrder()))
+                .thenComparingLong(TaskRow::id);
+    }
+}
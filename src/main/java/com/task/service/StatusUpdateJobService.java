@@ -0,0 +1,23 @@
+package com.task.service;
+
+import com.task.dto.StatusUpdateJobDTO;
+
+import java.util.List;
+
+public interface StatusUpdateJobService {
+
+    /**
+     * For more information, see {@link StatusUpdateJobServiceImpl#submit(List taskIds, String status)}
+     */
+    StatusUpdateJobDTO submit(List<Long> taskIds, String status);
+
+    /**
+     * For more information, see {@link StatusUpdateJobServiceImpl#getJob(Long jobId)}
+     */
+    StatusUpdateJobDTO getJob(Long jobId);
+
+    /**
+     * For more information, see {@link StatusUpdateJobServiceImpl#resumePendingJobs()}
+     */
+    int resumePendingJobs();
+}
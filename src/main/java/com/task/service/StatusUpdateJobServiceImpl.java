@@ -0,0 +1,334 @@
+package com.task.service;
+
+import com.task.constants.JobState;
+import com.task.constants.TaskStatus;
+import com.task.dto.StatusUpdateJobDTO;
+import com.task.dto.TaskBatchUpdateResultDTO;
+import com.task.entity.StatusUpdateJob;
+import com.task.entity.StatusUpdateJobTask;
+import com.task.exception.InvalidRequestException;
+import com.task.exception.JobNotFoundException;
+import com.task.exception.JobQueueFullException;
+import com.task.repository.StatusUpdateJobRepository;
+import com.task.repository.StatusUpdateJobTaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for asynchronous batch status updates.
+ * A job is journaled in the database before it is accepted: one {@link StatusUpdateJob} row and one
+ * {@link StatusUpdateJobTask} row per task id. A fixed pool of {@code task.batch-jobs.workers} threads applies
+ * the jobs in chunks of {@code task.batch-jobs.chunk-size} ids, each chunk commits the status update together with
+ * the removal of its journal rows, so a job interrupted by a restart is resumed where it stopped.
+ * A job stopped by an error outside of its chunks, e.g. while the database is unreachable, is queued again and
+ * retried after {@code task.batch-jobs.retry-delay}.
+ */
+@Service
+public class StatusUpdateJobServiceImpl implements StatusUpdateJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatusUpdateJobServiceImpl.class);
+
+    private static final Set<JobState> PENDING = EnumSet.of(JobState.QUEUED, JobState.RUNNING);
+
+    private static final int ID_LOOKUP_CHUNK_SIZE = 1000;
+
+    private static final int ERROR_LENGTH = 1000;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private StatusUpdateJobRepository jobRepository;
+
+    @Autowired
+    private StatusUpdateJobTaskRepository jobTaskRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${task.batch-jobs.workers:2}")
+    private int workers;
+
+    @Value("${task.batch-jobs.max-pending:100}")
+    private int maxPendingJobs;
+
+    @Value("${task.batch-jobs.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${task.batch-jobs.chunk-attempts:3}")
+    private int chunkAttempts;
+
+    @Value("${task.batch-jobs.retry-delay:10s}")
+    private Duration retryDelay;
+
+    @Value("${task.bulk-insert.batch-size:500}")
+    private int insertBatchSize;
+
+    private ScheduledExecutorService executor;
+
+    // Jobs queued in or running on the executor. Submitting is refused once maxPendingJobs are pending.
+    private final AtomicInteger pendingJobs = new AtomicInteger();
+
+    private final Set<Long> startedJobs = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void startWorkers() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(workers,
+                runnable -> new Thread(runnable, "status-update-job-" + threads.incrementAndGet()));
+    }
+
+    /**
+     * Stop the workers. A job that did not finish stays pending in the journal and is resumed on the next start.
+     */
+    @PreDestroy
+    public void stopWorkers() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Accept a batch status update to be applied in the background.
+     * Repeated ids are applied once. Ids that are still pending in an earlier job are dropped from that job,
+     * only the status requested last is applied to them.
+     * @param taskIds List of task IDs to update.
+     * @param status status for the tasks.
+     * @return StatusUpdateJobDTO of the queued job.
+     * @throws InvalidRequestException if the status is not valid.
+     * @throws JobQueueFullException if {@code task.batch-jobs.max-pending} jobs are already pending.
+     */
+    @Override
+    public StatusUpdateJobDTO submit(List<Long> taskIds, String status) {
+        TaskStatus newStatus = parseStatus(status);
+        if (pendingJobs.incrementAndGet() > maxPendingJobs) {
+            pendingJobs.decrementAndGet();
+            throw new JobQueueFullException("Too many pending batch status updates, retry later");
+        }
+        StatusUpdateJob job;
+        try {
+            job = enqueue(taskIds, newStatus);
+        } catch (RuntimeException ex) {
+            pendingJobs.decrementAndGet();
+            throw ex;
+        }
+        startedJobs.add(job.getId());
+        execute(job.getId());
+        return toDTO(job);
+    }
+
+    /**
+     * Retrieve the progress of a job.
+     * @param jobId ID of the job.
+     * @return StatusUpdateJobDTO containing the progress, failures and throughput of the job.
+     * @throws JobNotFoundException if the job does not exist.
+     */
+    @Override
+    public StatusUpdateJobDTO getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .map(StatusUpdateJobServiceImpl::toDTO)
+                .orElseThrow(() -> new JobNotFoundException("Job not found with id: " + jobId));
+    }
+
+    /**
+     * Start the jobs left pending by a previous run once the application is ready.
+     * Jobs that already run in this instance are skipped.
+     * @return number of jobs that were started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public int resumePendingJobs() {
+        int resumed = 0;
+        for (StatusUpdateJob job : jobRepository.findByStateInOrderById(PENDING)) {
+            if (startedJobs.add(job.getId())) {
+                pendingJobs.incrementAndGet();
+                execute(job.getId());
+                resumed++;
+            }
+        }
+        return resumed;
+    }
+
+    /*
+     * Journal the job in one transaction. Coalescing deletes the pending rows of the same task ids from earlier
+     * jobs, it waits for a chunk of those jobs that is being applied, see StatusUpdateJobTaskRepository#lockNextChunk.
+     * The rows are locked before they are counted, so a row applied by its job during the wait is not counted.
+     */
+    StatusUpdateJob enqueue(List<Long> taskIds, TaskStatus newStatus) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(taskIds));
+        return transactionTemplate.execute(tx -> {
+            Map<Long, Long> coalesced = new HashMap<>();
+            for (int from = 0; from < distinctIds.size(); from += ID_LOOKUP_CHUNK_SIZE) {
+                List<Long> chunk = distinctIds.subList(from, Math.min(from + ID_LOOKUP_CHUNK_SIZE, distinctIds.size()));
+                for (StatusUpdateJobTask pending : jobTaskRepository.lockByTaskIdIn(chunk)) {
+                    coalesced.merge(pending.getJobId(), 1L, Long::sum);
+                }
+                jobTaskRepository.deleteByTaskIdIn(chunk);
+            }
+            coalesced.forEach(jobRepository::recordCoalesced);
+
+            StatusUpdateJob job = new StatusUpdateJob();
+            job.setNewStatus(newStatus);
+            job.setState(JobState.QUEUED);
+            job.setRequested(distinctIds.size());
+            job.setCreatedAt(Instant.now());
+            StatusUpdateJob savedJob = jobRepository.save(job);
+            jobTaskRepository.insertAll(savedJob.getId(), distinctIds, insertBatchSize);
+            return savedJob;
+        });
+    }
+
+    private void execute(Long jobId) {
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException ex) {
+            // Shutting down, the job stays pending in the journal.
+            jobDone(jobId);
+        }
+    }
+
+    private void run(Long jobId) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> jobRepository.markRunning(jobId, Instant.now()));
+            boolean more = true;
+            while (more && !Thread.currentThread().isInterrupted()) {
+                more = applyNextChunk(jobId);
+            }
+        } catch (RuntimeException ex) {
+            if (!executor.isShutdown()) {
+                retryLater(jobId, ex);
+                return;
+            }
+        }
+        jobDone(jobId);
+    }
+
+    /*
+     * The job's state or its failed chunk could not be written, its journal rows are left. Queue it again and
+     * run it after the retry delay, it stays pending meanwhile.
+     */
+    private void retryLater(Long jobId, RuntimeException ex) {
+        log.error("Status update job {} stopped, retrying in {}", jobId, retryDelay, ex);
+        try {
+            transactionTemplate.executeWithoutResult(tx -> jobRepository.requeue(jobId, errorOf(ex)));
+        } catch (RuntimeException requeueEx) {
+            log.warn("Status update job {} could not be marked as queued", jobId, requeueEx);
+        }
+        try {
+            executor.schedule(() -> run(jobId), retryDelay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException rejected) {
+            // Shutting down, the job stays pending in the journal.
+            jobDone(jobId);
+        }
+    }
+
+    private void jobDone(Long jobId) {
+        startedJobs.remove(jobId);
+        pendingJobs.decrementAndGet();
+    }
+
+    /*
+     * Apply the next chunk of the job, retried up to task.batch-jobs.chunk-attempts times.
+     * A job whose chunk keeps failing is marked failed and its remaining ids are dropped from the journal.
+     * Returns false once the job is finished.
+     */
+    private boolean applyNextChunk(Long jobId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(tx -> applyChunk(jobId));
+            } catch (RuntimeException ex) {
+                if (executor.isShutdown()) {
+                    return false;
+                }
+                transactionTemplate.executeWithoutResult(tx -> jobRepository.recordFailedAttempt(jobId, errorOf(ex)));
+                if (attempt >= chunkAttempts) {
+                    transactionTemplate.executeWithoutResult(tx -> {
+                        jobTaskRepository.deleteByJobId(jobId);
+                        jobRepository.finish(jobId, JobState.FAILED, Instant.now());
+                    });
+                    return false;
+                }
+            }
+        }
+    }
+
+    private boolean applyChunk(Long jobId) {
+        StatusUpdateJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new JobNotFoundException("Job not found with id: " + jobId));
+        List<Long> taskIds = jobTaskRepository.lockNextChunk(jobId, PageRequest.of(0, chunkSize)).stream()
+                .map(StatusUpdateJobTask::getTaskId)
+                .collect(Collectors.toList());
+        if (taskIds.isEmpty()) {
+            jobRepository.finish(jobId, JobState.COMPLETED, Instant.now());
+            return false;
+        }
+        // Joins this transaction, the in-memory task structures are updated after it commits. With shards the tasks
+        // of each shard commit on their own first, a chunk that fails after that is applied again.
+        TaskBatchUpdateResultDTO result = taskService.updateBatchTaskStatus(taskIds, job.getNewStatus().getLabel());
+        jobTaskRepository.deleteByJobIdAndTaskIdIn(jobId, taskIds);
+        jobRepository.recordChunk(jobId, taskIds.size(), result.getUpdated(), result.getNotFoundIds().size());
+        return true;
+    }
+
+    private static StatusUpdateJobDTO toDTO(StatusUpdateJob job) {
+        StatusUpdateJobDTO dto = new StatusUpdateJobDTO();
+        dto.setJobId(job.getId());
+        dto.setState(job.getState().name());
+        dto.setNewStatus(job.getNewStatus().getLabel());
+        dto.setRequested(job.getRequested());
+        dto.setProcessed(job.getProcessed());
+        dto.setUpdated(job.getUpdated());
+        dto.setNotFound(job.getNotFound());
+        dto.setCoalesced(job.getCoalesced());
+        dto.setRemaining(Math.max(0, job.getRequested() - job.getProcessed() - job.getCoalesced()));
+        dto.setFailedAttempts(job.getFailedAttempts());
+        dto.setLastError(job.getLastError());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        if (job.getStartedAt() != null) {
+            Instant end = job.getFinishedAt() == null ? Instant.now() : job.getFinishedAt();
+            long millis = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+            dto.setTasksPerSecond(job.getProcessed() * 1000.0 / millis);
+        }
+        return dto;
+    }
+
+    private static String errorOf(RuntimeException ex) {
+        String error = ex.getMessage() == null ? ex.getClass().getName() : ex.getMessage();
+        return error.length() > ERROR_LENGTH ? error.substring(0, ERROR_LENGTH) : error;
+    }
+
+    private static TaskStatus parseStatus(String label) {
+        try {
+            return TaskStatus.fromLabel(label);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException(ex.getMessage());
+        }
+    }
+}
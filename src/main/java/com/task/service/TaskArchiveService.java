@@ -0,0 +1,14 @@
+package com.task.service;
+
+public interface TaskArchiveService {
+
+    /**
+     * For more information, see {@link TaskArchiveServiceImpl#startArchiving()}
+     */
+    boolean startArchiving();
+
+    /**
+     * For more information, see {@link TaskArchiveServiceImpl#archiveCompletedTasks()}
+     */
+    int archiveCompletedTasks();
+}
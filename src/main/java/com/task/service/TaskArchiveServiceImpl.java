@@ -0,0 +1,155 @@
+package com.task.service;
+
+import com.task.datasource.ShardRouter;
+import com.task.entity.ArchivedTask;
+import com.task.repository.ArchivedTaskRepository;
+import com.task.repository.TaskRepository;
+import com.task.search.TaskSearchIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service class moving old completed tasks from the task table to the {@link ArchivedTask} table, which keeps
+ * the task table, its indexes and the per-project queries down to the open and recently completed tasks.
+ * A completed task is archived once its due date is more than {@code task.archive.min-age} in the past, the task
+ * has no completion time and completed tasks cannot change, so the due date is the age that is known.
+ * Tasks are moved {@code task.archive.batch-size} at a time, each batch is one short transaction on its shard that
+ * copies and deletes the same rows. Between batches the archiver sleeps so that it works at most
+ * {@code task.archive.duty-cycle} of the time, a slow batch on a busy database is followed by a long pause.
+ */
+@Service
+@ConditionalOnProperty(value = "task.storage.engine", havingValue = "jpa", matchIfMissing = true)
+public class TaskArchiveServiceImpl implements TaskArchiveService {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${task.archive.min-age:90d}")
+    private Duration minAge;
+
+    @Value("${task.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${task.archive.duty-cycle:0.2}")
+    private double dutyCycle;
+
+    private ExecutorService executor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    public void startWorker() {
+        executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "task-archiver"));
+    }
+
+    /**
+     * Stop the archiver after its current batch, the next run continues with the tasks that are left.
+     */
+    @PreDestroy
+    public void stopWorker() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Start archiving on the archiver thread, so a long run does not hold up the other scheduled tasks.
+     * Runs every night at 02:00 by default ({@code task.archive.cron}).
+     * @return false if the archiver is still busy with the previous run.
+     */
+    @Scheduled(cron = "${task.archive.cron:0 0 2 * * *}")
+    @Override
+    public boolean startArchiving() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                archiveCompletedTasks();
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Archive the completed tasks due before {@code task.archive.min-age} ago, on every shard in turn,
+     * until none is left or the thread is interrupted. Archived tasks are dropped from {@link TaskSearchIndex},
+     * the cached tasks and project counters stay valid and the archived tasks are still read by TaskService.
+     * @return number of archived tasks.
+     */
+    @Override
+    public int archiveCompletedTasks() {
+        LocalDate cutoff = LocalDate.now().minusDays(minAge.toDays());
+        int archived = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            List<Long> batch;
+            do {
+                long start = System.nanoTime();
+                batch = shardRouter.onShard(shard, false, () -> transactionTemplate.execute(tx -> archiveBatch(cutoff)));
+                archived += batch.size();
+                if (batch.size() == batchSize && !pause(System.nanoTime() - start)) {
+                    return archived;
+                }
+            } while (batch.size() == batchSize);
+        }
+        return archived;
+    }
+
+    private List<Long> archiveBatch(LocalDate cutoff) {
+        List<Long> taskIds = taskRepository.findCompletedIdsDueBefore(cutoff, PageRequest.of(0, batchSize));
+        if (taskIds.isEmpty()) {
+            return taskIds;
+        }
+        // Completed tasks are final, the rows copied are the rows deleted.
+        int copied = archivedTaskRepository.copyCompletedTasks(taskIds);
+        int deleted = taskRepository.deleteCompletedByIdIn(taskIds);
+        if (copied != deleted) {
+            throw new IllegalStateException("Archived " + copied + " tasks but deleted " + deleted);
+        }
+        taskSearchIndex.remove(taskIds);
+        return taskIds;
+    }
+
+    /*
+     * Sleep for as long as the duty cycle leaves idle after a batch that took batchNanos.
+     * Returns false if the thread was interrupted.
+     */
+    private boolean pause(long batchNanos) {
+        long pauseNanos = (long) (batchNanos * (1 - dutyCycle) / dutyCycle);
+        try {
+            TimeUnit.NANOSECONDS.sleep(pauseNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
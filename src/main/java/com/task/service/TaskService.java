@@ -1,9 +1,15 @@
 package com.task.service;
 
+import com.task.dto.ProjectStatsDTO;
+import com.task.dto.TaskBatchGetResultDTO;
+import com.task.dto.TaskBatchUpdateResultDTO;
 import com.task.dto.TaskDTO;
+import com.task.dto.TaskPatchDTO;
+import com.task.dto.TaskSliceDTO;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TaskService {
     /**
@@ -11,11 +17,26 @@ public interface TaskService {
      */
     TaskDTO createTask(Long projectId, TaskDTO task);
 
+    /**
+     * For more information, see {@link TaskServiceImpl#createTasks(Long, List)}
+     */
+    List<Long> createTasks(Long projectId, List<TaskDTO> tasks);
+
     /**
      * For more information, see {@link TaskServiceImpl#updateTask(Long taskId, TaskDTO updatedTask)}
      */
     TaskDTO updateTask(Long taskId, TaskDTO updatedTask);
 
+    /**
+     * For more information, see {@link TaskServiceImpl#updateTask(Long taskId, TaskDTO updatedTask, Long expectedVersion)}
+     */
+    TaskDTO updateTask(Long taskId, TaskDTO updatedTask, Long expectedVersion);
+
+    /**
+     * For more information, see {@link TaskServiceImpl#patchTask(Long taskId, TaskPatchDTO patch, Long expectedVersion)}
+     */
+    TaskDTO patchTask(Long taskId, TaskPatchDTO patch, Long expectedVersion);
+
     /**
      * For more information, see {@link TaskServiceImpl#deleteTask(Long taskId)}
      */
@@ -26,23 +47,77 @@ public interface TaskService {
      */
     TaskDTO getTaskById(Long taskId);
 
+    /**
+     * For more information, see {@link TaskServiceImpl#getTasksByIds(List taskIds)}
+     */
+    TaskBatchGetResultDTO getTasksByIds(List<Long> taskIds);
+
     /**
      * For more information, see {@link TaskServiceImpl#getAllTasks(int page, int size, String sortBy)}
      */
     List<TaskDTO> getAllTasks(int page, int size, String sortBy);
 
-    void updateBatchTaskStatus(List<Long> taskIds, String status);
+    /**
+     * For more information, see {@link TaskServiceImpl#getTasksAfter(String after, int size, String sortBy)}
+     */
+    TaskSliceDTO getTasksAfter(String after, int size, String sortBy);
+
+    /**
+     * For more information, see {@link TaskServiceImpl#updateBatchTaskStatus(List taskIds, String status)}
+     */
+    TaskBatchUpdateResultDTO updateBatchTaskStatus(List<Long> taskIds, String status);
+
+    /**
+     * For more information, see {@link TaskServiceImpl#bulkUpdateTaskStatus(List taskIds, String status)}
+     */
+    TaskBatchUpdateResultDTO bulkUpdateTaskStatus(List<Long> taskIds, String status);
 
     /**
      * For more information, see {@link TaskServiceImpl#getOverdueTasks()}
      */
     List<TaskDTO> getOverdueTasks();
 
+    /**
+     * For more information, see {@link TaskServiceImpl#getOverdueTasks(int page, int size)}
+     */
+    List<TaskDTO> getOverdueTasks(int page, int size);
+
+    /**
+     * For more information, see {@link TaskServiceImpl#checkOverdueTaskIndex()}
+     */
+    int checkOverdueTaskIndex();
+
+    /**
+     * For more information, see {@link TaskServiceImpl#getProjectStats(Long projectId)}
+     */
+    ProjectStatsDTO getProjectStats(Long projectId);
+
+    /**
+     * For more information, see {@link TaskServiceImpl#reconcileProjectStats()}
+     */
+    int reconcileProjectStats();
+
+    /**
+     * For more information, see {@link TaskServiceImpl#searchTasks(String, Long, String, LocalDate, LocalDate, String, int)}
+     */
+    TaskSliceDTO searchTasks(String query, Long projectId, String status, LocalDate dueFrom, LocalDate dueTo,
+                             String after, int size);
+
+    /**
+     * For more information, see {@link TaskServiceImpl#rebuildTaskSearchIndex()}
+     */
+    int rebuildTaskSearchIndex();
+
     /**
      * For more information, see {@link TaskServiceImpl#getTasksByProjectId(Long projectId)}
      */
     List<TaskDTO> getTasksByProjectId(Long projectId);
 
+    /**
+     * For more information, see {@link TaskServiceImpl#exportTasksByProjectId(Long projectId, Consumer consumer)}
+     */
+    void exportTasksByProjectId(Long projectId, Consumer<TaskDTO> consumer);
+
     /**
      * For more information, see {@link TaskServiceImpl#getTasksByProjectIdAndStatus(Long projectId, String status)}
      */
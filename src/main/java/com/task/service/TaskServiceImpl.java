@@ -1,96 +1,364 @@
 package com.task.service;
 
-import com.task.constants.StatusConstants;
+import com.task.cache.OverdueTaskIndex;
+import com.task.cache.ProjectTaskCounters;
+import com.task.cache.TaskCache;
+import com.task.constants.TaskStatus;
+import com.task.datasource.ShardKey;
+import com.task.datasource.ShardRouter;
+import com.task.dto.ProjectStatsDTO;
+import com.task.dto.TaskBatchGetResultDTO;
+import com.task.dto.TaskBatchUpdateResultDTO;
 import com.task.dto.TaskDTO;
+import com.task.dto.TaskPatchDTO;
+import com.task.dto.TaskSliceDTO;
+import com.task.entity.ArchivedTask;
 import com.task.entity.Project;
 import com.task.entity.Task;
+import com.task.exception.InvalidRequestException;
+import com.task.exception.TaskConflictException;
 import com.task.exception.TaskNotFoundException;
 import com.task.exception.TaskValidationException;
+import com.task.repository.ArchivedTaskRepository;
+import com.task.repository.TaskDueDate;
+import com.task.repository.TaskGroupCount;
 import com.task.repository.TaskRepository;
+import com.task.repository.TaskSearchRow;
+import com.task.repository.TaskSummary;
+import com.task.search.TaskSearchIndex;
+import com.task.util.CursorUtils;
+import com.task.util.MergeUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static com.task.constants.StatusConstants.COMPLETED;
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.datasource.ShardKey.Kind.PROJECT_ID;
+import static com.task.datasource.ShardKey.Kind.TASK_ID;
 import static com.task.util.ConversionUtils.convertToTask;
 import static com.task.util.ConversionUtils.convertToTaskDTO;
 
 /**
  * Service class for managing Task entities.
+ * With shards, see {@link com.task.datasource.ShardDataSourceConfig}, the methods with a {@link ShardKey} run on
+ * the shard of that project or task, the others look tasks up on their shards or gather them from every shard.
+ * Completed tasks moved to the archive by {@link TaskArchiveService} are still found by id and listed by the
+ * completed task queries, project stats and exports, the other lists and indexes only hold live tasks.
  */
 @Service
+@ConditionalOnProperty(value = "task.storage.engine", havingValue = "jpa", matchIfMissing = true)
 public class TaskServiceImpl implements TaskService {
 
+    private static final Set<String> KEYSET_SORT_COLUMNS = Set.of("dueDate", "priority", "status");
+
+    private static final int ID_LOOKUP_CHUNK_SIZE = 1000;
+
+    private static final int UPDATE_ATTEMPTS = 5;
+
+    // Sort name of search cursors, the cursor value is the relevance score of the last hit.
+    private static final String SEARCH_CURSOR = "relevance";
+
+    // Order of the sort column, NULL first as in the database, then the id.
+    private static final Comparator<SortedTask> SORT_ORDER = Comparator
+            .comparing(SortedTask::sortValue, Comparator.nullsFirst(TaskServiceImpl::compareSortValues))
+            .thenComparing(SortedTask::id);
+
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TaskCache taskCache;
+
+    @Autowired
+    private OverdueTaskIndex overdueTaskIndex;
+
+    @Autowired
+    private ProjectTaskCounters projectTaskCounters;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${task.batch-update.chunk-size:1000}")
+    private int batchUpdateChunkSize;
+
+    @Value("${task.bulk-insert.batch-size:500}")
+    private int bulkInsertBatchSize;
+
     /**
      * Create a new task for a specific project.
+     * The project is read through the second-level cache, so the returned task carries its project name
+     * without an extra SELECT once the project is cached.
      * @param projectId ID of the project.
      * @param taskDTO Task data.
      * @return TaskDTO containing the created task.
      */
     @Override
-    public TaskDTO createTask(Long projectId, TaskDTO taskDTO) {
+    public TaskDTO createTask(@ShardKey(PROJECT_ID) Long projectId, TaskDTO taskDTO) {
+        shardRouter.placeProject(projectId);
         Task task = convertToTask(taskDTO);
+        Project project = entityManager.find(Project.class, projectId);
+        if (project == null) {
+            // Left to the foreign key to reject.
+            project = new Project();
+            project.setId(projectId);
+        }
+        task.setProject(project);
+        // Nothing to invalidate in the task cache, misses are never cached.
+        Task savedTask = taskRepository.save(task);
+        overdueTaskIndex.put(savedTask.getId(), savedTask.getDueDate(), savedTask.getStatus());
+        projectTaskCounters.add(TaskSummary.of(savedTask));
+        taskSearchIndex.put(TaskSearchRow.of(savedTask));
+        return convertToTaskDTO(savedTask);
+    }
+
+    /**
+     * Create many tasks for a specific project at once.
+     * The tasks are inserted with JDBC batches of {@code task.bulk-insert.batch-size} rows in a single transaction.
+     * @param projectId ID of the project.
+     * @param taskDTOs Task data, already validated.
+     * @return List of the generated task IDs, in the order of {@code taskDTOs}.
+     */
+    @Transactional
+    @Override
+    public List<Long> createTasks(@ShardKey(PROJECT_ID) Long projectId, List<TaskDTO> taskDTOs) {
+        shardRouter.placeProject(projectId);
         Project project = new Project();
         project.setId(projectId);
-        task.setProject(project);
-        return convertToTaskDTO(taskRepository.save(task));
+        List<Task> tasks = taskDTOs.stream()
+                .map(taskDTO -> {
+                    Task task = convertToTask(taskDTO);
+                    task.setId(null);
+                    task.setProject(project);
+                    return task;
+                })
+                .collect(Collectors.toList());
+        List<Long> ids = taskRepository.insertAll(tasks, bulkInsertBatchSize);
+        for (int i = 0; i < ids.size(); i++) {
+            Task task = tasks.get(i);
+            overdueTaskIndex.put(ids.get(i), task.getDueDate(), task.getStatus());
+            projectTaskCounters.add(new TaskSummary(ids.get(i), projectId, task.getStatus(), task.getPriority(), task.getDueDate()));
+            taskSearchIndex.put(new TaskSearchRow(ids.get(i), projectId, task.getTitle(), task.getDescription(),
+                    task.getStatus(), task.getDueDate()));
+        }
+        return ids;
+    }
+
+    /**
+     * Update a task by its ID, whatever its current version.
+     * For more information, see {@link #updateTask(Long, TaskDTO, Long)}.
+     */
+    @Override
+    public TaskDTO updateTask(@ShardKey(TASK_ID) Long taskId, TaskDTO updatedTask) {
+        return updateTask(taskId, updatedTask, null);
     }
 
     /**
-     * Update a task by its ID.
+     * Update a task by its ID if it is still at the expected version.
+     * The current task is read through {@link TaskCache} and written with one conditional UPDATE
+     * (see {@link TaskRepository#updateIfCurrent}) that re-checks the version and status and increments the version,
+     * so updating a cached task costs a single statement and a concurrent update is never overwritten.
+     * The updated task is written through to the cache.
+     * Without an expected version the update applies to the current version and is retried on a fresh read,
+     * up to {@value #UPDATE_ATTEMPTS} times, when a concurrent update wins.
      * @param taskId The ID of the task to update.
      * @param updatedTask The updated task data.
-     * @return TaskDTO containing the updated task.
-     * @throws TaskValidationException if the task status is not "In Progress" or "Pending".
+     * @param expectedVersion Version the update is based on, e.g. from an If-Match header, or null for any version.
+     * @return TaskDTO containing the updated task and its new version.
+     * @throws TaskValidationException if the task status cannot change to the updated status, see {@link TaskStatus}.
      * @throws TaskNotFoundException  if the task is not found.
+     * @throws TaskConflictException if the task is not, or no longer, at the expected version, or without an
+     * expected version if every attempt lost to a concurrent update.
      */
     @Override
-    public TaskDTO updateTask(Long taskId, TaskDTO updatedTask) {
-        Optional<Task> existingTaskOptional = taskRepository.findById(taskId);
+    public TaskDTO updateTask(@ShardKey(TASK_ID) Long taskId, TaskDTO updatedTask, Long expectedVersion) {
+        TaskStatus status = parseStatus(updatedTask.getStatus());
+        for (int attempt = 1; ; attempt++) {
+            TaskDTO current = currentTask(taskId, expectedVersion);
+            TaskStatus currentStatus = current.getStatus() == null ? null : TaskStatus.fromLabel(current.getStatus());
+            if (currentStatus == null || !currentStatus.canTransitionTo(status)) {
+                throw new TaskValidationException("Cannot update task with status: " + current.getStatus());
+            }
 
-        if (existingTaskOptional.isPresent()) {
-            Task existingTask = existingTaskOptional.get();
-            // Check if status is "In Progress" or "Pending" before update.
-            if (StatusConstants.IN_PROGRESS.equals(existingTask.getStatus()) || StatusConstants.PENDING.equals(existingTask.getStatus())) {
-                Task task = convertToTask(updatedTask);
-                // Save the updated task
-                return convertToTaskDTO(taskRepository.save(task));
-            } else {
-                throw new TaskValidationException("Cannot delete task with status: " + existingTask.getStatus());
+            Long version = current.getVersion();
+            long evictionsBeforeUpdate = taskCache.evictions();
+            int updated = transactionTemplate.execute(tx -> taskRepository.updateIfCurrent(taskId, version,
+                    TaskStatus.sourcesOf(status), updatedTask.getTitle(), updatedTask.getDescription(), status,
+                    updatedTask.getPriority(), updatedTask.getDueDate()));
+            if (updated == 1) {
+                TaskDTO result = withVersion(current, updatedTask, status, version + 1);
+                updated(current, result, evictionsBeforeUpdate);
+                return result;
+            }
+            taskCache.evict(taskId);
+            // Changed or deleted since it was read.
+            if (expectedVersion != null || attempt == UPDATE_ATTEMPTS) {
+                throw lostUpdate(taskId, expectedVersion);
             }
-        } else {
-            throw new TaskNotFoundException("Task not found with id: " + taskId);
         }
     }
 
+    /**
+     * Apply a JSON Merge Patch to a task if it is still at the expected version.
+     * Works like {@link #updateTask(Long, TaskDTO, Long)}, except that the fields missing from the patch keep
+     * their current value and the conditional UPDATE (see {@link TaskRepository#patchIfCurrent}) only sets the
+     * columns whose value changed, so editing the priority writes the priority and the version.
+     * A patch that changes nothing is not written and leaves the version as it is.
+     * @param taskId The ID of the task to update.
+     * @param patch The fields to change, see {@link TaskPatchDTO}.
+     * @param expectedVersion Version the patch is based on, e.g. from an If-Match header, or null for any version.
+     * @return TaskDTO containing the patched task and its version.
+     * @throws TaskValidationException if the task status cannot change to the patched status, see {@link TaskStatus}.
+     * @throws TaskNotFoundException  if the task is not found.
+     * @throws TaskConflictException if the task is not, or no longer, at the expected version, or without an
+     * expected version if every attempt lost to a concurrent update.
+     */
+    @Override
+    public TaskDTO patchTask(@ShardKey(TASK_ID) Long taskId, TaskPatchDTO patch, Long expectedVersion) {
+        TaskStatus patchedStatus = patch.getStatus() == null ? null : parseStatus(patch.getStatus().orElse(null));
+        for (int attempt = 1; ; attempt++) {
+            TaskDTO current = currentTask(taskId, expectedVersion);
+            TaskStatus currentStatus = current.getStatus() == null ? null : TaskStatus.fromLabel(current.getStatus());
+            TaskStatus status = patchedStatus == null ? currentStatus : patchedStatus;
+            if (currentStatus == null || !currentStatus.canTransitionTo(status)) {
+                throw new TaskValidationException("Cannot update task with status: " + current.getStatus());
+            }
+
+            Long version = current.getVersion();
+            TaskDTO result = withVersion(current, current, status, version + 1);
+            Map<String, Object> changes = new LinkedHashMap<>();
+            merge(patch.getTitle(), current.getTitle(), "title", result::setTitle, changes);
+            merge(patch.getDescription(), current.getDescription(), "description", result::setDescription, changes);
+            merge(patch.getPriority(), current.getPriority(), "priority", result::setPriority, changes);
+            merge(patch.getDueDate(), current.getDueDate(), "dueDate", result::setDueDate, changes);
+            if (status != currentStatus) {
+                changes.put("status", status);
+            }
+            if (changes.isEmpty()) {
+                return current;
+            }
+
+            long evictionsBeforeUpdate = taskCache.evictions();
+            int updated = transactionTemplate.execute(tx -> taskRepository.patchIfCurrent(taskId, version,
+                    TaskStatus.sourcesOf(status), changes));
+            if (updated == 1) {
+                updated(current, result, evictionsBeforeUpdate);
+                return result;
+            }
+            taskCache.evict(taskId);
+            // Changed or deleted since it was read.
+            if (expectedVersion != null || attempt == UPDATE_ATTEMPTS) {
+                throw lostUpdate(taskId, expectedVersion);
+            }
+        }
+    }
+
+    /*
+     * The conditional UPDATE matched no row: not found if the task was deleted, otherwise a conflict that is a
+     * failed precondition only if the caller gave the version.
+     */
+    private TaskConflictException lostUpdate(Long taskId, Long expectedVersion) {
+        getTaskById(taskId);
+        return new TaskConflictException("Task " + taskId + " was changed by a concurrent update", expectedVersion != null);
+    }
+
+    /*
+     * The current task, read through the cache unless the caller already saw a newer version.
+     */
+    private TaskDTO currentTask(Long taskId, Long expectedVersion) {
+        TaskDTO current = getTaskById(taskId);
+        if (expectedVersion != null && current.getVersion() < expectedVersion) {
+            // The cached copy is older than the one the caller read.
+            taskCache.evict(taskId);
+            current = getTaskById(taskId);
+        }
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new TaskConflictException("Task " + taskId + " is at version " + current.getVersion()
+                    + ", not " + expectedVersion);
+        }
+        return current;
+    }
+
+    /*
+     * Bring the in-memory task structures up to date after an update of the task committed.
+     */
+    private void updated(TaskDTO current, TaskDTO result, long evictionsBeforeUpdate) {
+        Long taskId = result.getTaskId();
+        TaskStatus status = TaskStatus.fromLabel(result.getStatus());
+        // Written through, so the next read or update of the task does not need a SELECT.
+        taskCache.put(taskId, result, evictionsBeforeUpdate);
+        overdueTaskIndex.put(taskId, result.getDueDate(), status);
+        projectTaskCounters.change(summaryOf(current), summaryOf(result));
+        taskSearchIndex.put(new TaskSearchRow(taskId, result.getProjectId(), result.getTitle(),
+                result.getDescription(), status, result.getDueDate()));
+    }
+
     /**
      * Delete a task by its ID.
      * @param taskId The ID of the task to delete.
-     * @throws TaskValidationException if the task status is not "In Progress" or "Pending".
+     * @throws TaskValidationException if the task status is final, see {@link TaskStatus}.
      * @throws TaskNotFoundException  if the task is not found.
      */
     @Override
-    public void deleteTask(Long taskId) {
+    public void deleteTask(@ShardKey(TASK_ID) Long taskId) {
         Optional<Task> taskOptional = taskRepository.findById(taskId);
         if (taskOptional.isPresent()) {
             Task task = taskOptional.get();
-            // Check if status is "In Progress" or "Pending" before deletion
-            if (StatusConstants.IN_PROGRESS.equals(task.getStatus()) || StatusConstants.PENDING.equals(task.getStatus())) {
+            // Check that the status is not final before deletion
+            if (task.getStatus() != null && !task.getStatus().isFinal()) {
                 taskRepository.deleteById(taskId);
+                taskCache.evict(taskId);
+                overdueTaskIndex.remove(List.of(taskId));
+                projectTaskCounters.remove(TaskSummary.of(task));
+                taskSearchIndex.remove(List.of(taskId));
             } else {
-                throw new TaskValidationException("Cannot delete task with status: " + task.getStatus());
+                throw new TaskValidationException("Cannot delete task with status: " + label(task.getStatus()));
             }
+        } else if (archivedTaskRepository.existsById(taskId)) {
+            throw new TaskValidationException("Cannot delete task with status: " + label(COMPLETED));
         } else {
             throw new TaskNotFoundException("Task not found with id: " + taskId);
         }
@@ -98,27 +366,94 @@ public class TaskServiceImpl implements TaskService {
 
     /**
      * Retrieve a task by its ID.
+     * Reads go through {@link TaskCache}, a hit returns the cached TaskDTO instance without querying the database.
+     * A task missing from the task table is looked up in the archive.
      * @param taskId The ID of the task to retrieve.
      * @return TaskDTO containing the retrieved task.
      * @throws TaskNotFoundException if the task is not found.
      */
     @Override
-    public TaskDTO getTaskById(Long taskId) {
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + taskId));
+    public TaskDTO getTaskById(@ShardKey(TASK_ID) Long taskId) {
+        return taskCache.get(taskId, id -> {
+            Optional<Task> task = taskRepository.findById(id);
+            if (task.isPresent()) {
+                return convertToTaskDTO(task.get());
+            }
+            ArchivedTask archivedTask = archivedTaskRepository.findById(id)
+                    .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
+            return convertToTaskDTO(archivedTask);
+        });
+    }
+
+    /**
+     * Retrieve many tasks by their IDs in one call.
+     * Cached tasks are taken from {@link TaskCache}, the others are loaded with their project in chunks of
+     * {@value #ID_LOOKUP_CHUNK_SIZE} ids, one query per chunk and all shards in parallel, and cached.
+     * The ids a chunk did not find are looked up in the archive with one more query.
+     * @param taskIds IDs of the tasks to retrieve, repeated IDs are returned once.
+     * @return TaskBatchGetResultDTO containing the tasks in the order of the IDs and the IDs that were not found.
+     */
+    @Override
+    public TaskBatchGetResultDTO getTasksByIds(List<Long> taskIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(taskIds));
+        Map<Long, TaskDTO> tasks = taskCache.getAll(distinctIds, this::loadTasks);
+        TaskBatchGetResultDTO result = new TaskBatchGetResultDTO();
+        for (Long taskId : distinctIds) {
+            TaskDTO task = tasks.get(taskId);
+            if (task != null) {
+                result.getTasks().add(task);
+            } else {
+                result.getNotFoundIds().add(taskId);
+            }
+        }
+        return result;
+    }
 
-        return convertToTaskDTO(task);
+    private Map<Long, TaskDTO> loadTasks(List<Long> taskIds) {
+        Map<Integer, List<Long>> idsByShard = shardRouter.groupByShard(taskIds);
+        Map<Long, TaskDTO> tasks = new HashMap<>();
+        shardRouter.onShards(idsByShard.keySet(), true, shard -> loadShardTasks(idsByShard.get(shard)))
+                .values()
+                .forEach(tasks::putAll);
+        return tasks;
+    }
+
+    private Map<Long, TaskDTO> loadShardTasks(List<Long> taskIds) {
+        Map<Long, TaskDTO> tasks = new HashMap<>();
+        for (int from = 0; from < taskIds.size(); from += ID_LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = taskIds.subList(from, Math.min(from + ID_LOOKUP_CHUNK_SIZE, taskIds.size()));
+            taskRepository.findByIdIn(chunk).forEach(task -> tasks.put(task.getId(), convertToTaskDTO(task)));
+            List<Long> missingIds = chunk.stream().filter(id -> !tasks.containsKey(id)).toList();
+            if (!missingIds.isEmpty()) {
+                archivedTaskRepository.findByIdIn(missingIds)
+                        .forEach(task -> tasks.put(task.getId(), convertToTaskDTO(task)));
+            }
+        }
+        return tasks;
     }
 
     /**
      * Retrieve a paginated list of tasks.
+     * With shards, every shard returns its first {@code (page + 1) * size} tasks in parallel and the page is cut
+     * from their merge, ordered by the sort column and then by id. Text columns are then ordered by Java's
+     * String order rather than the database collation.
      * @param page Page number.
      * @param size Number of tasks per page.
      * @param sortBy Sorting criteria (e.g., "dueDate").
      * @return List of TaskDTOs.
      */
+    @Transactional(readOnly = true)
     @Override
     public List<TaskDTO> getAllTasks(int page, int size, String sortBy) {
+        if (shardRouter.isSharded()) {
+            int limit = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE);
+            Sort sort = sortBy.equals("id") ? Sort.by("id") : Sort.by(sortBy, "id");
+            List<List<SortedTask>> shards = shardRouter.onEveryShard(true, shard ->
+                    sorted(taskRepository.findAllBy(PageRequest.of(0, limit, sort)).getContent(), sortBy));
+            return MergeUtils.merge(shards, SORT_ORDER, (long) page * size, size).stream()
+                    .map(SortedTask::task)
+                    .collect(Collectors.toList());
+        }
         Page<Task> taskPage = taskRepository.findAll(PageRequest.of(page, size, Sort.by(sortBy)));
 
         return taskPage.getContent().stream()
@@ -127,64 +462,557 @@ public class TaskServiceImpl implements TaskService {
     }
 
     /**
-     * Update the status of multiple tasks in a batch.
+     * Retrieve a page of tasks in keyset (cursor) mode.
+     * Instead of an offset, the page starts right after the task identified by the cursor,
+     * ordered by the sort column and then by id, so the cost does not grow with the page depth
+     * and no count query is needed. With shards, every shard returns its page after the cursor in parallel
+     * and the page is the start of their merge.
+     * @param after Cursor returned with the previous page, or null for the first page.
+     * @param size Number of tasks per page.
+     * @param sortBy Sorting criteria, one of "dueDate", "priority" or "status" (in lifecycle order, Pending first).
+     * @return TaskSliceDTO containing the tasks and the cursor of the next page.
+     * @throws InvalidRequestException if the sort column or the cursor is not valid.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public TaskSliceDTO getTasksAfter(String after, int size, String sortBy) {
+        if (!KEYSET_SORT_COLUMNS.contains(sortBy)) {
+            throw new InvalidRequestException("Keyset pagination supports sortBy " + KEYSET_SORT_COLUMNS + ", not " + sortBy);
+        }
+        if (size < 1) {
+            throw new InvalidRequestException("Page size must be at least 1");
+        }
+        CursorUtils.Cursor cursor = after == null ? null : CursorUtils.decode(after, sortBy);
+        List<Slice<SortedTask>> slices = shardRouter.onEveryShard(true, shard -> {
+            Slice<Task> slice = cursor == null
+                    ? taskRepository.findAllBy(PageRequest.of(0, size, Sort.by(sortBy, "id")))
+                    : findSliceAfter(cursor, size, sortBy);
+            return slice.map(task -> sorted(task, sortBy));
+        });
+
+        List<SortedTask> content = MergeUtils.merge(slices.stream().map(Slice::getContent).toList(), SORT_ORDER, 0, size);
+        boolean hasNext = slices.stream().anyMatch(Slice::hasNext)
+                || slices.stream().mapToInt(Slice::getNumberOfElements).sum() > size;
+        String nextCursor = null;
+        if (hasNext) {
+            SortedTask last = content.get(content.size() - 1);
+            nextCursor = CursorUtils.encode(sortBy, last.id(), last.sortValue());
+        }
+        List<TaskDTO> tasks = content.stream()
+                .map(SortedTask::task)
+                .collect(Collectors.toList());
+        return new TaskSliceDTO(tasks, nextCursor, hasNext);
+    }
+
+    private Slice<Task> findSliceAfter(CursorUtils.Cursor cursor, int size, String sortBy) {
+        String value = cursor.lastValue();
+        if (value == null) {
+            return findSliceAfterNull(cursor.lastId(), size, sortBy);
+        }
+        PageRequest pageRequest = PageRequest.of(0, size);
+        try {
+            switch (sortBy) {
+                case "dueDate":
+                    return taskRepository.findByDueDateAfterCursor(LocalDate.parse(value), cursor.lastId(), pageRequest);
+                case "priority":
+                    return taskRepository.findByPriorityAfterCursor(Integer.valueOf(value), cursor.lastId(), pageRequest);
+                default:
+                    return taskRepository.findByStatusAfterCursor(TaskStatus.fromCode(Integer.parseInt(value)), cursor.lastId(), pageRequest);
+            }
+        } catch (DateTimeParseException | IllegalArgumentException ex) {
+            throw new InvalidRequestException("Malformed cursor value: " + value);
+        }
+    }
+
+    /*
+     * Past a NULL sort value come the remaining NULL rows by id, then the non-NULL rows from the start.
+     * Reading them with two queries keeps both on an index range.
+     */
+    private Slice<Task> findSliceAfterNull(Long lastId, int size, String sortBy) {
+        PageRequest nullsRequest = PageRequest.of(0, size, Sort.by("id"));
+        Slice<Task> nulls;
+        switch (sortBy) {
+            case "dueDate":
+                nulls = taskRepository.findByDueDateIsNullAndIdGreaterThan(lastId, nullsRequest);
+                break;
+            case "priority":
+                nulls = taskRepository.findByPriorityIsNullAndIdGreaterThan(lastId, nullsRequest);
+                break;
+            default:
+                nulls = taskRepository.findByStatusIsNullAndIdGreaterThan(lastId, nullsRequest);
+        }
+        if (nulls.hasNext()) {
+            return nulls;
+        }
+
+        int remaining = size - nulls.getNumberOfElements();
+        PageRequest valuesRequest = PageRequest.of(0, Math.max(remaining, 1), Sort.by(sortBy, "id"));
+        Slice<Task> values;
+        switch (sortBy) {
+            case "dueDate":
+                values = taskRepository.findByDueDateIsNotNull(valuesRequest);
+                break;
+            case "priority":
+                values = taskRepository.findByPriorityIsNotNull(valuesRequest);
+                break;
+            default:
+                values = taskRepository.findByStatusIsNotNull(valuesRequest);
+        }
+        if (remaining == 0) {
+            return new SliceImpl<>(nulls.getContent(), PageRequest.of(0, size), values.hasContent());
+        }
+        List<Task> content = new ArrayList<>(nulls.getContent());
+        content.addAll(values.getContent());
+        return new SliceImpl<>(content, PageRequest.of(0, size), values.hasNext());
+    }
+
+    private static List<SortedTask> sorted(List<Task> tasks, String sortBy) {
+        return tasks.stream().map(task -> sorted(task, sortBy)).collect(Collectors.toList());
+    }
+
+    private static SortedTask sorted(Task task, String sortBy) {
+        return new SortedTask(sortValue(task, sortBy), task.getId(), convertToTaskDTO(task));
+    }
+
+    private static Object sortValue(Task task, String sortBy) {
+        switch (sortBy) {
+            case "dueDate":
+                return task.getDueDate();
+            case "priority":
+                return task.getPriority();
+            case "status":
+                // The column holds the code, so the database sorts by it.
+                return task.getStatus() == null ? null : task.getStatus().getCode();
+            default:
+                return new BeanWrapperImpl(task).getPropertyValue(sortBy);
+        }
+    }
+
+    /**
+     * Update the status of multiple tasks in a batch, all or nothing.
+     * The ids are updated with chunked set-based UPDATE statements that all run in one transaction,
+     * so either every chunk is committed or none is. With shards that holds per shard only, the tasks of every
+     * shard are updated in a transaction of its own.
      * @param taskIds List of task IDs to update.
      * @param status status for the tasks.
+     * @return TaskBatchUpdateResultDTO with the per-chunk update counts, the ids that were not found and those of archived tasks.
      */
     @Transactional
     @Override
-    public void updateBatchTaskStatus(List<Long> taskIds, String status) {
-        List<Task> tasks = taskRepository.findAllById(taskIds);
-        tasks.forEach(task -> task.setStatus(status));
-        taskRepository.saveAll(tasks);
+    public TaskBatchUpdateResultDTO updateBatchTaskStatus(List<Long> taskIds, String status) {
+        TaskStatus newStatus = parseStatus(status);
+        TaskBatchUpdateResultDTO result = new TaskBatchUpdateResultDTO();
+        for (List<Long> chunk : chunk(taskIds, result)) {
+            updateStatusChunk(chunk, newStatus, result);
+        }
+        return result;
+    }
+
+    /**
+     * Update the status of multiple tasks in a batch, one transaction per chunk.
+     * Chunks of {@code task.batch-update.chunk-size} ids are committed independently, so a large batch
+     * never holds a single long transaction open. A failure leaves the chunks committed before it in place.
+     * @param taskIds List of task IDs to update.
+     * @param status status for the tasks.
+     * @return TaskBatchUpdateResultDTO with the per-chunk update counts, the ids that were not found and those of archived tasks.
+     */
+    @Override
+    public TaskBatchUpdateResultDTO bulkUpdateTaskStatus(List<Long> taskIds, String status) {
+        TaskStatus newStatus = parseStatus(status);
+        TaskBatchUpdateResultDTO result = new TaskBatchUpdateResultDTO();
+        for (List<Long> chunk : chunk(taskIds, result)) {
+            transactionTemplate.executeWithoutResult(tx -> updateStatusChunk(chunk, newStatus, result));
+        }
+        return result;
+    }
+
+    private List<List<Long>> chunk(List<Long> taskIds, TaskBatchUpdateResultDTO result) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(taskIds));
+        result.setRequested(distinctIds.size());
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += batchUpdateChunkSize) {
+            chunks.add(distinctIds.subList(from, Math.min(from + batchUpdateChunkSize, distinctIds.size())));
+        }
+        return chunks;
+    }
+
+    private void updateStatusChunk(List<Long> chunk, TaskStatus status, TaskBatchUpdateResultDTO result) {
+        Set<Long> existing = new HashSet<>();
+        Set<Long> archived = new HashSet<>();
+        int updated = 0;
+        for (Map.Entry<Integer, List<Long>> shardIds : shardRouter.groupByShard(chunk).entrySet()) {
+            updated += shardRouter.onShard(shardIds.getKey(), false,
+                    () -> updateStatus(shardIds.getValue(), status, existing, archived));
+        }
+        result.getChunkUpdateCounts().add(updated);
+        result.setUpdated(result.getUpdated() + updated);
+        for (Long id : chunk) {
+            if (archived.contains(id)) {
+                result.getFinalIds().add(id);
+            } else if (!existing.contains(id)) {
+                result.getNotFoundIds().add(id);
+            }
+        }
+    }
+
+    // Update the tasks of one shard, the ids found are added to existingIds and those of archived tasks, which
+    // keep their status, to archivedIds. The rows are locked when read, so a concurrent update cannot commit
+    // between the read and the UPDATE and leave the in-memory structures stale.
+    private int updateStatus(List<Long> taskIds, TaskStatus status, Set<Long> existingIds, Set<Long> archivedIds) {
+        Map<Long, TaskSummary> existing = new HashMap<>();
+        taskRepository.findSummariesByIdIn(taskIds).forEach(task -> existing.put(task.id(), task));
+        List<Long> missingIds = taskIds.stream().filter(id -> !existing.containsKey(id)).toList();
+        if (!missingIds.isEmpty()) {
+            archivedIds.addAll(archivedTaskRepository.findIdsByIdIn(missingIds));
+        }
+        int updated = taskRepository.updateStatusByIdIn(taskIds, status);
+        taskCache.evict(taskIds);
+        existing.values().forEach(task -> {
+            overdueTaskIndex.put(task.id(), task.dueDate(), status);
+            projectTaskCounters.change(task, task.withStatus(status));
+        });
+        taskSearchIndex.updateStatus(existing.keySet(), status);
+        existingIds.addAll(existing.keySet());
+        return updated;
     }
 
+    /**
+     * Retrieve every overdue task, oldest due date first.
+     * The ids come from {@link OverdueTaskIndex}, the database is only queried by primary key.
+     * @return List of TaskDTOs due before today and not completed.
+     */
+    @Transactional(readOnly = true)
     @Override
     public List<TaskDTO> getOverdueTasks() {
+        return getOverdueTasks(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Retrieve a page of overdue tasks, oldest due date first.
+     * The page of ids is read from {@link OverdueTaskIndex} and the tasks are loaded by primary key.
+     * Until the index is built at startup the overdue tasks are queried from every shard in parallel and merged.
+     * @param page Page number.
+     * @param size Number of tasks per page.
+     * @return List of TaskDTOs due before today and not completed.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<TaskDTO> getOverdueTasks(int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new InvalidRequestException("Page must be at least 0 and size at least 1");
+        }
         LocalDate currentDate = LocalDate.now();
-        List<Task> overdueTasks = taskRepository.findByDueDateBeforeAndStatusNotEqualCompleted(currentDate);
-        return overdueTasks.stream()
-                .map(overDueTask -> convertToTaskDTO(overDueTask))
+        int offset = (int) Math.min((long) page * size, Integer.MAX_VALUE);
+        if (!overdueTaskIndex.isReady()) {
+            List<List<SortedTask>> shards = shardRouter.onEveryShard(true, shard -> {
+                List<SortedTask> tasks = sorted(taskRepository.findByDueDateBeforeAndStatusNotEqualCompleted(currentDate), "dueDate");
+                tasks.sort(SORT_ORDER);
+                return tasks;
+            });
+            return MergeUtils.merge(shards, SORT_ORDER, offset, size).stream()
+                    .map(SortedTask::task)
+                    .collect(Collectors.toList());
+        }
+        List<Long> ids = overdueTaskIndex.overdueIds(currentDate, offset, size);
+        Map<Long, TaskDTO> tasks = loadTasks(ids);
+        // A task changed by a transaction that committed after the ids were read is skipped.
+        return ids.stream()
+                .map(tasks::get)
+                .filter(task -> task != null && !COMPLETED.getLabel().equals(task.getStatus())
+                        && task.getDueDate() != null && task.getDueDate().isBefore(currentDate))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Build the overdue index once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOverdueTaskIndex() {
+        checkOverdueTaskIndex();
+    }
+
+    /**
+     * Compare {@link OverdueTaskIndex} with the database and repair the entries that differ.
+     * Runs every night at midnight by default ({@code task.overdue-index.check-cron}), the first run builds the index.
+     * @return number of index entries that were repaired.
+     */
+    @Scheduled(cron = "${task.overdue-index.check-cron:0 0 0 * * *}")
+    @Override
+    public int checkOverdueTaskIndex() {
+        if (shardRouter.isSharded()) {
+            // The shards are read in parallel, once the index tracks the writes made meanwhile.
+            return overdueTaskIndex.synchronize(() -> shardRouter.onEveryShard(true, shard -> {
+                try (Stream<TaskDueDate> openTasks = taskRepository.streamOpenTaskDueDates()) {
+                    return openTasks.toList();
+                }
+            }).stream().flatMap(List::stream));
+        }
+        return transactionTemplate.execute(tx -> overdueTaskIndex.synchronize(taskRepository::streamOpenTaskDueDates));
+    }
+
+    /**
+     * Full-text search over task titles and descriptions, best match first.
+     * Matching and ordering are done by {@link TaskSearchIndex}, the database is only queried by primary key
+     * for the tasks of the page, so no LIKE scan is issued. The filters are re-checked on the loaded tasks
+     * in case the index lags behind a write made elsewhere.
+     * @param query Search text in Lucene's simple query syntax, e.g. {@code deploy "release notes" -draft}.
+     * @param projectId Only tasks of this project, optional.
+     * @param status Only tasks with this status, optional.
+     * @param dueFrom Only tasks due on or after this date, optional.
+     * @param dueTo Only tasks due on or before this date, optional.
+     * @param after Cursor returned with the previous page, or null for the first page.
+     * @param size Number of tasks per page.
+     * @return TaskSliceDTO containing the matching tasks and the cursor of the next page.
+     * @throws InvalidRequestException if the query is empty, or the status, the size or the cursor is not valid.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public TaskSliceDTO searchTasks(String query, Long projectId, String status, LocalDate dueFrom, LocalDate dueTo,
+                                    String after, int size) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestException("Search query is required");
+        }
+        if (size < 1) {
+            throw new InvalidRequestException("Page size must be at least 1");
+        }
+        TaskStatus statusFilter = status == null ? null : parseStatus(status);
+        TaskSearchIndex.Hit afterHit = null;
+        if (after != null) {
+            CursorUtils.Cursor cursor = CursorUtils.decode(after, SEARCH_CURSOR);
+            try {
+                afterHit = new TaskSearchIndex.Hit(cursor.lastId(), Float.parseFloat(String.valueOf(cursor.lastValue())));
+            } catch (NumberFormatException ex) {
+                throw new InvalidRequestException("Malformed cursor: " + after);
+            }
+        }
+
+        // One extra hit tells whether there is a next page.
+        List<TaskSearchIndex.Hit> hits = taskSearchIndex.search(query, projectId, statusFilter, dueFrom, dueTo, afterHit, size + 1);
+        boolean hasNext = hits.size() > size;
+        List<TaskSearchIndex.Hit> page = hasNext ? hits.subList(0, size) : hits;
+        Map<Long, TaskDTO> tasks = page.isEmpty() ? Map.of()
+                : loadTasks(page.stream().map(TaskSearchIndex.Hit::id).collect(Collectors.toList()));
+        List<TaskDTO> taskDTOs = page.stream()
+                .map(hit -> tasks.get(hit.id()))
+                .filter(task -> task != null && matches(task, projectId, statusFilter, dueFrom, dueTo))
                 .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasNext) {
+            TaskSearchIndex.Hit last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(SEARCH_CURSOR, last.id(), last.score());
+        }
+        return new TaskSliceDTO(taskDTOs, nextCursor, hasNext);
+    }
+
+    /**
+     * Build {@link TaskSearchIndex} from the database once the application is ready, unless it kept a committed
+     * synchronization across the restart. The writes it missed meanwhile are repaired by the nightly rebuild.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildTaskSearchIndex() {
+        if (!taskSearchIndex.isSynchronized()) {
+            rebuildTaskSearchIndex();
+        }
+    }
+
+    /**
+     * Re-index every task in {@link TaskSearchIndex} and drop the documents of deleted tasks,
+     * which repairs whatever the write paths of this instance did not see.
+     * Runs every night at 00:30 by default ({@code task.search.rebuild-cron}).
+     * @return number of indexed tasks.
+     */
+    @Scheduled(cron = "${task.search.rebuild-cron:0 30 0 * * *}")
+    @Override
+    public int rebuildTaskSearchIndex() {
+        if (shardRouter.isSharded()) {
+            // The rows of all shards are held in memory while the index is rebuilt.
+            return taskSearchIndex.synchronize(() -> shardRouter.onEveryShard(true, shard -> {
+                try (Stream<TaskSearchRow> rows = taskRepository.streamSearchRows()) {
+                    return rows.toList();
+                }
+            }).stream().flatMap(List::stream));
+        }
+        return transactionTemplate.execute(tx -> taskSearchIndex.synchronize(taskRepository::streamSearchRows));
     }
 
     /**
      * Retrieve all tasks associated with a specific project.
+     * The live tasks come first, then the archived ones.
      * @param projectId ID of the project.
      * @return List of TaskDTOs representing tasks associated with the project.
      */
+    @Transactional(readOnly = true)
     @Override
-    public List<TaskDTO> getTasksByProjectId(Long projectId) {
+    public List<TaskDTO> getTasksByProjectId(@ShardKey(PROJECT_ID) Long projectId) {
         List<Task> projectTasks = taskRepository.findByProjectId(projectId);
-        return projectTasks.stream()
+        List<TaskDTO> taskDTOs = projectTasks.stream()
                 .map(overDueTask -> convertToTaskDTO(overDueTask))
                 .collect(Collectors.toList());
+        archivedTaskRepository.findByProjectId(projectId).forEach(task -> taskDTOs.add(convertToTaskDTO(task)));
+        return taskDTOs;
+    }
+
+    /**
+     * Stream all tasks associated with a specific project, one at a time.
+     * Rows are read through a database cursor and every task is detached once it has been handed to
+     * {@code consumer}, so memory use does not depend on the size of the project.
+     * The live and the archived tasks are read through one cursor each and merged by id.
+     * @param projectId ID of the project.
+     * @param consumer Receives the TaskDTOs in id order.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportTasksByProjectId(@ShardKey(PROJECT_ID) Long projectId, Consumer<TaskDTO> consumer) {
+        try (Stream<Task> tasks = taskRepository.streamByProjectId(projectId);
+             Stream<ArchivedTask> archivedTasks = archivedTaskRepository.streamByProjectId(projectId)) {
+            Iterator<Task> live = tasks.iterator();
+            Iterator<ArchivedTask> archived = archivedTasks.iterator();
+            Task task = live.hasNext() ? live.next() : null;
+            ArchivedTask archivedTask = archived.hasNext() ? archived.next() : null;
+            while (task != null || archivedTask != null) {
+                if (archivedTask == null || (task != null && task.getId() < archivedTask.getId())) {
+                    consumer.accept(convertToTaskDTO(task));
+                    entityManager.detach(task);
+                    task = live.hasNext() ? live.next() : null;
+                } else {
+                    consumer.accept(convertToTaskDTO(archivedTask));
+                    entityManager.detach(archivedTask);
+                    archivedTask = archived.hasNext() ? archived.next() : null;
+                }
+            }
+        }
     }
 
     /**
      * Retrieve tasks associated with a specific project and matching a given status.
+     * The completed tasks include the archived ones.
      * @param projectId ID of the project.
      * @param status Status to filter tasks.
      * @return List of TaskDTOs representing tasks matching the project and status.
      */
-    public List<TaskDTO> getTasksByProjectIdAndStatus(Long projectId, String status) {
-        List<Task> projectTasks = taskRepository.findByProjectIdAndStatus(projectId, status);
-        return projectTasks.stream()
+    @Transactional(readOnly = true)
+    public List<TaskDTO> getTasksByProjectIdAndStatus(@ShardKey(PROJECT_ID) Long projectId, String status) {
+        TaskStatus taskStatus = parseStatus(status);
+        List<Task> projectTasks = taskRepository.findByProjectIdAndStatus(projectId, taskStatus);
+        List<TaskDTO> taskDTOs = projectTasks.stream()
                 .map(overDueTask -> convertToTaskDTO(overDueTask))
                 .collect(Collectors.toList());
+        if (taskStatus == COMPLETED) {
+            archivedTaskRepository.findByProjectId(projectId).forEach(task -> taskDTOs.add(convertToTaskDTO(task)));
+        }
+        return taskDTOs;
     }
 
     /**
      * Retrieve tasks associated with a specific project that are completed after a certain due date.
+     * The live tasks come first, then the archived ones.
      * @param projectId ID of the project.
      * @param dueDate Due date to filter completed tasks.
      * @return List of TaskDTOs representing completed tasks after the specified due date.
      */
-    public List<TaskDTO> getCompletedTasksAfterEstimatedTime(Long projectId, LocalDate dueDate) {
+    @Transactional(readOnly = true)
+    public List<TaskDTO> getCompletedTasksAfterEstimatedTime(@ShardKey(PROJECT_ID) Long projectId, LocalDate dueDate) {
         List<Task> projectTasks = taskRepository.findByProjectIdAndStatusAndDueDateAfter(projectId, COMPLETED, dueDate);
-        return projectTasks.stream()
+        List<TaskDTO> taskDTOs = projectTasks.stream()
                 .map(overDueTask -> convertToTaskDTO(overDueTask))
                 .collect(Collectors.toList());
+        archivedTaskRepository.findByProjectIdAndDueDateAfter(projectId, dueDate)
+                .forEach(task -> taskDTOs.add(convertToTaskDTO(task)));
+        return taskDTOs;
+    }
+
+    /**
+     * Retrieve the aggregate task counts of a project.
+     * Served from {@link ProjectTaskCounters}, only the first call for a project reads its tasks,
+     * as one GROUP BY over the project/status/due date index and one over the archived tasks of the project.
+     * @param projectId ID of the project.
+     * @return ProjectStatsDTO with the task count per status, the overdue count and the average priority.
+     */
+    @Override
+    public ProjectStatsDTO getProjectStats(Long projectId) {
+        return projectTaskCounters.stats(projectId, LocalDate.now(), this::countTaskGroups);
+    }
+
+    /**
+     * Reload the counters of every project held by {@link ProjectTaskCounters} and repair the ones that drifted.
+     * Runs every hour by default ({@code task.project-stats.reconcile-cron}).
+     * @return number of projects whose counters were repaired.
+     */
+    @Scheduled(cron = "${task.project-stats.reconcile-cron:0 15 * * * *}")
+    @Override
+    public int reconcileProjectStats() {
+        return projectTaskCounters.reconcile(this::countTaskGroups);
+    }
+
+    private List<TaskGroupCount> countTaskGroups(Long projectId) {
+        return shardRouter.onShard(shardRouter.shardOfProject(projectId), true, () -> {
+            List<TaskGroupCount> groups = new ArrayList<>(taskRepository.countByProjectIdGroupByStatusAndDueDate(projectId));
+            groups.addAll(archivedTaskRepository.countByProjectIdGroupByStatusAndDueDate(projectId));
+            return groups;
+        });
+    }
+
+    // The task as stored by updateIfCurrent, the project does not change on update.
+    private static TaskDTO withVersion(TaskDTO current, TaskDTO update, TaskStatus status, Long version) {
+        TaskDTO task = new TaskDTO();
+        task.setTaskId(current.getTaskId());
+        task.setProjectId(current.getProjectId());
+        task.setProjectName(current.getProjectName());
+        task.setTitle(update.getTitle());
+        task.setDescription(update.getDescription());
+        task.setStatus(status.getLabel());
+        task.setPriority(update.getPriority());
+        task.setDueDate(update.getDueDate());
+        task.setVersion(version);
+        return task;
+    }
+
+    static boolean matches(TaskDTO task, Long projectId, TaskStatus status, LocalDate dueFrom, LocalDate dueTo) {
+        return (projectId == null || projectId.equals(task.getProjectId()))
+                && (status == null || status.getLabel().equals(task.getStatus()))
+                && (dueFrom == null || (task.getDueDate() != null && !task.getDueDate().isBefore(dueFrom)))
+                && (dueTo == null || (task.getDueDate() != null && !task.getDueDate().isAfter(dueTo)));
+    }
+
+    /*
+     * Set a field of a merge patch: null leaves the field alone, an empty Optional clears it.
+     * The attribute is only written when its value changes.
+     */
+    private static <T> void merge(Optional<T> patched, T current, String attribute, Consumer<T> target,
+                                  Map<String, Object> changes) {
+        if (patched == null) {
+            return;
+        }
+        T value = patched.orElse(null);
+        target.accept(value);
+        if (!Objects.equals(value, current)) {
+            changes.put(attribute, value);
+        }
+    }
+
+    private static TaskSummary summaryOf(TaskDTO task) {
+        TaskStatus status = task.getStatus() == null ? null : TaskStatus.fromLabel(task.getStatus());
+        return new TaskSummary(task.getTaskId(), task.getProjectId(), status, task.getPriority(), task.getDueDate());
+    }
+
+    static TaskStatus parseStatus(String label) {
+        try {
+            return TaskStatus.fromLabel(label);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException(ex.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareSortValues(Object value, Object other) {
+        return ((Comparable<Object>) value).compareTo(other);
     }
-}
 
+    static String label(TaskStatus status) {
+        return status == null ? null : status.getLabel();
+    }
+
+    // A task of a sorted shard result, with the value it is sorted by.
+    private record SortedTask(Object sortValue, Long id, TaskDTO task) {
+    }
+}
@@ -1,18 +1,57 @@
 package com.task.util;
 
+import com.task.dto.TaskColumnsDTO;
 import com.task.dto.TaskDTO;
+import com.task.entity.ArchivedTask;
 import com.task.entity.Task;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.mapstruct.factory.Mappers;
 
+import java.util.List;
+
 public class ConversionUtils {
 
     private static final TaskMapper TASK_MAPPER = Mappers.getMapper(TaskMapper.class);
 
+    // Time of every mapping, without a histogram to keep the per-task cost low.
+    private static final Timer TO_DTO = mappingTimer("toDTO");
+
+    private static final Timer TO_ENTITY = mappingTimer("toEntity");
+
     public static TaskDTO convertToTaskDTO(Task task) {
-        return TASK_MAPPER.taskToTaskDTO(task);
+        return TO_DTO.record(() -> TASK_MAPPER.taskToTaskDTO(task));
+    }
+
+    public static TaskDTO convertToTaskDTO(ArchivedTask task) {
+        return TO_DTO.record(() -> TASK_MAPPER.archivedTaskToTaskDTO(task));
     }
 
     public static Task convertToTask(TaskDTO taskDTO) {
-        return TASK_MAPPER.taskDTOToTask(taskDTO);
+        return TO_ENTITY.record(() -> TASK_MAPPER.taskDTOToTask(taskDTO));
+    }
+
+    public static TaskColumnsDTO convertToTaskColumns(List<TaskDTO> tasks) {
+        TaskColumnsDTO columns = new TaskColumnsDTO();
+        for (TaskDTO task : tasks) {
+            if (task.getProjectId() != null) {
+                columns.getProjectNames().putIfAbsent(task.getProjectId(), task.getProjectName());
+            }
+            columns.getTaskId().add(task.getTaskId());
+            columns.getProjectId().add(task.getProjectId());
+            columns.getTitle().add(task.getTitle());
+            columns.getDescription().add(task.getDescription());
+            columns.getStatus().add(task.getStatus());
+            columns.getPriority().add(task.getPriority());
+            columns.getDueDate().add(task.getDueDate());
+        }
+        return columns;
+    }
+
+    private static Timer mappingTimer(String direction) {
+        return Timer.builder("task.dto.mapping")
+                .description("Time to map a task between entity and DTO")
+                .tag("direction", direction)
+                .register(Metrics.globalRegistry);
     }
 }
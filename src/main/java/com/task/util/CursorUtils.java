@@ -0,0 +1,53 @@
+package com.task.util;
+
+import com.task.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque keyset pagination cursor.
+ * A cursor carries the sort column, the id of the last returned task and
+ * its value in the sort column, so the next page can seek past it.
+ */
+public class CursorUtils {
+
+    private static final String SEPARATOR = "|";
+    private static final String VALUE_PREFIX = "v";
+
+    public static String encode(String sortBy, Long lastId, Object lastValue) {
+        String value = lastValue == null ? "" : VALUE_PREFIX + lastValue;
+        String raw = sortBy + SEPARATOR + lastId + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String token, String expectedSortBy) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split("\\|", 3);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Malformed cursor: " + token);
+        }
+        if (parts.length != 3) {
+            throw new InvalidRequestException("Malformed cursor: " + token);
+        }
+        if (!parts[0].equals(expectedSortBy)) {
+            throw new InvalidRequestException("Cursor was issued for sortBy=" + parts[0] + ", not " + expectedSortBy);
+        }
+        try {
+            Long lastId = Long.valueOf(parts[1]);
+            String lastValue = parts[2].isEmpty() ? null : parts[2].substring(VALUE_PREFIX.length());
+            return new Cursor(lastId, lastValue);
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("Malformed cursor: " + token);
+        }
+    }
+
+    /**
+     * Decoded cursor position. {@code lastValue} is the raw string form of the sort column value,
+     * {@code null} when the last returned task had no value in that column.
+     */
+    public record Cursor(Long lastId, String lastValue) {
+    }
+}
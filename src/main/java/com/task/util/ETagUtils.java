@@ -0,0 +1,35 @@
+package com.task.util;
+
+import com.task.exception.InvalidRequestException;
+
+/**
+ * Maps task versions to strong entity tags and back, e.g. version 3 is the ETag {@code "3"}.
+ */
+public class ETagUtils {
+
+    private static final String ANY = "*";
+
+    public static String toETag(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Parse an If-Match header into the expected version.
+     * @return the version, or null when the header is missing or {@code *}, i.e. any version matches.
+     * @throws InvalidRequestException if the header is not a single strong ETag issued by this service.
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new InvalidRequestException("Malformed If-Match header: " + ifMatch);
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("Malformed If-Match header: " + ifMatch);
+        }
+    }
+}
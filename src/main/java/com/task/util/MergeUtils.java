@@ -0,0 +1,47 @@
+package com.task.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges lists that are each sorted, e.g. the results of the same query on every shard.
+ */
+public class MergeUtils {
+
+    /**
+     * K-way merge: a heap holds the next element of every list, so only the returned elements and one per
+     * list are compared, in O(log k) each.
+     * @param sortedLists Lists sorted by {@code order}.
+     * @param skip Number of merged elements to skip.
+     * @param limit Maximum number of elements to return.
+     * @return the merged elements from position {@code skip}, sorted by {@code order}.
+     */
+    public static <T> List<T> merge(List<? extends List<? extends T>> sortedLists, Comparator<? super T> order,
+                                    long skip, int limit) {
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+                (a, b) -> order.compare(a.value(), b.value()));
+        for (List<? extends T> list : sortedLists) {
+            Iterator<? extends T> values = list.iterator();
+            if (values.hasNext()) {
+                heads.add(new Head<>(values.next(), values));
+            }
+        }
+        List<T> merged = new ArrayList<>();
+        for (long position = 0; merged.size() < limit && !heads.isEmpty(); position++) {
+            Head<T> head = heads.poll();
+            if (position >= skip) {
+                merged.add(head.value());
+            }
+            if (head.rest().hasNext()) {
+                heads.add(new Head<>(head.rest().next(), head.rest()));
+            }
+        }
+        return merged;
+    }
+
+    private record Head<T>(T value, Iterator<? extends T> rest) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.task.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.constants.ExportFormat;
+import com.task.dto.TaskDTO;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes TaskDTOs to an output stream one row at a time, as NDJSON or CSV.
+ * Nothing but the current row is kept in memory. Call {@link #flush()} once all tasks have been written.
+ */
+public class TaskExportWriter implements Consumer<TaskDTO> {
+
+    private static final String CSV_HEADER = "taskId,projectName,title,description,status,priority,dueDate";
+
+    private final ObjectMapper objectMapper;
+    private final ExportFormat format;
+    private final Writer writer;
+
+    public TaskExportWriter(ObjectMapper objectMapper, ExportFormat format, OutputStream outputStream) {
+        this.objectMapper = objectMapper;
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writeLine(CSV_HEADER);
+        }
+    }
+
+    @Override
+    public void accept(TaskDTO task) {
+        try {
+            writeLine(format == ExportFormat.CSV ? toCsv(task) : objectMapper.writeValueAsString(task));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeLine(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String toCsv(TaskDTO task) {
+        return String.join(",",
+                csvField(task.getTaskId()),
+                csvField(task.getProjectName()),
+                csvField(task.getTitle()),
+                csvField(task.getDescription()),
+                csvField(task.getStatus()),
+                csvField(task.getPriority()),
+                csvField(task.getDueDate()));
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
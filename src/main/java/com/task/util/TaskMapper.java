@@ -1,6 +1,8 @@
 package com.task.util;
 
+import com.task.constants.TaskStatus;
 import com.task.dto.TaskDTO;
+import com.task.entity.ArchivedTask;
 import com.task.entity.Task;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -11,9 +13,26 @@ public interface TaskMapper {
 
     @Mappings({
             @Mapping(target = "taskId", source = "id"),
-            @Mapping(target = "projectName", source = "project.name")
+            @Mapping(target = "projectName", source = "project.name"),
+            @Mapping(target = "projectId", source = "project.id")
     })
     TaskDTO taskToTaskDTO(Task task);
 
+    @Mappings({
+            @Mapping(target = "taskId", source = "id"),
+            @Mapping(target = "projectName", source = "project.name"),
+            @Mapping(target = "projectId", source = "project.id")
+    })
+    TaskDTO archivedTaskToTaskDTO(ArchivedTask task);
+
     Task taskDTOToTask(TaskDTO taskDTO);
+
+    // The JSON keeps the status labels, e.g. "In Progress", not the enum constant names.
+    default String statusToLabel(TaskStatus status) {
+        return status == null ? null : status.getLabel();
+    }
+
+    default TaskStatus labelToStatus(String label) {
+        return label == null ? null : TaskStatus.fromLabel(label);
+    }
 }
\ No newline at end of file
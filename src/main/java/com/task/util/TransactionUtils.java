@@ -0,0 +1,27 @@
+package com.task.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers changes of in-memory structures until the transaction that wrote the rows commits.
+ */
+public class TransactionUtils {
+
+    /**
+     * Run the change after the current transaction commits, or now when there is none.
+     * A rolled back transaction drops the change.
+     */
+    public static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
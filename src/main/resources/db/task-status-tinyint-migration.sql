@@ -0,0 +1,105 @@
+-- Migration of task.status from VARCHAR(50) labels to TINYINT codes in task.status_code (MySQL 8.0.29+), online
+-- in every phase. Codes are defined by com.task.constants.TaskStatus: 0 Pending, 1 In Progress, 2 Completed.
+--
+-- The previous application version reads and writes the label in status, the new one the code in status_code.
+-- Triggers keep both columns current whichever version writes a row, so both versions can serve traffic at once:
+--
+-- Phase 1 runs while the previous version serves traffic.
+-- Phase 2 is a rolling deployment of the new version, no schema change. Rolling back is deploying the previous
+--   version again, the label column is still current.
+-- Phase 3 runs once no instance of the previous version is left and none will be deployed again.
+--
+-- Every DDL statement below needs the table's metadata lock for a moment. It waits at most lock_wait_timeout,
+-- instead of queueing behind an open transaction and blocking every other statement on task meanwhile.
+-- Retry a statement that timed out.
+
+SET SESSION lock_wait_timeout = 10;
+
+-- ---------------------------------------------------------------------------------------------------------------
+-- Phase 1: expand
+-- ---------------------------------------------------------------------------------------------------------------
+
+ALTER TABLE task ADD COLUMN status_code TINYINT NULL, ALGORITHM=INSTANT;
+
+DELIMITER //
+
+-- The previous version inserts the label only, the new version the code only.
+CREATE TRIGGER task_status_code_insert BEFORE INSERT ON task FOR EACH ROW
+BEGIN
+    IF NEW.status_code IS NULL THEN
+        SET NEW.status_code = CASE NEW.status WHEN 'Pending' THEN 0 WHEN 'In Progress' THEN 1 WHEN 'Completed' THEN 2 END;
+    ELSE
+        SET NEW.status = CASE NEW.status_code WHEN 0 THEN 'Pending' WHEN 1 THEN 'In Progress' WHEN 2 THEN 'Completed' END;
+    END IF;
+END//
+
+-- Each version only changes the column it maps, the other one follows.
+CREATE TRIGGER task_status_code_update BEFORE UPDATE ON task FOR EACH ROW
+BEGIN
+    IF NOT (NEW.status <=> OLD.status) THEN
+        SET NEW.status_code = CASE NEW.status WHEN 'Pending' THEN 0 WHEN 'In Progress' THEN 1 WHEN 'Completed' THEN 2 END;
+    ELSEIF NOT (NEW.status_code <=> OLD.status_code) THEN
+        SET NEW.status = CASE NEW.status_code WHEN 0 THEN 'Pending' WHEN 1 THEN 'In Progress' WHEN 2 THEN 'Completed' END;
+    END IF;
+END//
+
+-- Existing rows, in primary key ranges with one short transaction per range so no long lock is held.
+CREATE PROCEDURE task_status_code_backfill(IN batch_size INT)
+BEGIN
+    DECLARE from_id BIGINT DEFAULT 0;
+    DECLARE max_id BIGINT;
+    SELECT COALESCE(MAX(id), 0) INTO max_id FROM task;
+    WHILE from_id < max_id DO
+        UPDATE task
+        SET status_code = CASE status WHEN 'Pending' THEN 0 WHEN 'In Progress' THEN 1 WHEN 'Completed' THEN 2 END
+        WHERE id > from_id AND id <= from_id + batch_size AND status_code IS NULL;
+        COMMIT;
+        SET from_id = from_id + batch_size;
+    END WHILE;
+END//
+
+DELIMITER ;
+
+CALL task_status_code_backfill(5000);
+DROP PROCEDURE task_status_code_backfill;
+
+-- Must return 0, otherwise some rows hold a label that has no code.
+SELECT COUNT(*) FROM task WHERE status IS NOT NULL AND status_code IS NULL;
+
+ALTER TABLE task
+    ADD INDEX idx_task_project_status_due_code (project_id, status_code, due_date),
+    ADD INDEX idx_task_due_status_code (due_date, status_code),
+    ADD INDEX idx_task_status_id_code (status_code, id),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+-- ---------------------------------------------------------------------------------------------------------------
+-- Phase 2: deploy the new version instance by instance, nothing to run here
+-- ---------------------------------------------------------------------------------------------------------------
+
+-- ---------------------------------------------------------------------------------------------------------------
+-- Phase 3: contract, once only the new version is running
+-- ---------------------------------------------------------------------------------------------------------------
+
+DROP TRIGGER task_status_code_insert;
+DROP TRIGGER task_status_code_update;
+
+-- The indexes get back the names the application's schema uses.
+ALTER TABLE task
+    DROP INDEX idx_task_project_status_due,
+    DROP INDEX idx_task_due_status,
+    DROP INDEX idx_task_status_id,
+    RENAME INDEX idx_task_project_status_due_code TO idx_task_project_status_due,
+    RENAME INDEX idx_task_due_status_code TO idx_task_due_status,
+    RENAME INDEX idx_task_status_id_code TO idx_task_status_id,
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE task DROP COLUMN status, ALGORITHM=INSTANT;
+
+-- ---------------------------------------------------------------------------------------------------------------
+-- Measuring the savings: run before phase 1 and after phase 3, after ANALYZE TABLE task.
+-- ---------------------------------------------------------------------------------------------------------------
+
+-- SELECT index_name, ROUND(stat_value * @@innodb_page_size / 1024 / 1024, 2) AS size_mb
+-- FROM mysql.innodb_index_stats
+-- WHERE database_name = DATABASE() AND table_name = 'task' AND stat_name = 'size'
+-- ORDER BY index_name;
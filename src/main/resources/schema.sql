@@ -7,9 +7,57 @@ CREATE TABLE IF NOT EXISTS task (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     title VARCHAR(255) NOT NULL,
     description VARCHAR(1000),
-    status VARCHAR(50),
+    status_code TINYINT COMMENT '0 Pending, 1 In Progress, 2 Completed, see TaskStatus',
     priority INT,
     due_date DATE,
     project_id BIGINT,
-    FOREIGN KEY (project_id) REFERENCES project(id)
-);
\ No newline at end of file
+    version BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (project_id) REFERENCES project(id),
+    INDEX idx_task_project_status_due (project_id, status_code, due_date),
+    INDEX idx_task_due_status (due_date, status_code),
+    INDEX idx_task_due_id (due_date, id),
+    INDEX idx_task_priority_id (priority, id),
+    INDEX idx_task_status_id (status_code, id)
+);
+
+CREATE TABLE IF NOT EXISTS status_update_job (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    new_status TINYINT NOT NULL COMMENT 'see TaskStatus',
+    state VARCHAR(16) NOT NULL COMMENT 'QUEUED, RUNNING, COMPLETED or FAILED, see JobState',
+    requested INT NOT NULL,
+    processed BIGINT NOT NULL DEFAULT 0,
+    updated BIGINT NOT NULL DEFAULT 0,
+    not_found BIGINT NOT NULL DEFAULT 0,
+    coalesced BIGINT NOT NULL DEFAULT 0,
+    failed_attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP(6) NOT NULL,
+    started_at TIMESTAMP(6) NULL,
+    finished_at TIMESTAMP(6) NULL,
+    INDEX idx_status_update_job_state (state)
+);
+
+-- Task ids a status update job still has to apply, deleted as they are applied.
+CREATE TABLE IF NOT EXISTS status_update_job_task (
+    job_id BIGINT NOT NULL,
+    task_id BIGINT NOT NULL,
+    PRIMARY KEY (job_id, task_id),
+    FOREIGN KEY (job_id) REFERENCES status_update_job(id),
+    INDEX idx_status_update_job_task_task (task_id)
+);
+
+-- Completed tasks moved out of task by TaskArchiveService, with their id and columns.
+CREATE TABLE IF NOT EXISTS task_archive (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    status TINYINT COMMENT 'always 2 Completed, see TaskStatus',
+    priority INT,
+    due_date DATE,
+    project_id BIGINT,
+    version BIGINT NOT NULL,
+    archived_at TIMESTAMP(6) NOT NULL,
+    FOREIGN KEY (project_id) REFERENCES project(id),
+    INDEX idx_task_archive_project_due (project_id, due_date),
+    INDEX idx_task_archive_project_id (project_id, id)
+);
@@ -0,0 +1,170 @@
+package com.task.admission;
+
+import com.task.exception.RateLimitExceededException;
+import com.task.exception.RouteOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    public void testRouteAtItsConcurrencyLimitIsShedUntilARequestCompletes() throws Exception {
+        AdmissionProperties.Route route = new AdmissionProperties.Route();
+        route.setMaxConcurrency(2);
+        AdmissionInterceptor interceptor = interceptor("updateBatchStatus", route);
+        HandlerMethod limited = handler("updateBatchStatus");
+        MockHttpServletRequest first = request("a");
+
+        interceptor.preHandle(first, response, limited);
+        interceptor.preHandle(request("b"), response, limited);
+        RouteOverloadedException rejected = assertThrows(RouteOverloadedException.class,
+                () -> interceptor.preHandle(request("c"), response, limited));
+        // Other routes are not affected.
+        assertTrue(interceptor.preHandle(request("c"), response, handler("getTaskById")));
+        interceptor.afterCompletion(first, response, limited, null);
+        assertTrue(interceptor.preHandle(request("c"), response, limited));
+
+        assertEquals(Duration.ofSeconds(1), rejected.getRetryAfter());
+        assertEquals(1, meterRegistry.get("task.admission.rejections")
+                .tags("route", "updateBatchStatus", "reason", "concurrency").counter().count());
+        assertEquals(2, meterRegistry.get("task.admission.in.flight").gauge().value());
+    }
+
+    @Test
+    public void testClientOverItsRateIsRefusedWithTheTimeToTheNextToken() throws Exception {
+        AdmissionProperties.Route route = new AdmissionProperties.Route();
+        route.setRate(0.5);
+        route.setBurst(2);
+        AdmissionInterceptor interceptor = interceptor("getTasksByProjectIdAndStatus", route);
+        HandlerMethod limited = handler("getTasksByProjectIdAndStatus");
+
+        interceptor.preHandle(request("a"), response, limited);
+        interceptor.preHandle(request("a"), response, limited);
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+                () -> interceptor.preHandle(request("a"), response, limited));
+        assertTrue(interceptor.preHandle(request("b"), response, limited));
+
+        assertTrue(rejected.getRetryAfter().compareTo(Duration.ofMillis(1900)) > 0);
+        assertTrue(rejected.getRetryAfter().compareTo(Duration.ofSeconds(2)) <= 0);
+        assertEquals(1, meterRegistry.get("task.admission.rejections")
+                .tags("route", "getTasksByProjectIdAndStatus", "reason", "rate").counter().count());
+    }
+
+    @Test
+    public void testClientHeaderIsIgnoredUnlessConfigured() throws Exception {
+        AdmissionProperties.Route route = new AdmissionProperties.Route();
+        route.setRate(0.5);
+        route.setBurst(1);
+        AdmissionInterceptor interceptor = interceptor("updateBatchStatus", route);
+        HandlerMethod limited = handler("updateBatchStatus");
+
+        interceptor.preHandle(request("10.0.0.1", "first"), response, limited);
+        // A new id in the header does not give the same address a new bucket.
+        assertThrows(RateLimitExceededException.class,
+                () -> interceptor.preHandle(request("10.0.0.1", "second"), response, limited));
+    }
+
+    @Test
+    public void testConfiguredClientHeaderKeysTheRateLimit() throws Exception {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setClientHeader("X-Client-Id");
+        AdmissionProperties.Route route = new AdmissionProperties.Route();
+        route.setRate(0.5);
+        route.setBurst(1);
+        properties.getRoutes().put("updateBatchStatus", route);
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(properties, meterRegistry);
+        HandlerMethod limited = handler("updateBatchStatus");
+
+        // Behind the proxy every client has the proxy's address.
+        interceptor.preHandle(request("10.0.0.1", "first"), response, limited);
+        assertTrue(interceptor.preHandle(request("10.0.0.1", "second"), response, limited));
+        assertThrows(RateLimitExceededException.class,
+                () -> interceptor.preHandle(request("10.0.0.1", "first"), response, limited));
+    }
+
+    @Test
+    public void testConcurrencyLimitShrinksWhenSlowAndGrowsBackWhenFast() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 10, TimeUnit.MILLISECONDS.toNanos(100));
+        long slow = TimeUnit.MILLISECONDS.toNanos(500);
+        long fast = TimeUnit.MILLISECONDS.toNanos(10);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(slow);
+        }
+        assertEquals(2, limit.limit());
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        limit.release(fast);
+        limit.release(fast);
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(fast);
+        }
+        assertEquals(10, limit.limit());
+        assertEquals(0, limit.inFlight());
+    }
+
+    @Test
+    public void testTokenBucketRefillsUpToItsCapacity() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(second / 2, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(second / 2));
+        assertEquals(0, bucket.tryAcquire(10 * second));
+        assertEquals(0, bucket.tryAcquire(10 * second));
+        assertEquals(second / 2, bucket.tryAcquire(10 * second));
+    }
+
+    private AdmissionInterceptor interceptor(String routeName, AdmissionProperties.Route route) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getRoutes().put(routeName, route);
+        return new AdmissionInterceptor(properties, meterRegistry);
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/projects/1");
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String clientId) {
+        MockHttpServletRequest request = request(remoteAddress);
+        request.addHeader("X-Client-Id", clientId);
+        return request;
+    }
+
+    private static HandlerMethod handler(String methodName) throws NoSuchMethodException {
+        return new HandlerMethod(new Routes(), Routes.class.getMethod(methodName));
+    }
+
+    public static class Routes {
+        public void updateBatchStatus() {
+        }
+
+        public void getTasksByProjectIdAndStatus() {
+        }
+
+        public void getTaskById() {
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.task.cache;
+
+import com.task.repository.TaskDueDate;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OverdueTaskIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    private final OverdueTaskIndex index = new OverdueTaskIndex();
+
+    @Test
+    public void testOverdueIdsAreOrderedByDueDateThenIdAndPaged() {
+        index.synchronize(() -> Stream.of(
+                new TaskDueDate(4L, TODAY.minusDays(1)),
+                new TaskDueDate(2L, TODAY.minusDays(3)),
+                new TaskDueDate(3L, TODAY.minusDays(1)),
+                new TaskDueDate(1L, TODAY),
+                new TaskDueDate(5L, TODAY.plusDays(2))));
+
+        assertEquals(List.of(2L, 3L, 4L), index.overdueIds(TODAY, 0, 10));
+        assertEquals(List.of(3L), index.overdueIds(TODAY, 1, 1));
+        // The next day task 1 is overdue as well, without any update.
+        assertEquals(List.of(2L, 3L, 4L, 1L), index.overdueIds(TODAY.plusDays(1), 0, 10));
+    }
+
+    @Test
+    public void testPutMovesAndCompletedRemoves() {
+        index.synchronize(() -> Stream.of(new TaskDueDate(1L, TODAY.minusDays(5)), new TaskDueDate(2L, TODAY.minusDays(4))));
+
+        index.put(1L, TODAY.minusDays(1), PENDING);
+        index.put(2L, TODAY.minusDays(4), COMPLETED);
+        index.put(3L, null, PENDING);
+
+        assertEquals(List.of(1L), index.overdueIds(TODAY, 0, 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testChangesInTransactionApplyAfterCommit() {
+        index.synchronize(() -> Stream.of(new TaskDueDate(1L, TODAY.minusDays(1))));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(List.of(1L));
+            assertEquals(List.of(1L), index.overdueIds(TODAY, 0, 10));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(index.overdueIds(TODAY, 0, 10).isEmpty());
+    }
+
+    @Test
+    public void testSynchronizeRepairsDrift() {
+        assertFalse(index.isReady());
+        assertEquals(2, index.synchronize(() -> Stream.of(new TaskDueDate(1L, TODAY.minusDays(2)), new TaskDueDate(2L, TODAY.minusDays(1)))));
+        assertTrue(index.isReady());
+
+        // Task 1 was completed and task 3 created without going through the service.
+        int repaired = index.synchronize(() -> Stream.of(new TaskDueDate(2L, TODAY.minusDays(1)), new TaskDueDate(3L, TODAY.minusDays(3))));
+
+        assertEquals(2, repaired);
+        assertEquals(List.of(3L, 2L), index.overdueIds(TODAY, 0, 10));
+    }
+
+    @Test
+    public void testSynchronizeKeepsWritesMadeWhileItReads() {
+        index.synchronize(() -> Stream.empty());
+
+        // The snapshot was read before task 1 was completed.
+        Supplier<Stream<TaskDueDate>> snapshot = () -> Stream.of(new TaskDueDate(1L, TODAY.minusDays(1)))
+                .peek(task -> index.put(1L, TODAY.minusDays(1), COMPLETED));
+
+        assertEquals(0, index.synchronize(snapshot));
+        assertTrue(index.overdueIds(TODAY, 0, 10).isEmpty());
+    }
+}
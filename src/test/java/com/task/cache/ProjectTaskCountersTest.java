@@ -0,0 +1,93 @@
+package com.task.cache;
+
+import com.task.dto.ProjectStatsDTO;
+import com.task.repository.TaskGroupCount;
+import com.task.repository.TaskSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.constants.TaskStatus.IN_PROGRESS;
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ProjectTaskCountersTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    private final ProjectTaskCounters counters = new ProjectTaskCounters();
+
+    @Test
+    public void testStatsAreLoadedOnceThenMaintainedFromChanges() {
+        AtomicInteger loads = new AtomicInteger();
+        List<TaskGroupCount> groups = List.of(
+                new TaskGroupCount(PENDING, TODAY.minusDays(1), 2, 6L, 2),
+                new TaskGroupCount(COMPLETED, TODAY.minusDays(5), 1, 3L, 1));
+        counters.stats(1L, TODAY, id -> {
+            loads.incrementAndGet();
+            return groups;
+        });
+
+        TaskSummary task = new TaskSummary(7L, 1L, PENDING, 1, TODAY.plusDays(1));
+        counters.add(task);
+        counters.change(task, task.withStatus(IN_PROGRESS));
+        counters.remove(new TaskSummary(8L, 1L, PENDING, 5, TODAY.minusDays(1)));
+        ProjectStatsDTO stats = counters.stats(1L, TODAY, id -> {
+            throw new AssertionError("Counters must not be reloaded");
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(3, stats.getTaskCount());
+        assertEquals(Map.of("Pending", 1L, "In Progress", 1L, "Completed", 1L), stats.getStatusCounts());
+        assertEquals(1, stats.getOverdueCount());
+        assertEquals(5.0 / 3, stats.getAveragePriority());
+    }
+
+    @Test
+    public void testOverdueCountRollsForwardWithTheDate() {
+        counters.stats(1L, TODAY, id -> List.of(
+                new TaskGroupCount(PENDING, TODAY.minusDays(1), 1, null, 0),
+                new TaskGroupCount(IN_PROGRESS, TODAY, 2, null, 0)));
+
+        assertEquals(1, counters.stats(1L, TODAY, id -> List.of()).getOverdueCount());
+        ProjectStatsDTO tomorrow = counters.stats(1L, TODAY.plusDays(1), id -> List.of());
+        assertEquals(3, tomorrow.getOverdueCount());
+        assertNull(tomorrow.getAveragePriority());
+    }
+
+    @Test
+    public void testLoadRacingWithChangeIsNotKept() {
+        AtomicInteger loads = new AtomicInteger();
+        counters.stats(1L, TODAY, id -> {
+            loads.incrementAndGet();
+            // A task is created after the counts were read.
+            counters.add(new TaskSummary(7L, 1L, PENDING, 1, null));
+            return List.of();
+        });
+        counters.stats(1L, TODAY, id -> {
+            loads.incrementAndGet();
+            return List.of(new TaskGroupCount(PENDING, null, 1, 1L, 1));
+        });
+
+        assertEquals(2, loads.get());
+        assertEquals(1, counters.stats(1L, TODAY, id -> List.of()).getTaskCount());
+    }
+
+    @Test
+    public void testReconcileRepairsDriftedProjects() {
+        counters.stats(1L, TODAY, id -> List.of(new TaskGroupCount(PENDING, null, 1, 1L, 1)));
+        counters.stats(2L, TODAY, id -> List.of(new TaskGroupCount(PENDING, null, 1, 1L, 1)));
+
+        // Project 1 got a task that did not go through the service.
+        int repaired = counters.reconcile(id -> List.of(new TaskGroupCount(PENDING, null, id == 1L ? 2 : 1, 1L, 1)));
+
+        assertEquals(1, repaired);
+        assertEquals(2, counters.stats(1L, TODAY, id -> List.of()).getTaskCount());
+        assertEquals(1, counters.stats(2L, TODAY, id -> List.of()).getTaskCount());
+    }
+}
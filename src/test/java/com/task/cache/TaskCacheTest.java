@@ -0,0 +1,157 @@
+package com.task.cache;
+
+import com.task.dto.TaskDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TaskCacheTest {
+
+    private final TaskCache taskCache = new TaskCache(100, Duration.ofMinutes(1),
+            new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+    @Test
+    public void testHitReturnsCachedInstance() {
+        AtomicInteger loads = new AtomicInteger();
+
+        TaskDTO first = taskCache.get(1L, id -> load(id, loads));
+        TaskDTO second = taskCache.get(1L, id -> load(id, loads));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, taskCache.stats().hitCount());
+        assertEquals(1, taskCache.stats().missCount());
+    }
+
+    @Test
+    public void testEvictForcesReload() {
+        AtomicInteger loads = new AtomicInteger();
+        taskCache.get(1L, id -> load(id, loads));
+
+        taskCache.evict(List.of(1L));
+        taskCache.get(1L, id -> load(id, loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testLoadRacingWithEvictionIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        taskCache.get(1L, id -> {
+            taskCache.evict(id);
+            return load(id, loads);
+        });
+        taskCache.get(1L, id -> load(id, loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testPutKeepsTheHigherVersion() {
+        TaskDTO older = new TaskDTO();
+        older.setVersion(1L);
+        TaskDTO newer = new TaskDTO();
+        newer.setVersion(2L);
+
+        taskCache.put(1L, newer, taskCache.evictions());
+        taskCache.put(1L, older, taskCache.evictions());
+        assertSame(newer, taskCache.get(1L, id -> older));
+
+        long evictionsBeforeWrite = taskCache.evictions();
+        taskCache.evict(3L);
+        // An eviction of the task since the write started may be for a newer write, the put is dropped.
+        taskCache.put(3L, newer, evictionsBeforeWrite);
+        assertSame(older, taskCache.get(3L, id -> older));
+    }
+
+    @Test
+    public void testWriteOfOneTaskDoesNotDropTheLoadOfAnother() {
+        TaskDTO written = new TaskDTO();
+        written.setVersion(2L);
+        long evictionsBeforeWrite = taskCache.evictions();
+
+        TaskDTO loaded = taskCache.get(1L, id -> {
+            // While task 1 is being loaded, task 3 is deleted and task 2 is updated and written through.
+            taskCache.evict(3L);
+            taskCache.put(2L, written, evictionsBeforeWrite);
+            return new TaskDTO();
+        });
+
+        assertSame(loaded, taskCache.get(1L, id -> new TaskDTO()));
+        assertSame(written, taskCache.get(2L, id -> new TaskDTO()));
+    }
+
+    @Test
+    public void testLoadOlderThanAForgottenEvictionIsNotCached() {
+        TaskCache smallCache = new TaskCache(1, Duration.ofMinutes(1),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        long evictionsBeforeLoad = smallCache.evictions();
+        smallCache.evict(1L);
+        for (long taskId = 2; taskId < 100; taskId++) {
+            // Pushes the eviction of task 1 out of the bounded eviction record.
+            smallCache.evict(taskId);
+        }
+
+        smallCache.put(1L, new TaskDTO(), evictionsBeforeLoad);
+
+        AtomicInteger loads = new AtomicInteger();
+        smallCache.get(1L, id -> load(id, loads));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testEvictInTransactionIsRepeatedAfterCommit() {
+        AtomicInteger loads = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            taskCache.evict(1L);
+            // A concurrent reader repopulates the cache before the commit.
+            taskCache.get(1L, id -> load(id, loads));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        taskCache.get(1L, id -> load(id, loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testGetAllLoadsOnlyTheMissesInOneCall() {
+        AtomicInteger loads = new AtomicInteger();
+        TaskDTO cached = taskCache.get(1L, id -> load(id, loads));
+        List<List<Long>> loaderCalls = new ArrayList<>();
+
+        Map<Long, TaskDTO> tasks = taskCache.getAll(List.of(1L, 2L, 3L), ids -> {
+            loaderCalls.add(ids);
+            return Map.of(2L, load(2L, loads));
+        });
+
+        assertEquals(List.of(List.of(2L, 3L)), loaderCalls);
+        assertSame(cached, tasks.get(1L));
+        assertEquals(Set.of(1L, 2L), tasks.keySet());
+        // The loaded task is cached, the missing one is not.
+        assertSame(tasks.get(2L), taskCache.get(2L, id -> load(id, loads)));
+        assertEquals(2, loads.get());
+    }
+
+    private TaskDTO load(Long taskId, AtomicInteger loads) {
+        loads.incrementAndGet();
+        TaskDTO task = new TaskDTO();
+        task.setTaskId(taskId);
+        return task;
+    }
+}
@@ -1,30 +1,67 @@
 package com.task.controller;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.task.dto.ProjectStatsDTO;
+import com.task.dto.TaskBatchGetResultDTO;
+import com.task.dto.StatusUpdateJobDTO;
+import com.task.dto.TaskBatchUpdateResultDTO;
 import com.task.dto.TaskDTO;
+import com.task.dto.TaskPatchDTO;
+import com.task.dto.TaskSliceDTO;
+import com.task.exception.JobNotFoundException;
+import com.task.exception.JobQueueFullException;
+import com.task.exception.TaskConflictException;
+import com.task.service.StatusUpdateJobService;
 import com.task.service.TaskService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static com.task.constants.StatusConstants.IN_PROGRESS;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TaskController.class)
+@Import({SimpleMeterRegistry.class, BinaryFormatConfig.class})
 public class TaskControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
     @MockBean
     private TaskService taskService;
+    @MockBean
+    private StatusUpdateJobService statusUpdateJobService;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Test
     public void testCreateTask() throws Exception {
@@ -54,6 +91,28 @@ public class TaskControllerTest {
 
     }
 
+    @Test
+    public void testCreateTasksInBulk() throws Exception {
+        when(taskService.createTasks(eq(1L), any())).thenReturn(List.of(11L, 12L));
+
+        mockMvc.perform(post("/api/v1/projects/1/tasks:bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"title\": \"First Task\", \"status\": \"Pending\", \"priority\": 1},"
+                                + " {\"title\": \"Second Task\", \"status\": \"Pending\", \"priority\": 2}]"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0]").value(11))
+                .andExpect(jsonPath("$[1]").value(12));
+    }
+
+    @Test
+    public void testCreateTasksInBulkRejectsInvalidTask() throws Exception {
+        mockMvc.perform(post("/api/v1/projects/1/tasks:bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"title\": \"First Task\", \"status\": \"Pending\", \"priority\": 1},"
+                                + " {\"title\": \"Second Task\", \"status\": \"Done\", \"priority\": 2}]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testUpdateTask() throws Exception {
         Long taskId = 1L;
@@ -67,14 +126,95 @@ public class TaskControllerTest {
         updatedTaskDTO.setStatus(IN_PROGRESS);
         updatedTaskDTO.setPriority(1);
         updatedTaskDTO.setDueDate(futureDate);
+        updatedTaskDTO.setVersion(4L);
 
-        when(taskService.updateTask(eq(taskId), any(TaskDTO.class))).thenReturn(updatedTaskDTO);
+        when(taskService.updateTask(eq(taskId), any(TaskDTO.class), isNull())).thenReturn(updatedTaskDTO);
 
         mockMvc.perform(put("/api/v1/projects/tasks/{id}", taskId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"title\": \"Update Task\", \"description\": \"Task description\", \"status\": \"In Progress\", \"priority\": 1, \"dueDate\": \"" + formattedDate + "\"}"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.title").value("Update Task"));
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.title").value("Update Task"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    public void testGetTaskByIdReturnsVersionAsETag() throws Exception {
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setTitle("Sample Task");
+        taskDTO.setVersion(3L);
+        when(taskService.getTaskById(1L)).thenReturn(taskDTO);
+
+        mockMvc.perform(get("/api/v1/projects/tasks/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    public void testUpdateTaskWithStaleIfMatch() throws Exception {
+        when(taskService.updateTask(eq(1L), any(TaskDTO.class), eq(3L)))
+                .thenThrow(new TaskConflictException("Task 1 is at version 4, not 3"));
+
+        mockMvc.perform(put("/api/v1/projects/tasks/{id}", 1L)
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Update Task\", \"status\": \"Pending\", \"priority\": 1}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.errorMessage").value("Task 1 is at version 4, not 3"));
+
+        mockMvc.perform(put("/api/v1/projects/tasks/{id}", 1L)
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Update Task\", \"status\": \"Pending\", \"priority\": 1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testUpdateTaskLosingToConcurrentUpdatesWithoutIfMatchIsAConflict() throws Exception {
+        when(taskService.updateTask(eq(1L), any(TaskDTO.class), isNull()))
+                .thenThrow(new TaskConflictException("Task 1 was changed by a concurrent update", false));
+
+        mockMvc.perform(put("/api/v1/projects/tasks/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Update Task\", \"status\": \"Pending\", \"priority\": 1}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errorCode").value("CONFLICT_ERROR"));
+    }
+
+    @Test
+    public void testPatchTaskValidatesOnlyTheSuppliedFields() throws Exception {
+        TaskDTO patchedTask = new TaskDTO();
+        patchedTask.setTitle("Sample Task");
+        patchedTask.setPriority(3);
+        patchedTask.setVersion(5L);
+        when(taskService.patchTask(eq(1L), any(TaskPatchDTO.class), eq(4L))).thenReturn(patchedTask);
+
+        mockMvc.perform(patch("/api/v1/projects/tasks/{id}", 1L)
+                        .header("If-Match", "\"4\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"priority\": 3, \"description\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5\""))
+                .andExpect(jsonPath("$.priority").value(3));
+
+        ArgumentCaptor<TaskPatchDTO> patch = ArgumentCaptor.forClass(TaskPatchDTO.class);
+        verify(taskService).patchTask(eq(1L), patch.capture(), eq(4L));
+        assertEquals(Optional.of(3), patch.getValue().getPriority());
+        assertEquals(Optional.empty(), patch.getValue().getDescription());
+        assertNull(patch.getValue().getTitle());
+    }
+
+    @Test
+    public void testPatchTaskRejectsInvalidAndClearedRequiredFields() throws Exception {
+        mockMvc.perform(patch("/api/v1/projects/tasks/{id}", 1L)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"priority\": 0, \"title\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[?(@.errorCode == 'priority')].errorMessage").value("Priority must be at least 1"));
+
+        verify(taskService, never()).patchTask(any(), any(), any());
     }
 
     @Test
@@ -93,6 +233,249 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$").isArray());
     }
 
+    @Test
+    public void testGetTasksInKeysetMode() throws Exception {
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setTitle("Sample Task");
+        when(taskService.getTasksAfter(eq("abc"), eq(5), eq("priority")))
+                .thenReturn(new TaskSliceDTO(List.of(taskDTO), "def", true));
+
+        mockMvc.perform(get("/api/v1/projects?mode=keyset&after=abc&size=5&sortBy=priority"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].title").value("Sample Task"))
+                .andExpect(jsonPath("$.nextCursor").value("def"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    public void testGetTasksByIds() throws Exception {
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setTaskId(3L);
+        TaskBatchGetResultDTO result = new TaskBatchGetResultDTO();
+        result.getTasks().add(taskDTO);
+        result.getNotFoundIds().add(1L);
+        when(taskService.getTasksByIds(List.of(3L, 1L))).thenReturn(result);
+
+        mockMvc.perform(get("/api/v1/projects/tasks:batchGet").param("ids", "3,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].taskId").value(3))
+                .andExpect(jsonPath("$.notFoundIds[0]").value(1));
+
+        mockMvc.perform(post("/api/v1/projects/tasks:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskIds\": [3, 1]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].taskId").value(3))
+                .andExpect(jsonPath("$.notFoundIds[0]").value(1));
+    }
+
+    @Test
+    public void testGetTasksByIdsRejectsTooManyIds() throws Exception {
+        String ids = LongStream.rangeClosed(1, 5001).mapToObj(Long::toString).collect(Collectors.joining(","));
+
+        mockMvc.perform(post("/api/v1/projects/tasks:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskIds\": [" + ids + "]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/projects/tasks:batchGet").param("ids", ids))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).getTasksByIds(any());
+    }
+
+    @Test
+    public void testSearchTasks() throws Exception {
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setTitle("Release deploy");
+        when(taskService.searchTasks("release deploy", 1L, IN_PROGRESS, LocalDate.of(2030, 1, 1), null, null, 10))
+                .thenReturn(new TaskSliceDTO(List.of(taskDTO), "next", true));
+
+        mockMvc.perform(get("/api/v1/projects/tasks:search")
+                        .param("q", "release deploy")
+                        .param("projectId", "1")
+                        .param("status", IN_PROGRESS)
+                        .param("dueFrom", "2030-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].title").value("Release deploy"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    public void testGetOverdueTasksPage() throws Exception {
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setTitle("Overdue Task");
+        when(taskService.getOverdueTasks(2, 10)).thenReturn(List.of(taskDTO));
+
+        mockMvc.perform(get("/api/v1/projects/over-due?page=2&size=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Overdue Task"));
+    }
+
+    @Test
+    public void testListIsNegotiatedAsCbor() throws Exception {
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setTitle("Overdue Task");
+        taskDTO.setDueDate(LocalDate.of(2020, 1, 2));
+        when(taskService.getOverdueTasks()).thenReturn(List.of(taskDTO));
+
+        byte[] body = mockMvc.perform(get("/api/v1/projects/over-due").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<Map<String, Object>> tasks = new ObjectMapper(new CBORFactory()).readValue(body, new TypeReference<>() {});
+        assertEquals("Overdue Task", tasks.get(0).get("title"));
+        assertEquals("2020-01-02", tasks.get(0).get("dueDate"));
+    }
+
+    @Test
+    public void testListInColumnarShapeSendsEachProjectNameOnce() throws Exception {
+        List<TaskDTO> tasks = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            TaskDTO taskDTO = new TaskDTO();
+            taskDTO.setTaskId(id);
+            taskDTO.setProjectId(7L);
+            taskDTO.setProjectName("Project1");
+            taskDTO.setTitle("Task " + id);
+            tasks.add(taskDTO);
+        }
+        when(taskService.getTasksByProjectId(7L)).thenReturn(tasks);
+
+        mockMvc.perform(get("/api/v1/projects/7").param("shape", "columnar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.projectNames.7").value("Project1"))
+                .andExpect(jsonPath("$.projectNames.length()").value(1))
+                .andExpect(jsonPath("$.taskId").value(contains(1, 2, 3)))
+                .andExpect(jsonPath("$.title[2]").value("Task 3"))
+                .andExpect(jsonPath("$.projectName").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/projects/7").param("shape", "tables"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetProjectStats() throws Exception {
+        when(taskService.getProjectStats(1L))
+                .thenReturn(new ProjectStatsDTO(1L, 3, Map.of(IN_PROGRESS, 3L), 1, 2.0));
+
+        mockMvc.perform(get("/api/v1/projects/{id}/stats", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.taskCount").value(3))
+                .andExpect(jsonPath("$.statusCounts['In Progress']").value(3))
+                .andExpect(jsonPath("$.overdueCount").value(1));
+    }
+
+    @Test
+    public void testUpdateBatchStatusInChunks() throws Exception {
+        TaskBatchUpdateResultDTO result = new TaskBatchUpdateResultDTO();
+        result.setRequested(2);
+        result.setUpdated(1);
+        result.getChunkUpdateCounts().add(1);
+        result.getNotFoundIds().add(2L);
+        when(taskService.bulkUpdateTaskStatus(eq(List.of(1L, 2L)), eq(IN_PROGRESS))).thenReturn(result);
+
+        mockMvc.perform(patch("/api/v1/projects/batch-status-updates?atomic=false")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskIds\": [1, 2], \"newStatus\": \"In Progress\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.notFoundIds[0]").value(2));
+    }
+
+    @Test
+    public void testUpdateBatchStatusRejectsUnknownStatus() throws Exception {
+        mockMvc.perform(patch("/api/v1/projects/batch-status-updates")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskIds\": [1], \"newStatus\": \"Done\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSubmitBatchStatusUpdateReturnsAcceptedJob() throws Exception {
+        StatusUpdateJobDTO job = new StatusUpdateJobDTO();
+        job.setJobId(7L);
+        job.setState("QUEUED");
+        job.setRequested(2);
+        when(statusUpdateJobService.submit(eq(List.of(1L, 2L)), eq(IN_PROGRESS))).thenReturn(job);
+
+        mockMvc.perform(patch("/api/v1/projects/batch-status-updates?async=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskIds\": [1, 2], \"newStatus\": \"In Progress\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/v1/projects/jobs/7"))
+                .andExpect(jsonPath("$.jobId").value(7))
+                .andExpect(jsonPath("$.state").value("QUEUED"));
+    }
+
+    @Test
+    public void testSubmitBatchStatusUpdateWhenQueueIsFull() throws Exception {
+        when(statusUpdateJobService.submit(any(), any())).thenThrow(new JobQueueFullException("Too many pending"));
+
+        mockMvc.perform(patch("/api/v1/projects/batch-status-updates?async=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskIds\": [1], \"newStatus\": \"Pending\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.errorCode").value("QUEUE_FULL_ERROR"));
+    }
+
+    @Test
+    public void testUpdateBatchStatusOverTheClientRateLimit() throws Exception {
+        when(taskService.bulkUpdateTaskStatus(any(), any())).thenReturn(new TaskBatchUpdateResultDTO());
+
+        // The configured burst is 5 requests, the bucket refills at one request per second.
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(patch("/api/v1/projects/batch-status-updates")
+                            .with(remoteAddress("10.0.0.1"))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"taskIds\": [1], \"newStatus\": \"Pending\"}"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(patch("/api/v1/projects/batch-status-updates")
+                        .with(remoteAddress("10.0.0.1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskIds\": [1], \"newStatus\": \"Pending\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.errorCode").value("RATE_LIMIT_ERROR"));
+        mockMvc.perform(patch("/api/v1/projects/batch-status-updates")
+                        .with(remoteAddress("10.0.0.2"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskIds\": [1], \"newStatus\": \"Pending\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testGetJob() throws Exception {
+        StatusUpdateJobDTO job = new StatusUpdateJobDTO();
+        job.setJobId(7L);
+        job.setState("RUNNING");
+        job.setProcessed(1000);
+        job.setTasksPerSecond(2500.0);
+        when(statusUpdateJobService.getJob(7L)).thenReturn(job);
+        when(statusUpdateJobService.getJob(8L)).thenThrow(new JobNotFoundException("Job not found with id: 8"));
+
+        mockMvc.perform(get("/api/v1/projects/jobs/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(1000))
+                .andExpect(jsonPath("$.tasksPerSecond").value(2500.0));
+        mockMvc.perform(get("/api/v1/projects/jobs/8"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorCode").value("JOB_ERROR"));
+    }
+
+    @Test
+    public void testErrorsAndRequestsAreMetered() throws Exception {
+        when(statusUpdateJobService.getJob(9L)).thenThrow(new JobNotFoundException("Job not found with id: 9"));
+        double errorsBefore = meterRegistry.counter("task.errors", "code", "JOB_ERROR").count();
+
+        mockMvc.perform(get("/api/v1/projects/jobs/9")).andExpect(status().isNotFound());
+
+        assertEquals(errorsBefore + 1, meterRegistry.counter("task.errors", "code", "JOB_ERROR").count());
+        // Tagged with the URI template, not the requested path.
+        assertEquals(1, meterRegistry.get("task.http.sql.statements")
+                .tags("method", "GET", "uri", "/api/v1/projects/jobs/{id}").summaries().size());
+    }
+
     @Test
     public void testGetTasksByProjectIdAndStatus() throws Exception {
         Long projectId = 1L;
@@ -106,6 +489,48 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$[0].title").value("Sample Task"));
     }
 
+    @Test
+    public void testExportTasksAsCsv() throws Exception {
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setTaskId(5L);
+        taskDTO.setTitle("Sample, Task");
+        taskDTO.setStatus(IN_PROGRESS);
+        taskDTO.setPriority(1);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TaskDTO>>getArgument(1).accept(taskDTO);
+            return null;
+        }).when(taskService).exportTasksByProjectId(eq(1L), any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/projects/{id}/export?format=csv", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("taskId,projectName,title,description,status,priority,dueDate\n"
+                        + "5,,\"Sample, Task\",,In Progress,1,\n"));
+    }
+
+    @Test
+    public void testExportTasksAsNdjson() throws Exception {
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setTitle("Sample Task");
+        doAnswer(invocation -> {
+            invocation.<Consumer<TaskDTO>>getArgument(1).accept(taskDTO);
+            invocation.<Consumer<TaskDTO>>getArgument(1).accept(taskDTO);
+            return null;
+        }).when(taskService).exportTasksByProjectId(eq(1L), any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/projects/{id}/export", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(2, body.lines().filter(line -> line.contains("\"title\":\"Sample Task\"")).count());
+    }
+
     @Test
     public void testGetCompletedTasksAfterEstimatedTime() throws Exception {
         Long projectId = 1L;
@@ -120,4 +545,11 @@ public class TaskControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].title").value("Completed Task"));
     }
+
+    private static RequestPostProcessor remoteAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
 }
@@ -0,0 +1,64 @@
+package com.task.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter();
+
+    public ReadYourWritesFilterTest() {
+        ReflectionTestUtils.setField(filter, "window", Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testWriteSetsTheCookieAndRunsOnThePrimary() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(pinned(new MockHttpServletRequest("POST", "/api/v1/projects/1/tasks"), response));
+
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(cookie);
+        assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+        assertTrue(cookie.isHttpOnly());
+    }
+
+    @Test
+    public void testReadIsPinnedOnlyWhileTheCookieHasNotExpired() throws Exception {
+        MockHttpServletRequest fresh = new MockHttpServletRequest("GET", "/api/v1/projects/1/tasks");
+        fresh.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() + 5000)));
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/v1/projects/1/tasks");
+        expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(pinned(fresh, response));
+        assertFalse(pinned(expired, response));
+        assertFalse(pinned(new MockHttpServletRequest("GET", "/api/v1/projects/1/tasks"), response));
+        assertNull(response.getCookie(ReadYourWritesFilter.COOKIE));
+    }
+
+    private boolean pinned(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicBoolean pinned = new AtomicBoolean();
+        filter.doFilter(request, response, (req, res) -> {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            try (ReplicaRouting.Scope ignored = ReplicaRouting.replicaRead()) {
+                pinned.set(!ReplicaRouting.useReplica());
+            } finally {
+                TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            }
+        });
+        return pinned.get();
+    }
+}
@@ -0,0 +1,115 @@
+package com.task.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private final JdbcDataSource primary = h2("primary");
+
+    private final JdbcDataSource replica = h2("replica");
+
+    private final FlakyDataSource flakyReplica = new FlakyDataSource(h2("flaky"));
+
+    private final ReplicaRoutingDataSource dataSource =
+            new ReplicaRoutingDataSource(primary, List.of(replica, flakyReplica));
+
+    @AfterEach
+    public void clearTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void testOnlyReadOnlyTransactionsInAReplicaReadUseTheReplicas() throws SQLException {
+        assertEquals("primary", database());
+        try (ReplicaRouting.Scope ignored = ReplicaRouting.replicaRead()) {
+            // A read-write transaction, e.g. a write joined by a read-only service method.
+            assertEquals("primary", database());
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            assertEquals("replica", database());
+            assertEquals("flaky", database());
+            assertEquals("replica", database());
+        }
+        // Spring Data's read-only transactions outside a service method.
+        assertEquals("primary", database());
+    }
+
+    @Test
+    public void testPinnedThreadReadsFromThePrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (ReplicaRouting.Scope pinned = ReplicaRouting.pinToPrimary();
+             ReplicaRouting.Scope read = ReplicaRouting.replicaRead()) {
+            assertEquals("primary", database());
+            try (ReplicaRouting.Scope nested = ReplicaRouting.pinToPrimary()) {
+                assertEquals("primary", database());
+            }
+            assertEquals("primary", database());
+        }
+    }
+
+    @Test
+    public void testFailingReplicaFallsBackToThePrimaryUntilItRecovers() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        flakyReplica.down = true;
+        try (ReplicaRouting.Scope ignored = ReplicaRouting.replicaRead()) {
+            assertEquals("replica", database());
+            assertEquals("primary", database());
+            // Out of rotation now.
+            assertEquals("replica", database());
+            assertEquals("replica", database());
+
+            assertEquals(1, dataSource.checkReplicas());
+            flakyReplica.down = false;
+            assertEquals(2, dataSource.checkReplicas());
+            assertEquals("replica", database());
+            assertEquals("flaky", database());
+        }
+    }
+
+    private String database() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            return url.substring(url.lastIndexOf(':') + 1);
+        }
+    }
+
+    private static JdbcDataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name);
+        return dataSource;
+    }
+
+    private static final class FlakyDataSource extends AbstractDataSource {
+
+        private final DataSource target;
+
+        private volatile boolean down;
+
+        FlakyDataSource(DataSource target) {
+            this.target = target;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return target.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.task.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent writers on the stripes of {@link MemoryTaskStore}, with readers running alongside them.
+ * Every write sets the title and priority of a row from its new version, so a reader that saw part of a write
+ * would find them out of step.
+ */
+public class MemoryTaskStoreConcurrencyTest {
+
+    private static final int ROWS = 100;
+
+    private static final int WRITERS = 8;
+
+    private static final int READERS = 4;
+
+    private static final int UPDATES_PER_WRITER = 2000;
+
+    // Every batch is forced to the disk.
+    private static final int BATCHES_PER_WRITER = 200;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    public void testConcurrentWritesAreNeitherLostNorSeenHalfWay() throws Exception {
+        try (MemoryTaskStore store = new MemoryTaskStore()) {
+            List<TaskRow> rows = store.insertAll(IntStream.range(0, ROWS).mapToObj(i -> row(0)).toList());
+
+            runConcurrently(store, rows, UPDATES_PER_WRITER, () -> {
+                long id = rows.get(ThreadLocalRandom.current().nextInt(ROWS)).id();
+                store.compute(id, MemoryTaskStoreConcurrencyTest::next);
+            });
+
+            // Every update incremented the version of one row, none was overwritten.
+            assertEquals((long) WRITERS * UPDATES_PER_WRITER, store.all().mapToLong(TaskRow::version).sum());
+            store.all().forEach(MemoryTaskStoreConcurrencyTest::assertWhole);
+            assertEquals(ROWS, store.inOrder(MemoryTaskStore.Column.PRIORITY).count());
+        }
+    }
+
+    @Test
+    public void testConcurrentBatchesAreRecoveredFromTheLog() throws Exception {
+        List<TaskRow> expected;
+        try (MemoryTaskStore store = MemoryTaskStore.open(dir, true)) {
+            List<TaskRow> rows = store.insertAll(IntStream.range(0, ROWS).mapToObj(i -> row(0)).toList());
+
+            runConcurrently(store, rows, BATCHES_PER_WRITER, () -> {
+                // Batches over overlapping rows, each logged as one record, and new rows.
+                int from = ThreadLocalRandom.current().nextInt(ROWS - 10);
+                store.computeAll(rows.subList(from, from + 10).stream().map(TaskRow::id).toList(),
+                        MemoryTaskStoreConcurrencyTest::next);
+                store.insertAll(List.of(row(0), row(0)));
+            });
+            expected = store.all().toList();
+            assertEquals(10L * WRITERS * BATCHES_PER_WRITER, expected.stream().mapToLong(TaskRow::version).sum());
+        }
+
+        try (MemoryTaskStore store = MemoryTaskStore.open(dir, true)) {
+            assertEquals(expected, store.all().toList());
+            assertEquals(ROWS + 2L * WRITERS * BATCHES_PER_WRITER, expected.size());
+        }
+    }
+
+    private static TaskRow next(TaskRow row) {
+        long version = row.version() + 1;
+        return new TaskRow(row.id(), row.projectId(), "Version " + version, row.description(), row.status(),
+                (int) version, row.dueDate(), version);
+    }
+
+    private static void assertWhole(TaskRow row) {
+        assertEquals("Version " + row.version(), row.title());
+        assertEquals(row.version(), (long) row.priority());
+    }
+
+    /*
+     * Runs the update the given number of times on each writer, while the readers check every row they read
+     * by id and in priority order.
+     */
+    private static void runConcurrently(MemoryTaskStore store, List<TaskRow> rows, int updates, Runnable update)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int i = 0; i < WRITERS; i++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int n = 0; n < updates; n++) {
+                        update.run();
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < READERS; i++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (writing.get()) {
+                        rows.forEach(row -> assertWhole(store.get(row.id())));
+                        int[] lastPriority = {Integer.MIN_VALUE};
+                        store.inOrder(MemoryTaskStore.Column.PRIORITY).forEach(row -> {
+                            assertWhole(row);
+                            assertTrue(row.priority() >= lastPriority[0], "Rows out of priority order");
+                            lastPriority[0] = row.priority();
+                        });
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            try {
+                for (Future<?> writer : writers) {
+                    writer.get(2, TimeUnit.MINUTES);
+                }
+            } finally {
+                writing.set(false);
+            }
+            for (Future<?> reader : readers) {
+                reader.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static TaskRow row(long version) {
+        return new TaskRow(0, 1L, "Version " + version, "Description", PENDING, (int) version,
+                LocalDate.of(2030, 1, 15), version);
+    }
+}
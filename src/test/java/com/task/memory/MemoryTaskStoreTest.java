@@ -0,0 +1,109 @@
+package com.task.memory;
+
+import com.task.constants.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.constants.TaskStatus.IN_PROGRESS;
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Recovery of a persisted {@link MemoryTaskStore} from its snapshot and logs, and its index of open due dates.
+ */
+public class MemoryTaskStoreTest {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    public void testRowsAreRecoveredFromSnapshotAndLog() throws IOException {
+        List<TaskRow> rows;
+        try (MemoryTaskStore store = MemoryTaskStore.open(dir, false)) {
+            rows = store.insertAll(List.of(row(1L, "First"), row(1L, "Second"), row(2L, null)));
+            store.snapshot();
+            // Only in the log written after the snapshot.
+            store.compute(rows.get(0).id(), task -> task.withStatus(COMPLETED));
+            store.compute(rows.get(1).id(), task -> null);
+            store.insertAll(List.of(row(2L, "Fourth")));
+        }
+
+        try (MemoryTaskStore store = MemoryTaskStore.open(dir, false)) {
+            assertEquals(rows.get(0).withStatus(COMPLETED), store.get(rows.get(0).id()));
+            assertNull(store.get(rows.get(1).id()));
+            assertEquals(rows.get(2), store.get(rows.get(2).id()));
+            assertEquals(List.of(rows.get(2).id(), rows.get(2).id() + 1), store.ofProject(2L).map(TaskRow::id).toList());
+            // Ids keep counting from the recovered rows.
+            assertEquals(rows.get(2).id() + 2, store.insertAll(List.of(row(1L, "Fifth"))).get(0).id());
+        }
+    }
+
+    @Test
+    public void testTornTailOfLogIsDropped() throws IOException {
+        TaskRow first;
+        List<TaskRow> batch;
+        try (MemoryTaskStore store = MemoryTaskStore.open(dir, true)) {
+            first = store.insertAll(List.of(row(1L, "First"))).get(0);
+            batch = store.insertAll(List.of(row(1L, "Second"), row(1L, "Third")));
+        }
+        // A crash in the middle of the last record.
+        Path log;
+        try (Stream<Path> files = Files.list(dir)) {
+            log = files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted().findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (MemoryTaskStore store = MemoryTaskStore.open(dir, true)) {
+            assertEquals(first, store.get(first.id()));
+            // The rows of one insertAll are one record, they are dropped together.
+            assertNull(store.get(batch.get(0).id()));
+            assertNull(store.get(batch.get(1).id()));
+            assertEquals(1, store.all().count());
+        }
+    }
+
+    @Test
+    public void testOpenTasksDueBeforeADateLeaveOutCompletedTasks() throws IOException {
+        LocalDate today = LocalDate.of(2030, 1, 15);
+        List<Long> ids;
+        try (MemoryTaskStore store = MemoryTaskStore.open(dir, false)) {
+            ids = store.insertAll(List.of(
+                    row(PENDING, today.minusDays(2)),
+                    row(COMPLETED, today.minusDays(3)),
+                    row(COMPLETED, today.minusDays(1)),
+                    row(PENDING, today),
+                    row(PENDING, null))).stream().map(TaskRow::id).toList();
+            // Moved, reopened, and completed while moved into the past.
+            store.compute(ids.get(0), task -> row(PENDING, today.minusDays(4)).withId(task.id()));
+            store.compute(ids.get(2), task -> task.withStatus(IN_PROGRESS));
+            store.compute(ids.get(3), task -> row(COMPLETED, today.minusDays(5)).withId(task.id()));
+
+            assertEquals(List.of(ids.get(0), ids.get(2)), store.openDueBefore(today).map(TaskRow::id).toList());
+        }
+
+        try (MemoryTaskStore store = MemoryTaskStore.open(dir, false)) {
+            assertEquals(List.of(ids.get(0), ids.get(2)), store.openDueBefore(today).map(TaskRow::id).toList());
+        }
+    }
+
+    private static TaskRow row(Long projectId, String title) {
+        return new TaskRow(0, projectId, title, "Description", PENDING, 2, LocalDate.of(2030, 1, 15), 0);
+    }
+
+    private static TaskRow row(TaskStatus status, LocalDate dueDate) {
+        return new TaskRow(0, 1L, "Task", "Description", status, 2, dueDate, 0);
+    }
+}
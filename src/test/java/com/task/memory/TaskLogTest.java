@@ -0,0 +1,188 @@
+package com.task.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.task.constants.TaskStatus.PENDING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Appends to a {@link TaskLog} that fail in the middle of a record, e.g. on a full disk.
+ */
+public class TaskLogTest {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    public void testFailedAppendIsCutOffSoLaterRecordsAreRecovered() throws IOException {
+        FailingChannel[] channel = new FailingChannel[1];
+        try (TaskLog log = new TaskLog(dir, true, file -> channel[0] = new FailingChannel(file))) {
+            log.recover(row -> { }, id -> { });
+            log.append(TaskRecords.put(row(1)));
+            channel[0].failWrites = true;
+            assertThrows(UncheckedIOException.class, () -> log.append(TaskRecords.put(row(2))));
+            channel[0].failWrites = false;
+            log.append(TaskRecords.put(row(3)));
+        }
+
+        assertEquals(List.of(1L, 3L), recover());
+    }
+
+    @Test
+    public void testLogThatCannotBeCutRefusesAppendsUntilRotated() throws IOException {
+        FailingChannel[] channel = new FailingChannel[1];
+        try (TaskLog log = new TaskLog(dir, true, file -> channel[0] = new FailingChannel(file))) {
+            log.recover(row -> { }, id -> { });
+            log.append(TaskRecords.put(row(1)));
+            channel[0].failWrites = true;
+            channel[0].failTruncate = true;
+            assertThrows(UncheckedIOException.class, () -> log.append(TaskRecords.put(row(2))));
+            channel[0].failWrites = false;
+            assertThrows(UncheckedIOException.class, () -> log.append(TaskRecords.put(row(3))));
+            assertThrows(IOException.class, log::rotate);
+
+            channel[0].failTruncate = false;
+            log.rotate();
+            log.append(TaskRecords.put(row(4)));
+        }
+
+        assertEquals(List.of(1L, 4L), recover());
+    }
+
+    private List<Long> recover() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (TaskLog log = new TaskLog(dir, true)) {
+            log.recover(row -> ids.add(row.id()), id -> { });
+        }
+        return ids;
+    }
+
+    private static TaskRow row(long id) {
+        return new TaskRow(id, 1L, "Task " + id, "Description", PENDING, 2, LocalDate.of(2030, 1, 15), 0);
+    }
+
+    /*
+     * A log channel whose writes can be made to fail after writing half of the record.
+     */
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+        private boolean failWrites;
+        private boolean failTruncate;
+
+        FailingChannel(Path file) throws IOException {
+            this.delegate = FileChannel.open(file, CREATE, WRITE, APPEND);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failWrites) {
+                delegate.write(src.slice().limit(src.remaining() / 2));
+                throw new IOException("No space left on device");
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncate) {
+                throw new IOException("Input/output error");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.task.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MeteredDataSourceTest {
+
+    private final Timer timer = new SimpleMeterRegistry().timer("task.sql");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(MeteredDataSource.wrap(h2(), timer));
+
+    @Test
+    public void testEveryExecutionIsCountedAndBatchesCountOnce() {
+        jdbcTemplate.execute("CREATE TABLE item (id BIGINT PRIMARY KEY)");
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            jdbcTemplate.batchUpdate("INSERT INTO item (id) VALUES (?)", List.of(1L, 2L, 3L), 10,
+                    (statement, id) -> statement.setLong(1, id));
+            assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class));
+            jdbcTemplate.update("DELETE FROM item WHERE id = ?", 1L);
+
+            assertEquals(3, scope.statements());
+            assertTrue(scope.nanos() > 0);
+        }
+        assertEquals(4, timer.count());
+    }
+
+    @Test
+    public void testNestedScopesAddUpToTheEnclosingScope() {
+        try (SqlStatementScope request = SqlStatementScope.open()) {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            try (SqlStatementScope nested = SqlStatementScope.open()) {
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                assertEquals(1, nested.statements());
+            }
+            assertEquals(2, request.statements());
+        }
+        // Outside of a scope statements are still timed.
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+        assertEquals(3, timer.count());
+    }
+
+    @Test
+    public void testWorkOnAnotherThreadCountsInThePropagatedScope() {
+        try (SqlStatementScope request = SqlStatementScope.open()) {
+            Supplier<Integer> query = SqlStatementScope.propagate(() -> jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+            CompletableFuture.allOf(CompletableFuture.supplyAsync(query), CompletableFuture.supplyAsync(query)).join();
+
+            assertEquals(2, request.statements());
+        }
+    }
+
+    private static JdbcDataSource h2() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:metered;DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+}
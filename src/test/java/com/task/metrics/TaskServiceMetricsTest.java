@@ -0,0 +1,74 @@
+package com.task.metrics;
+
+import com.task.dto.TaskDTO;
+import com.task.dto.TaskSliceDTO;
+import com.task.exception.TaskNotFoundException;
+import com.task.service.TaskService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+public class TaskServiceMetricsTest {
+
+    @Mock
+    private TaskService target;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TaskService taskService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        TaskServiceMetrics taskServiceMetrics = new TaskServiceMetrics();
+        ReflectionTestUtils.setField(taskServiceMetrics, "meterRegistry", meterRegistry);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(taskServiceMetrics);
+        taskService = factory.getProxy();
+    }
+
+    @Test
+    public void testCallsAreTimedByMethodAndListSizesRecorded() {
+        when(target.getTasksByProjectId(1L)).thenReturn(List.of(new TaskDTO(), new TaskDTO()));
+        TaskSliceDTO slice = new TaskSliceDTO();
+        slice.setTasks(List.of(new TaskDTO()));
+        when(target.getTasksAfter(null, 10, "dueDate")).thenReturn(slice);
+        when(target.createTasks(1L, List.of())).thenReturn(List.of(1L, 2L, 3L));
+
+        taskService.getTasksByProjectId(1L);
+        taskService.getTasksByProjectId(1L);
+        taskService.getTasksAfter(null, 10, "dueDate");
+        taskService.createTasks(1L, List.of());
+
+        assertEquals(2, meterRegistry.get("task.service").tags("method", "getTasksByProjectId", "exception", "none")
+                .timer().count());
+        assertEquals(4, meterRegistry.get("task.service.rows").tag("method", "getTasksByProjectId")
+                .summary().totalAmount());
+        assertEquals(1, meterRegistry.get("task.service.rows").tag("method", "getTasksAfter")
+                .summary().totalAmount());
+        // Ids are not tasks.
+        assertNull(meterRegistry.find("task.service.rows").tag("method", "createTasks").summary());
+    }
+
+    @Test
+    public void testFailedCallsAreTaggedWithTheException() {
+        when(target.getTaskById(1L)).thenThrow(new TaskNotFoundException("Task not found with id: 1"));
+
+        assertThrows(TaskNotFoundException.class, () -> taskService.getTaskById(1L));
+
+        assertEquals(1, meterRegistry.get("task.service")
+                .tags("method", "getTaskById", "exception", "TaskNotFoundException").timer().count());
+    }
+}
@@ -0,0 +1,169 @@
+package com.task.repository;
+
+import com.task.constants.TaskStatus;
+import com.task.entity.ArchivedTask;
+import com.task.entity.Task;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query plan regression suite: runs every TaskRepository and ArchivedTaskRepository query, EXPLAINs the SQL
+ * Hibernate generated for it on H2 in MySQL mode and fails when the plan reads the task or task_archive table
+ * with a full scan.
+ * A new repository method must be added to {@link #queries()}.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.datasource.url=jdbc:h2:mem:plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.task.repository.TaskRepositoryQueryPlanTest$SqlCollector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class TaskRepositoryQueryPlanTest {
+
+    private static final List<String> FULL_SCANS = List.of("public.task.tableScan", "public.task_archive.tableScan");
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testNoQueryScansTheTaskTable() {
+        List<String> failures = new ArrayList<>();
+        queries().forEach((name, query) -> {
+            SqlCollector.STATEMENTS.clear();
+            query.run();
+            assertFalse(SqlCollector.STATEMENTS.isEmpty(), name + " issued no SQL");
+            for (String sql : SqlCollector.STATEMENTS) {
+                String plan = explain(sql);
+                if (FULL_SCANS.stream().anyMatch(plan::contains)) {
+                    failures.add(name + ": " + plan);
+                }
+            }
+        });
+        assertTrue(failures.isEmpty(), "Full table scans:\n" + String.join("\n", failures));
+    }
+
+    private Map<String, Runnable> queries() {
+        LocalDate today = LocalDate.now();
+        PageRequest page = PageRequest.of(0, 10);
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findById", () -> taskRepository.findById(1L));
+        queries.put("findAll(dueDate)", () -> taskRepository.findAll(PageRequest.of(0, 10, Sort.by("dueDate"))));
+        queries.put("findByDueDateBeforeAndStatusNotEqualCompleted",
+                () -> taskRepository.findByDueDateBeforeAndStatusNotEqualCompleted(today));
+        queries.put("findByProjectIdAndStatus", () -> taskRepository.findByProjectIdAndStatus(1L, PENDING));
+        queries.put("findByProjectIdAndStatusAndDueDateAfter",
+                () -> taskRepository.findByProjectIdAndStatusAndDueDateAfter(1L, PENDING, today));
+        queries.put("findByProjectId", () -> taskRepository.findByProjectId(1L));
+        queries.put("streamByProjectId", () -> {
+            try (Stream<Task> tasks = taskRepository.streamByProjectId(1L)) {
+                tasks.findFirst();
+            }
+        });
+        queries.put("findByIdIn", () -> taskRepository.findByIdIn(List.of(1L, 2L)));
+        queries.put("findSummariesByIdIn", () -> taskRepository.findSummariesByIdIn(List.of(1L, 2L)));
+        queries.put("countByProjectIdGroupByStatusAndDueDate", () -> taskRepository.countByProjectIdGroupByStatusAndDueDate(1L));
+        queries.put("streamSearchRows", () -> {
+            try (Stream<TaskSearchRow> tasks = taskRepository.streamSearchRows()) {
+                tasks.findFirst();
+            }
+        });
+        queries.put("streamOpenTaskDueDates", () -> {
+            try (Stream<TaskDueDate> tasks = taskRepository.streamOpenTaskDueDates()) {
+                tasks.findFirst();
+            }
+        });
+        queries.put("findCompletedIdsDueBefore", () -> taskRepository.findCompletedIdsDueBefore(today, page));
+        queries.put("deleteCompletedByIdIn", () -> taskRepository.deleteCompletedByIdIn(List.of(1L, 2L)));
+        queries.put("updateStatusByIdIn", () -> taskRepository.updateStatusByIdIn(List.of(1L, 2L), PENDING));
+        queries.put("updateIfCurrent", () -> taskRepository.updateIfCurrent(1L, 0L, TaskStatus.sourcesOf(PENDING),
+                "Task", null, PENDING, 1, today));
+        queries.put("patchIfCurrent", () -> taskRepository.patchIfCurrent(1L, 0L, TaskStatus.sourcesOf(PENDING),
+                Map.of("priority", 2)));
+        for (String column : List.of("dueDate", "priority", "status")) {
+            queries.put("findAllBy(" + column + ")", () -> taskRepository.findAllBy(PageRequest.of(0, 10, Sort.by(column, "id"))));
+        }
+        queries.put("findByDueDateAfterCursor", () -> taskRepository.findByDueDateAfterCursor(today, 1L, page));
+        queries.put("findByDueDateIsNullAndIdGreaterThan",
+                () -> taskRepository.findByDueDateIsNullAndIdGreaterThan(1L, PageRequest.of(0, 10, Sort.by("id"))));
+        queries.put("findByDueDateIsNotNull",
+                () -> taskRepository.findByDueDateIsNotNull(PageRequest.of(0, 10, Sort.by("dueDate", "id"))));
+        queries.put("findByPriorityAfterCursor", () -> taskRepository.findByPriorityAfterCursor(1, 1L, page));
+        queries.put("findByPriorityIsNullAndIdGreaterThan",
+                () -> taskRepository.findByPriorityIsNullAndIdGreaterThan(1L, PageRequest.of(0, 10, Sort.by("id"))));
+        queries.put("findByPriorityIsNotNull",
+                () -> taskRepository.findByPriorityIsNotNull(PageRequest.of(0, 10, Sort.by("priority", "id"))));
+        queries.put("findByStatusAfterCursor", () -> taskRepository.findByStatusAfterCursor(PENDING, 1L, page));
+        queries.put("findByStatusIsNullAndIdGreaterThan",
+                () -> taskRepository.findByStatusIsNullAndIdGreaterThan(1L, PageRequest.of(0, 10, Sort.by("id"))));
+        queries.put("findByStatusIsNotNull",
+                () -> taskRepository.findByStatusIsNotNull(PageRequest.of(0, 10, Sort.by("status", "id"))));
+        queries.put("archive.findById", () -> archivedTaskRepository.findById(1L));
+        queries.put("archive.findByIdIn", () -> archivedTaskRepository.findByIdIn(List.of(1L, 2L)));
+        queries.put("archive.findByProjectId", () -> archivedTaskRepository.findByProjectId(1L));
+        queries.put("archive.findByProjectIdAndDueDateAfter",
+                () -> archivedTaskRepository.findByProjectIdAndDueDateAfter(1L, today));
+        queries.put("archive.streamByProjectId", () -> {
+            try (Stream<ArchivedTask> tasks = archivedTaskRepository.streamByProjectId(1L)) {
+                tasks.findFirst();
+            }
+        });
+        queries.put("archive.countByProjectIdGroupByStatusAndDueDate",
+                () -> archivedTaskRepository.countByProjectIdGroupByStatusAndDueDate(1L));
+        queries.put("archive.copyCompletedTasks", () -> archivedTaskRepository.copyCompletedTasks(List.of(1L, 2L)));
+        return queries;
+    }
+
+    /*
+     * The statement is prepared but its parameters are left unbound, so H2 plans it for any value
+     * instead of folding literals into the plan.
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1).replace('\n', ' ');
+            }
+        });
+    }
+
+    public static class SqlCollector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.task.repository;
+
+import com.task.constants.TaskStatus;
+import com.task.entity.Project;
+import com.task.entity.Task;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+public class TaskRepositoryTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void testInsertAllReturnsGeneratedIdsInOrder() {
+        Project project = new Project();
+        project.setName("A1");
+        entityManager.persist(project);
+
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setStatus(PENDING);
+            task.setPriority(i + 1);
+            task.setDueDate(LocalDate.now().plusDays(i));
+            task.setProject(project);
+            tasks.add(task);
+        }
+
+        List<Long> ids = taskRepository.insertAll(tasks, 2);
+
+        assertEquals(5, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals("Task " + i, taskRepository.findById(ids.get(i)).orElseThrow().getTitle());
+        }
+    }
+
+    @Test
+    public void testPatchIfCurrentWritesOnlyTheChangedColumns() {
+        Project project = new Project();
+        project.setName("A1");
+        entityManager.persist(project);
+        Task task = new Task();
+        task.setTitle("Task");
+        task.setStatus(PENDING);
+        task.setPriority(1);
+        task.setProject(project);
+        entityManager.persist(task);
+        entityManager.flush();
+        // Changed behind Hibernate's back without a version increment, a full-row UPDATE would revert it.
+        entityManager.createNativeQuery("UPDATE task SET title = 'Renamed' WHERE id = " + task.getId()).executeUpdate();
+
+        assertEquals(0, taskRepository.patchIfCurrent(task.getId(), 1L, TaskStatus.sourcesOf(PENDING), Map.of("priority", 5)));
+        assertEquals(1, taskRepository.patchIfCurrent(task.getId(), 0L, TaskStatus.sourcesOf(PENDING), Map.of("priority", 5)));
+        entityManager.clear();
+
+        Task patched = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals("Renamed", patched.getTitle());
+        assertEquals(5, patched.getPriority());
+        assertEquals(1L, patched.getVersion());
+    }
+
+    @Test
+    public void testStreamByProjectIdReturnsOnlyTheProjectTasks() {
+        Project project = new Project();
+        project.setName("A1");
+        entityManager.persist(project);
+        Project otherProject = new Project();
+        otherProject.setName("A2");
+        entityManager.persist(otherProject);
+        taskRepository.insertAll(List.of(task("First", project), task("Other", otherProject), task("Second", project)), 10);
+
+        try (Stream<Task> tasks = taskRepository.streamByProjectId(project.getId())) {
+            assertEquals(List.of("First", "Second"), tasks.map(Task::getTitle).collect(Collectors.toList()));
+        }
+    }
+
+    private static Task task(String title, Project project) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setStatus(PENDING);
+        task.setPriority(1);
+        task.setProject(project);
+        return task;
+    }
+}
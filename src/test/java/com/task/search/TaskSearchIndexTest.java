@@ -0,0 +1,160 @@
+package com.task.search;
+
+import com.task.repository.TaskSearchRow;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.constants.TaskStatus.IN_PROGRESS;
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskSearchIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    private final TaskSearchIndex index = new TaskSearchIndex("", 1000);
+
+    public TaskSearchIndexTest() throws IOException {
+    }
+
+    @AfterEach
+    public void close() throws IOException {
+        index.close();
+    }
+
+    @Test
+    public void testTitleMatchesRankFirstAndAllWordsMustMatch() {
+        index.synchronize(() -> Stream.of(
+                new TaskSearchRow(1L, 10L, "Write notes", "Release deploy checklist", PENDING, TODAY),
+                new TaskSearchRow(2L, 10L, "Release deploy", "Prepare the notes", PENDING, TODAY),
+                new TaskSearchRow(3L, 10L, "Deploy", "Nothing else", PENDING, TODAY)));
+        index.refresh();
+
+        assertEquals(List.of(2L, 1L), ids(index.search("release deploy", null, null, null, null, null, 10)));
+        assertEquals(List.of(3L), ids(index.search("deploy -release", null, null, null, null, null, 10)));
+        assertEquals(List.of(1L, 2L), ids(index.search("\"release deploy\" note*", null, null, null, null, null, 10))
+                .stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFiltersOnProjectStatusAndDueDate() {
+        index.synchronize(() -> Stream.of(
+                new TaskSearchRow(1L, 10L, "Deploy", null, PENDING, TODAY.minusDays(1)),
+                new TaskSearchRow(2L, 10L, "Deploy", null, COMPLETED, TODAY),
+                new TaskSearchRow(3L, 20L, "Deploy", null, PENDING, TODAY.plusDays(1)),
+                new TaskSearchRow(4L, 10L, "Deploy", null, PENDING, null)));
+        index.refresh();
+
+        assertEquals(List.of(1L, 2L, 4L), ids(index.search("deploy", 10L, null, null, null, null, 10)));
+        assertEquals(List.of(1L, 3L, 4L), ids(index.search("deploy", null, PENDING, null, null, null, 10)));
+        assertEquals(List.of(2L, 3L), ids(index.search("deploy", null, null, TODAY, null, null, 10)));
+        assertEquals(List.of(1L, 2L), ids(index.search("deploy", null, null, null, TODAY, null, 10)));
+    }
+
+    @Test
+    public void testSearchAfterPagesThroughEqualScoresInIdOrder() {
+        index.synchronize(() -> Stream.of(5L, 3L, 1L, 4L, 2L)
+                .map(id -> new TaskSearchRow(id, 10L, "Deploy", null, PENDING, TODAY)));
+        index.refresh();
+
+        List<TaskSearchIndex.Hit> first = index.search("deploy", null, null, null, null, null, 2);
+        List<TaskSearchIndex.Hit> second = index.search("deploy", null, null, null, null, first.get(1), 2);
+        List<TaskSearchIndex.Hit> third = index.search("deploy", null, null, null, null, second.get(1), 2);
+
+        assertEquals(List.of(1L, 2L), ids(first));
+        assertEquals(List.of(3L, 4L), ids(second));
+        assertEquals(List.of(5L), ids(third));
+    }
+
+    @Test
+    public void testWritesAreSearchableAfterCommit() {
+        index.synchronize(Stream::empty);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.put(new TaskSearchRow(1L, 10L, "Deploy", null, PENDING, TODAY));
+            assertTrue(index.search("deploy", null, null, null, null, null, 10).isEmpty());
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        index.refresh();
+        assertEquals(List.of(1L), ids(index.search("deploy", null, null, null, null, null, 10)));
+
+        index.put(new TaskSearchRow(1L, 10L, "Release", null, PENDING, TODAY));
+        index.put(new TaskSearchRow(2L, 10L, "Release", null, PENDING, TODAY));
+        index.updateStatus(List.of(1L), IN_PROGRESS);
+        index.remove(List.of(2L));
+        index.refresh();
+
+        assertTrue(index.search("deploy", null, null, null, null, null, 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("release", null, IN_PROGRESS, null, null, null, 10)));
+        assertTrue(index.search("release", null, PENDING, null, null, null, 10).isEmpty());
+    }
+
+    @Test
+    public void testSynchronizeDropsDeletedTasksAndKeepsWritesMadeWhileItReads() {
+        index.synchronize(() -> Stream.of(
+                new TaskSearchRow(1L, 10L, "Deploy", null, PENDING, TODAY),
+                new TaskSearchRow(2L, 10L, "Deploy", null, PENDING, TODAY)));
+
+        // Task 1 was deleted without going through the service. Task 2 is renamed while the database is read,
+        // after the snapshot was taken, and task 3 is created the same way.
+        int indexed = index.synchronize(() -> Stream.of(new TaskSearchRow(2L, 10L, "Deploy", null, PENDING, TODAY))
+                .peek(task -> {
+                    index.put(new TaskSearchRow(2L, 10L, "Release", null, PENDING, TODAY));
+                    index.put(new TaskSearchRow(3L, 10L, "Release", null, PENDING, TODAY));
+                }));
+        index.refresh();
+
+        assertEquals(1, indexed);
+        assertTrue(index.search("deploy", null, null, null, null, null, 10).isEmpty());
+        assertEquals(List.of(2L, 3L), ids(index.search("release", null, null, null, null, null, 10)));
+    }
+
+    @Test
+    public void testWritesAreCommittedAndTheIndexIsKeptAcrossARestart(@TempDir Path dir) throws IOException {
+        TaskSearchIndex before = new TaskSearchIndex(dir.toString(), 1000);
+        assertFalse(before.isSynchronized());
+        before.synchronize(() -> Stream.of(new TaskSearchRow(1L, 10L, "Deploy", null, PENDING, TODAY)));
+        before.put(new TaskSearchRow(2L, 10L, "Deploy", null, PENDING, TODAY));
+        assertEquals(1, committedDocs(dir));
+        before.commit();
+        assertEquals(2, committedDocs(dir));
+        before.put(new TaskSearchRow(3L, 10L, "Deploy", null, PENDING, TODAY));
+        before.close();
+
+        TaskSearchIndex after = new TaskSearchIndex(dir.toString(), 1000);
+        try {
+            assertTrue(after.isSynchronized());
+            assertEquals(List.of(1L, 2L, 3L), ids(after.search("deploy", null, null, null, null, null, 10)));
+        } finally {
+            after.close();
+        }
+    }
+
+    private static int committedDocs(Path dir) throws IOException {
+        try (Directory directory = FSDirectory.open(dir); DirectoryReader reader = DirectoryReader.open(directory)) {
+            return reader.numDocs();
+        }
+    }
+
+    private static List<Long> ids(List<TaskSearchIndex.Hit> hits) {
+        return hits.stream().map(TaskSearchIndex.Hit::id).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,26 @@
+package com.task.service;
+
+import com.task.cache.OverdueTaskIndex;
+import com.task.cache.ProjectTaskCounters;
+import com.task.cache.TaskCache;
+import com.task.datasource.ShardRouter;
+import com.task.search.TaskSearchIndex;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * {@link TaskServiceContractTest} against the task table, {@code task.storage.engine=jpa}.
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "task.search.index-dir=", "task.batch-update.chunk-size=2"})
+@Import({TaskServiceImpl.class, ShardRouter.class, TaskCache.class, OverdueTaskIndex.class, ProjectTaskCounters.class,
+        TaskSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JpaTaskServiceContractTest extends TaskServiceContractTest {
+
+    @Override
+    protected void deleteTasks() {
+        jdbcTemplate.update("DELETE FROM task");
+    }
+}
@@ -0,0 +1,30 @@
+package com.task.service;
+
+import com.task.cache.ProjectTaskCounters;
+import com.task.memory.MemoryStoreConfig;
+import com.task.memory.MemoryTaskStore;
+import com.task.memory.TaskRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import com.task.search.TaskSearchIndex;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * {@link TaskServiceContractTest} against the in-memory store, {@code task.storage.engine=memory}, not persisted.
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "task.search.index-dir=", "task.batch-update.chunk-size=2",
+        "task.storage.engine=memory", "task.memory.data-dir="})
+@Import({MemoryStoreConfig.class, MemoryTaskServiceImpl.class, ProjectTaskCounters.class, TaskSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MemoryTaskServiceContractTest extends TaskServiceContractTest {
+
+    @Autowired
+    private MemoryTaskStore taskStore;
+
+    @Override
+    protected void deleteTasks() {
+        taskStore.all().map(TaskRow::id).toList().forEach(id -> taskStore.compute(id, task -> null));
+    }
+}
@@ -0,0 +1,88 @@
+package com.task.service;
+
+import com.task.constants.JobState;
+import com.task.entity.StatusUpdateJob;
+import com.task.repository.StatusUpdateJobRepository;
+import com.task.repository.StatusUpdateJobTaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StatusUpdateJobServiceImplTest {
+
+    @InjectMocks
+    private StatusUpdateJobServiceImpl statusUpdateJobService;
+
+    @Mock
+    private StatusUpdateJobRepository jobRepository;
+
+    @Mock
+    private StatusUpdateJobTaskRepository jobTaskRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TaskService taskService;
+
+    @BeforeEach
+    public void startWorkers() {
+        ReflectionTestUtils.setField(statusUpdateJobService, "workers", 1);
+        ReflectionTestUtils.setField(statusUpdateJobService, "maxPendingJobs", 10);
+        ReflectionTestUtils.setField(statusUpdateJobService, "chunkSize", 10);
+        ReflectionTestUtils.setField(statusUpdateJobService, "chunkAttempts", 3);
+        ReflectionTestUtils.setField(statusUpdateJobService, "retryDelay", Duration.ofMillis(50));
+        statusUpdateJobService.startWorkers();
+    }
+
+    @AfterEach
+    public void stopWorkers() throws InterruptedException {
+        statusUpdateJobService.stopWorkers();
+    }
+
+    @Test
+    public void testJobStoppedByADatabaseErrorIsQueuedAgainAndRetried() {
+        StatusUpdateJob job = new StatusUpdateJob();
+        job.setId(1L);
+        job.setNewStatus(COMPLETED);
+        job.setState(JobState.QUEUED);
+        when(jobRepository.findByStateInOrderById(any())).thenReturn(List.of(job));
+        when(jobRepository.findById(1L)).thenReturn(Optional.of(job));
+        when(jobRepository.markRunning(eq(1L), any()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(1);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        statusUpdateJobService.resumePendingJobs();
+
+        Mockito.verify(jobRepository, timeout(5000)).finish(eq(1L), eq(JobState.COMPLETED), any());
+        Mockito.verify(jobRepository).requeue(1L, "Connection refused");
+    }
+}
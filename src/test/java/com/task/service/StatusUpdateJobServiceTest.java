@@ -0,0 +1,214 @@
+package com.task.service;
+
+import com.task.cache.OverdueTaskIndex;
+import com.task.cache.ProjectTaskCounters;
+import com.task.cache.TaskCache;
+import com.task.constants.JobState;
+import com.task.constants.TaskStatus;
+import com.task.datasource.ShardRouter;
+import com.task.dto.StatusUpdateJobDTO;
+import com.task.dto.TaskDTO;
+import com.task.entity.StatusUpdateJob;
+import com.task.repository.StatusUpdateJobRepository;
+import com.task.repository.StatusUpdateJobTaskRepository;
+import com.task.repository.TaskRepository;
+import com.task.search.TaskSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.constants.TaskStatus.IN_PROGRESS;
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Asynchronous batch status updates against the journal tables. Jobs commit on worker threads,
+ * so the test runs without the test-managed transaction and removes its rows afterwards.
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "task.search.index-dir=", "task.batch-jobs.chunk-size=2"})
+@Import({StatusUpdateJobServiceImpl.class, TaskServiceImpl.class, ShardRouter.class, TaskCache.class, OverdueTaskIndex.class,
+        ProjectTaskCounters.class, TaskSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StatusUpdateJobServiceTest {
+
+    @Autowired
+    private StatusUpdateJobServiceImpl statusUpdateJobService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private StatusUpdateJobRepository jobRepository;
+
+    @Autowired
+    private StatusUpdateJobTaskRepository jobTaskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> taskIds = new ArrayList<>();
+
+    @BeforeEach
+    public void createTasks() {
+        jdbcTemplate.update("INSERT INTO project (name) VALUES ('Project')");
+        Long projectId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM project", Long.class);
+        for (int i = 0; i < 5; i++) {
+            TaskDTO task = new TaskDTO();
+            task.setTitle("Task " + i);
+            task.setStatus(PENDING.getLabel());
+            task.setDueDate(LocalDate.now().plusDays(1));
+            taskIds.add(taskService.createTask(projectId, task).getTaskId());
+        }
+    }
+
+    @AfterEach
+    public void deleteRows() {
+        jdbcTemplate.update("DELETE FROM status_update_job_task");
+        jdbcTemplate.update("DELETE FROM status_update_job");
+        jdbcTemplate.update("DELETE FROM task");
+        jdbcTemplate.update("DELETE FROM project");
+        taskService.checkOverdueTaskIndex();
+    }
+
+    @Test
+    public void testJobIsAppliedInChunksAndReportsProgress() throws Exception {
+        List<Long> requested = new ArrayList<>(taskIds);
+        requested.add(taskIds.get(0));
+        requested.add(-1L);
+
+        StatusUpdateJobDTO submitted = statusUpdateJobService.submit(requested, COMPLETED.getLabel());
+        StatusUpdateJobDTO job = awaitFinished(submitted.getJobId());
+
+        assertEquals(JobState.COMPLETED.name(), job.getState());
+        assertEquals(6, job.getRequested());
+        assertEquals(6, job.getProcessed());
+        assertEquals(5, job.getUpdated());
+        assertEquals(1, job.getNotFound());
+        assertEquals(0, job.getRemaining());
+        assertNotNull(job.getTasksPerSecond());
+        taskIds.forEach(id -> assertEquals(COMPLETED, status(id)));
+        // Applied through TaskService, so the overdue index saw the completed tasks.
+        assertEquals(0, taskService.checkOverdueTaskIndex());
+        assertEquals(0, jobTaskRepository.count());
+    }
+
+    @Test
+    public void testLaterJobCoalescesTheIdsItSharesWithAPendingJob() throws Exception {
+        StatusUpdateJob first = statusUpdateJobService.enqueue(taskIds, COMPLETED);
+        StatusUpdateJob second = statusUpdateJobService.enqueue(taskIds.subList(0, 2), IN_PROGRESS);
+
+        assertEquals(2, statusUpdateJobService.resumePendingJobs());
+        StatusUpdateJobDTO firstJob = awaitFinished(first.getId());
+        StatusUpdateJobDTO secondJob = awaitFinished(second.getId());
+
+        assertEquals(2, firstJob.getCoalesced());
+        assertEquals(3, firstJob.getProcessed());
+        assertEquals(2, secondJob.getProcessed());
+        assertEquals(IN_PROGRESS, status(taskIds.get(0)));
+        assertEquals(IN_PROGRESS, status(taskIds.get(1)));
+        assertEquals(COMPLETED, status(taskIds.get(4)));
+    }
+
+    @Test
+    public void testCoalescingCountsOnlyTheRowsLeftByAChunkBeingApplied() throws Exception {
+        StatusUpdateJob first = statusUpdateJobService.enqueue(taskIds, COMPLETED);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch chunkLocked = new CountDownLatch(1);
+        CountDownLatch applyChunk = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // The first two ids of the first job, applied while the second job is enqueued.
+            Future<?> applied = executor.submit(() -> transactionTemplate.executeWithoutResult(tx -> {
+                jobTaskRepository.lockNextChunk(first.getId(), PageRequest.of(0, 2));
+                chunkLocked.countDown();
+                await(applyChunk);
+                jobTaskRepository.deleteByJobIdAndTaskIdIn(first.getId(), taskIds.subList(0, 2));
+            }));
+            chunkLocked.await();
+            Future<StatusUpdateJob> second = executor.submit(() -> statusUpdateJobService.enqueue(taskIds.subList(0, 3), IN_PROGRESS));
+            Thread.sleep(500);
+            applyChunk.countDown();
+            applied.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, jobRepository.findById(first.getId()).orElseThrow().getCoalesced());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM status_update_job_task WHERE job_id = ?",
+                Long.class, first.getId()));
+    }
+
+    @Test
+    public void testJobInterruptedByARestartIsResumed() throws Exception {
+        // A job that applied its first chunk before the application stopped: its journal still holds the rest.
+        StatusUpdateJob job = new StatusUpdateJob();
+        job.setNewStatus(COMPLETED);
+        job.setState(JobState.RUNNING);
+        job.setRequested(taskIds.size());
+        job.setProcessed(2);
+        job.setUpdated(2);
+        job.setCreatedAt(Instant.now());
+        job.setStartedAt(Instant.now());
+        Long jobId = jobRepository.save(job).getId();
+        jobTaskRepository.insertAll(jobId, taskIds.subList(2, taskIds.size()), 100);
+
+        assertEquals(1, statusUpdateJobService.resumePendingJobs());
+        StatusUpdateJobDTO resumed = awaitFinished(jobId);
+
+        assertEquals(JobState.COMPLETED.name(), resumed.getState());
+        assertEquals(5, resumed.getProcessed());
+        assertEquals(PENDING, status(taskIds.get(0)));
+        assertEquals(COMPLETED, status(taskIds.get(4)));
+    }
+
+    private StatusUpdateJobDTO awaitFinished(Long jobId) throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            StatusUpdateJobDTO job = statusUpdateJobService.getJob(jobId);
+            if (job.getFinishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Job " + jobId + " did not finish");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private TaskStatus status(Long taskId) {
+        return taskRepository.findById(taskId).orElseThrow().getStatus();
+    }
+}
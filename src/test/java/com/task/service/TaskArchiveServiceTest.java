@@ -0,0 +1,144 @@
+package com.task.service;
+
+import com.task.cache.OverdueTaskIndex;
+import com.task.cache.ProjectTaskCounters;
+import com.task.cache.TaskCache;
+import com.task.datasource.ShardRouter;
+import com.task.dto.TaskBatchUpdateResultDTO;
+import com.task.dto.TaskDTO;
+import com.task.exception.TaskValidationException;
+import com.task.repository.ArchivedTaskRepository;
+import com.task.repository.TaskRepository;
+import com.task.search.TaskSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.constants.TaskStatus.IN_PROGRESS;
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archiving of old completed tasks and the reads that fall through to the archive. Batches commit on their own,
+ * so the test runs without the test-managed transaction and removes its rows afterwards.
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "task.search.index-dir=", "task.archive.min-age=30d",
+        "task.archive.batch-size=2", "task.archive.duty-cycle=1"})
+@Import({TaskArchiveServiceImpl.class, TaskServiceImpl.class, ShardRouter.class, TaskCache.class, OverdueTaskIndex.class,
+        ProjectTaskCounters.class, TaskSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaskArchiveServiceTest {
+
+    @Autowired
+    private TaskArchiveService taskArchiveService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long projectId;
+
+    // Completed 60 days ago, archived.
+    private final List<Long> oldCompletedIds = new ArrayList<>();
+
+    // Completed 10 days ago and pending 60 days ago, kept.
+    private final List<Long> liveIds = new ArrayList<>();
+
+    @BeforeEach
+    public void createTasks() {
+        jdbcTemplate.update("INSERT INTO project (name) VALUES ('Project')");
+        projectId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM project", Long.class);
+        liveIds.add(createTask(PENDING.getLabel(), 60));
+        for (int i = 0; i < 3; i++) {
+            oldCompletedIds.add(createTask(COMPLETED.getLabel(), 60));
+        }
+        liveIds.add(createTask(COMPLETED.getLabel(), 10));
+    }
+
+    @AfterEach
+    public void deleteRows() {
+        jdbcTemplate.update("DELETE FROM task_archive");
+        jdbcTemplate.update("DELETE FROM task");
+        jdbcTemplate.update("DELETE FROM project");
+        taskService.checkOverdueTaskIndex();
+    }
+
+    @Test
+    public void testOldCompletedTasksAreMovedToTheArchiveInBatches() {
+        assertEquals(3, taskArchiveService.archiveCompletedTasks());
+
+        assertEquals(liveIds.size(), taskRepository.count());
+        assertEquals(oldCompletedIds.size(), archivedTaskRepository.count());
+        oldCompletedIds.forEach(id -> assertTrue(archivedTaskRepository.existsById(id)));
+        assertEquals(0, taskArchiveService.archiveCompletedTasks());
+    }
+
+    @Test
+    public void testArchivedTasksAreStillRead() {
+        // Cached before archiving, the reads below must not depend on it.
+        taskService.getTaskById(oldCompletedIds.get(0));
+        assertEquals(5, taskService.getProjectStats(projectId).getTaskCount());
+        taskArchiveService.archiveCompletedTasks();
+
+        TaskDTO archived = taskService.getTasksByIds(oldCompletedIds).getTasks().get(1);
+        assertEquals(oldCompletedIds.get(1), archived.getTaskId());
+        assertEquals("Project", archived.getProjectName());
+        assertEquals(COMPLETED.getLabel(), archived.getStatus());
+        assertEquals(4, taskService.getCompletedTasksAfterEstimatedTime(projectId, LocalDate.now().minusDays(90)).size());
+        assertEquals(4, taskService.getTasksByProjectIdAndStatus(projectId, COMPLETED.getLabel()).size());
+        assertEquals(5, taskService.getTasksByProjectId(projectId).size());
+
+        List<Long> exported = new ArrayList<>();
+        taskService.exportTasksByProjectId(projectId, task -> exported.add(task.getTaskId()));
+        List<Long> allIds = new ArrayList<>(liveIds);
+        allIds.addAll(oldCompletedIds);
+        allIds.sort(null);
+        assertEquals(allIds, exported);
+
+        assertEquals(0, taskService.reconcileProjectStats());
+        assertEquals(5, taskService.getProjectStats(projectId).getTaskCount());
+        assertThrows(TaskValidationException.class, () -> taskService.deleteTask(oldCompletedIds.get(2)));
+    }
+
+    @Test
+    public void testBatchUpdateReportsArchivedTasksAsFinal() {
+        taskArchiveService.archiveCompletedTasks();
+        List<Long> ids = List.of(liveIds.get(0), oldCompletedIds.get(0), Long.MAX_VALUE);
+
+        TaskBatchUpdateResultDTO result = taskService.updateBatchTaskStatus(ids, IN_PROGRESS.getLabel());
+
+        assertEquals(1, result.getUpdated());
+        assertEquals(List.of(oldCompletedIds.get(0)), result.getFinalIds());
+        assertEquals(List.of(Long.MAX_VALUE), result.getNotFoundIds());
+        assertEquals(COMPLETED.getLabel(), taskService.getTaskById(oldCompletedIds.get(0)).getStatus());
+    }
+
+    private Long createTask(String status, int daysAgo) {
+        TaskDTO task = new TaskDTO();
+        task.setTitle("Task");
+        task.setStatus(status);
+        task.setDueDate(LocalDate.now().minusDays(daysAgo));
+        return taskService.createTask(projectId, task).getTaskId();
+    }
+}
@@ -0,0 +1,197 @@
+package com.task.service;
+
+import com.task.cache.OverdueTaskIndex;
+import com.task.cache.ProjectTaskCounters;
+import com.task.cache.TaskCache;
+import com.task.constants.TaskStatus;
+import com.task.datasource.ShardRouter;
+import com.task.dto.TaskDTO;
+import com.task.exception.TaskConflictException;
+import com.task.repository.TaskRepository;
+import com.task.search.TaskSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static com.task.constants.TaskStatus.IN_PROGRESS;
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent updates of the same task. Every update commits on its own, so the test runs without
+ * the test-managed transaction and removes its rows afterwards.
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "task.search.index-dir="})
+@Import({TaskServiceImpl.class, ShardRouter.class, TaskCache.class, OverdueTaskIndex.class, ProjectTaskCounters.class, TaskSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaskServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    private static final int UPDATES_PER_THREAD = 25;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long projectId;
+
+    private Long taskId;
+
+    @BeforeEach
+    public void createTask() {
+        jdbcTemplate.update("INSERT INTO project (name) VALUES ('Project')");
+        projectId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM project", Long.class);
+        TaskDTO task = new TaskDTO();
+        task.setTitle("Task");
+        task.setStatus(PENDING.getLabel());
+        task.setPriority(0);
+        task.setDueDate(LocalDate.now().plusDays(1));
+        taskId = taskService.createTask(projectId, task).getTaskId();
+        // Loaded before the updates, so the counters are maintained by them.
+        taskService.getProjectStats(projectId);
+    }
+
+    @AfterEach
+    public void deleteRows() {
+        jdbcTemplate.update("DELETE FROM task");
+        jdbcTemplate.update("DELETE FROM project");
+        // The in-memory structures outlive the test, drop what they hold of the deleted rows.
+        taskService.reconcileProjectStats();
+        taskService.checkOverdueTaskIndex();
+    }
+
+    @Test
+    public void testConcurrentUpdatesWithIfMatchNeverLoseAnUpdate() throws Exception {
+        Set<Long> versions = ConcurrentHashMap.newKeySet();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            TaskDTO current = taskService.getTaskById(taskId);
+            try {
+                TaskDTO updated = taskService.updateTask(taskId, update(thread), current.getVersion());
+                assertEquals(current.getVersion() + 1, updated.getVersion());
+                versions.add(updated.getVersion());
+            } catch (TaskConflictException ex) {
+                conflicts.incrementAndGet();
+            }
+        });
+
+        // Every successful update produced the next version, none of them was overwritten.
+        long updates = versions.size();
+        assertEquals(THREADS * UPDATES_PER_THREAD, updates + conflicts.get());
+        assertEquals(LongStream.rangeClosed(1, updates).boxed().collect(Collectors.toSet()), versions);
+        assertEquals(updates, taskRepository.findById(taskId).orElseThrow().getVersion());
+        assertEquals(0, taskService.reconcileProjectStats());
+        assertEquals(1, taskService.getProjectStats(projectId).getTaskCount());
+    }
+
+    @Test
+    public void testConcurrentUpdatesWithoutIfMatchAreRetried() throws Exception {
+        AtomicInteger updates = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            try {
+                taskService.updateTask(taskId, update(thread));
+                updates.incrementAndGet();
+            } catch (TaskConflictException ex) {
+                conflicts.incrementAndGet();
+            }
+        });
+
+        assertEquals(THREADS * UPDATES_PER_THREAD, updates.get() + conflicts.get());
+        assertTrue(updates.get() > conflicts.get(), updates + " updates, " + conflicts + " conflicts");
+        assertEquals(updates.get(), taskRepository.findById(taskId).orElseThrow().getVersion());
+        assertEquals(taskRepository.findById(taskId).orElseThrow().getVersion(),
+                taskService.getTaskById(taskId).getVersion());
+        assertEquals(0, taskService.reconcileProjectStats());
+    }
+
+    @Test
+    public void testBatchAndSingleUpdatesKeepTheInMemoryStructuresConsistent() throws Exception {
+        runConcurrently(thread -> {
+            TaskStatus status = thread % 4 < 2 ? PENDING : IN_PROGRESS;
+            if (thread % 2 == 0) {
+                TaskDTO task = update(thread);
+                task.setStatus(status.getLabel());
+                // Moves the task in and out of the overdue tasks.
+                task.setDueDate(LocalDate.now().plusDays(thread % 4 == 0 ? -1 : 1));
+                try {
+                    taskService.updateTask(taskId, task);
+                } catch (TaskConflictException ex) {
+                    // Lost every attempt, nothing was written.
+                }
+            } else {
+                taskService.updateBatchTaskStatus(List.of(taskId), status.getLabel());
+            }
+        });
+
+        // Nothing to repair, every update saw the row it changed.
+        assertEquals(0, taskService.reconcileProjectStats());
+        assertEquals(0, taskService.checkOverdueTaskIndex());
+    }
+
+    private TaskDTO update(int thread) {
+        TaskDTO task = new TaskDTO();
+        task.setTitle("Task of thread " + thread);
+        task.setStatus(PENDING.getLabel());
+        task.setPriority(thread + 1);
+        task.setDueDate(LocalDate.now().plusDays(thread + 1));
+        return task;
+    }
+
+    private void runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int update = 0; update < UPDATES_PER_THREAD; update++) {
+                        body.run(thread);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+}
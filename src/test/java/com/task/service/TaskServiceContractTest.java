@@ -0,0 +1,274 @@
+package com.task.service;
+
+import com.task.dto.TaskBatchGetResultDTO;
+import com.task.dto.TaskBatchUpdateResultDTO;
+import com.task.dto.TaskDTO;
+import com.task.dto.TaskPatchDTO;
+import com.task.dto.TaskSliceDTO;
+import com.task.exception.TaskConflictException;
+import com.task.exception.TaskNotFoundException;
+import com.task.exception.TaskValidationException;
+import com.task.search.TaskSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.constants.TaskStatus.IN_PROGRESS;
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every {@link TaskService} storage engine must have, run against each engine by a subclass.
+ * Subclasses run without the test-managed transaction, with {@code task.batch-update.chunk-size=2}.
+ */
+public abstract class TaskServiceContractTest {
+
+    @Autowired
+    protected TaskService taskService;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    protected Long projectId;
+
+    @BeforeEach
+    public void createProject() {
+        jdbcTemplate.update("INSERT INTO project (name) VALUES ('Project')");
+        projectId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM project", Long.class);
+    }
+
+    @AfterEach
+    public void deleteRows() {
+        deleteTasks();
+        jdbcTemplate.update("DELETE FROM project");
+        taskService.checkOverdueTaskIndex();
+    }
+
+    /**
+     * Delete every task from the engine's storage, whatever its status.
+     */
+    protected abstract void deleteTasks();
+
+    @Test
+    public void testCreatedTaskIsRead() {
+        TaskDTO created = taskService.createTask(projectId, task("Write docs", PENDING.getLabel(), 3, 5));
+
+        TaskDTO read = taskService.getTaskById(created.getTaskId());
+        assertEquals(created.getTaskId(), read.getTaskId());
+        assertEquals(projectId, read.getProjectId());
+        assertEquals("Project", read.getProjectName());
+        assertEquals("Write docs", read.getTitle());
+        assertEquals(PENDING.getLabel(), read.getStatus());
+        assertEquals(3, read.getPriority());
+        assertEquals(LocalDate.now().plusDays(5), read.getDueDate());
+        assertEquals(0L, read.getVersion());
+    }
+
+    @Test
+    public void testMissingTaskIsNotFound() {
+        assertThrows(TaskNotFoundException.class, () -> taskService.getTaskById(Long.MAX_VALUE));
+        assertThrows(TaskNotFoundException.class, () -> taskService.updateTask(Long.MAX_VALUE, task("Task", PENDING.getLabel(), 1, 1)));
+        assertThrows(TaskNotFoundException.class, () -> taskService.deleteTask(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testTaskOfMissingProjectIsRejected() {
+        assertThrows(DataIntegrityViolationException.class,
+                () -> taskService.createTask(projectId + 1000, task("Task", PENDING.getLabel(), 1, 1)));
+    }
+
+    @Test
+    public void testUpdateChecksVersionAndStatus() {
+        Long taskId = taskService.createTask(projectId, task("Task", PENDING.getLabel(), 1, 1)).getTaskId();
+
+        TaskDTO updated = taskService.updateTask(taskId, task("Started", IN_PROGRESS.getLabel(), 2, 2), 0L);
+        assertEquals(1L, updated.getVersion());
+        assertEquals("Started", taskService.getTaskById(taskId).getTitle());
+
+        assertThrows(TaskConflictException.class,
+                () -> taskService.updateTask(taskId, task("Stale", COMPLETED.getLabel(), 2, 2), 0L));
+        taskService.updateTask(taskId, task("Done", COMPLETED.getLabel(), 2, 2));
+        assertThrows(TaskValidationException.class,
+                () -> taskService.updateTask(taskId, task("Again", PENDING.getLabel(), 2, 2)));
+        assertThrows(TaskValidationException.class, () -> taskService.deleteTask(taskId));
+    }
+
+    @Test
+    public void testPatchKeepsMissingFields() {
+        Long taskId = taskService.createTask(projectId, task("Task", PENDING.getLabel(), 1, 1)).getTaskId();
+
+        TaskPatchDTO patch = new TaskPatchDTO();
+        patch.setTitle(Optional.of("Renamed"));
+        patch.setDescription(Optional.empty());
+        TaskDTO patched = taskService.patchTask(taskId, patch, 0L);
+        assertEquals("Renamed", patched.getTitle());
+        assertNull(patched.getDescription());
+        assertEquals(PENDING.getLabel(), patched.getStatus());
+        assertEquals(1L, patched.getVersion());
+
+        // Nothing changes, the version stays.
+        assertEquals(1L, taskService.patchTask(taskId, patch, 1L).getVersion());
+        assertThrows(TaskConflictException.class, () -> taskService.patchTask(taskId, patch, 0L));
+    }
+
+    @Test
+    public void testDeletedTaskIsGone() {
+        Long taskId = taskService.createTask(projectId, task("Task", PENDING.getLabel(), 1, 1)).getTaskId();
+
+        taskService.deleteTask(taskId);
+
+        assertThrows(TaskNotFoundException.class, () -> taskService.getTaskById(taskId));
+        assertTrue(taskService.getTasksByProjectId(projectId).isEmpty());
+    }
+
+    @Test
+    public void testBatchGetKeepsIdOrder() {
+        List<Long> ids = createTasks(3);
+
+        TaskBatchGetResultDTO result = taskService.getTasksByIds(List.of(ids.get(2), Long.MAX_VALUE, ids.get(0), ids.get(2)));
+
+        assertEquals(List.of(ids.get(2), ids.get(0)), result.getTasks().stream().map(TaskDTO::getTaskId).toList());
+        assertEquals(List.of(Long.MAX_VALUE), result.getNotFoundIds());
+    }
+
+    @Test
+    public void testProjectListsHoldTheProjectTasks() {
+        List<Long> ids = createTasks(4);
+        taskService.updateTask(ids.get(1), task("Task", COMPLETED.getLabel(), 1, 10));
+
+        // Only the export is ordered.
+        assertEquals(ids, sorted(taskService.getTasksByProjectId(projectId)));
+        assertEquals(List.of(ids.get(0), ids.get(2), ids.get(3)),
+                sorted(taskService.getTasksByProjectIdAndStatus(projectId, PENDING.getLabel())));
+        assertEquals(List.of(ids.get(1)),
+                idsOf(taskService.getCompletedTasksAfterEstimatedTime(projectId, LocalDate.now())));
+
+        List<Long> exported = new ArrayList<>();
+        taskService.exportTasksByProjectId(projectId, task -> exported.add(task.getTaskId()));
+        assertEquals(ids, exported);
+    }
+
+    @Test
+    public void testPagesAreSortedThenById() {
+        // Due in 3, 2, 1, 3 days.
+        List<Long> ids = createTasks(4);
+
+        assertEquals(List.of(ids.get(2), ids.get(1)), idsOf(taskService.getAllTasks(0, 2, "dueDate")));
+        assertEquals(List.of(ids.get(0), ids.get(3)), idsOf(taskService.getAllTasks(1, 2, "dueDate")));
+        assertEquals(ids, idsOf(taskService.getAllTasks(0, 10, "id")));
+    }
+
+    @Test
+    public void testKeysetWalkVisitsEveryTaskOnce() {
+        List<Long> ids = createTasks(5);
+
+        for (String sortBy : List.of("dueDate", "priority", "status")) {
+            List<Long> seen = new ArrayList<>();
+            TaskSliceDTO slice = taskService.getTasksAfter(null, 2, sortBy);
+            seen.addAll(idsOf(slice.getTasks()));
+            while (slice.isHasNext()) {
+                slice = taskService.getTasksAfter(slice.getNextCursor(), 2, sortBy);
+                seen.addAll(idsOf(slice.getTasks()));
+            }
+            assertEquals(ids.size(), seen.size(), sortBy);
+            assertEquals(ids, seen.stream().sorted().toList(), sortBy);
+        }
+        assertEquals(List.of(ids.get(2), ids.get(1)), idsOf(taskService.getTasksAfter(null, 2, "dueDate").getTasks()));
+    }
+
+    @Test
+    public void testBatchStatusUpdateReportsChunksAndMissingIds() {
+        List<Long> ids = createTasks(3);
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(Long.MAX_VALUE);
+
+        TaskBatchUpdateResultDTO result = taskService.updateBatchTaskStatus(requested, COMPLETED.getLabel());
+
+        assertEquals(4, result.getRequested());
+        assertEquals(3, result.getUpdated());
+        assertEquals(List.of(2, 1), result.getChunkUpdateCounts());
+        assertEquals(List.of(Long.MAX_VALUE), result.getNotFoundIds());
+        assertEquals(COMPLETED.getLabel(), taskService.getTaskById(ids.get(0)).getStatus());
+        assertEquals(1L, taskService.getTaskById(ids.get(0)).getVersion());
+        assertEquals(3, taskService.getProjectStats(projectId).getTaskCount());
+    }
+
+    @Test
+    public void testOverdueTasksAreOpenTasksDueBeforeToday() {
+        Long overdue = taskService.createTask(projectId, task("Late", PENDING.getLabel(), 1, -2)).getTaskId();
+        taskService.createTask(projectId, task("Done", COMPLETED.getLabel(), 1, -3));
+        taskService.createTask(projectId, task("Soon", PENDING.getLabel(), 1, 2));
+
+        assertEquals(List.of(overdue), idsOf(taskService.getOverdueTasks()));
+        assertEquals(1, taskService.getProjectStats(projectId).getOverdueCount());
+    }
+
+    @Test
+    public void testStatsFollowWrites() {
+        List<Long> ids = createTasks(3);
+        assertEquals(3, taskService.getProjectStats(projectId).getTaskCount());
+
+        taskService.deleteTask(ids.get(0));
+        taskService.updateTask(ids.get(1), task("Task", IN_PROGRESS.getLabel(), 4, 1));
+
+        assertEquals(2, taskService.getProjectStats(projectId).getTaskCount());
+        assertEquals(1L, taskService.getProjectStats(projectId).getStatusCounts().get(IN_PROGRESS.getLabel()));
+        taskService.reconcileProjectStats();
+        assertEquals(2, taskService.getProjectStats(projectId).getTaskCount());
+    }
+
+    @Test
+    public void testSearchFindsWrittenTasks() {
+        Long release = taskService.createTask(projectId, task("Prepare release notes", PENDING.getLabel(), 1, 1)).getTaskId();
+        taskService.createTask(projectId, task("Fix login", PENDING.getLabel(), 1, 1));
+        taskSearchIndex.refresh();
+
+        TaskSliceDTO result = taskService.searchTasks("release", projectId, null, null, null, null, 10);
+
+        assertEquals(List.of(release), idsOf(result.getTasks()));
+        assertFalse(result.isHasNext());
+    }
+
+    private List<Long> createTasks(int count) {
+        List<TaskDTO> tasks = new ArrayList<>();
+        int[] dueInDays = {3, 2, 1, 3, 2};
+        for (int i = 0; i < count; i++) {
+            tasks.add(task("Task " + i, PENDING.getLabel(), count - i, dueInDays[i]));
+        }
+        return taskService.createTasks(projectId, tasks);
+    }
+
+    private static TaskDTO task(String title, String status, int priority, int dueInDays) {
+        TaskDTO task = new TaskDTO();
+        task.setTitle(title);
+        task.setDescription("Description of " + title);
+        task.setStatus(status);
+        task.setPriority(priority);
+        task.setDueDate(LocalDate.now().plusDays(dueInDays));
+        return task;
+    }
+
+    private static List<Long> idsOf(List<TaskDTO> tasks) {
+        return tasks.stream().map(TaskDTO::getTaskId).toList();
+    }
+
+    private static List<Long> sorted(List<TaskDTO> tasks) {
+        return tasks.stream().map(TaskDTO::getTaskId).sorted().toList();
+    }
+}
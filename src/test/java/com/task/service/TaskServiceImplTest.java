@@ -1,21 +1,59 @@
 package com.task.service;
 
+import com.task.cache.OverdueTaskIndex;
+import com.task.cache.ProjectTaskCounters;
+import com.task.cache.TaskCache;
+import com.task.constants.TaskStatus;
+import com.task.datasource.ShardRouter;
+import com.task.dto.TaskBatchUpdateResultDTO;
 import com.task.dto.TaskDTO;
+import com.task.dto.TaskSliceDTO;
 import com.task.entity.Task;
+import com.task.exception.InvalidRequestException;
+import com.task.exception.TaskConflictException;
+import com.task.exception.TaskNotFoundException;
+import com.task.exception.TaskValidationException;
+import com.task.repository.ArchivedTaskRepository;
+import com.task.repository.TaskSummary;
 import com.task.repository.TaskRepository;
+import com.task.search.TaskSearchIndex;
+import com.task.util.CursorUtils;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static com.task.constants.StatusConstants.IN_PROGRESS;
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.constants.TaskStatus.IN_PROGRESS;
+import static com.task.constants.TaskStatus.PENDING;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +66,31 @@ public class TaskServiceImplTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TaskCache taskCache;
+
+    @Mock
+    private OverdueTaskIndex overdueTaskIndex;
+
+    @Mock
+    private ProjectTaskCounters projectTaskCounters;
+
+    @Mock
+    private TaskSearchIndex taskSearchIndex;
+
+    @Mock
+    private EntityManager entityManager;
+
+    // Not sharded, runs everything inline.
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
     @Test
     public void testCreateTask() {
         // Mock data
@@ -46,6 +109,29 @@ public class TaskServiceImplTest {
 
         assertNotNull(result);
         assertEquals("Sample Task", result.getTitle());
+        // Stored as TaskStatus, exposed with the same label.
+        assertEquals("In Progress", result.getStatus());
+    }
+
+    @Test
+    public void testCreateTasksInsertsInBatches() {
+        ReflectionTestUtils.setField(taskService, "bulkInsertBatchSize", 100);
+        TaskDTO first = new TaskDTO();
+        first.setTitle("First Task");
+        first.setStatus(IN_PROGRESS.getLabel());
+        first.setPriority(1);
+        TaskDTO second = new TaskDTO();
+        second.setTitle("Second Task");
+        second.setStatus(IN_PROGRESS.getLabel());
+        second.setPriority(2);
+        when(taskRepository.insertAll(any(), eq(100))).thenReturn(List.of(11L, 12L));
+
+        List<Long> ids = taskService.createTasks(1L, List.of(first, second));
+
+        assertEquals(List.of(11L, 12L), ids);
+        Mockito.verify(taskRepository, Mockito.never()).save(any());
+        Mockito.verify(taskRepository).insertAll(Mockito.argThat(tasks -> tasks.size() == 2
+                && tasks.stream().allMatch(task -> task.getProject().getId().equals(1L))), eq(100));
     }
 
     @Test
@@ -58,23 +144,94 @@ public class TaskServiceImplTest {
         updatedTaskDTO.setStatus("In Progress");
         updatedTaskDTO.setPriority(2);
 
-        Task existingTask = new Task();
-        existingTask.setId(taskId);
-        existingTask.setTitle("Sample Task");
-        existingTask.setDescription("Task description");
-        existingTask.setStatus("In Progress");
-        existingTask.setPriority(1);
-
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(existingTask));
-        when(taskRepository.save(any())).thenAnswer(invocation -> invocation.getArguments()[0]);
+        TaskDTO existingTask = cachedTask(taskId, IN_PROGRESS, 3L);
+        stubUpdateInTransaction();
+        when(taskRepository.updateIfCurrent(taskId, 3L, TaskStatus.sourcesOf(IN_PROGRESS), "Updated Task",
+                "Updated description", IN_PROGRESS, 2, null)).thenReturn(1);
 
         TaskDTO result = taskService.updateTask(taskId, updatedTaskDTO);
 
-        Mockito.verify(taskRepository, times(1)).findById(taskId);
-        Mockito.verify(taskRepository, times(1)).save(any());
-
-        assertNotNull(result);
+        // A single conditional UPDATE, the task is neither re-read nor saved as a new row.
+        Mockito.verify(taskRepository, Mockito.never()).findById(any());
+        Mockito.verify(taskRepository, Mockito.never()).save(any());
         assertEquals("Updated Task", result.getTitle());
+        assertEquals(taskId, result.getTaskId());
+        assertEquals(10L, result.getProjectId());
+        assertEquals(4L, result.getVersion());
+        Mockito.verify(taskCache).put(eq(taskId), eq(result), Mockito.anyLong());
+        Mockito.verify(projectTaskCounters).change(new TaskSummary(taskId, 10L, IN_PROGRESS, 1, null),
+                new TaskSummary(taskId, 10L, IN_PROGRESS, 2, null));
+        assertEquals("Sample Task", existingTask.getTitle());
+    }
+
+    @Test
+    public void testUpdateTaskWithStaleVersionIsRejected() {
+        cachedTask(1L, PENDING, 3L);
+        TaskDTO updatedTaskDTO = new TaskDTO();
+        updatedTaskDTO.setStatus(PENDING.getLabel());
+
+        assertThrows(TaskConflictException.class, () -> taskService.updateTask(1L, updatedTaskDTO, 2L));
+
+        Mockito.verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    public void testUpdateTaskLosingTheRaceIsRejectedWithExpectedVersion() {
+        cachedTask(1L, PENDING, 3L);
+        stubUpdateInTransaction();
+        TaskDTO updatedTaskDTO = new TaskDTO();
+        updatedTaskDTO.setStatus(PENDING.getLabel());
+        when(taskRepository.updateIfCurrent(eq(1L), eq(3L), any(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThrows(TaskConflictException.class, () -> taskService.updateTask(1L, updatedTaskDTO, 3L));
+
+        Mockito.verify(taskCache).evict(1L);
+        Mockito.verifyNoInteractions(projectTaskCounters);
+    }
+
+    @Test
+    public void testUpdateTaskLosingTheRaceIsRetriedWithoutExpectedVersion() {
+        when(taskCache.get(eq(1L), any()))
+                .thenReturn(taskDTO(1L, PENDING, 3L))
+                .thenReturn(taskDTO(1L, IN_PROGRESS, 4L));
+        stubUpdateInTransaction();
+        TaskDTO updatedTaskDTO = new TaskDTO();
+        updatedTaskDTO.setStatus(COMPLETED.getLabel());
+        when(taskRepository.updateIfCurrent(eq(1L), eq(3L), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(taskRepository.updateIfCurrent(eq(1L), eq(4L), any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        TaskDTO result = taskService.updateTask(1L, updatedTaskDTO);
+
+        assertEquals(5L, result.getVersion());
+        Mockito.verify(projectTaskCounters).change(new TaskSummary(1L, 10L, IN_PROGRESS, 1, null),
+                new TaskSummary(1L, 10L, COMPLETED, null, null));
+    }
+
+    @Test
+    public void testUpdateTaskLosingEveryAttemptIsAConflictButNoFailedPrecondition() {
+        cachedTask(1L, PENDING, 3L);
+        stubUpdateInTransaction();
+        TaskDTO updatedTaskDTO = new TaskDTO();
+        updatedTaskDTO.setStatus(PENDING.getLabel());
+        when(taskRepository.updateIfCurrent(eq(1L), eq(3L), any(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        TaskConflictException ex = assertThrows(TaskConflictException.class, () -> taskService.updateTask(1L, updatedTaskDTO));
+
+        assertFalse(ex.isPreconditionFailed());
+        Mockito.verify(taskRepository, times(5)).updateIfCurrent(eq(1L), eq(3L), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testUpdateTaskDeletedConcurrentlyIsNotFound() {
+        when(taskCache.get(eq(1L), any()))
+                .thenReturn(taskDTO(1L, PENDING, 3L))
+                .thenThrow(new TaskNotFoundException("Task not found with id: 1"));
+        stubUpdateInTransaction();
+        TaskDTO updatedTaskDTO = new TaskDTO();
+        updatedTaskDTO.setStatus(PENDING.getLabel());
+        when(taskRepository.updateIfCurrent(eq(1L), eq(3L), any(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThrows(TaskNotFoundException.class, () -> taskService.updateTask(1L, updatedTaskDTO, 3L));
     }
 
     @Test
@@ -91,6 +248,267 @@ public class TaskServiceImplTest {
 
         // Verify that the taskRepository.deleteById was called
         Mockito.verify(taskRepository, times(1)).deleteById(taskId);
+        Mockito.verify(taskCache, times(1)).evict(taskId);
+    }
+
+    @Test
+    public void testUpdateCompletedTaskIsRejected() {
+        cachedTask(1L, COMPLETED, 0L);
+        TaskDTO updatedTaskDTO = new TaskDTO();
+        updatedTaskDTO.setStatus(PENDING.getLabel());
+
+        TaskValidationException ex = assertThrows(TaskValidationException.class, () -> taskService.updateTask(1L, updatedTaskDTO));
+
+        assertEquals("Cannot update task with status: Completed", ex.getMessage());
+        Mockito.verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    public void testSearchTasksLoadsTheHitsInRelevanceOrder() {
+        Task first = new Task();
+        first.setId(7L);
+        first.setStatus(PENDING);
+        Task second = new Task();
+        second.setId(3L);
+        second.setStatus(PENDING);
+        when(taskSearchIndex.search("deploy", null, PENDING, null, null, null, 3)).thenReturn(List.of(
+                new TaskSearchIndex.Hit(7L, 2.5f), new TaskSearchIndex.Hit(3L, 1.5f), new TaskSearchIndex.Hit(9L, 1f)));
+        when(taskRepository.findByIdIn(List.of(7L, 3L))).thenReturn(List.of(second, first));
+
+        TaskSliceDTO slice = taskService.searchTasks("deploy", null, PENDING.getLabel(), null, null, null, 2);
+
+        assertEquals(List.of(7L, 3L), slice.getTasks().stream().map(TaskDTO::getTaskId).collect(Collectors.toList()));
+        assertTrue(slice.isHasNext());
+        CursorUtils.Cursor cursor = CursorUtils.decode(slice.getNextCursor(), "relevance");
+        assertEquals(3L, cursor.lastId());
+
+        when(taskSearchIndex.search("deploy", null, null, null, null, new TaskSearchIndex.Hit(3L, 1.5f), 3))
+                .thenReturn(List.of(new TaskSearchIndex.Hit(9L, 1f)));
+        // Task 9 was deleted since it was indexed.
+        when(taskRepository.findByIdIn(List.of(9L))).thenReturn(List.of());
+
+        TaskSliceDTO next = taskService.searchTasks("deploy", null, null, null, null, slice.getNextCursor(), 2);
+
+        assertTrue(next.getTasks().isEmpty());
+        assertFalse(next.isHasNext());
+        assertNull(next.getNextCursor());
+        assertThrows(InvalidRequestException.class, () -> taskService.searchTasks(" ", null, null, null, null, null, 2));
     }
-}
 
+    @Test
+    public void testUpdateBatchTaskStatusRejectsUnknownStatus() {
+        assertThrows(InvalidRequestException.class, () -> taskService.updateBatchTaskStatus(List.of(1L), "Done"));
+        Mockito.verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    public void testGetTaskByIdLoadsThroughCache() {
+        Long taskId = 1L;
+        Task task = new Task();
+        task.setId(taskId);
+        task.setTitle("Sample Task");
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
+        when(taskCache.get(eq(taskId), any())).thenAnswer(invocation ->
+                invocation.<Function<Long, TaskDTO>>getArgument(1).apply(taskId));
+
+        TaskDTO result = taskService.getTaskById(taskId);
+
+        assertEquals("Sample Task", result.getTitle());
+        Mockito.verify(taskRepository, times(1)).findById(taskId);
+    }
+
+    @Test
+    public void testGetTasksAfterFollowsCursor() {
+        Task first = new Task();
+        first.setId(7L);
+        first.setTitle("First Task");
+        first.setDueDate(LocalDate.of(2030, 1, 1));
+        Task second = new Task();
+        second.setId(3L);
+        second.setTitle("Second Task");
+        second.setDueDate(LocalDate.of(2030, 1, 2));
+
+        when(taskRepository.findAllBy(any())).thenReturn(new SliceImpl<>(List.of(first), PageRequest.of(0, 1), true));
+        when(taskRepository.findByDueDateAfterCursor(eq(LocalDate.of(2030, 1, 1)), eq(7L), any()))
+                .thenReturn(new SliceImpl<>(List.of(second), PageRequest.of(0, 1), false));
+
+        TaskSliceDTO firstPage = taskService.getTasksAfter(null, 1, "dueDate");
+        assertTrue(firstPage.isHasNext());
+        assertEquals("First Task", firstPage.getTasks().get(0).getTitle());
+
+        TaskSliceDTO secondPage = taskService.getTasksAfter(firstPage.getNextCursor(), 1, "dueDate");
+        assertFalse(secondPage.isHasNext());
+        assertNull(secondPage.getNextCursor());
+        assertEquals("Second Task", secondPage.getTasks().get(0).getTitle());
+    }
+
+    @Test
+    public void testGetTasksAfterNullValueContinuesWithNonNullValues() {
+        Task undated = new Task();
+        undated.setId(9L);
+        undated.setTitle("Undated Task");
+        Task dated = new Task();
+        dated.setId(2L);
+        dated.setTitle("Dated Task");
+        dated.setDueDate(LocalDate.of(2030, 1, 1));
+        when(taskRepository.findByDueDateIsNullAndIdGreaterThan(eq(4L), any()))
+                .thenReturn(new SliceImpl<>(List.of(undated), PageRequest.of(0, 2), false));
+        when(taskRepository.findByDueDateIsNotNull(PageRequest.of(0, 1, Sort.by("dueDate", "id"))))
+                .thenReturn(new SliceImpl<>(List.of(dated), PageRequest.of(0, 1), true));
+
+        TaskSliceDTO page = taskService.getTasksAfter(CursorUtils.encode("dueDate", 4L, null), 2, "dueDate");
+
+        assertEquals(List.of("Undated Task", "Dated Task"),
+                page.getTasks().stream().map(TaskDTO::getTitle).collect(Collectors.toList()));
+        assertTrue(page.isHasNext());
+    }
+
+    @Test
+    public void testGetTasksAfterRejectsCursorOfAnotherSortColumn() {
+        Task task = new Task();
+        task.setId(7L);
+        task.setPriority(2);
+        when(taskRepository.findAllBy(any())).thenReturn(new SliceImpl<>(List.of(task), PageRequest.of(0, 1), true));
+
+        String cursor = taskService.getTasksAfter(null, 1, "priority").getNextCursor();
+
+        assertThrows(InvalidRequestException.class, () -> taskService.getTasksAfter(cursor, 1, "dueDate"));
+        assertThrows(InvalidRequestException.class, () -> taskService.getTasksAfter(null, 1, "title"));
+    }
+
+    @Test
+    public void testBulkUpdateTaskStatusReportsChunksAndMissingIds() {
+        ReflectionTestUtils.setField(taskService, "batchUpdateChunkSize", 2);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        LocalDate dueDate = LocalDate.now();
+        TaskSummary first = new TaskSummary(1L, 10L, PENDING, 1, dueDate);
+        TaskSummary second = new TaskSummary(2L, 10L, PENDING, 1, dueDate);
+        when(taskRepository.findSummariesByIdIn(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(taskRepository.findSummariesByIdIn(List.of(3L))).thenReturn(List.of());
+        when(taskRepository.updateStatusByIdIn(List.of(1L, 2L), IN_PROGRESS)).thenReturn(2);
+        when(taskRepository.updateStatusByIdIn(List.of(3L), IN_PROGRESS)).thenReturn(0);
+
+        TaskBatchUpdateResultDTO result = taskService.bulkUpdateTaskStatus(List.of(1L, 2L, 2L, 3L), IN_PROGRESS.getLabel());
+
+        Mockito.verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        Mockito.verify(taskCache).evict(List.of(1L, 2L));
+        Mockito.verify(taskCache).evict(List.of(3L));
+        Mockito.verify(overdueTaskIndex).put(1L, dueDate, IN_PROGRESS);
+        Mockito.verify(overdueTaskIndex).put(2L, dueDate, IN_PROGRESS);
+        Mockito.verify(projectTaskCounters).change(first, first.withStatus(IN_PROGRESS));
+        Mockito.verify(projectTaskCounters).change(second, second.withStatus(IN_PROGRESS));
+        Mockito.verify(taskRepository, Mockito.never()).findAllById(any());
+        assertEquals(3, result.getRequested());
+        assertEquals(2, result.getUpdated());
+        assertEquals(List.of(2, 0), result.getChunkUpdateCounts());
+        assertEquals(List.of(3L), result.getNotFoundIds());
+    }
+
+    @Test
+    public void testUpdateBatchTaskStatusRunsAllChunksInCallerTransaction() {
+        ReflectionTestUtils.setField(taskService, "batchUpdateChunkSize", 1);
+        when(taskRepository.findSummariesByIdIn(any())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).stream()
+                .map(id -> new TaskSummary(id, 10L, PENDING, 1, null))
+                .collect(Collectors.toList()));
+        when(taskRepository.updateStatusByIdIn(any(), eq(IN_PROGRESS))).thenReturn(1);
+
+        TaskBatchUpdateResultDTO result = taskService.updateBatchTaskStatus(List.of(1L, 2L), IN_PROGRESS.getLabel());
+
+        Mockito.verifyNoInteractions(transactionTemplate);
+        assertEquals(2, result.getUpdated());
+        assertTrue(result.getNotFoundIds().isEmpty());
+    }
+
+    @Test
+    public void testExportTasksByProjectIdDetachesEveryTask() {
+        Task first = new Task();
+        first.setId(1L);
+        first.setTitle("First Task");
+        Task second = new Task();
+        second.setId(2L);
+        second.setTitle("Second Task");
+        when(taskRepository.streamByProjectId(1L)).thenReturn(Stream.of(first, second));
+
+        List<TaskDTO> exported = new ArrayList<>();
+        taskService.exportTasksByProjectId(1L, exported::add);
+
+        assertEquals(2, exported.size());
+        assertEquals("Second Task", exported.get(1).getTitle());
+        Mockito.verify(entityManager).detach(first);
+        Mockito.verify(entityManager).detach(second);
+    }
+
+    @Test
+    public void testGetOverdueTasksLoadsIndexedIdsInIndexOrder() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        when(overdueTaskIndex.isReady()).thenReturn(true);
+        when(overdueTaskIndex.overdueIds(LocalDate.now(), 6, 3)).thenReturn(List.of(3L, 1L, 2L));
+        when(taskRepository.findByIdIn(List.of(3L, 1L, 2L))).thenReturn(List.of(
+                overdueTask(1L, PENDING, yesterday),
+                // Completed after the ids were read from the index.
+                overdueTask(2L, COMPLETED, yesterday),
+                overdueTask(3L, IN_PROGRESS, yesterday.minusDays(1))));
+
+        List<TaskDTO> result = taskService.getOverdueTasks(2, 3);
+
+        assertEquals(List.of(3L, 1L), result.stream().map(TaskDTO::getTaskId).collect(Collectors.toList()));
+        Mockito.verify(taskRepository, Mockito.never()).findByDueDateBeforeAndStatusNotEqualCompleted(any());
+    }
+
+    @Test
+    public void testGetOverdueTasksQueriesDatabaseUntilIndexIsReady() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        when(overdueTaskIndex.isReady()).thenReturn(false);
+        when(taskRepository.findByDueDateBeforeAndStatusNotEqualCompleted(LocalDate.now())).thenReturn(List.of(
+                overdueTask(1L, PENDING, yesterday), overdueTask(2L, PENDING, yesterday)));
+
+        List<TaskDTO> result = taskService.getOverdueTasks(1, 1);
+
+        assertEquals(1, result.size());
+        assertEquals(2L, result.get(0).getTaskId());
+        Mockito.verify(overdueTaskIndex, Mockito.never()).overdueIds(any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    public void testDeleteTaskRemovesItFromOverdueIndex() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(overdueTask(1L, PENDING, LocalDate.now())));
+
+        taskService.deleteTask(1L);
+
+        Mockito.verify(overdueTaskIndex).remove(List.of(1L));
+    }
+
+    private Task overdueTask(Long id, TaskStatus status, LocalDate dueDate) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle("Task " + id);
+        task.setStatus(status);
+        task.setDueDate(dueDate);
+        return task;
+    }
+
+    private TaskDTO cachedTask(Long taskId, TaskStatus status, Long version) {
+        TaskDTO task = taskDTO(taskId, status, version);
+        when(taskCache.get(eq(taskId), any())).thenReturn(task);
+        return task;
+    }
+
+    private static TaskDTO taskDTO(Long taskId, TaskStatus status, Long version) {
+        TaskDTO task = new TaskDTO();
+        task.setTaskId(taskId);
+        task.setProjectId(10L);
+        task.setTitle("Sample Task");
+        task.setStatus(status.getLabel());
+        task.setPriority(1);
+        task.setVersion(version);
+        return task;
+    }
+
+    private void stubUpdateInTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
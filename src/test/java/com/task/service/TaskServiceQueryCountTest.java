@@ -0,0 +1,171 @@
+package com.task.service;
+
+import com.task.cache.OverdueTaskIndex;
+import com.task.cache.ProjectTaskCounters;
+import com.task.cache.TaskCache;
+import com.task.constants.TaskStatus;
+import com.task.datasource.ShardRouter;
+import com.task.dto.TaskBatchGetResultDTO;
+import com.task.dto.TaskDTO;
+import com.task.dto.TaskPatchDTO;
+import com.task.entity.Project;
+import com.task.entity.Task;
+import com.task.search.TaskSearchIndex;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that every list endpoint issues a fixed number of SQL statements, whatever the number of rows,
+ * i.e. that mapping {@code projectName} does not lazily load one project per task.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "task.search.index-dir="
+})
+@Import({TaskServiceImpl.class, ShardRouter.class, TaskCache.class, OverdueTaskIndex.class, ProjectTaskCounters.class, TaskSearchIndex.class})
+public class TaskServiceQueryCountTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 40})
+    public void testStatementCountDoesNotDependOnRowCount(int rows) {
+        Project project = null;
+        for (int i = 0; i < rows; i++) {
+            // One project per task, so a lazy load per row would show up as extra statements.
+            project = new Project();
+            project.setName("Project " + i);
+            entityManager.persist(project);
+            persistTask(project, PENDING, LocalDate.now().minusDays(1));
+            persistTask(project, COMPLETED, LocalDate.now().plusDays(5));
+        }
+        Long projectId = project.getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<String, Runnable> endpoints = new LinkedHashMap<>();
+        endpoints.put("getAllTasks", () -> taskService.getAllTasks(0, 1000, "dueDate"));
+        endpoints.put("getTasksAfter", () -> taskService.getTasksAfter(null, 1000, "dueDate"));
+        endpoints.put("getTasksByProjectIdAndStatus", () -> taskService.getTasksByProjectIdAndStatus(projectId, PENDING.getLabel()));
+
+        // getAllTasks fits in one page here, so Spring Data skips its count query.
+        endpoints.forEach((name, endpoint) ->
+                assertEquals(1L, statementsFor(endpoint), name + " with " + rows + " rows"));
+
+        // Completed tasks are read from the task table and the archive.
+        assertEquals(2L, statementsFor(() -> taskService.getTasksByProjectId(projectId)),
+                "getTasksByProjectId with " + rows + " rows");
+        assertEquals(2L, statementsFor(() -> taskService.getCompletedTasksAfterEstimatedTime(projectId, LocalDate.now())),
+                "getCompletedTasksAfterEstimatedTime with " + rows + " rows");
+
+        // Project stats read the project's tasks and archived tasks once, later reads are served from the counters.
+        assertEquals(2L, statementsFor(() -> taskService.getProjectStats(projectId)), "first getProjectStats");
+        assertEquals(0L, statementsFor(() -> assertEquals(2, taskService.getProjectStats(projectId).getTaskCount())),
+                "getProjectStats from the counters");
+
+        // The tasks were persisted behind the overdue index's back, the check picks them up.
+        // Served from the index, the tasks are loaded with one primary key lookup.
+        taskService.checkOverdueTaskIndex();
+        assertEquals(1L, statementsFor(() -> assertEquals(rows, taskService.getOverdueTasks().size())),
+                "getOverdueTasks from the index with " + rows + " rows");
+    }
+
+    @Test
+    public void testUpdateOfCachedTaskIsOneStatement() {
+        Project project = new Project();
+        project.setName("Project");
+        entityManager.persist(project);
+        Long taskId = persistTask(project, PENDING, LocalDate.now().plusDays(1));
+        entityManager.flush();
+        TaskDTO update = taskService.getTaskById(taskId);
+
+        assertEquals(1L, statementsFor(() -> taskService.updateTask(taskId, update, 0L)), "updateTask of a cached task");
+        assertEquals(0L, statementsFor(() -> assertEquals(1L, taskService.getTaskById(taskId).getVersion())),
+                "getTaskById after updateTask");
+        assertEquals(1L, statementsFor(() -> taskService.updateTask(taskId, update, 1L)), "second updateTask");
+    }
+
+    @Test
+    public void testBatchGetIsOneStatementPerChunkOfMisses() {
+        Project project = new Project();
+        project.setName("Project");
+        entityManager.persist(project);
+        List<Long> taskIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            taskIds.add(persistTask(project, PENDING, LocalDate.now().plusDays(1)));
+        }
+        entityManager.flush();
+        taskService.getTaskById(taskIds.get(0));
+        List<Long> requested = List.of(taskIds.get(3), -1L, taskIds.get(0), taskIds.get(1), taskIds.get(3));
+
+        TaskBatchGetResultDTO[] result = new TaskBatchGetResultDTO[1];
+        // One statement for the chunk, and one for the archive lookup of the id it did not find.
+        assertEquals(2L, statementsFor(() -> result[0] = taskService.getTasksByIds(requested)), "getTasksByIds");
+        assertEquals(List.of(taskIds.get(3), taskIds.get(0), taskIds.get(1)),
+                result[0].getTasks().stream().map(TaskDTO::getTaskId).toList());
+        assertEquals(List.of(-1L), result[0].getNotFoundIds());
+        assertEquals("Project", result[0].getTasks().get(0).getProjectName());
+        assertEquals(0L, statementsFor(() -> taskService.getTasksByIds(taskIds.subList(0, 2))), "getTasksByIds of cached tasks");
+    }
+
+    @Test
+    public void testPatchOfCachedTaskIsOneStatement() {
+        Project project = new Project();
+        project.setName("Project");
+        entityManager.persist(project);
+        Long taskId = persistTask(project, PENDING, LocalDate.now().plusDays(1));
+        entityManager.flush();
+        taskService.getTaskById(taskId);
+        TaskPatchDTO patch = new TaskPatchDTO();
+        patch.setPriority(Optional.of(3));
+
+        assertEquals(1L, statementsFor(() -> taskService.patchTask(taskId, patch, 0L)), "patchTask of a cached task");
+        assertEquals(0L, statementsFor(() -> taskService.patchTask(taskId, patch, 1L)), "patchTask without changes");
+        TaskDTO patched = taskService.getTaskById(taskId);
+        assertEquals(3, patched.getPriority());
+        assertEquals("Task", patched.getTitle());
+        assertEquals(1L, patched.getVersion());
+    }
+
+    private Long persistTask(Project project, TaskStatus status, LocalDate dueDate) {
+        Task task = new Task();
+        task.setTitle("Task");
+        task.setStatus(status);
+        task.setPriority(1);
+        task.setDueDate(dueDate);
+        task.setProject(project);
+        entityManager.persist(task);
+        return task.getId();
+    }
+
+    private long statementsFor(Runnable endpoint) {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+        endpoint.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
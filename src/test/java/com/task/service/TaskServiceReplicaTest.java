@@ -0,0 +1,132 @@
+package com.task.service;
+
+import com.task.cache.OverdueTaskIndex;
+import com.task.cache.ProjectTaskCounters;
+import com.task.cache.TaskCache;
+import com.task.datasource.ReplicaDataSourceConfig;
+import com.task.datasource.ReplicaReadAspect;
+import com.task.datasource.ReplicaRouting;
+import com.task.datasource.ReplicaRoutingDataSource;
+import com.task.datasource.ShardRouter;
+import com.task.dto.TaskDTO;
+import com.task.search.TaskSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replica routing against two embedded databases. The replica is refreshed by copying the primary,
+ * so the test sees exactly which reads were served by which database. The second replica is unreachable
+ * and stays out of rotation, failing over is covered by ReplicaRoutingDataSourceTest.
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "task.search.index-dir=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1", "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa", "spring.datasource.password=",
+        "spring.datasource.hikari.connection-timeout=250",
+        "task.datasource.replica-urls=" + TaskServiceReplicaTest.REPLICA_URL + ",jdbc:h2:tcp://localhost:1/replica"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({AopAutoConfiguration.class, TransactionManagerCustomizationAutoConfiguration.class})
+@Import({ReplicaDataSourceConfig.class, ReplicaReadAspect.class, TaskServiceImpl.class, ShardRouter.class, TaskCache.class,
+        OverdueTaskIndex.class, ProjectTaskCounters.class, TaskSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaskServiceReplicaTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long projectId;
+
+    @BeforeEach
+    public void createProject() {
+        // The JCache provider shares its caches between the application contexts of the test run.
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        assertEquals(1, replicaRoutingDataSource.checkReplicas());
+        jdbcTemplate.update("INSERT INTO project (name) VALUES ('Project')");
+        projectId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM project", Long.class);
+        replicate();
+    }
+
+    @AfterEach
+    public void deleteRows() {
+        jdbcTemplate.update("DELETE FROM task");
+        jdbcTemplate.update("DELETE FROM project");
+        replicate();
+    }
+
+    @Test
+    public void testReadOnlyServiceMethodsReadFromTheReplica() {
+        TaskDTO created = taskService.createTask(projectId, task("Task"));
+
+        assertTrue(taskService.getTasksByProjectId(projectId).isEmpty());
+        assertTrue(taskService.getAllTasks(0, 10, "id").isEmpty());
+        // Not a read-only service method, served by the primary.
+        assertEquals("Task", taskService.getTaskById(created.getTaskId()).getTitle());
+
+        replicate();
+        assertEquals(List.of(created.getTaskId()), ids(taskService.getTasksByProjectId(projectId)));
+    }
+
+    @Test
+    public void testReadsPinnedToThePrimarySeeTheirWrites() {
+        TaskDTO created = taskService.createTask(projectId, task("Task"));
+
+        assertTrue(taskService.getTasksByProjectId(projectId).isEmpty());
+        try (ReplicaRouting.Scope ignored = ReplicaRouting.pinToPrimary()) {
+            assertEquals(List.of(created.getTaskId()), ids(taskService.getTasksByProjectId(projectId)));
+        }
+        // Cached from the primary, replica reads do not fill the second-level cache.
+        assertEquals(List.of(created.getTaskId()), ids(taskService.getTasksByProjectId(projectId)));
+    }
+
+    private void replicate() {
+        List<String> script = jdbcTemplate.queryForList("SCRIPT", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        script.forEach(replica::execute);
+    }
+
+    private static TaskDTO task(String title) {
+        TaskDTO task = new TaskDTO();
+        task.setTitle(title);
+        task.setStatus(PENDING.getLabel());
+        task.setDueDate(LocalDate.now().plusDays(1));
+        return task;
+    }
+
+    private static List<Long> ids(List<TaskDTO> tasks) {
+        return tasks.stream().map(TaskDTO::getTaskId).toList();
+    }
+}
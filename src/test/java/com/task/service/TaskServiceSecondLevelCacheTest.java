@@ -0,0 +1,164 @@
+package com.task.service;
+
+import com.task.cache.OverdueTaskIndex;
+import com.task.cache.ProjectTaskCounters;
+import com.task.cache.TaskCache;
+import com.task.datasource.ShardRouter;
+import com.task.dto.TaskDTO;
+import com.task.metrics.SecondLevelCacheMetrics;
+import com.task.search.TaskSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.constants.TaskStatus.IN_PROGRESS;
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement counts with the second-level cache: projects and the task lists of a project are read once and
+ * served from the cache until a task is written. The cache is shared by transactions only once they commit,
+ * so the test runs without the test-managed transaction and removes its rows afterwards.
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "task.search.index-dir="})
+@Import({TaskServiceImpl.class, ShardRouter.class, TaskCache.class, OverdueTaskIndex.class, ProjectTaskCounters.class, TaskSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaskServiceSecondLevelCacheTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long projectId;
+
+    @BeforeEach
+    public void createProject() {
+        // The JCache provider shares its caches between the application contexts of the test run.
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        jdbcTemplate.update("INSERT INTO project (name) VALUES ('Project')");
+        projectId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM project", Long.class);
+    }
+
+    @AfterEach
+    public void deleteRows() {
+        jdbcTemplate.update("DELETE FROM task");
+        jdbcTemplate.update("DELETE FROM project");
+        taskService.checkOverdueTaskIndex();
+    }
+
+    @Test
+    public void testProjectTaskListsAreServedFromTheQueryCacheUntilATaskIsWritten() {
+        TaskDTO first = taskService.createTask(projectId, task("First"));
+        taskService.createTask(projectId, task("Second"));
+
+        // The task list and the archived task list, the archived one stays cached while only tasks are written.
+        assertEquals(2L, statementsFor(() -> assertEquals(2, taskService.getTasksByProjectId(projectId).size())));
+        assertEquals(0L, statementsFor(() -> assertEquals(2, taskService.getTasksByProjectId(projectId).size())));
+        assertEquals(1L, statementsFor(() -> taskService.getTasksByProjectIdAndStatus(projectId, PENDING.getLabel())));
+        assertEquals(0L, statementsFor(() -> taskService.getTasksByProjectIdAndStatus(projectId, PENDING.getLabel())));
+
+        // Conditional UPDATE.
+        TaskDTO update = task("Renamed");
+        update.setStatus(IN_PROGRESS.getLabel());
+        taskService.updateTask(first.getTaskId(), update);
+        assertEquals(1L, statementsFor(() -> assertTrue(titles(taskService.getTasksByProjectId(projectId)).contains("Renamed"))));
+        assertEquals(1L, statementsFor(() -> assertEquals(1, taskService.getTasksByProjectIdAndStatus(projectId, PENDING.getLabel()).size())));
+
+        // JDBC batch insert, invisible to Hibernate, evicts the whole region, the archived task list included.
+        taskService.createTasks(projectId, List.of(task("Third")));
+        assertEquals(2L, statementsFor(() -> assertEquals(3, taskService.getTasksByProjectId(projectId).size())));
+
+        // Set-based status UPDATE.
+        taskService.updateBatchTaskStatus(List.of(first.getTaskId()), COMPLETED.getLabel());
+        // Completed tasks are also read from the archive, whose list is still cached from the reads above.
+        assertEquals(1L, statementsFor(() -> assertEquals(1, taskService.getTasksByProjectIdAndStatus(projectId, COMPLETED.getLabel()).size())));
+        assertEquals(0L, statementsFor(() -> taskService.getTasksByProjectIdAndStatus(projectId, COMPLETED.getLabel())));
+
+        taskService.deleteTask(taskService.getTasksByProjectIdAndStatus(projectId, PENDING.getLabel()).get(0).getTaskId());
+        assertEquals(1L, statementsFor(() -> assertEquals(2, taskService.getTasksByProjectId(projectId).size())));
+    }
+
+    @Test
+    public void testCreateTaskReadsTheProjectFromTheCache() {
+        // The project is loaded once, then only the INSERT is left.
+        assertEquals(2L, statementsFor(() -> assertEquals("Project", taskService.createTask(projectId, task("First")).getProjectName())));
+        assertEquals(1L, statementsFor(() -> assertEquals("Project", taskService.createTask(projectId, task("Second")).getProjectName())));
+    }
+
+    @Test
+    public void testHitRatiosArePublishedPerRegion() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SecondLevelCacheMetrics metrics = new SecondLevelCacheMetrics();
+        ReflectionTestUtils.setField(metrics, "entityManagerFactory", entityManagerFactory);
+        metrics.bindTo(registry);
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().clear();
+
+        taskService.createTask(projectId, task("First"));
+        taskService.createTask(projectId, task("Second"));
+        for (int i = 0; i < 3; i++) {
+            taskService.getTasksByProjectId(projectId);
+        }
+
+        assertEquals(0.5, registry.get("cache.hit.ratio").tag("cache", "project").gauge().value());
+        assertEquals(2.0 / 3, registry.get("cache.hit.ratio").tag("cache", "task-by-project").gauge().value(), 1e-9);
+        // Two hits each for the task list and the archived task list.
+        assertEquals(4.0, registry.get("cache.gets").tag("cache", "task-by-project").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void testMetricsScrapedBeforeTheFirstQueryDoNotBreakTheQueryCache() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SecondLevelCacheMetrics metrics = new SecondLevelCacheMetrics();
+        ReflectionTestUtils.setField(metrics, "entityManagerFactory", entityManagerFactory);
+        metrics.bindTo(registry);
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().clear();
+        assertEquals(0.0, registry.get("cache.hit.ratio").tag("cache", "task-by-project").gauge().value());
+
+        taskService.createTask(projectId, task("First"));
+
+        assertEquals(1, taskService.getTasksByProjectId(projectId).size());
+        assertEquals(1, taskService.getTasksByProjectId(projectId).size());
+        assertEquals(0.5, registry.get("cache.hit.ratio").tag("cache", "task-by-project").gauge().value());
+    }
+
+    private long statementsFor(Runnable endpoint) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        endpoint.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static TaskDTO task(String title) {
+        TaskDTO task = new TaskDTO();
+        task.setTitle(title);
+        task.setStatus(PENDING.getLabel());
+        task.setDueDate(LocalDate.now().plusDays(1));
+        return task;
+    }
+
+    private static List<String> titles(List<TaskDTO> tasks) {
+        return tasks.stream().map(TaskDTO::getTitle).toList();
+    }
+}
@@ -0,0 +1,257 @@
+package com.task.service;
+
+import com.task.cache.OverdueTaskIndex;
+import com.task.cache.ProjectTaskCounters;
+import com.task.cache.TaskCache;
+import com.task.datasource.ShardDataSourceConfig;
+import com.task.datasource.ModuloShardMap;
+import com.task.datasource.ShardIds;
+import com.task.datasource.ShardMap;
+import com.task.datasource.ShardRouter;
+import com.task.datasource.ShardRoutingAspect;
+import com.task.datasource.ShardRoutingDataSource;
+import com.task.dto.TaskBatchUpdateResultDTO;
+import com.task.dto.TaskDTO;
+import com.task.dto.TaskSliceDTO;
+import com.task.search.TaskSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static com.task.constants.TaskStatus.COMPLETED;
+import static com.task.constants.TaskStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Sharding against three embedded databases. Projects 3, 4 and 5 are on shards 0, 1 and 2 of the default
+ * ModuloShardMap, the test reads every shard directly to see where the tasks and project rows were stored.
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "task.search.index-dir=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1", "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa", "spring.datasource.password=",
+        "task.datasource.shard-urls=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({ShardDataSourceConfig.class, ShardRoutingAspect.class, ShardRouter.class, TaskServiceImpl.class, TaskCache.class,
+        OverdueTaskIndex.class, ProjectTaskCounters.class, TaskSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaskServiceShardTest {
+
+    private static final long[] PROJECT_BY_SHARD = {3, 4, 5};
+
+    private final List<JdbcTemplate> shards = IntStream.range(0, 3)
+            .mapToObj(shard -> new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:shard" + shard, "sa", "")))
+            .toList();
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @SpyBean
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private ShardMap shardMap;
+
+    @BeforeEach
+    public void createProjects() {
+        // The JCache provider shares its caches between the application contexts of the test run.
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        // Only on shard 0, the project rows are copied to their shard when tasks are created.
+        for (long projectId : PROJECT_BY_SHARD) {
+            createProject(projectId);
+        }
+    }
+
+    @AfterEach
+    public void deleteRows() {
+        // The project rows are kept, like the shard router's record of the projects it copied.
+        for (JdbcTemplate shard : shards) {
+            shard.update("DELETE FROM task_archive");
+            shard.update("DELETE FROM task");
+        }
+    }
+
+    @Test
+    public void testTasksAreStoredOnTheShardOfTheirProject() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            TaskDTO created = taskService.createTask(PROJECT_BY_SHARD[shard], task("Task " + shard, 1));
+
+            assertEquals(shard, ShardIds.shardOf(created.getTaskId()));
+            assertEquals("Project " + PROJECT_BY_SHARD[shard], created.getProjectName());
+            assertEquals(1, shards.get(shard).queryForObject("SELECT COUNT(*) FROM task WHERE id = ?",
+                    Integer.class, created.getTaskId()));
+            assertEquals("Task " + shard, taskService.getTaskById(created.getTaskId()).getTitle());
+            assertEquals(List.of(created.getTaskId()), ids(taskService.getTasksByProjectId(PROJECT_BY_SHARD[shard])));
+        }
+
+        List<Long> bulkIds = taskService.createTasks(PROJECT_BY_SHARD[2], List.of(task("A", 1), task("B", 2)));
+        assertTrue(bulkIds.stream().allMatch(id -> ShardIds.shardOf(id) == 2));
+        assertEquals(3, shards.get(2).queryForObject("SELECT COUNT(*) FROM task", Integer.class));
+
+        TaskDTO update = task("Updated", 1);
+        taskService.updateTask(bulkIds.get(0), update);
+        assertEquals("Updated", shards.get(2).queryForObject("SELECT title FROM task WHERE id = ?",
+                String.class, bulkIds.get(0)));
+        taskService.deleteTask(bulkIds.get(1));
+        assertEquals(2, shards.get(2).queryForObject("SELECT COUNT(*) FROM task", Integer.class));
+    }
+
+    @Test
+    public void testProjectRowsAreCopiedToTheirShard() throws Exception {
+        // Created on shard 0 after startup, placed on shard 1.
+        createProject(10);
+
+        taskService.createTask(10L, task("Task", 1));
+        taskService.createTasks(10L, List.of(task("A", 1)));
+
+        assertEquals("Project 10", shards.get(1).queryForObject("SELECT name FROM project WHERE id = 10", String.class));
+        assertEquals(2, shards.get(1).queryForObject("SELECT COUNT(*) FROM task WHERE project_id = 10", Integer.class));
+        shards.get(0).update("UPDATE project SET name = 'Renamed' WHERE id = 10");
+        assertEquals(1, shardRoutingDataSource.copyProjects(shardMap));
+        assertEquals("Renamed", shards.get(1).queryForObject("SELECT name FROM project WHERE id = 10", String.class));
+    }
+
+    @Test
+    public void testTasksOfAnUnshardedDatabaseMustStayOnShardZero() throws Exception {
+        // A task of project 4 from before sharding, project 4 is placed on shard 1.
+        shards.get(0).update("INSERT INTO task (title, project_id, version) VALUES ('Old', 4, 0)");
+
+        assertEquals(List.of(4L), shardRoutingDataSource.misplacedProjects(shardMap, 10));
+        // Projects below the first sharded project id stay on shard 0.
+        assertEquals(List.of(), shardRoutingDataSource.misplacedProjects(new ModuloShardMap(3, 5), 10));
+        assertEquals(1, new ModuloShardMap(3, 5).shardOf(7));
+    }
+
+    @Test
+    public void testIdsOfArchivedTasksAreNotReusedAfterARestart() throws Exception {
+        Long archivedId = taskService.createTask(PROJECT_BY_SHARD[1], task("Archived", -100)).getTaskId();
+        // Archived, the live table of shard 1 is empty.
+        shards.get(1).update("INSERT INTO task_archive (id, title, status, project_id, version, archived_at) "
+                + "SELECT id, title, status_code, project_id, version, CURRENT_TIMESTAMP FROM task");
+        shards.get(1).update("DELETE FROM task");
+
+        // As at startup.
+        shardRoutingDataSource.alignIdRanges();
+
+        assertTrue(taskService.createTask(PROJECT_BY_SHARD[1], task("New", 1)).getTaskId() > archivedId);
+    }
+
+    @Test
+    public void testGlobalListsAreMergedAcrossShards() {
+        // Due dates interleave over the shards, the ones in the past are overdue.
+        List<TaskDTO> created = new ArrayList<>();
+        for (int day = -6; day < 6; day++) {
+            created.add(taskService.createTask(PROJECT_BY_SHARD[Math.floorMod(day, 3)], task("Day " + day, day)));
+        }
+        List<Long> byDueDate = created.stream()
+                .sorted(Comparator.comparing(TaskDTO::getDueDate))
+                .map(TaskDTO::getTaskId)
+                .toList();
+
+        assertEquals(byDueDate.subList(0, 5), ids(taskService.getAllTasks(0, 5, "dueDate")));
+        assertEquals(byDueDate.subList(5, 10), ids(taskService.getAllTasks(1, 5, "dueDate")));
+        assertEquals(byDueDate.subList(10, 12), ids(taskService.getAllTasks(2, 5, "dueDate")));
+
+        List<Long> keyset = new ArrayList<>();
+        TaskSliceDTO slice = taskService.getTasksAfter(null, 5, "dueDate");
+        keyset.addAll(ids(slice.getTasks()));
+        while (slice.isHasNext()) {
+            slice = taskService.getTasksAfter(slice.getNextCursor(), 5, "dueDate");
+            keyset.addAll(ids(slice.getTasks()));
+        }
+        assertEquals(byDueDate, keyset);
+
+        taskService.checkOverdueTaskIndex();
+        assertEquals(byDueDate.subList(0, 6), ids(taskService.getOverdueTasks()));
+        assertEquals(byDueDate.subList(2, 4), ids(taskService.getOverdueTasks(1, 2)));
+    }
+
+    @Test
+    public void testOverdueCheckKeepsTasksCreatedDuringTheScatterRead() {
+        taskService.checkOverdueTaskIndex();
+        // Created on shard 0 once every shard was read, before the reads are compared with the index.
+        AtomicReference<Long> createdDuringRead = new AtomicReference<>();
+        doAnswer(invocation -> {
+            Object shardResults = invocation.callRealMethod();
+            createdDuringRead.set(CompletableFuture.supplyAsync(() ->
+                    taskService.createTask(PROJECT_BY_SHARD[0], task("Late", -1)).getTaskId()).join());
+            return shardResults;
+        }).when(shardRouter).onEveryShard(anyBoolean(), any(IntFunction.class));
+
+        assertEquals(0, taskService.checkOverdueTaskIndex());
+
+        assertEquals(List.of(createdDuringRead.get()), ids(taskService.getOverdueTasks()));
+    }
+
+    @Test
+    public void testBatchStatusUpdateSpansShards() {
+        List<Long> taskIds = new ArrayList<>();
+        for (long projectId : PROJECT_BY_SHARD) {
+            taskIds.add(taskService.createTask(projectId, task("Task", 1)).getTaskId());
+        }
+        long missingId = ShardIds.firstId(1) + 1000;
+        taskIds.add(missingId);
+
+        TaskBatchUpdateResultDTO result = taskService.updateBatchTaskStatus(taskIds, COMPLETED.getLabel());
+
+        assertEquals(3, result.getUpdated());
+        assertEquals(List.of(3), result.getChunkUpdateCounts());
+        assertEquals(List.of(missingId), result.getNotFoundIds());
+        for (JdbcTemplate shard : shards) {
+            assertEquals(COMPLETED.getCode(), shard.queryForObject("SELECT status_code FROM task", Integer.class));
+        }
+        assertEquals(COMPLETED.getLabel(), taskService.getTasksByIds(taskIds).getTasks().get(2).getStatus());
+        assertNull(shards.get(0).queryForObject("SELECT MAX(id) FROM task WHERE id >= ?", Long.class, ShardIds.firstId(1)));
+    }
+
+    private void createProject(long projectId) {
+        shards.get(0).update("MERGE INTO project (id, name) KEY (id) VALUES (?, ?)", projectId, "Project " + projectId);
+    }
+
+    private static TaskDTO task(String title, int dueInDays) {
+        TaskDTO task = new TaskDTO();
+        task.setTitle(title);
+        task.setStatus(PENDING.getLabel());
+        task.setPriority(1);
+        task.setDueDate(LocalDate.now().plusDays(dueInDays));
+        return task;
+    }
+
+    private static List<Long> ids(List<TaskDTO> tasks) {
+        return tasks.stream().map(TaskDTO::getTaskId).toList();
+    }
+}